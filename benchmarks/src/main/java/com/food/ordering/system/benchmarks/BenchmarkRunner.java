@@ -0,0 +1,23 @@
+package com.food.ordering.system.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/* Main class of benchmarks.jar. It accepts the same args as the jmh Main class(benchmark name regex, -p, -f, -wi ...), but it always
+adds the gc profiler. So next to the throughput we also get the allocation rate(gc.alloc.rate.norm = bytes allocated per op) of each
+benchmark. A hot path that suddenly allocates more per op is a regression even if its throughput looks the same on a quiet machine. */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,38 @@
+package com.food.ordering.system.benchmarks;
+
+import com.food.ordering.system.domain.id.IdGenerator;
+import com.food.ordering.system.domain.id.RandomIdGenerator;
+import com.food.ordering.system.domain.id.UuidV7IdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/* Compares the cost of generating an id with the random UUIDs(UUID.randomUUID(), one SecureRandom shared by all the threads) and the
+time ordered UUIDv7 ids(thread local state and ThreadLocalRandom) that the services use now(see IdGenerators). With 1 thread it's the
+cost of a single id, with more threads it shows the contention on the shared SecureRandom. Run it with:
+java -jar benchmarks/target/benchmarks.jar IdGeneratorBenchmark -t 1,8,32
+
+The effect on the inserts into the tables(the part that matters more) is measured by IdInsertBenchmark of load-test. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+    @Param({"RANDOM", "UUID_V7"})
+    private String idGeneratorType;
+
+    private IdGenerator idGenerator;
+
+    @Setup
+    public void setup() {
+        idGenerator = "UUID_V7".equals(idGeneratorType) ? new UuidV7IdGenerator() : new RandomIdGenerator();
+    }
+
+    @Benchmark
+    public UUID generateId() {
+        return idGenerator.generateId();
+    }
+}
@@ -0,0 +1,61 @@
+package com.food.ordering.system.benchmarks;
+
+import com.food.ordering.system.domain.valueobject.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/* Money is used in every price check of the domain cores. Each op creates a new BigDecimal and a new Money with setScale(2), so
+these benchmarks mostly show the allocation cost of a single op and of reducing a list of amounts(like the order item and credit
+history totals do). */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    @Param({"10", "1000"})
+    private int amountCount;
+
+    private Money price;
+    private Money otherPrice;
+    private List<Money> amounts;
+
+    @Setup
+    public void setup() {
+        price = new Money(new BigDecimal("50.25"));
+        otherPrice = new Money(new BigDecimal("24.75"));
+        amounts = IntStream.range(0, amountCount)
+                .mapToObj(i -> new Money(new BigDecimal(i % 100 + ".50")))
+                .toList();
+    }
+
+    @Benchmark
+    public Money add() {
+        return price.add(otherPrice);
+    }
+
+    @Benchmark
+    public Money subtract() {
+        return price.subtract(otherPrice);
+    }
+
+    @Benchmark
+    public Money multiply() {
+        return price.multiply(3);
+    }
+
+    @Benchmark
+    public boolean isGreaterThan() {
+        return price.isGreaterThan(otherPrice);
+    }
+
+    @Benchmark
+    public Money sum() {
+        return amounts.stream().reduce(Money.ZERO, Money::add);
+    }
+}
@@ -0,0 +1,87 @@
+package com.food.ordering.system.benchmarks;
+
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.Money;
+import com.food.ordering.system.domain.valueobject.ProductId;
+import com.food.ordering.system.domain.valueobject.RestaurantId;
+import com.food.ordering.system.order.service.domain.OrderDomainService;
+import com.food.ordering.system.order.service.domain.OrderDomainServiceImpl;
+import com.food.ordering.system.order.service.domain.entity.Order;
+import com.food.ordering.system.order.service.domain.entity.OrderItem;
+import com.food.ordering.system.order.service.domain.entity.Product;
+import com.food.ordering.system.order.service.domain.entity.Restaurant;
+import com.food.ordering.system.order.service.domain.event.OrderCreatedEvent;
+import com.food.ordering.system.order.service.domain.valueobject.StreetAddress;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/* validateAndInitiateOrder() matches every order item with every restaurant product(nested loops), so we measure it with growing
+menus and orders. initializeOrder() only accepts a fresh order, that's why the order is created in the benchmark method. The
+restaurant is immutable here and is shared between the invocations. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderDomainServiceBenchmark {
+    @Param({"10", "100"})
+    private int productCount;
+
+    @Param({"1", "10"})
+    private int orderItemCount;
+
+    private final OrderDomainService orderDomainService = new OrderDomainServiceImpl();
+    private final CustomerId customerId = new CustomerId(UUID.randomUUID());
+    private final RestaurantId restaurantId = new RestaurantId(UUID.randomUUID());
+    private final StreetAddress deliveryAddress = new StreetAddress(UUID.randomUUID(), "street_1", "1000AB", "Paris");
+    private final Money productPrice = new Money(new BigDecimal("10.00"));
+
+    private Restaurant restaurant;
+    private List<ProductId> orderedProductIds;
+    private Money orderPrice;
+
+    @Setup
+    public void setup() {
+        List<Product> products = IntStream.range(0, productCount)
+                .mapToObj(i -> new Product(new ProductId(UUID.randomUUID()), "product-" + i, productPrice))
+                .toList();
+
+        restaurant = Restaurant.builder()
+                .restaurantId(restaurantId)
+                .products(products)
+                .active(true)
+                .build();
+
+        // the ordered products are taken from the end of the menu, so the lookup can't stop early.
+        orderedProductIds = products.subList(productCount - Math.min(orderItemCount, productCount), productCount).stream()
+                .map(Product::getId)
+                .toList();
+        orderPrice = productPrice.multiply(orderedProductIds.size());
+    }
+
+    @Benchmark
+    public OrderCreatedEvent validateAndInitiateOrder() {
+        Order order = Order.builder()
+                .customerId(customerId)
+                .restaurantId(restaurantId)
+                .deliveryAddress(deliveryAddress)
+                .price(orderPrice)
+                .items(orderedProductIds.stream()
+                        .map(productId -> OrderItem.builder()
+                                .product(new Product(productId))
+                                .quantity(1)
+                                .price(productPrice)
+                                .subTotal(productPrice)
+                                .build())
+                        .toList())
+                .build();
+
+        return orderDomainService.validateAndInitiateOrder(order, restaurant);
+    }
+}
@@ -0,0 +1,91 @@
+package com.food.ordering.system.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.food.ordering.system.domain.valueobject.PaymentOrderStatus;
+import com.food.ordering.system.kafka.order.avro.model.PaymentRequestAvroModel;
+import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentEventPayload;
+import com.food.ordering.system.order.service.messaging.mapper.OrderMessagingDataMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.food.ordering.system.domain.DomainConstants.UTC;
+
+/* Measures the serialization steps of one payment request on its way through the outbox:
+1. PaymentOutboxHelper.createPayload(): OrderPaymentEventPayload -> json payload of the outbox row. createPayload() is private, so we
+run the same objectMapper.writeValueAsString() call.
+2. KafkaMessageHelper.getOrderEventPayload(): json payload -> OrderPaymentEventPayload, done by the outbox publisher.
+3. OrderMessagingDataMapper: OrderPaymentEventPayload -> PaymentRequestAvroModel and its avro binary encoding(the part of the
+KafkaAvroSerializer that doesn't talk to the schema registry).
+
+The ObjectMapper is configured like the one that spring boot creates for the services. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMessagingMapperBenchmark {
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final OrderMessagingDataMapper orderMessagingDataMapper = new OrderMessagingDataMapper();
+    private final String sagaId = UUID.randomUUID().toString();
+
+    private OrderPaymentEventPayload orderPaymentEventPayload;
+    private String payload;
+    private PaymentRequestAvroModel paymentRequestAvroModel;
+
+    @Setup
+    public void setup() throws IOException {
+        orderPaymentEventPayload = OrderPaymentEventPayload.builder()
+                .orderId(UUID.randomUUID().toString())
+                .customerId(UUID.randomUUID().toString())
+                .price(new BigDecimal("200.00"))
+                .createdAt(ZonedDateTime.now(ZoneId.of(UTC)))
+                .paymentOrderStatus(PaymentOrderStatus.PENDING.name())
+                .build();
+        payload = objectMapper.writeValueAsString(orderPaymentEventPayload);
+        paymentRequestAvroModel = orderMessagingDataMapper.orderPaymentEventToPaymentRequestAvroModel(sagaId,
+                orderPaymentEventPayload);
+    }
+
+    @Benchmark
+    public String createPayload() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(orderPaymentEventPayload);
+    }
+
+    @Benchmark
+    public OrderPaymentEventPayload readPayload() throws JsonProcessingException {
+        return objectMapper.readValue(payload, OrderPaymentEventPayload.class);
+    }
+
+    @Benchmark
+    public PaymentRequestAvroModel orderPaymentEventToPaymentRequestAvroModel() {
+        return orderMessagingDataMapper.orderPaymentEventToPaymentRequestAvroModel(sagaId, orderPaymentEventPayload);
+    }
+
+    @Benchmark
+    public ByteBuffer encodePaymentRequestAvroModel() throws IOException {
+        return paymentRequestAvroModel.toByteBuffer();
+    }
+
+    // the whole path from the outbox payload to the bytes that are sent to kafka.
+    @Benchmark
+    public ByteBuffer payloadToAvroBytes() throws IOException {
+        return orderMessagingDataMapper.orderPaymentEventToPaymentRequestAvroModel(sagaId,
+                objectMapper.readValue(payload, OrderPaymentEventPayload.class)).toByteBuffer();
+    }
+}
@@ -0,0 +1,123 @@
+package com.food.ordering.system.benchmarks;
+
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.Money;
+import com.food.ordering.system.domain.valueobject.OrderId;
+import com.food.ordering.system.payment.service.domain.PaymentDomainService;
+import com.food.ordering.system.payment.service.domain.PaymentDomainServiceImpl;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
+import com.food.ordering.system.payment.service.domain.entity.CreditEntry;
+import com.food.ordering.system.payment.service.domain.entity.CreditHistory;
+import com.food.ordering.system.payment.service.domain.entity.Payment;
+import com.food.ordering.system.payment.service.domain.event.PaymentEvent;
+import com.food.ordering.system.payment.service.domain.valueobject.CreditEntryId;
+import com.food.ordering.system.payment.service.domain.valueobject.CreditHistoryId;
+import com.food.ordering.system.payment.service.domain.valueobject.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/* The payment validation uses the running totals of the customer(CreditBalance), so its cost should not depend on the age of the
+customer. Both benchmarks validate a payment of a customer with creditHistoryCount credit history entries:
+ - validateAndInitiatePayment(): with the snapshot, the totals are read from the credit balance as they are. It should stay flat for
+ 10 to 100k entries.
+ - validateAndInitiatePaymentWithCreditHistory(): the path before the snapshot, which the reconcile still takes. The credit history
+ entries of the customer are built(like they were mapped from the loaded rows) and summed per transaction type on every call. Its
+ cost grows with creditHistoryCount, which is what the snapshot saves. The DB query itself is not part of it.
+
+validateAndInitiatePayment() adds a new history entry to the credit balance and changes the credit entry. To keep every invocation
+on the same state, we start each call with a new credit balance of the same totals and undo the credit entry change after the call. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentDomainServiceBenchmark {
+    @Param({"10", "1000", "10000", "100000"})
+    private int creditHistoryCount;
+
+    private final PaymentDomainService paymentDomainService = new PaymentDomainServiceImpl();
+    private final CustomerId customerId = new CustomerId(UUID.randomUUID());
+    private final Money price = new Money(new BigDecimal("5.00"));
+    private final Money historyAmount = new Money(new BigDecimal("1.00"));
+
+    private Payment payment;
+    private CreditEntry creditEntry;
+    private Money totalCreditAmount;
+    private Money totalDebitAmount;
+
+    @Setup
+    public void setup() {
+        payment = Payment.builder()
+                .orderId(new OrderId(UUID.randomUUID()))
+                .customerId(customerId)
+                .price(price)
+                .build();
+
+        creditEntry = CreditEntry.builder()
+                .creditEntryId(new CreditEntryId(UUID.randomUUID()))
+                .customerId(customerId)
+                .totalCreditAmount(new Money(new BigDecimal("500.00")))
+                .build();
+
+        // every 3rd entry of 1.00 is a debit, so the credit total stays greater than the debit total.
+        int debitCount = (creditHistoryCount + 2) / 3;
+        totalCreditAmount = new Money(BigDecimal.valueOf(creditHistoryCount - debitCount).setScale(2));
+        totalDebitAmount = new Money(BigDecimal.valueOf(debitCount).setScale(2));
+    }
+
+    @Benchmark
+    public PaymentEvent validateAndInitiatePayment() {
+        return validateAndInitiatePayment(totalCreditAmount, totalDebitAmount);
+    }
+
+    @Benchmark
+    public PaymentEvent validateAndInitiatePaymentWithCreditHistory() {
+        Money creditHistoryCreditAmount = Money.ZERO;
+        Money creditHistoryDebitAmount = Money.ZERO;
+        for (CreditHistory creditHistory : getCreditHistories()) {
+            if (creditHistory.getTransactionType() == TransactionType.CREDIT) {
+                creditHistoryCreditAmount = creditHistoryCreditAmount.add(creditHistory.getAmount());
+            } else {
+                creditHistoryDebitAmount = creditHistoryDebitAmount.add(creditHistory.getAmount());
+            }
+        }
+
+        return validateAndInitiatePayment(creditHistoryCreditAmount, creditHistoryDebitAmount);
+    }
+
+    private PaymentEvent validateAndInitiatePayment(Money creditAmount, Money debitAmount) {
+        CreditBalance creditBalance = CreditBalance.builder()
+                .customerId(customerId)
+                .totalCreditAmount(creditAmount)
+                .totalDebitAmount(debitAmount)
+                .build();
+
+        PaymentEvent paymentEvent = paymentDomainService.validateAndInitiatePayment(payment, creditEntry, creditBalance,
+                new ArrayList<>());
+
+        creditEntry.addCreditAmount(price);
+
+        return paymentEvent;
+    }
+
+    // the same entries as the totals of setup(): every 3rd entry of 1.00 is a debit.
+    private List<CreditHistory> getCreditHistories() {
+        List<CreditHistory> creditHistories = new ArrayList<>(creditHistoryCount);
+        for (int i = 0; i < creditHistoryCount; i++) {
+            creditHistories.add(CreditHistory.builder()
+                    .creditHistoryId(new CreditHistoryId(UUID.randomUUID()))
+                    .customerId(customerId)
+                    .amount(historyAmount)
+                    .transactionType(i % 3 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT)
+                    .build());
+        }
+
+        return creditHistories;
+    }
+}
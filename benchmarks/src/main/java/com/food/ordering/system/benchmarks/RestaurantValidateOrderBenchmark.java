@@ -0,0 +1,66 @@
+package com.food.ordering.system.benchmarks;
+
+import com.food.ordering.system.domain.valueobject.Money;
+import com.food.ordering.system.domain.valueobject.OrderId;
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import com.food.ordering.system.domain.valueobject.ProductId;
+import com.food.ordering.system.domain.valueobject.RestaurantId;
+import com.food.ordering.system.restaurant.service.domain.entity.OrderDetail;
+import com.food.ordering.system.restaurant.service.domain.entity.Product;
+import com.food.ordering.system.restaurant.service.domain.entity.Restaurant;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/* Restaurant.validateOrder() only reads the order detail and collects the failure messages into the given list, so the same
+restaurant can be validated again and again. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestaurantValidateOrderBenchmark {
+    @Param({"1", "10", "100"})
+    private int productCount;
+
+    private Restaurant restaurant;
+
+    @Setup
+    public void setup() {
+        Money productPrice = new Money(new BigDecimal("12.50"));
+        List<Product> products = IntStream.range(0, productCount)
+                .mapToObj(i -> Product.builder()
+                        .productId(new ProductId(UUID.randomUUID()))
+                        .name("product-" + i)
+                        .price(productPrice)
+                        .quantity(2)
+                        .available(true)
+                        .build())
+                .toList();
+
+        restaurant = Restaurant.builder()
+                .restaurantId(new RestaurantId(UUID.randomUUID()))
+                .active(true)
+                .orderDetail(OrderDetail.builder()
+                        .orderId(new OrderId(UUID.randomUUID()))
+                        .orderStatus(OrderStatus.PAID)
+                        .totalAmount(productPrice.multiply(2 * productCount))
+                        .products(products)
+                        .build())
+                .build();
+    }
+
+    @Benchmark
+    public List<String> validateOrder() {
+        List<String> failureMessages = new ArrayList<>();
+        restaurant.validateOrder(failureMessages);
+
+        return failureMessages;
+    }
+}
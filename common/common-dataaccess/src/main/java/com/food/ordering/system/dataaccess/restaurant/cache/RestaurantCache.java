@@ -0,0 +1,88 @@
+package com.food.ordering.system.dataaccess.restaurant.cache;
+
+import com.food.ordering.system.dataaccess.restaurant.config.RestaurantCacheConfigData;
+import com.food.ordering.system.dataaccess.restaurant.entity.RestaurantEntity;
+import com.food.ordering.system.dataaccess.restaurant.repository.RestaurantJpaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/* Keeps all the read model rows of a restaurant(one row per product of the restaurant) in memory, so creating and approving an order
+doesn't need a DB round trip for the restaurant info. The products of an order are filtered from the cached rows of its restaurant.
+
+The cache is bounded by the number of restaurants(maximum-size) and every entry expires after expire-after-write-ms. A change of the
+read model evicts the restaurant right away(see RestaurantCacheInvalidationListener), the expiry is only a safety net for the
+notifications that are missed. Hit/miss/eviction counts are published as the cache.* metrics with cache=restaurant tag. */
+@Slf4j
+@Component
+public class RestaurantCache {
+    private static final String CACHE_NAME = "restaurant";
+
+    private final RestaurantJpaRepository restaurantJpaRepository;
+    private final RestaurantCacheConfigData restaurantCacheConfigData;
+    private final Cache<UUID, List<RestaurantEntity>> restaurants;
+
+    public RestaurantCache(RestaurantJpaRepository restaurantJpaRepository,
+                           RestaurantCacheConfigData restaurantCacheConfigData,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.restaurantJpaRepository = restaurantJpaRepository;
+        this.restaurantCacheConfigData = restaurantCacheConfigData;
+        this.restaurants = Caffeine.newBuilder()
+                .maximumSize(restaurantCacheConfigData.getMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(restaurantCacheConfigData.getExpireAfterWriteMs()))
+                .recordStats()
+                .build();
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, restaurants, CACHE_NAME));
+    }
+
+    // same result as RestaurantJpaRepository.findByRestaurantIdAndProductIdIn()
+    public Optional<List<RestaurantEntity>> findByRestaurantIdAndProductIdIn(UUID restaurantId, List<UUID> productIds) {
+        if (!restaurantCacheConfigData.isEnabled()) {
+            return restaurantJpaRepository.findByRestaurantIdAndProductIdIn(restaurantId, productIds);
+        }
+
+        Set<UUID> orderProductIds = new HashSet<>(productIds);
+        return Optional.of(restaurants.get(restaurantId, restaurantJpaRepository::findByRestaurantId).stream()
+                .filter(restaurantEntity -> orderProductIds.contains(restaurantEntity.getProductId()))
+                .toList());
+    }
+
+    /* The rows of the given restaurants with all of their products, keyed by restaurant id. The restaurants that are not cached yet
+    are loaded together with one query. A restaurant that has no rows is not in the result and is not cached. */
+    public Map<UUID, List<RestaurantEntity>> findByRestaurantIdIn(List<UUID> restaurantIds) {
+        if (!restaurantCacheConfigData.isEnabled()) {
+            return loadRestaurants(restaurantIds);
+        }
+
+        return restaurants.getAll(restaurantIds, this::loadRestaurants);
+    }
+
+    public void evict(UUID restaurantId) {
+        restaurants.invalidate(restaurantId);
+    }
+
+    public void evictAll() {
+        restaurants.invalidateAll();
+    }
+
+    private Map<UUID, List<RestaurantEntity>> loadRestaurants(Collection<? extends UUID> restaurantIds) {
+        return restaurantJpaRepository.findByRestaurantIdIn(new ArrayList<>(restaurantIds)).stream()
+                .collect(Collectors.groupingBy(RestaurantEntity::getRestaurantId));
+    }
+}
@@ -0,0 +1,113 @@
+package com.food.ordering.system.dataaccess.restaurant.cache;
+
+import com.food.ordering.system.dataaccess.restaurant.config.RestaurantCacheConfigData;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.UUID;
+
+/* The triggers that maintain restaurant.order_restaurant_read_model call pg_notify(<channel>, <restaurant id>) for every restaurant
+whose rows are changed(or '*' when the whole read model is truncated or rebuilt). This listener LISTENs on that channel with a
+dedicated connection and evicts those restaurants from the RestaurantCache, so the next order reads the new rows from the DB.
+
+Notifications are only delivered after the changing tx commits. The ones that are sent while this listener is disconnected are lost,
+so the whole cache is evicted after every (re)connect. */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "restaurant-cache", name = "enabled", havingValue = "true")
+public class RestaurantCacheInvalidationListener {
+    private static final String ALL_RESTAURANTS = "*";
+
+    private final RestaurantCacheConfigData restaurantCacheConfigData;
+    private final DataSourceProperties dataSourceProperties;
+    private final RestaurantCache restaurantCache;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public RestaurantCacheInvalidationListener(RestaurantCacheConfigData restaurantCacheConfigData,
+                                               DataSourceProperties dataSourceProperties,
+                                               RestaurantCache restaurantCache) {
+        this.restaurantCacheConfigData = restaurantCacheConfigData;
+        this.dataSourceProperties = dataSourceProperties;
+        this.restaurantCache = restaurantCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("restaurant-cache-invalidation-listener")
+                .daemon()
+                .start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + restaurantCacheConfigData.getInvalidationChannel());
+                }
+                log.info("Listening on {} for restaurant changes", restaurantCacheConfigData.getInvalidationChannel());
+
+                // the restaurants that were changed while we were not listening, are read again.
+                restaurantCache.evictAll();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications =
+                            pgConnection.getNotifications(restaurantCacheConfigData.getInvalidationPollTimeoutMs());
+                    if (notifications != null) {
+                        Arrays.stream(notifications)
+                                .map(PGNotification::getParameter)
+                                .distinct()
+                                .forEach(this::evict);
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.error("Restaurant cache invalidation listener connection failed, reconnecting in {} ms",
+                            restaurantCacheConfigData.getInvalidationReconnectDelayMs(), e);
+                    restaurantCache.evictAll();
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void evict(String restaurantId) {
+        if (ALL_RESTAURANTS.equals(restaurantId)) {
+            restaurantCache.evictAll();
+        } else {
+            restaurantCache.evict(UUID.fromString(restaurantId));
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(restaurantCacheConfigData.getInvalidationReconnectDelayMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
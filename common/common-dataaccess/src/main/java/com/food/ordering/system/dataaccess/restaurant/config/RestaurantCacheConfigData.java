@@ -0,0 +1,19 @@
+package com.food.ordering.system.dataaccess.restaurant.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/* Maps the restaurant-cache config of the order and restaurant svcs. Both of them set enabled to true in their application config.
+With enabled: false, which is also the value if a svc doesn't set it, every order reads the restaurant read model from the DB. */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "restaurant-cache")
+public class RestaurantCacheConfigData {
+    private boolean enabled;
+    private long maximumSize;
+    private long expireAfterWriteMs;
+    private String invalidationChannel;
+    private int invalidationPollTimeoutMs;
+    private long invalidationReconnectDelayMs;
+}
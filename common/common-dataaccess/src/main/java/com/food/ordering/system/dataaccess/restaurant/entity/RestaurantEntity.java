@@ -17,7 +17,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @IdClass(RestaurantEntityId.class) // using this, we set the RestaurantEntityId as the primary key of this entity.
-@Table(name = "order_restaurant_m_view", schema = "restaurant")
+@Table(name = "order_restaurant_read_model", schema = "restaurant")
 @Entity
 public class RestaurantEntity {
     @Id
@@ -5,6 +5,7 @@ import com.food.ordering.system.dataaccess.restaurant.entity.RestaurantEntityId;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,4 +16,9 @@ public interface RestaurantJpaRepository extends JpaRepository<RestaurantEntity,
     /* Since we pass a LIST of product ids, we use productIdIn(look at `in`) in the method name. This means, this will be converted
     to an sql query using the `IN` statement. */
     Optional<List<RestaurantEntity>> findByRestaurantIdAndProductIdIn(UUID restaurantId, List<UUID> productIds);
+
+    // all the products of the restaurant, used to fill the RestaurantCache.
+    List<RestaurantEntity> findByRestaurantId(UUID restaurantId);
+
+    List<RestaurantEntity> findByRestaurantIdIn(Collection<UUID> restaurantIds);
 }
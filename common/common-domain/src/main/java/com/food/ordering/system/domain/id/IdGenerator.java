@@ -0,0 +1,8 @@
+package com.food.ordering.system.domain.id;
+
+import java.util.UUID;
+
+/* Generates the ids of the aggregates, entities and outbox messages of all the services. See IdGenerators for the one that is used. */
+public interface IdGenerator {
+    UUID generateId();
+}
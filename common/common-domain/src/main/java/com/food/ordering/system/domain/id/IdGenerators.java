@@ -0,0 +1,34 @@
+package com.food.ordering.system.domain.id;
+
+import java.util.UUID;
+
+/* The id generator of the services. The domain cores are plain java without spring, so the generator is held here instead of being
+injected, like the other domain constants.
+
+UuidV7IdGenerator is used by default. The random UUIDs of before can be used with the system property -Did-generator=random(e.g. to
+compare them, see IdInsertBenchmark in load-test), or another generator can be set with setIdGenerator() before the services start. */
+public class IdGenerators {
+    public static final String ID_GENERATOR_PROPERTY = "id-generator";
+    public static final String RANDOM = "random";
+
+    private static final IdGenerator RANDOM_ID_GENERATOR = new RandomIdGenerator();
+
+    private static volatile IdGenerator idGenerator = RANDOM.equals(System.getProperty(ID_GENERATOR_PROPERTY)) ?
+            RANDOM_ID_GENERATOR : new UuidV7IdGenerator();
+
+    private IdGenerators() {}
+
+    // for the primary keys of the aggregates, entities and outbox messages.
+    public static UUID newId() {
+        return idGenerator.generateId();
+    }
+
+    // for the ids that must not be guessable, like the tracking ids that the clients look their orders up with.
+    public static UUID newRandomId() {
+        return RANDOM_ID_GENERATOR.generateId();
+    }
+
+    public static void setIdGenerator(IdGenerator idGenerator) {
+        IdGenerators.idGenerator = idGenerator;
+    }
+}
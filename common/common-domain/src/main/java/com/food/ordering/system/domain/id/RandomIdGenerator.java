@@ -0,0 +1,12 @@
+package com.food.ordering.system.domain.id;
+
+import java.util.UUID;
+
+/* Random(version 4) UUIDs from the shared SecureRandom of UUID.randomUUID(). Unpredictable, so it's used for the ids that are given
+to the clients to look something up(like the tracking id of an order). As a primary key, the inserts go to random pages of the index. */
+public class RandomIdGenerator implements IdGenerator {
+    @Override
+    public UUID generateId() {
+        return UUID.randomUUID();
+    }
+}
@@ -0,0 +1,98 @@
+package com.food.ordering.system.domain.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* The clock of the generator is stopped at NOW, so all the ids are generated within the same millisecond(or in the next ones, when
+the counter overflows). */
+public class UuidV7IdGeneratorTest {
+    private static final long NOW = 1_760_000_000_000L;
+    private static final int MAX_COUNTER = 0xFFF;
+    private static final int COUNTER_START_BOUND = 0x800;
+
+    private final UuidV7IdGenerator uuidV7IdGenerator = new UuidV7IdGenerator(() -> NOW);
+
+    @Test
+    void testVersionAndVariantBits() {
+        for (int i = 0; i < 1000; i++) {
+            UUID id = uuidV7IdGenerator.generateId();
+
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant()); // the RFC variant, 10 in the two most significant bits of the 9th byte
+            assertEquals(NOW, getTimestamp(id)); // the counter can't overflow with 1000 ids
+        }
+    }
+
+    @Test
+    void testIdsOfEachThreadAreStrictlyIncreasingWithinSameMillisecond() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<UUID>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executorService.submit(() -> generateIds(2000)));
+            }
+
+            for (Future<List<UUID>> result : results) {
+                List<UUID> ids = result.get();
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(compare(ids.get(i - 1), ids.get(i)) < 0, ids.get(i - 1) + " is not before " + ids.get(i));
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void testCounterOverflowMovesTimestampAhead() {
+        UUID firstId = uuidV7IdGenerator.generateId();
+        assertEquals(NOW, getTimestamp(firstId));
+        assertTrue(getCounter(firstId) < COUNTER_START_BOUND);
+
+        // the counter of NOW goes up to MAX_COUNTER, then the clock(still at NOW) is behind the ids.
+        UUID lastIdOfNow = firstId;
+        for (int counter = getCounter(firstId) + 1; counter <= MAX_COUNTER; counter++) {
+            lastIdOfNow = uuidV7IdGenerator.generateId();
+            assertEquals(NOW, getTimestamp(lastIdOfNow));
+            assertEquals(counter, getCounter(lastIdOfNow));
+        }
+
+        UUID firstIdAfterOverflow = uuidV7IdGenerator.generateId();
+        assertEquals(NOW + 1, getTimestamp(firstIdAfterOverflow));
+        assertTrue(getCounter(firstIdAfterOverflow) < COUNTER_START_BOUND);
+        assertTrue(compare(lastIdOfNow, firstIdAfterOverflow) < 0);
+    }
+
+    private List<UUID> generateIds(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(uuidV7IdGenerator.generateId());
+        }
+
+        return ids;
+    }
+
+    private long getTimestamp(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    private int getCounter(UUID id) {
+        return (int) (id.getMostSignificantBits() & MAX_COUNTER);
+    }
+
+    // UUID.compareTo() compares the bits as signed longs, the ids are ordered by their unsigned value(like in postgres).
+    private int compare(UUID id, UUID otherId) {
+        int result = Long.compareUnsigned(id.getMostSignificantBits(), otherId.getMostSignificantBits());
+
+        return result != 0 ? result : Long.compareUnsigned(id.getLeastSignificantBits(), otherId.getLeastSignificantBits());
+    }
+}
@@ -13,36 +13,78 @@ CREATE TABLE customer.customers
     CONSTRAINT customers_pkey PRIMARY KEY (id)
 );
 
-DROP MATERIALIZED VIEW IF EXISTS customer.order_customer_m_view;
+DROP TABLE IF EXISTS customer.order_customer_read_model CASCADE;
 
 -- we can remove this because we won't use it from order svc anymore. Instead, we create a duplicate table in the
 -- order svc using CQRS pattern.
-CREATE MATERIALIZED VIEW customer.order_customer_m_view
-    TABLESPACE pg_default
-AS
-SELECT id,
-       username,
-       first_name,
-       last_name
-FROM customer.customers
-WITH DATA;
+-- It was a materialized view that was refreshed completely after every change of customers. Now the row-level trigger below only
+-- copies the changed customer. It can be rebuilt from the customers table with:
+--   SELECT customer.rebuild_order_customer_read_model();
+CREATE TABLE customer.order_customer_read_model
+(
+    id uuid NOT NULL,
+    username character varying COLLATE pg_catalog."default" NOT NULL,
+    first_name character varying COLLATE pg_catalog."default" NOT NULL,
+    last_name character varying COLLATE pg_catalog."default" NOT NULL,
+    CONSTRAINT order_customer_read_model_pkey PRIMARY KEY (id)
+);
 
-refresh materialized VIEW customer.order_customer_m_view;
+DROP function IF EXISTS customer.maintain_order_customer_read_model;
 
-DROP function IF EXISTS customer.refresh_order_customer_m_view;
+CREATE OR replace function customer.maintain_order_customer_read_model()
+    returns trigger
+AS '
+    BEGIN
+        IF TG_OP = ''DELETE'' THEN
+            DELETE FROM customer.order_customer_read_model WHERE id = OLD.id;
+        ELSE
+            IF TG_OP = ''UPDATE'' AND OLD.id <> NEW.id THEN
+                DELETE FROM customer.order_customer_read_model WHERE id = OLD.id;
+            END IF;
+            INSERT INTO customer.order_customer_read_model(id, username, first_name, last_name)
+            VALUES (NEW.id, NEW.username, NEW.first_name, NEW.last_name)
+            ON CONFLICT (id) DO UPDATE SET username = EXCLUDED.username, first_name = EXCLUDED.first_name,
+                                           last_name = EXCLUDED.last_name;
+        END IF;
+        return null;
+    END;
+'  LANGUAGE plpgsql;
+
+DROP trigger IF EXISTS maintain_order_customer_read_model ON customer.customers;
+
+CREATE trigger maintain_order_customer_read_model
+    after INSERT OR UPDATE OR DELETE
+    ON customer.customers FOR each row
+EXECUTE PROCEDURE customer.maintain_order_customer_read_model();
 
-CREATE OR replace function customer.refresh_order_customer_m_view()
+DROP function IF EXISTS customer.truncate_order_customer_read_model;
+
+CREATE OR replace function customer.truncate_order_customer_read_model()
     returns trigger
 AS '
     BEGIN
-        refresh materialized VIEW customer.order_customer_m_view;
+        TRUNCATE customer.order_customer_read_model;
         return null;
     END;
 '  LANGUAGE plpgsql;
 
-DROP trigger IF EXISTS refresh_order_customer_m_view ON customer.customers;
+DROP trigger IF EXISTS truncate_order_customer_read_model ON customer.customers;
 
-CREATE trigger refresh_order_customer_m_view
-    after INSERT OR UPDATE OR DELETE OR truncate
+CREATE trigger truncate_order_customer_read_model
+    after truncate
     ON customer.customers FOR each statement
-EXECUTE PROCEDURE customer.refresh_order_customer_m_view();
\ No newline at end of file
+EXECUTE PROCEDURE customer.truncate_order_customer_read_model();
+
+-- recovery: recreates the whole read model from the customers table in one tx.
+DROP function IF EXISTS customer.rebuild_order_customer_read_model;
+
+CREATE OR replace function customer.rebuild_order_customer_read_model()
+    returns void
+AS '
+    BEGIN
+        DELETE FROM customer.order_customer_read_model;
+        INSERT INTO customer.order_customer_read_model(id, username, first_name, last_name)
+        SELECT id, username, first_name, last_name
+        FROM customer.customers;
+    END;
+'  LANGUAGE plpgsql;
@@ -24,4 +24,10 @@ public class KafkaConsumerConfigData {
     private Integer maxPollRecords;
     private Integer maxPartitionFetchBytesDefault;
     private Integer maxPartitionFetchBytesBoostFactor;
+    private String isolationLevel;
+    private Boolean batchProcessingEnabled;
+    private Integer batchProcessingChunkSize;
+    private Boolean parallelProcessingEnabled;
+    private Integer parallelProcessingWorkerCount;
 }
+
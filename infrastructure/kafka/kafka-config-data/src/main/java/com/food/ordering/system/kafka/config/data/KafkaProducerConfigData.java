@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+/* When transactional is true, the producer is idempotent and every outbox batch is sent inside one kafka tx. The transaction id
+prefix must be unique per running instance, otherwise the instances fence each other's producers. */
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "kafka-producer-config")
@@ -17,4 +19,6 @@ public class KafkaProducerConfigData {
     private Integer lingerMs;
     private Integer requestTimeoutMs;
     private Integer retryCount;
-}
\ No newline at end of file
+    private Boolean transactional;
+    private String transactionIdPrefix;
+}
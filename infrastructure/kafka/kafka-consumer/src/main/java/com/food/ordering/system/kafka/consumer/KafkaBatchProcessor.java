@@ -0,0 +1,77 @@
+package com.food.ordering.system.kafka.consumer;
+
+import com.food.ordering.system.kafka.config.data.KafkaConsumerConfigData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/* Processes the messages of one kafka poll in chunks, instead of running one local tx per message. batchProcessor should process a
+whole chunk in a single tx: load the rows that the chunk needs with one IN (...) query per table, run the domain logic in memory and
+write the results together.
+
+If a chunk fails, its tx is rolled back and the chunk is processed again message by message with messageProcessor(one tx per message,
+which is the old behavior). So a bad message doesn't roll back the other messages of the poll, it only costs its chunk the per message
+processing. messageProcessor is also responsible for the NO-OP handling of the unique violation and not found cases, like before.
+
+When batch-processing-enabled is false, every message is processed with messageProcessor.
+
+If messageProcessor fails for a message(an exception that it doesn't handle itself, e.g. the DB is down), the processing stops there
+and the index of that message in the poll is thrown with BatchListenerFailedException. The error handler of the container then
+commits the offsets of the messages before it(their txs are already committed) and seeks to the failed message, so only the failed
+message and the ones after it are delivered again. Without the index, the whole poll would be delivered again and the messages that
+are already done would go through the duplicate checks of the listeners again. */
+@Slf4j
+@Component
+public class KafkaBatchProcessor {
+    private final KafkaConsumerConfigData kafkaConsumerConfigData;
+    private final KafkaListenerMetrics kafkaListenerMetrics;
+
+    public KafkaBatchProcessor(KafkaConsumerConfigData kafkaConsumerConfigData, KafkaListenerMetrics kafkaListenerMetrics) {
+        this.kafkaConsumerConfigData = kafkaConsumerConfigData;
+        this.kafkaListenerMetrics = kafkaListenerMetrics;
+    }
+
+    public <T> void process(String messageName,
+                            List<T> messages,
+                            Consumer<List<T>> batchProcessor,
+                            Consumer<T> messageProcessor) {
+        if (!Boolean.TRUE.equals(kafkaConsumerConfigData.getBatchProcessingEnabled()) || messages.size() == 1) {
+            processOneByOne(messageName, messages, 0, messages.size(), messageProcessor);
+
+            return;
+        }
+
+        int chunkSize = kafkaConsumerConfigData.getBatchProcessingChunkSize();
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            List<T> chunk = messages.subList(from, Math.min(from + chunkSize, messages.size()));
+
+            try {
+                batchProcessor.accept(chunk);
+            } catch (RuntimeException e) {
+                log.warn("Batch processing of {} {} failed, processing them one by one!", chunk.size(), messageName, e);
+                processOneByOne(messageName, messages, from, from + chunk.size(), messageProcessor);
+            }
+        }
+    }
+
+    private <T> void processOneByOne(String messageName,
+                                     List<T> messages,
+                                     int from,
+                                     int to,
+                                     Consumer<T> messageProcessor) {
+        for (int index = from; index < to; index++) {
+            try {
+                messageProcessor.accept(messages.get(index));
+            } catch (RuntimeException e) {
+                log.error("Processing of {} failed at index: {} of {}, committing the records before it", messageName, index,
+                        messages.size());
+                kafkaListenerMetrics.recordFailedBatch(messageName, index, messages.size());
+
+                throw new BatchListenerFailedException("Processing of " + messageName + " failed!", e, index);
+            }
+        }
+    }
+}
@@ -2,8 +2,26 @@ package com.food.ordering.system.kafka.consumer;
 
 import org.apache.avro.specific.SpecificRecordBase;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 public interface KafkaConsumer<T extends SpecificRecordBase>{
-    void receive(List<T> messages, List<String> keys, List<Integer> partitions, List<Long> offsets);
+    void receive(List<T> messages, List<String> keys, List<Integer> partitions, List<Long> offsets,
+                 List<Map<String, Object>> headers);
+
+    /* In a batch listener the headers of each record are converted to a map(KafkaHeaders.BATCH_CONVERTED_HEADERS). The headers that
+    the header mapper has no type info for(like the ones that we set ourselves) are kept as raw bytes. */
+    default String getHeaderValue(List<Map<String, Object>> headers, int index, String headerName) {
+        if (headers == null || index >= headers.size()) {
+            return null;
+        }
+
+        Object headerValue = headers.get(index).get(headerName);
+        if (headerValue instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return headerValue == null ? null : headerValue.toString();
+    }
 }
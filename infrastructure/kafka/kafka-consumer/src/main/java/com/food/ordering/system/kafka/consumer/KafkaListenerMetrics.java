@@ -0,0 +1,45 @@
+package com.food.ordering.system.kafka.consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/* Counts the messages that the kafka listeners drop in their catch blocks(the NO-OPs) instead of retrying them, as the
+kafka.listener.skipped.messages counter with message and reason tags. The reason is one of:
+ - duplicate: the message was already processed(unique constraint violation)
+ - optimistic_lock: another consumer thread updated the same saga first
+ - not_found: the order, payment or restaurant of the message doesn't exist
+A rising duplicate or optimistic_lock rate under load means the same messages are delivered more than once(rebalances, retries of
+failed batches or the outbox publishing the same message again).
+
+When a record of a poll fails, the listeners report its index(BatchListenerFailedException, see KafkaBatchProcessor and
+KeyOrderedRecordProcessor). The kafka.listener.failed.batch.records counter splits the records of such a poll by outcome:
+ - committed: the records before the failed one, their offsets are committed and they are not delivered again
+ - redelivered: the failed record and the records after it, they are delivered again
+Before the listeners reported the index, every record of a failed poll was delivered again. So the redelivery amplification per
+failed poll was (committed + redelivered) / kafka.listener.failed.batches and now it's redelivered / kafka.listener.failed.batches. */
+@Component
+public class KafkaListenerMetrics {
+    public static final String DUPLICATE = "duplicate";
+    public static final String OPTIMISTIC_LOCK = "optimistic_lock";
+    public static final String NOT_FOUND = "not_found";
+
+    private static final String SKIPPED_MESSAGES = "kafka.listener.skipped.messages";
+    private static final String FAILED_BATCHES = "kafka.listener.failed.batches";
+    private static final String FAILED_BATCH_RECORDS = "kafka.listener.failed.batch.records";
+
+    private final MeterRegistry meterRegistry;
+
+    public KafkaListenerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordSkippedMessage(String messageName, String reason) {
+        meterRegistry.counter(SKIPPED_MESSAGES, "message", messageName, "reason", reason).increment();
+    }
+
+    public void recordFailedBatch(String messageName, int failedIndex, int batchSize) {
+        meterRegistry.counter(FAILED_BATCHES, "message", messageName).increment();
+        meterRegistry.counter(FAILED_BATCH_RECORDS, "message", messageName, "outcome", "committed").increment(failedIndex);
+        meterRegistry.counter(FAILED_BATCH_RECORDS, "message", messageName, "outcome", "redelivered").increment(batchSize - failedIndex);
+    }
+}
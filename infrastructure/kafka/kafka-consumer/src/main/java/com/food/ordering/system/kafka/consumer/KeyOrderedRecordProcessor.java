@@ -0,0 +1,136 @@
+package com.food.ordering.system.kafka.consumer;
+
+import com.food.ordering.system.kafka.config.data.KafkaConsumerConfigData;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/* Processes the records of a poll with a pool of worker threads, while keeping the order of the records that have the same key(saga id
+in order svc, customer id in payment svc). Each record goes to the lane of its key(hash of the key modulo worker count) and a lane
+processes its records one after the other, in their poll order. So two records of the same key never run at the same time or out of
+order, but the records of unrelated keys don't wait for each other anymore, even when they are in the same partition.
+
+process() returns only after all the lanes are done, so the container commits the offsets of a poll after every record of it is
+processed. If a record fails, its lane stops there and the lowest failed index of the poll is thrown with BatchListenerFailedException.
+Then the error handler of the container commits the offsets of the records before that index and seeks to the failed record, so the
+failed record and the records after it are delivered again. The records after it that were already processed by the other lanes are
+duplicates for the listeners then, which they already eliminate with the saga and outbox status checks. */
+@Slf4j
+@Component
+public class KeyOrderedRecordProcessor {
+    private final KafkaConsumerConfigData kafkaConsumerConfigData;
+    private final KafkaListenerMetrics kafkaListenerMetrics;
+    private final Environment environment;
+    private ExecutorService workerPool;
+
+    public KeyOrderedRecordProcessor(KafkaConsumerConfigData kafkaConsumerConfigData,
+                                     KafkaListenerMetrics kafkaListenerMetrics,
+                                     Environment environment) {
+        this.kafkaConsumerConfigData = kafkaConsumerConfigData;
+        this.kafkaListenerMetrics = kafkaListenerMetrics;
+        this.environment = environment;
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(kafkaConsumerConfigData.getParallelProcessingEnabled());
+    }
+
+    public <T> void process(String messageName,
+                            List<T> messages,
+                            Function<T, ?> keyExtractor,
+                            Consumer<T> messageProcessor) {
+        int workerCount = kafkaConsumerConfigData.getParallelProcessingWorkerCount();
+        List<List<Integer>> lanes = IntStream.range(0, workerCount)
+                .<List<Integer>>mapToObj(i -> new ArrayList<>())
+                .toList();
+        for (int index = 0; index < messages.size(); index++) {
+            lanes.get(Math.floorMod(Objects.hashCode(keyExtractor.apply(messages.get(index))), workerCount)).add(index);
+        }
+
+        List<Callable<Optional<FailedRecord>>> workers = lanes.stream()
+                .filter(lane -> !lane.isEmpty())
+                .<Callable<Optional<FailedRecord>>>map(lane -> () -> processLane(messages, lane, messageProcessor))
+                .toList();
+
+        List<FailedRecord> failedRecords = new ArrayList<>();
+        try {
+            for (Future<Optional<FailedRecord>> result : getWorkerPool().invokeAll(workers)) {
+                getWorkerResult(result).ifPresent(failedRecords::add);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            kafkaListenerMetrics.recordFailedBatch(messageName, 0, messages.size());
+            throw new BatchListenerFailedException("Processing of " + messageName + " is interrupted!", e, 0);
+        }
+
+        Optional<FailedRecord> firstFailedRecord = failedRecords.stream().min(Comparator.comparingInt(FailedRecord::index));
+        if (firstFailedRecord.isPresent()) {
+            log.error("{} of {} {} failed, committing the records before index: {}", failedRecords.size(), messages.size(),
+                    messageName, firstFailedRecord.get().index());
+            kafkaListenerMetrics.recordFailedBatch(messageName, firstFailedRecord.get().index(), messages.size());
+
+            throw new BatchListenerFailedException("Processing of " + messageName + " failed!",
+                    firstFailedRecord.get().cause(), firstFailedRecord.get().index());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    private <T> Optional<FailedRecord> processLane(List<T> messages, List<Integer> lane, Consumer<T> messageProcessor) {
+        for (int index : lane) {
+            try {
+                messageProcessor.accept(messages.get(index));
+            } catch (RuntimeException e) {
+                // the next records of the lane may have the same key, so they must not be processed before this one.
+                return Optional.of(new FailedRecord(index, e));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private Optional<FailedRecord> getWorkerResult(Future<Optional<FailedRecord>> result) throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Key ordered record processing worker failed!", e.getCause());
+        }
+    }
+
+    // the pool is only created when parallel processing is enabled and used, so services that don't use it don't get idle threads.
+    private synchronized ExecutorService getWorkerPool() {
+        if (workerPool == null) {
+            ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment) ?
+                    Thread.ofVirtual().name("key-ordered-worker-", 0).factory() : Executors.defaultThreadFactory();
+            workerPool = Executors.newFixedThreadPool(kafkaConsumerConfigData.getParallelProcessingWorkerCount(), threadFactory);
+        }
+
+        return workerPool;
+    }
+
+    private record FailedRecord(int index, RuntimeException cause) {
+    }
+}
@@ -4,8 +4,11 @@ import com.food.ordering.system.kafka.config.data.KafkaConfigData;
 import com.food.ordering.system.kafka.config.data.KafkaConsumerConfigData;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
@@ -20,11 +23,14 @@ import java.util.Map;
 public class KafkaConsumerConfig<K extends Serializable, V extends SpecificRecordBase> {
     private final KafkaConfigData kafkaConfigData;
     private final KafkaConsumerConfigData kafkaConsumerConfigData;
+    private final Environment environment;
 
     public KafkaConsumerConfig(KafkaConfigData kafkaConfigData,
-                               KafkaConsumerConfigData kafkaConsumerConfigData) {
+                               KafkaConsumerConfigData kafkaConsumerConfigData,
+                               Environment environment) {
         this.kafkaConfigData = kafkaConfigData;
         this.kafkaConsumerConfigData = kafkaConsumerConfigData;
+        this.environment = environment;
     }
 
     // set the consumer config properties
@@ -46,6 +52,11 @@ public class KafkaConsumerConfig<K extends Serializable, V extends SpecificRecor
                         kafkaConsumerConfigData.getMaxPartitionFetchBytesBoostFactor());
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, kafkaConsumerConfigData.getMaxPollRecords());
 
+        // with read_committed, the records of the aborted(and still open) kafka txs of a transactional producer are not returned by poll.
+        if (kafkaConsumerConfigData.getIsolationLevel() != null) {
+            props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, kafkaConsumerConfigData.getIsolationLevel());
+        }
+
         return props;
     }
 
@@ -65,6 +76,15 @@ public class KafkaConsumerConfig<K extends Serializable, V extends SpecificRecor
         factory.setAutoStartup(kafkaConsumerConfigData.getAutoStartup());
         factory.getContainerProperties().setPollTimeout(kafkaConsumerConfigData.getPollTimeoutMs());
 
+        /* spring boot only switches its own auto-configured listener container factory to virtual threads with
+        spring.threads.virtual.enabled, but we define the factory ourselves. So the consumer threads(one per concurrency level) are
+        created as virtual threads here. They spend most of their time blocked in poll() and in the JDBC calls of the listeners. */
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor listenerTaskExecutor = new SimpleAsyncTaskExecutor("kafka-listener-");
+            listenerTaskExecutor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor);
+        }
+
         return factory;
     }
 }
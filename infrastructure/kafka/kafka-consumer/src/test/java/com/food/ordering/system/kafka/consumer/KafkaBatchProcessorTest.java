@@ -0,0 +1,106 @@
+package com.food.ordering.system.kafka.consumer;
+
+import com.food.ordering.system.kafka.config.data.KafkaConsumerConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/* A poll with an already processed message(PROCESSED), a message that fails in every tx(POISON) and new messages. The batch processor
+works like a batch tx: it persists the new messages of a chunk only if none of them fails. The message processor is the old per
+message tx, it's a NO-OP for a processed message. */
+public class KafkaBatchProcessorTest {
+    private static final String PROCESSED = "processed";
+    private static final String POISON = "poison";
+
+    private final List<String> persistedMessages = new ArrayList<>();
+    private final List<String> processedOneByOne = new ArrayList<>();
+    private KafkaConsumerConfigData kafkaConsumerConfigData;
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaBatchProcessor kafkaBatchProcessor;
+
+    @BeforeEach
+    void init() {
+        kafkaConsumerConfigData = new KafkaConsumerConfigData();
+        kafkaConsumerConfigData.setBatchProcessingEnabled(true);
+        kafkaConsumerConfigData.setBatchProcessingChunkSize(10);
+        meterRegistry = new SimpleMeterRegistry();
+        kafkaBatchProcessor = new KafkaBatchProcessor(kafkaConsumerConfigData, new KafkaListenerMetrics(meterRegistry));
+    }
+
+    @Test
+    void testChunkWithoutFailureIsPersistedInOneTx() {
+        kafkaBatchProcessor.process("messages", List.of(PROCESSED, "a", "b"), this::persistChunk, this::persistMessage);
+
+        assertEquals(List.of("a", "b"), persistedMessages);
+        assertEquals(List.of(), processedOneByOne);
+    }
+
+    @Test
+    void testFailedChunkIsProcessedOneByOneUntilThePoisonMessage() {
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, () ->
+                kafkaBatchProcessor.process("messages", List.of(PROCESSED, "a", POISON, "b"), this::persistChunk,
+                        this::persistMessage));
+
+        // nothing of the rolled back chunk tx is kept, "a" is persisted by its own tx and "b" is left for the redelivery.
+        assertEquals(2, exception.getIndex());
+        assertEquals(List.of("a"), persistedMessages);
+        assertEquals(List.of(PROCESSED, "a", POISON), processedOneByOne);
+        assertEquals(2, meterRegistry.get("kafka.listener.failed.batch.records").tag("outcome", "committed").counter().count());
+        assertEquals(2, meterRegistry.get("kafka.listener.failed.batch.records").tag("outcome", "redelivered").counter().count());
+    }
+
+    @Test
+    void testOnlyTheFailedChunkIsProcessedOneByOne() {
+        kafkaConsumerConfigData.setBatchProcessingChunkSize(2);
+
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, () ->
+                kafkaBatchProcessor.process("messages", List.of(PROCESSED, "a", "b", POISON, "c", "d"), this::persistChunk,
+                        this::persistMessage));
+
+        // the first chunk is committed in its batch tx, the chunks after the failed one are not processed at all.
+        assertEquals(3, exception.getIndex());
+        assertEquals(List.of("a", "b"), persistedMessages);
+        assertEquals(List.of("b", POISON), processedOneByOne);
+    }
+
+    @Test
+    void testMessagesAreProcessedOneByOneWhenBatchProcessingIsDisabled() {
+        kafkaConsumerConfigData.setBatchProcessingEnabled(false);
+
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, () ->
+                kafkaBatchProcessor.process("messages", List.of("a", PROCESSED, POISON, "b"), chunk -> {
+                    throw new IllegalStateException("batch processor must not be called");
+                }, this::persistMessage));
+
+        assertEquals(2, exception.getIndex());
+        assertEquals(List.of("a"), persistedMessages);
+    }
+
+    private void persistChunk(List<String> chunk) {
+        if (chunk.contains(POISON)) {
+            throw new IllegalStateException("poison message in chunk");
+        }
+
+        chunk.stream()
+                .filter(message -> !PROCESSED.equals(message))
+                .forEach(persistedMessages::add);
+    }
+
+    private void persistMessage(String message) {
+        processedOneByOne.add(message);
+        if (POISON.equals(message)) {
+            throw new IllegalStateException("poison message");
+        }
+
+        if (!PROCESSED.equals(message)) {
+            persistedMessages.add(message);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.food.ordering.system.kafka.consumer;
+
+import com.food.ordering.system.kafka.config.data.KafkaConsumerConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/* Measures how often the records of a poll with a poison record at index POISON_INDEX are delivered to the listener again. A
+MockConsumer plays the partition and the loop in deliverUntilDone() plays the listener container: it polls, calls the listener and
+passes a failure to the DefaultErrorHandler that the containers use(no custom error handler is configured, so the default one with
+FixedBackOff(0, 9) handles the failures). Each poll returns every record from the current position of the consumer, so a seek of the
+error handler shows up as a redelivery.
+
+Before the listeners reported the failed index, the raw exception made the error handler retry the whole poll in memory. Now only
+the poison record and the records after it are delivered again. The counts of both are asserted below, with 10 records and the poison
+record at index 6: 100 deliveries before and 49 now, and the records before the poison record are processed once instead of 10 times. */
+public class KafkaRedeliveryAmplificationTest {
+    private static final int BATCH_SIZE = 10;
+    private static final int POISON_INDEX = 6;
+    private static final int DELIVERY_ATTEMPTS = 10; // the first delivery and the 9 retries of the default back off
+    private static final TopicPartition TOPIC_PARTITION = new TopicPartition("payment-request", 0);
+
+    private final int[] deliveries = new int[BATCH_SIZE];
+    private final int[] processings = new int[BATCH_SIZE];
+    private MockConsumer<String, String> consumer;
+    private MessageListenerContainer container;
+    private KafkaBatchProcessor kafkaBatchProcessor;
+
+    @BeforeEach
+    void init() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(TOPIC_PARTITION));
+        consumer.updateBeginningOffsets(Map.of(TOPIC_PARTITION, 0L));
+        consumer.seek(TOPIC_PARTITION, 0);
+
+        container = mock(MessageListenerContainer.class);
+        when(container.isRunning()).thenReturn(true);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(TOPIC_PARTITION.topic()));
+
+        KafkaConsumerConfigData kafkaConsumerConfigData = new KafkaConsumerConfigData();
+        kafkaConsumerConfigData.setBatchProcessingEnabled(false);
+        kafkaBatchProcessor = new KafkaBatchProcessor(kafkaConsumerConfigData, new KafkaListenerMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testRawExceptionRedeliversWholePoll() {
+        // the listener as it was: the exception of the poison record is thrown as it is.
+        deliverUntilDone(records -> records.forEach(this::processRecord));
+
+        /* every record is delivered with every retry and the records before the poison record are processed each time. When the
+        retries are exhausted, the whole poll is recovered(skipped), so the records after the poison record are never processed. */
+        assertEquals(List.of(10, 10, 10, 10, 10, 10, 10, 10, 10, 10), toList(deliveries));
+        assertEquals(List.of(10, 10, 10, 10, 10, 10, 0, 0, 0, 0), toList(processings));
+        assertEquals(BATCH_SIZE * DELIVERY_ATTEMPTS, IntStream.of(deliveries).sum());
+    }
+
+    @Test
+    void testFailedIndexRedeliversOnlyPoisonRecordAndRecordsAfterIt() {
+        deliverUntilDone(records -> kafkaBatchProcessor.process("records", records, chunk -> {
+        }, this::processRecord));
+
+        /* the records before the poison record are committed with the first failure and never delivered again. Only the poison record
+        is recovered when its retries are exhausted, the records after it are delivered once more and processed. */
+        assertEquals(List.of(1, 1, 1, 1, 1, 1, 10, 11, 11, 11), toList(deliveries));
+        assertEquals(List.of(1, 1, 1, 1, 1, 1, 0, 1, 1, 1), toList(processings));
+        assertEquals(POISON_INDEX + DELIVERY_ATTEMPTS + (BATCH_SIZE - POISON_INDEX - 1) * (DELIVERY_ATTEMPTS + 1),
+                IntStream.of(deliveries).sum());
+    }
+
+    private void deliverUntilDone(Consumer<List<Integer>> listener) {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler();
+        List<ConsumerRecord<String, String>> records;
+        while (!(records = poll()).isEmpty()) {
+            List<Integer> values = records.stream().map(record -> (int) record.offset()).toList();
+            values.forEach(value -> deliveries[value]++);
+
+            try {
+                listener.accept(values);
+            } catch (RuntimeException e) {
+                ConsumerRecords<String, String> consumerRecords = new ConsumerRecords<>(Map.of(TOPIC_PARTITION, records));
+                try {
+                    errorHandler.handleBatch(e, consumerRecords, consumer, container, () -> {
+                        values.forEach(value -> deliveries[value]++);
+                        listener.accept(values);
+                    });
+                } catch (KafkaException seekAfterError) {
+                    // the error handler has sought back to the failed record, the next poll delivers it again.
+                }
+            }
+        }
+    }
+
+    private List<ConsumerRecord<String, String>> poll() {
+        long position = consumer.position(TOPIC_PARTITION);
+        for (long offset = position; offset < BATCH_SIZE; offset++) {
+            consumer.addRecord(new ConsumerRecord<>(TOPIC_PARTITION.topic(), TOPIC_PARTITION.partition(), offset, null,
+                    String.valueOf(offset)));
+        }
+
+        consumer.resume(consumer.assignment());
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        consumer.poll(Duration.ZERO).forEach(records::add);
+
+        return records;
+    }
+
+    private void processRecord(int value) {
+        if (value == POISON_INDEX) {
+            throw new IllegalStateException("Poison record at index: " + value);
+        }
+
+        processings[value]++;
+    }
+
+    private List<Integer> toList(int[] counts) {
+        return IntStream.of(counts).boxed().toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.food.ordering.system.kafka.consumer;
+
+import com.food.ordering.system.kafka.config.data.KafkaConsumerConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* The records are "<key>-<n>" strings, the key is the part before the dash. With 2 workers, the keys "a" and "b" go to different
+lanes(their hash codes are 97 and 98). */
+public class KeyOrderedRecordProcessorTest {
+    private final List<String> processedRecords = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicInteger> runningRecordsByKey = new ConcurrentHashMap<>();
+    private final Set<String> keysThatRanConcurrently = ConcurrentHashMap.newKeySet();
+    private SimpleMeterRegistry meterRegistry;
+    private KeyOrderedRecordProcessor keyOrderedRecordProcessor;
+
+    @BeforeEach
+    void init() {
+        KafkaConsumerConfigData kafkaConsumerConfigData = new KafkaConsumerConfigData();
+        kafkaConsumerConfigData.setParallelProcessingEnabled(true);
+        kafkaConsumerConfigData.setParallelProcessingWorkerCount(2);
+        meterRegistry = new SimpleMeterRegistry();
+        keyOrderedRecordProcessor = new KeyOrderedRecordProcessor(kafkaConsumerConfigData, new KafkaListenerMetrics(meterRegistry),
+                new MockEnvironment());
+    }
+
+    @AfterEach
+    void shutdown() {
+        keyOrderedRecordProcessor.shutdown();
+    }
+
+    @Test
+    void testRecordsOfSameKeyAreProcessedInPollOrder() {
+        List<String> records = List.of("a-1", "b-1", "a-2", "b-2", "a-3", "b-3", "a-4");
+
+        keyOrderedRecordProcessor.process("records", records, KeyOrderedRecordProcessorTest::getKey, processRecord(Set.of()));
+
+        assertEquals(List.of("a-1", "a-2", "a-3", "a-4"), getProcessedRecords("a"));
+        assertEquals(List.of("b-1", "b-2", "b-3"), getProcessedRecords("b"));
+        assertTrue(keysThatRanConcurrently.isEmpty());
+    }
+
+    @Test
+    void testFailureCommitsOnlyUpToLowestFailedIndex() {
+        List<String> records = List.of("a-1", "b-1", "a-2", "b-2", "a-3", "b-3", "a-4");
+
+        // b-2 at index 3 and a-3 at index 4 fail in different lanes.
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, () ->
+                keyOrderedRecordProcessor.process("records", records, KeyOrderedRecordProcessorTest::getKey,
+                        processRecord(Set.of("b-2", "a-3"))));
+
+        assertEquals(3, exception.getIndex());
+        // a lane stops at its failed record, the records of the same key after it are not processed before it.
+        assertEquals(List.of("a-1", "a-2", "a-3"), getProcessedRecords("a"));
+        assertEquals(List.of("b-1", "b-2"), getProcessedRecords("b"));
+        assertTrue(keysThatRanConcurrently.isEmpty());
+        assertEquals(3, meterRegistry.get("kafka.listener.failed.batch.records").tag("outcome", "committed").counter().count());
+        assertEquals(4, meterRegistry.get("kafka.listener.failed.batch.records").tag("outcome", "redelivered").counter().count());
+    }
+
+    private Consumer<String> processRecord(Set<String> failingRecords) {
+        return record -> {
+            String key = getKey(record);
+            if (runningRecordsByKey.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet() > 1) {
+                keysThatRanConcurrently.add(key);
+            }
+
+            try {
+                processedRecords.add(record);
+                // gives the other lane time to run in between, so an ordering problem would show up.
+                Thread.sleep(5);
+                if (failingRecords.contains(record)) {
+                    throw new IllegalStateException("Processing of " + record + " failed!");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                runningRecordsByKey.get(key).decrementAndGet();
+            }
+        };
+    }
+
+    private List<String> getProcessedRecords(String key) {
+        return processedRecords.stream()
+                .filter(record -> getKey(record).equals(key))
+                .toList();
+    }
+
+    private static String getKey(String record) {
+        return record.substring(0, record.indexOf('-'));
+    }
+}
@@ -4,28 +4,37 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
 import com.food.ordering.system.outbox.OutboxStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
 @Slf4j
 @Component
 public class KafkaMessageHelper {
+    private static final String PUBLISH_LATENCY = "outbox.publish.latency";
+
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
-    public KafkaMessageHelper(ObjectMapper objectMapper) {
+    public KafkaMessageHelper(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
 
     /* The logs in the methods of returned object of this method, seems to be the only logging information for now. However,
      when we implement saga and outbox patterns, the importance of these methods will increase and we will be refactoring this code
      to obtain a highly resilient system.
 
-     This callback will be called when kafka producer gets a res from kafka cluster.*/
+     This callback will be called when kafka producer gets a res from kafka cluster. The callback is created right before the send, so
+     the time until it's called is recorded as the publish latency of the outbox message.*/
     public <T, U> ListenableFutureCallback<SendResult<String, T>>
     getKafkaCallback(String responseTopicName,
                      T avroModel,
@@ -33,9 +42,12 @@ public class KafkaMessageHelper {
                      BiConsumer<U, OutboxStatus> outboxCallback,
                      String orderId,
                      String avroModelName) {
+        long sendStartNanos = System.nanoTime();
+
         return new ListenableFutureCallback<SendResult<String, T>>() {
             @Override
             public void onFailure(Throwable ex) {
+                recordPublishLatency(responseTopicName, OutboxStatus.FAILED, sendStartNanos, 1);
                 log.info("Error while sending {} with message {} and outbox type: {} to topic {}",
                         avroModelName, avroModel.toString(), outboxMessage.getClass().getName(), responseTopicName, ex);
 
@@ -44,6 +56,7 @@ public class KafkaMessageHelper {
 
             @Override
             public void onSuccess(SendResult<String, T> result) {
+                recordPublishLatency(responseTopicName, OutboxStatus.COMPLETED, sendStartNanos, 1);
                 RecordMetadata metadata = result.getRecordMetadata();
                 log.info("Received successful response from kafka for order id: {}" +
                                 " Topic: {} Partition: {} Offset: {} Timestamp: {}",
@@ -58,6 +71,36 @@ public class KafkaMessageHelper {
         };
     }
 
+    /* Batch version of getKafkaCallback() for the transactional mode. All the outbox messages of the batch get the same status, since
+    a kafka tx is either committed or aborted as a whole. */
+    public <T, U> ListenableFutureCallback<List<SendResult<String, T>>>
+    getKafkaTransactionCallback(String responseTopicName,
+                                List<U> outboxMessages,
+                                BiConsumer<U, OutboxStatus> outboxCallback,
+                                String avroModelName) {
+        long sendStartNanos = System.nanoTime();
+
+        return new ListenableFutureCallback<List<SendResult<String, T>>>() {
+            @Override
+            public void onFailure(Throwable ex) {
+                recordPublishLatency(responseTopicName, OutboxStatus.FAILED, sendStartNanos, outboxMessages.size());
+                log.info("Error while sending {} {} messages in a kafka transaction to topic {}",
+                        outboxMessages.size(), avroModelName, responseTopicName, ex);
+
+                outboxMessages.forEach(outboxMessage -> outboxCallback.accept(outboxMessage, OutboxStatus.FAILED));
+            }
+
+            @Override
+            public void onSuccess(List<SendResult<String, T>> result) {
+                recordPublishLatency(responseTopicName, OutboxStatus.COMPLETED, sendStartNanos, outboxMessages.size());
+                log.info("Kafka transaction with {} {} messages is committed. Topic: {}",
+                        result.size(), avroModelName, responseTopicName);
+
+                outboxMessages.forEach(outboxMessage -> outboxCallback.accept(outboxMessage, OutboxStatus.COMPLETED));
+            }
+        };
+    }
+
     public <T> T getOrderEventPayload(String payload, Class<T> outputType) {
         try {
             return objectMapper.readValue(payload, outputType);
@@ -67,4 +110,18 @@ public class KafkaMessageHelper {
             throw new OrderDomainException("Could not read " + outputType.getName() + "  object!", e);
         }
     }
+
+    /* Every message of a kafka tx waits for the commit of the whole tx, so the tx latency is recorded once for each message of it.
+    That way the count of the timer is the number of published outbox messages in both modes. */
+    private void recordPublishLatency(String topicName, OutboxStatus outboxStatus, long sendStartNanos, int messageCount) {
+        Timer publishLatency = Timer.builder(PUBLISH_LATENCY)
+                .tag("topic", topicName)
+                .tag("status", outboxStatus.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        long latencyNanos = System.nanoTime() - sendStartNanos;
+        for (int i = 0; i < messageCount; i++) {
+            publishLatency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        }
+    }
 }
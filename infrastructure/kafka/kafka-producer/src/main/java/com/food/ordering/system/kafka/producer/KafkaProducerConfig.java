@@ -4,6 +4,7 @@ import com.food.ordering.system.kafka.config.data.KafkaConfigData;
 import com.food.ordering.system.kafka.config.data.KafkaProducerConfigData;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
@@ -42,19 +43,65 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, kafkaProducerConfigData.getRequestTimeoutMs());
         props.put(ProducerConfig.RETRIES_CONFIG, kafkaProducerConfigData.getRetryCount());
 
+        /* An idempotent producer gets a producer id from the brokers and adds a sequence number to each record, so a record that is
+        retried after a lost ack is written only once. This is required for the transactional mode and it needs acks=all. */
+        if (isTransactional()) {
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        }
+
         return props;
     }
 
     // creates a default kafka producer factory with our producer config map
     @Bean
     public ProducerFactory<K, V> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerConfig());
+        DefaultKafkaProducerFactory<K, V> producerFactory = new DefaultKafkaProducerFactory<>(producerConfig());
+        if (isTransactional()) {
+            producerFactory.setTransactionIdPrefix(kafkaProducerConfigData.getTransactionIdPrefix());
+        }
+
+        return producerFactory;
     }
 
     /* We use this kafkaTemplate to send data to kafka brokers, in this producer module. This KafkaTemplate is a wrapper class to
     send data to kafka cluster.*/
     @Bean
     public KafkaTemplate<K, V> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<K, V> kafkaTemplate = new KafkaTemplate<>(producerFactory());
+
+        /* In the transactional mode only the outbox batches are sent in a kafka tx. The single sends(like re-publishing an already
+        processed outbox message) are still allowed outside a tx. */
+        kafkaTemplate.setAllowNonTransactional(isTransactional());
+
+        return kafkaTemplate;
+    }
+
+    /* Sends the values that are already serialized, like the avro encoded payloads of the outbox messages(see KafkaByteArrayProducer).
+    It has the same config as the kafka template above, only the value serializer passes the bytes through. The producer is only
+    created on the first send, so the services that don't use it don't open a connection for it. It has its own transaction id
+    prefix, two producers with the same transactional id would fence each other. */
+    @Bean
+    public ProducerFactory<K, byte[]> byteArrayProducerFactory() {
+        Map<String, Object> props = new HashMap<>(producerConfig());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+
+        DefaultKafkaProducerFactory<K, byte[]> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        if (isTransactional()) {
+            producerFactory.setTransactionIdPrefix(kafkaProducerConfigData.getTransactionIdPrefix() + "bytes-");
+        }
+
+        return producerFactory;
+    }
+
+    @Bean
+    public KafkaTemplate<K, byte[]> byteArrayKafkaTemplate() {
+        KafkaTemplate<K, byte[]> kafkaTemplate = new KafkaTemplate<>(byteArrayProducerFactory());
+        kafkaTemplate.setAllowNonTransactional(isTransactional());
+
+        return kafkaTemplate;
+    }
+
+    private boolean isTransactional() {
+        return Boolean.TRUE.equals(kafkaProducerConfigData.getTransactional());
     }
 }
@@ -0,0 +1,22 @@
+package com.food.ordering.system.kafka.producer.service;
+
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/* Sends values that are already serialized, e.g. the avro encoded payloads that are stored in the outbox table. The bytes are written
+into the record as they are, so they must already be in the wire format that the consumers expect(for avro: the magic byte and the
+schema id of the schema registry, followed by the avro binary data). The methods work like the ones of KafkaProducer. */
+public interface KafkaByteArrayProducer<K extends Serializable> {
+    void send(String topicName, K key, byte[] message, Map<String, String> headers,
+              ListenableFutureCallback<SendResult<K, byte[]>> callback);
+
+    // headers.get(i) are the headers of messages.get(i).
+    void sendInTransaction(String topicName, List<K> keys, List<byte[]> messages, List<Map<String, String>> headers,
+                           ListenableFutureCallback<List<SendResult<K, byte[]>>> callback);
+
+    boolean isTransactional();
+}
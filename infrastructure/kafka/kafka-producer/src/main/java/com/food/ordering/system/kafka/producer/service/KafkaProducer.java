@@ -5,7 +5,23 @@ import org.springframework.kafka.support.SendResult;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
 
 public interface KafkaProducer<K extends Serializable, V extends SpecificRecordBase> {
     void send(String topicName, K key, V message, ListenableFutureCallback<SendResult<K, V>> callback);
+
+    // same as send(), with the given headers added to the record(like the saga-timeline header of the saga messages).
+    void send(String topicName, K key, V message, Map<String, String> headers, ListenableFutureCallback<SendResult<K, V>> callback);
+
+    /* Sends all the messages in one kafka tx. The callback is called once for the whole batch: onSuccess after the tx is committed
+    and onFailure after it's aborted. Only usable when the producer is configured as transactional. */
+    void sendInTransaction(String topicName, List<K> keys, List<V> messages,
+                           ListenableFutureCallback<List<SendResult<K, V>>> callback);
+
+    // headers.get(i) are the headers of messages.get(i).
+    void sendInTransaction(String topicName, List<K> keys, List<V> messages, List<Map<String, String>> headers,
+                           ListenableFutureCallback<List<SendResult<K, V>>> callback);
+
+    boolean isTransactional();
 }
@@ -0,0 +1,104 @@
+package com.food.ordering.system.kafka.producer.service.impl;
+
+import com.food.ordering.system.kafka.producer.exception.KafkaProducerException;
+import com.food.ordering.system.kafka.producer.service.KafkaByteArrayProducer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/* Same as KafkaProducerImpl, but with the byteArrayKafkaTemplate, so there is no serialization on the send path. */
+@Slf4j
+@Component
+public class KafkaByteArrayProducerImpl<K extends Serializable> implements KafkaByteArrayProducer<K> {
+    private final KafkaTemplate<K, byte[]> kafkaTemplate;
+
+    public KafkaByteArrayProducerImpl(@Qualifier("byteArrayKafkaTemplate") KafkaTemplate<K, byte[]> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @Override
+    public void send(String topicName, K key, byte[] message, Map<String, String> headers,
+                     ListenableFutureCallback<SendResult<K, byte[]>> callback) {
+        log.info("Sending {} bytes with key={} to topic={}", message.length, key, topicName);
+
+        try {
+            kafkaTemplate.send(createProducerRecord(topicName, key, message, headers))
+                    .whenComplete((sendResult, ex) -> {
+                        if (ex == null) {
+                            callback.onSuccess(sendResult);
+                        } else {
+                            callback.onFailure(ex);
+                        }
+                    });
+        } catch (KafkaException e) {
+            log.error("Error on kafka producer with key: {} and exception: {}", key, e.getMessage());
+
+            throw new KafkaProducerException("Error on kafka producer with key: " + key);
+        }
+    }
+
+    // see KafkaProducerImpl.sendInTransaction()
+    @Override
+    public void sendInTransaction(String topicName, List<K> keys, List<byte[]> messages, List<Map<String, String>> headers,
+                                  ListenableFutureCallback<List<SendResult<K, byte[]>>> callback) {
+        log.info("Sending {} messages to topic={} in a kafka transaction", messages.size(), topicName);
+
+        List<SendResult<K, byte[]>> sendResults;
+        try {
+            sendResults = kafkaTemplate.executeInTransaction(kafkaOperations -> {
+                List<CompletableFuture<SendResult<K, byte[]>>> kafkaResultFutures = IntStream.range(0, messages.size())
+                        .mapToObj(i -> kafkaOperations.send(createProducerRecord(topicName, keys.get(i), messages.get(i),
+                                headers == null ? Map.of() : headers.get(i))))
+                        .toList();
+                kafkaOperations.flush();
+
+                return kafkaResultFutures.stream().map(CompletableFuture::join).toList();
+            });
+        } catch (RuntimeException e) {
+            log.error("Kafka transaction with {} messages to topic={} is aborted, exception: {}", messages.size(), topicName,
+                    e.getMessage());
+            callback.onFailure(e);
+
+            return;
+        }
+
+        callback.onSuccess(sendResults);
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return kafkaTemplate.isTransactional();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (kafkaTemplate != null) {
+            log.info("Closing kafka byte array producer!");
+
+            kafkaTemplate.destroy();
+        }
+    }
+
+    private ProducerRecord<K, byte[]> createProducerRecord(String topicName, K key, byte[] message, Map<String, String> headers) {
+        List<Header> recordHeaders = headers.entrySet().stream()
+                .<Header>map(header -> new RecordHeader(header.getKey(), header.getValue().getBytes(StandardCharsets.UTF_8)))
+                .toList();
+
+        return new ProducerRecord<>(topicName, null, key, message, recordHeaders);
+    }
+}
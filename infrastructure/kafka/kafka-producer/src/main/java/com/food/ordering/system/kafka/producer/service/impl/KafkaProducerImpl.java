@@ -5,14 +5,23 @@ import com.food.ordering.system.kafka.producer.service.KafkaProducer;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
-import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 /* We keep the generic types as it is(the same types defined in KafkaProducer interface), so that we will be able to use this class
 from any service with any avro model. So it will be a generic class. */
@@ -21,7 +30,8 @@ from any service with any avro model. So it will be a generic class. */
 public class KafkaProducerImpl<K extends Serializable, V extends SpecificRecordBase> implements KafkaProducer<K, V> {
     private final KafkaTemplate kafkaTemplate;
 
-    public KafkaProducerImpl(KafkaTemplate kafkaTemplate) {
+    // there is also the byteArrayKafkaTemplate(see KafkaProducerConfig), this one serializes the avro models.
+    public KafkaProducerImpl(@Qualifier("kafkaTemplate") KafkaTemplate kafkaTemplate) {
         this.kafkaTemplate = kafkaTemplate;
     }
 
@@ -29,11 +39,25 @@ public class KafkaProducerImpl<K extends Serializable, V extends SpecificRecordB
     return a result immediately. Instead, it requires a callback method to be called later asynchronously. */
     @Override
     public void send(String topicName, K key, V message, ListenableFutureCallback<SendResult<K, V>> callback) {
+        send(topicName, key, message, Map.of(), callback);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void send(String topicName, K key, V message, Map<String, String> headers,
+                     ListenableFutureCallback<SendResult<K, V>> callback) {
         log.info("Sending message={} to topic={}", message, topicName);
 
         try {
-            ListenableFuture<SendResult<K, V>> kafkaResultFuture = (ListenableFuture<SendResult<K, V>>) kafkaTemplate.send(topicName, key, message);
-            kafkaResultFuture.addCallback(callback);
+            CompletableFuture<SendResult<K, V>> kafkaResultFuture = (CompletableFuture<SendResult<K, V>>) kafkaTemplate.send(
+                    createProducerRecord(topicName, key, message, headers));
+            kafkaResultFuture.whenComplete((sendResult, ex) -> {
+                if (ex == null) {
+                    callback.onSuccess(sendResult);
+                } else {
+                    callback.onFailure(ex);
+                }
+            });
         } catch (KafkaException e) {
             log.error("Error on kafka producer with key: {}, message: {} and exception: {}", key, message, e.getMessage());
 
@@ -41,6 +65,49 @@ public class KafkaProducerImpl<K extends Serializable, V extends SpecificRecordB
         }
     }
 
+    /* The sends inside the tx are still asynchronous. We flush the producer and wait for all the acks before leaving the tx callback,
+    so a failed send makes executeInTransaction() abort the whole tx instead of committing a partial batch. The consumers with
+    isolation.level=read_committed never see the records of an aborted tx. */
+    @Override
+    public void sendInTransaction(String topicName, List<K> keys, List<V> messages,
+                                  ListenableFutureCallback<List<SendResult<K, V>>> callback) {
+        sendInTransaction(topicName, keys, messages, null, callback);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sendInTransaction(String topicName, List<K> keys, List<V> messages, List<Map<String, String>> headers,
+                                  ListenableFutureCallback<List<SendResult<K, V>>> callback) {
+        log.info("Sending {} messages to topic={} in a kafka transaction", messages.size(), topicName);
+
+        List<SendResult<K, V>> sendResults;
+        try {
+            sendResults = (List<SendResult<K, V>>) kafkaTemplate.executeInTransaction(operations -> {
+                KafkaOperations<K, V> kafkaOperations = (KafkaOperations<K, V>) operations;
+                List<CompletableFuture<SendResult<K, V>>> kafkaResultFutures = IntStream.range(0, messages.size())
+                        .mapToObj(i -> kafkaOperations.send(createProducerRecord(topicName, keys.get(i), messages.get(i),
+                                headers == null ? Map.of() : headers.get(i))))
+                        .toList();
+                kafkaOperations.flush();
+
+                return kafkaResultFutures.stream().map(CompletableFuture::join).toList();
+            });
+        } catch (RuntimeException e) {
+            log.error("Kafka transaction with {} messages to topic={} is aborted, exception: {}", messages.size(), topicName,
+                    e.getMessage());
+            callback.onFailure(e);
+
+            return;
+        }
+
+        callback.onSuccess(sendResults);
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return kafkaTemplate.isTransactional();
+    }
+
     /* This close() method will be called, when application is shutting down, thanks to @PreDestroy. So you can write cleanup code
     in a method with this annotation.*/
     @PreDestroy
@@ -51,4 +118,12 @@ public class KafkaProducerImpl<K extends Serializable, V extends SpecificRecordB
             kafkaTemplate.destroy();
         }
     }
+
+    private ProducerRecord<K, V> createProducerRecord(String topicName, K key, V message, Map<String, String> headers) {
+        List<Header> recordHeaders = headers.entrySet().stream()
+                .<Header>map(header -> new RecordHeader(header.getKey(), header.getValue().getBytes(StandardCharsets.UTF_8)))
+                .toList();
+
+        return new ProducerRecord<>(topicName, null, key, message, recordHeaders);
+    }
 }
@@ -0,0 +1,73 @@
+package com.food.ordering.system.outbox;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/* Writes the archived rows of one outbox table as JSON lines into gzip files: <table>-<yyyyMMdd'T'HHmmss>-<n>.jsonl.gz in the archive
+directory. A new file is started after maxRowsPerFile rows, so a single file never grows without bound.
+
+Every write() is flushed with a sync flush of the gzip stream before it returns, because the rows are deleted right after that. If the
+process dies before close(), the last file misses the gzip trailer, but all the flushed rows can still be read(e.g. zcat prints them
+and then complains about the unexpected end of file). Not thread safe, one writer is used by one cleanup run. */
+class OutboxArchiveWriter implements Closeable {
+    private static final DateTimeFormatter FILE_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final Path archiveDirectory;
+    private final String fileNamePrefix;
+    private final int maxRowsPerFile;
+    private BufferedWriter writer;
+    private int fileCount;
+    private int rowsInFile;
+
+    OutboxArchiveWriter(Path archiveDirectory, String outboxTableName, int maxRowsPerFile) {
+        this.archiveDirectory = archiveDirectory;
+        this.fileNamePrefix = outboxTableName + "-" + FILE_TIMESTAMP_FORMAT.format(ZonedDateTime.now(ZoneOffset.UTC));
+        this.maxRowsPerFile = maxRowsPerFile;
+    }
+
+    void write(List<String> rows) throws IOException {
+        for (String row : rows) {
+            if (writer == null || rowsInFile >= maxRowsPerFile) {
+                rotate();
+            }
+
+            writer.write(row);
+            writer.newLine();
+            rowsInFile++;
+        }
+
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void rotate() throws IOException {
+        close();
+
+        Files.createDirectories(archiveDirectory);
+        Path archiveFile = archiveDirectory.resolve(fileNamePrefix + "-" + (++fileCount) + ".jsonl.gz");
+        writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(archiveFile, StandardOpenOption.CREATE_NEW), true),
+                StandardCharsets.UTF_8));
+        rowsInFile = 0;
+    }
+}
@@ -0,0 +1,90 @@
+package com.food.ordering.system.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/* Publishes the backlog of every outbox table of the service as gauges:
+ - outbox.backlog.size: number of STARTED rows per table
+ - outbox.backlog.oldest.age: age of the oldest STARTED row per table, in seconds
+
+A growing backlog(or an old row) means the schedulers can't keep up with the inserts, or the kafka callbacks don't arrive. Only the
+STARTED rows are the backlog. The COMPLETED and FAILED rows are final and can be most of the table until the cleaner removes them,
+so they're not counted: the query is served by the partial *_started_created_at index of the table(see init-schema.sql), however big
+the rest of the table is. The values are refreshed with one query per table every backlog-metrics-interval-ms, not on every scrape, so
+a frequent scrape doesn't put load on the outbox tables. The gauges keep the status tag, so the dashboards don't change. */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "outbox-relay", name = "backlog-metrics-enabled", havingValue = "true")
+public class OutboxBacklogMetrics {
+    private static final String BACKLOG_STATUS = "STARTED";
+    private static final String BACKLOG_QUERY = "SELECT count(*), min(created_at) FROM %s WHERE outbox_status = '" +
+            BACKLOG_STATUS + "'";
+
+    private final DataSource dataSource;
+    private final List<String> outboxTableNames;
+    private final MultiGauge backlogSize;
+    private final MultiGauge oldestMessageAge;
+
+    public OutboxBacklogMetrics(DataSource dataSource, MeterRegistry meterRegistry, List<OutboxScheduler> outboxSchedulers) {
+        this.dataSource = dataSource;
+        this.outboxTableNames = outboxSchedulers.stream()
+                .map(OutboxScheduler::getOutboxTableName)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        this.backlogSize = MultiGauge.builder("outbox.backlog.size")
+                .description("Number of STARTED outbox messages per table")
+                .baseUnit("messages")
+                .register(meterRegistry);
+        this.oldestMessageAge = MultiGauge.builder("outbox.backlog.oldest.age")
+                .description("Age of the oldest STARTED outbox message per table")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox-relay.backlog-metrics-interval-ms}")
+    public void refresh() {
+        List<MultiGauge.Row<?>> backlogSizeRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> oldestMessageAgeRows = new ArrayList<>();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String outboxTableName : outboxTableNames) {
+                try (ResultSet resultSet = statement.executeQuery(BACKLOG_QUERY.formatted(outboxTableName))) {
+                    resultSet.next();
+                    Tags tags = Tags.of("table", outboxTableName, "status", BACKLOG_STATUS);
+                    backlogSizeRows.add(MultiGauge.Row.of(tags, resultSet.getLong(1)));
+
+                    // min() is null when there is no backlog.
+                    OffsetDateTime oldestCreatedAt = resultSet.getObject(2, OffsetDateTime.class);
+                    oldestMessageAgeRows.add(MultiGauge.Row.of(tags, oldestCreatedAt == null ? 0 :
+                            Duration.between(oldestCreatedAt, now).toMillis() / 1000.0));
+                }
+            }
+        } catch (SQLException e) {
+            // the gauges keep their last values until the next successful refresh.
+            log.error("Could not refresh the outbox backlog metrics of {}", outboxTableNames, e);
+            return;
+        }
+
+        backlogSize.register(backlogSizeRows, true);
+        oldestMessageAge.register(oldestMessageAgeRows, true);
+    }
+}
@@ -0,0 +1,202 @@
+package com.food.ordering.system.outbox;
+
+import com.food.ordering.system.outbox.config.OutboxCleanupConfigData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/* Deletes the completed rows of an outbox table in chunks, instead of loading all of them into memory and deleting them with one big
+statement(which needs memory in proportion to the table and holds one long tx over all the rows).
+
+The rows are read with keyset paging on the id(id > last id of the previous chunk ORDER BY id LIMIT chunk-size), so every chunk is
+an index range scan no matter how many chunks are already done. Each chunk is:
+ 1. read(autocommit, no locks are held)
+ 2. written into the compressed archive files if archive-enabled(see OutboxArchiveWriter)
+ 3. deleted in its own short tx. The delete checks the terminal condition again, a row that changed in the meantime is kept.
+So at most chunk-size rows are in memory and a failure only stops the cleanup at a chunk boundary, the next run continues from there.
+A row is only deleted after it's archived. If the archive write fails, the cleanup stops before the delete.
+
+max-rows-per-second throttles the cleanup, so it doesn't take the IO from the relay and the listeners. The progress is published as
+the outbox.cleanup.rows counter(per table and action: archived or deleted) and logged per chunk. */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "outbox-cleanup", name = "enabled", havingValue = "true")
+public class OutboxCleaner {
+    private static final String CHUNK_QUERY = "SELECT id, %s FROM %s o WHERE (%s) AND id > ? ORDER BY id LIMIT ?";
+    private static final String ROW_JSON = "row_to_json(o)::text";
+    private static final String NO_ROW_JSON = "NULL";
+    private static final String DELETE_CHUNK = "DELETE FROM %s WHERE id = ANY(?) AND (%s)";
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final DataSource dataSource;
+    private final OutboxCleanupConfigData outboxCleanupConfigData;
+    private final MeterRegistry meterRegistry;
+
+    public OutboxCleaner(DataSource dataSource,
+                         OutboxCleanupConfigData outboxCleanupConfigData,
+                         MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.outboxCleanupConfigData = outboxCleanupConfigData;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /* terminalCondition is the WHERE condition of the rows that are done, e.g. outbox_status = 'COMPLETED'. It comes from the cleaner
+    schedulers, never from the outside. Returns the number of deleted rows. */
+    public long clean(String outboxTableName, String terminalCondition) {
+        Counter archivedRows = getRowCounter(outboxTableName, "archived");
+        Counter deletedRows = getRowCounter(outboxTableName, "deleted");
+        long startNanos = System.nanoTime();
+        long processedRowCount = 0;
+        long deletedRowCount = 0;
+        UUID lastId = MIN_ID;
+
+        try (Connection connection = dataSource.getConnection();
+             OutboxArchiveWriter archiveWriter = createArchiveWriter(outboxTableName)) {
+            connection.setAutoCommit(true);
+
+            List<OutboxRow> chunk;
+            do {
+                chunk = readChunk(connection, outboxTableName, terminalCondition, lastId, archiveWriter != null);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                if (archiveWriter != null) {
+                    archiveWriter.write(chunk.stream().map(OutboxRow::json).toList());
+                    archivedRows.increment(chunk.size());
+                }
+
+                int deletedChunkRowCount = deleteChunk(connection, outboxTableName, terminalCondition, chunk);
+                deletedRows.increment(deletedChunkRowCount);
+                deletedRowCount += deletedChunkRowCount;
+                processedRowCount += chunk.size();
+                lastId = chunk.get(chunk.size() - 1).id();
+
+                log.debug("Outbox cleanup of {}: {} rows deleted so far", outboxTableName, deletedRowCount);
+            } while (chunk.size() >= outboxCleanupConfigData.getChunkSize() && throttle(startNanos, processedRowCount));
+        } catch (SQLException | IOException e) {
+            log.error("Outbox cleanup of {} failed after deleting {} rows, it's continued with the next run",
+                    outboxTableName, deletedRowCount, e);
+        }
+
+        log.info("Outbox cleanup of {}: {} completed rows deleted in {} ms", outboxTableName, deletedRowCount,
+                (System.nanoTime() - startNanos) / 1_000_000);
+
+        return deletedRowCount;
+    }
+
+    /* Writes all the rows of the given table(e.g. a partition that is about to be dropped) into the archive, in the tx of the given
+    connection. Returns the number of archived rows, 0 if the archive is not enabled. */
+    public long archiveAll(Connection connection, String tableName) throws SQLException, IOException {
+        long archivedRowCount = 0;
+
+        try (OutboxArchiveWriter archiveWriter = createArchiveWriter(tableName)) {
+            if (archiveWriter == null) {
+                return 0;
+            }
+
+            UUID lastId = MIN_ID;
+            List<OutboxRow> chunk;
+            do {
+                chunk = readChunk(connection, tableName, "TRUE", lastId, true);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                archiveWriter.write(chunk.stream().map(OutboxRow::json).toList());
+                archivedRowCount += chunk.size();
+                lastId = chunk.get(chunk.size() - 1).id();
+            } while (chunk.size() >= outboxCleanupConfigData.getChunkSize());
+        }
+
+        getRowCounter(tableName, "archived").increment(archivedRowCount);
+
+        return archivedRowCount;
+    }
+
+    private List<OutboxRow> readChunk(Connection connection,
+                                      String outboxTableName,
+                                      String terminalCondition,
+                                      UUID lastId,
+                                      boolean withJson) throws SQLException {
+        List<OutboxRow> chunk = new ArrayList<>(outboxCleanupConfigData.getChunkSize());
+
+        try (PreparedStatement statement = connection.prepareStatement(CHUNK_QUERY.formatted(withJson ? ROW_JSON : NO_ROW_JSON,
+                outboxTableName, terminalCondition))) {
+            statement.setObject(1, lastId);
+            statement.setInt(2, outboxCleanupConfigData.getChunkSize());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    chunk.add(new OutboxRow(resultSet.getObject(1, UUID.class), resultSet.getString(2)));
+                }
+            }
+        }
+
+        return chunk;
+    }
+
+    private int deleteChunk(Connection connection,
+                            String outboxTableName,
+                            String terminalCondition,
+                            List<OutboxRow> chunk) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(DELETE_CHUNK.formatted(outboxTableName, terminalCondition))) {
+            Array ids = connection.createArrayOf("uuid", chunk.stream().map(OutboxRow::id).toArray());
+            statement.setArray(1, ids);
+
+            return statement.executeUpdate();
+        }
+    }
+
+    /* sleeps until the cleanup is back under max-rows-per-second. Returns false if the thread is interrupted(e.g. on shutdown). */
+    private boolean throttle(long startNanos, long processedRowCount) {
+        if (outboxCleanupConfigData.getMaxRowsPerSecond() <= 0) {
+            return true;
+        }
+
+        long expectedMillis = processedRowCount * 1000 / outboxCleanupConfigData.getMaxRowsPerSecond();
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        if (expectedMillis > elapsedMillis) {
+            try {
+                Thread.sleep(expectedMillis - elapsedMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private OutboxArchiveWriter createArchiveWriter(String tableName) {
+        if (!outboxCleanupConfigData.isArchiveEnabled()) {
+            return null;
+        }
+
+        return new OutboxArchiveWriter(Path.of(outboxCleanupConfigData.getArchiveDirectory()), tableName,
+                outboxCleanupConfigData.getArchiveMaxRowsPerFile());
+    }
+
+    private Counter getRowCounter(String tableName, String action) {
+        return Counter.builder("outbox.cleanup.rows")
+                .description("Number of outbox rows that are archived or deleted by the outbox cleanup")
+                .tags("table", tableName, "action", action)
+                .register(meterRegistry);
+    }
+
+    private record OutboxRow(UUID id, String json) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.food.ordering.system.outbox;
+
+import com.food.ordering.system.outbox.config.OutboxRelayConfigData;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/* Wakes up the outbox schedulers as soon as an outbox message is inserted, instead of letting the message wait for the next
+scheduled run. The insert triggers of the outbox tables call pg_notify(<channel>, <table name>) and this listener LISTENs on that
+channel with a dedicated connection(not a pooled one, since it's kept open for the whole lifetime of the app).
+
+Notifications are only delivered after the inserting tx commits, so the woken up scheduler will always see the new row.
+Notifications that are sent while this listener is disconnected are lost. That's why the fixed rate schedule stays as a
+safety net. Multiple notifications for the same table that arrive together are handled with a single processOutboxMessage() call.
+
+processOutboxMessage() is called on the listener thread, while the scheduled run of the same scheduler may be running on a scheduling
+thread. The publishing schedulers guard their runs with an OutboxRunGuard, so the two never overlap and the schedulers that read every
+STARTED row don't publish the same rows twice. */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "outbox-relay", name = "notify-enabled", havingValue = "true")
+public class OutboxNotificationListener {
+    private final OutboxRelayConfigData outboxRelayConfigData;
+    private final DataSourceProperties dataSourceProperties;
+    private final Map<String, OutboxScheduler> outboxSchedulers;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public OutboxNotificationListener(OutboxRelayConfigData outboxRelayConfigData,
+                                      DataSourceProperties dataSourceProperties,
+                                      List<OutboxScheduler> outboxSchedulers) {
+        this.outboxRelayConfigData = outboxRelayConfigData;
+        this.dataSourceProperties = dataSourceProperties;
+        this.outboxSchedulers = outboxSchedulers.stream()
+                .filter(outboxScheduler -> outboxScheduler.getOutboxTableName() != null)
+                .collect(Collectors.toMap(OutboxScheduler::getOutboxTableName, outboxScheduler -> outboxScheduler));
+    }
+
+    /* Start listening after the app is ready, so the schedulers and the kafka producer are fully initialized when we call them. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("outbox-notification-listener")
+                .daemon()
+                .start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + outboxRelayConfigData.getNotifyChannel());
+                }
+                log.info("Listening on {} for outbox tables: {}", outboxRelayConfigData.getNotifyChannel(), outboxSchedulers.keySet());
+
+                // the rows that were inserted while we were not listening, are picked up by this first run.
+                outboxSchedulers.keySet().forEach(this::wakeUp);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(outboxRelayConfigData.getNotifyPollTimeoutMs());
+                    if (notifications != null) {
+                        Arrays.stream(notifications)
+                                .map(PGNotification::getParameter)
+                                .distinct()
+                                .forEach(this::wakeUp);
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.error("Outbox notification listener connection failed, reconnecting in {} ms", outboxRelayConfigData
+                            .getNotifyReconnectDelayMs(), e);
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void wakeUp(String outboxTableName) {
+        OutboxScheduler outboxScheduler = outboxSchedulers.get(outboxTableName);
+        if (Objects.isNull(outboxScheduler)) {
+            return;
+        }
+
+        /* A failing run should not stop the listener. The message stays in STARTED state and will be picked up again with the next
+        notification or scheduled run. */
+        try {
+            outboxScheduler.processOutboxMessage();
+        } catch (RuntimeException e) {
+            log.error("Outbox scheduler of {} failed after notification!", outboxTableName, e);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(outboxRelayConfigData.getNotifyReconnectDelayMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
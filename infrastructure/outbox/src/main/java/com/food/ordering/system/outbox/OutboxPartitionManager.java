@@ -0,0 +1,259 @@
+package com.food.ordering.system.outbox;
+
+import com.food.ordering.system.outbox.config.OutboxRelayConfigData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/* Maintains the daily partitions of the outbox tables that are range partitioned by created_at(with partitioning-enabled, see
+init-schema-partitioned-outbox-true.sql of the order svc). A partition of a table is named <table>_p<yyyyMMdd> and holds the rows
+created in that UTC day. Rows that don't fit any of them go to <table>_default.
+
+ - createPartitions(): creates the partitions of today and the next partition-premake-days days, at startup and with
+ partition-maintenance-cron. Creating them ahead means a missed run doesn't send the inserts to the default partition.
+ - dropCompletedPartitions(): called by the cleaner schedulers instead of their big DELETE. A partition that is older than
+ partition-retention-days is detached and dropped as a whole, but only if all of its rows are in a terminal state. Dropping a
+ partition doesn't leave dead tuples behind, so there is no table bloat and no vacuum work, unlike deleting the same rows. The
+ terminal rows of the default partition are deleted, it's expected to be (nearly) empty. With outbox-cleanup.enabled, the rows of a
+ partition are written into the outbox archive before it's dropped and the default partition is cleaned in chunks(see OutboxCleaner).
+
+The check and the drop of a partition run in one tx. The partition is locked in SHARE mode first, so no row of it can change between
+the check and the drop. DETACH takes an ACCESS EXCLUSIVE lock on the parent table for a moment, which blocks the inserts into the
+outbox table. lock_timeout keeps the drop from queueing behind a long tx(and the inserts behind the drop), the partition is then
+dropped with the next run.
+
+The saga keys of the rows of a partitioned outbox table are kept in <table>_saga_key, which rejects a duplicate saga key in place of
+a unique index(see init-schema-partitioned-outbox-true.sql). Deleting rows removes their keys with a trigger, dropping a partition
+doesn't, so the keys of the rows of a partition are deleted in the tx that drops it.
+
+A partition that still has non-terminal rows(e.g. a message that could never be published) is kept and logged, these rows need a
+look. Only the outbox tables of the OutboxSchedulers(getOutboxTableName()) are maintained and the tables that are not partitioned
+are skipped. */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "outbox-relay", name = "partitioning-enabled", havingValue = "true")
+public class OutboxPartitionManager {
+    private static final DateTimeFormatter PARTITION_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String PARTITION_DATE_PREFIX = "_p";
+    private static final String DEFAULT_PARTITION_SUFFIX = "_default";
+    private static final String SAGA_KEY_TABLE_SUFFIX = "_saga_key";
+    private static final String LOCK_TIMEOUT = "5s";
+
+    private static final String IS_PARTITIONED_QUERY = "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = ?::regclass)";
+    private static final String PARTITIONS_QUERY = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = ?::regclass";
+    private static final String TABLE_EXISTS_QUERY = "SELECT to_regclass(?) IS NOT NULL";
+    private static final String CREATE_PARTITION = "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s " +
+            "FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')";
+
+    private final DataSource dataSource;
+    private final OutboxRelayConfigData outboxRelayConfigData;
+    private final Optional<OutboxCleaner> outboxCleaner;
+    private final List<String> outboxTableNames;
+
+    public OutboxPartitionManager(DataSource dataSource,
+                                  OutboxRelayConfigData outboxRelayConfigData,
+                                  Optional<OutboxCleaner> outboxCleaner,
+                                  List<OutboxScheduler> outboxSchedulers) {
+        this.dataSource = dataSource;
+        this.outboxRelayConfigData = outboxRelayConfigData;
+        this.outboxCleaner = outboxCleaner;
+        this.outboxTableNames = outboxSchedulers.stream()
+                .map(OutboxScheduler::getOutboxTableName)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${outbox-relay.partition-maintenance-cron}")
+    public void createPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String outboxTableName : outboxTableNames) {
+                if (!isPartitioned(connection, outboxTableName)) {
+                    log.debug("Outbox table {} is not partitioned, no partitions are created", outboxTableName);
+                    continue;
+                }
+
+                for (int day = 0; day <= outboxRelayConfigData.getPartitionPremakeDays(); day++) {
+                    LocalDate partitionDate = today.plusDays(day);
+                    statement.execute(CREATE_PARTITION.formatted(getPartitionName(outboxTableName, partitionDate), outboxTableName,
+                            partitionDate, partitionDate.plusDays(1)));
+                }
+            }
+        } catch (SQLException e) {
+            // the default partition takes the rows until the partitions are created with the next run.
+            log.error("Could not create the partitions of the outbox tables {}", outboxTableNames, e);
+        }
+    }
+
+    /* terminalCondition is the WHERE condition of the rows that are done, e.g. outbox_status = 'COMPLETED'. It comes from the cleaner
+    schedulers, never from the outside. Returns the number of dropped partitions. */
+    public int dropCompletedPartitions(String outboxTableName, String terminalCondition) {
+        LocalDate oldestRetainedDate = LocalDate.now(ZoneOffset.UTC).minusDays(outboxRelayConfigData.getPartitionRetentionDays());
+        int droppedPartitionCount = 0;
+
+        try (Connection connection = dataSource.getConnection()) {
+            if (!isPartitioned(connection, outboxTableName)) {
+                log.warn("Outbox table {} is not partitioned, no partitions are dropped", outboxTableName);
+                return 0;
+            }
+
+            if (outboxCleaner.isPresent()) {
+                outboxCleaner.get().clean(outboxTableName + DEFAULT_PARTITION_SUFFIX, terminalCondition);
+            } else {
+                deleteCompletedDefaultPartitionRows(connection, outboxTableName, terminalCondition);
+            }
+
+            for (String partitionName : getPartitionNamesBefore(connection, outboxTableName, oldestRetainedDate)) {
+                if (dropPartitionIfCompleted(connection, outboxTableName, partitionName, terminalCondition)) {
+                    droppedPartitionCount++;
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Could not drop the completed partitions of outbox table {}", outboxTableName, e);
+        }
+
+        log.info("{} completed partitions of outbox table {} are dropped", droppedPartitionCount, outboxTableName);
+
+        return droppedPartitionCount;
+    }
+
+    private boolean dropPartitionIfCompleted(Connection connection,
+                                             String outboxTableName,
+                                             String partitionName,
+                                             String terminalCondition) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+            statement.execute("LOCK TABLE " + partitionName + " IN SHARE MODE");
+
+            long pendingRowCount;
+            try (ResultSet resultSet = statement.executeQuery(
+                    "SELECT count(*) FROM " + partitionName + " WHERE NOT (" + terminalCondition + ")")) {
+                resultSet.next();
+                pendingRowCount = resultSet.getLong(1);
+            }
+
+            if (pendingRowCount > 0) {
+                connection.rollback();
+                log.warn("Partition {} is past its retention but still has {} outbox messages that are not completed, it's kept",
+                        partitionName, pendingRowCount);
+
+                return false;
+            }
+
+            if (outboxCleaner.isPresent()) {
+                outboxCleaner.get().archiveAll(connection, partitionName);
+            }
+
+            if (tableExists(connection, outboxTableName + SAGA_KEY_TABLE_SUFFIX)) {
+                statement.executeUpdate("DELETE FROM " + outboxTableName + SAGA_KEY_TABLE_SUFFIX + " k USING " + partitionName +
+                        " p WHERE k.type = p.type AND k.saga_id = p.saga_id AND k.saga_status = p.saga_status");
+            }
+
+            statement.execute("ALTER TABLE " + outboxTableName + " DETACH PARTITION " + partitionName);
+            statement.execute("DROP TABLE " + partitionName);
+            connection.commit();
+            log.info("Partition {} of outbox table {} is dropped", partitionName, outboxTableName);
+
+            return true;
+        } catch (SQLException | IOException e) {
+            connection.rollback();
+            log.error("Could not drop partition {} of outbox table {}, it's retried with the next run",
+                    partitionName, outboxTableName, e);
+
+            return false;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void deleteCompletedDefaultPartitionRows(Connection connection,
+                                                     String outboxTableName,
+                                                     String terminalCondition) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            int deletedRowCount = statement.executeUpdate(
+                    "DELETE FROM " + outboxTableName + DEFAULT_PARTITION_SUFFIX + " WHERE " + terminalCondition);
+            if (deletedRowCount > 0) {
+                log.info("{} completed outbox messages are deleted from the default partition of {}", deletedRowCount,
+                        outboxTableName);
+            }
+        }
+    }
+
+    private List<String> getPartitionNamesBefore(Connection connection,
+                                                 String outboxTableName,
+                                                 LocalDate oldestRetainedDate) throws SQLException {
+        String datePartitionPrefix = outboxTableName + PARTITION_DATE_PREFIX;
+        List<String> partitionNames = new ArrayList<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(PARTITIONS_QUERY)) {
+            statement.setString(1, outboxTableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    partitionNames.add(resultSet.getString(1));
+                }
+            }
+        }
+
+        return partitionNames.stream()
+                .filter(partitionName -> partitionName.startsWith(datePartitionPrefix))
+                .filter(partitionName -> {
+                    try {
+                        return LocalDate.parse(partitionName.substring(datePartitionPrefix.length()), PARTITION_DATE_FORMAT)
+                                .isBefore(oldestRetainedDate);
+                    } catch (DateTimeParseException e) {
+                        // not one of the daily partitions that we create, leave it alone.
+                        return false;
+                    }
+                })
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private boolean isPartitioned(Connection connection, String outboxTableName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(IS_PARTITIONED_QUERY)) {
+            statement.setString(1, outboxTableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private boolean tableExists(Connection connection, String tableName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(TABLE_EXISTS_QUERY)) {
+            statement.setString(1, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private String getPartitionName(String outboxTableName, LocalDate partitionDate) {
+        return outboxTableName + PARTITION_DATE_PREFIX + PARTITION_DATE_FORMAT.format(partitionDate);
+    }
+}
@@ -0,0 +1,8 @@
+package com.food.ordering.system.outbox;
+
+/* How the payload of an outbox message is stored:
+ - JSON: the event payload as json, it's mapped to the avro model and serialized when it's published
+ - AVRO: the record value that is sent to kafka(avro encoded, with the schema id), it's published as it is */
+public enum OutboxPayloadFormat {
+    JSON, AVRO
+}
@@ -0,0 +1,165 @@
+package com.food.ordering.system.outbox;
+
+import com.food.ordering.system.outbox.config.OutboxRelayConfigData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
+
+/* Drains an outbox table with a pool of worker threads. Each worker repeatedly claims a bounded batch of outbox messages, publishes
+them and asks for the next batch until it gets a batch smaller than the batch size(meaning the table is drained for now).
+
+The claiming itself is done by the outbox repository of each service with SELECT ... FOR UPDATE SKIP LOCKED and a lease timestamp
+(locked_until column). With SKIP LOCKED, two workers(on the same node or on different nodes) never get the same row, because a row
+that is locked by a claiming tx is skipped instead of waited for. After the claim tx commits, the lease keeps the row away from
+the other workers until the kafka callback marks it as COMPLETED or FAILED. If a node dies before the callback, the lease expires
+and the row is claimed again by another worker.*/
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxRelayConfigData outboxRelayConfigData;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private ExecutorService workerPool;
+
+    public OutboxRelay(OutboxRelayConfigData outboxRelayConfigData, Environment environment, MeterRegistry meterRegistry) {
+        this.outboxRelayConfigData = outboxRelayConfigData;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isClaimEnabled() {
+        return outboxRelayConfigData.isClaimEnabled();
+    }
+
+    public int getBatchSize() {
+        return outboxRelayConfigData.getBatchSize();
+    }
+
+    public Duration getLease() {
+        return Duration.ofMillis(outboxRelayConfigData.getLeaseMs());
+    }
+
+    /* The claim queries only look at the rows created after this time, so they only scan the recent partitions of a partitioned
+    outbox table. With relay-lookback-days = 0, there is no lower bound. The STARTED rows that are older are left to catchUp(). */
+    public ZonedDateTime getClaimCreatedAfter() {
+        if (outboxRelayConfigData.getRelayLookbackDays() <= 0) {
+            return getCatchUpCreatedAfter();
+        }
+
+        return ZonedDateTime.now(ZoneOffset.UTC).minusDays(outboxRelayConfigData.getRelayLookbackDays());
+    }
+
+    // the catch-up claims have no lower bound, so they scan every partition.
+    public ZonedDateTime getCatchUpCreatedAfter() {
+        return Instant.EPOCH.atZone(ZoneOffset.UTC);
+    }
+
+    public boolean isCatchUpEnabled() {
+        return outboxRelayConfigData.isClaimEnabled() && outboxRelayConfigData.getRelayLookbackDays() > 0;
+    }
+
+    /* claimAndPublishBatch should claim at most getBatchSize() messages in its own(short) tx, publish them and return the number of
+    claimed messages. This method blocks until all the workers are done, so a fixed delay scheduler will not start a new drain
+    while the previous one is still running. */
+    public void drain(String outboxName, IntSupplier claimAndPublishBatch) {
+        List<Callable<Integer>> workers = IntStream.range(0, outboxRelayConfigData.getWorkerCount())
+                .<Callable<Integer>>mapToObj(i -> () -> drainWorker(claimAndPublishBatch))
+                .toList();
+
+        int total = 0;
+        try {
+            for (Future<Integer> result : getWorkerPool().invokeAll(workers)) {
+                total += getWorkerResult(outboxName, result);
+            }
+        } catch (InterruptedException e) {
+            log.warn("Draining of {} is interrupted!", outboxName);
+            Thread.currentThread().interrupt();
+        }
+
+        if (total > 0) {
+            log.info("{} messages are claimed and sent to message bus from {}", total, outboxName);
+        }
+    }
+
+    /* A STARTED row that is older than relay-lookback-days is never claimed by drain(), e.g. after an outage that is longer than the
+    lookback or a row that is inserted with an old created_at. catchUp() claims them with claims that scan all partitions, which is
+    why it only runs every catch-up-interval-ms and on a single thread. claimAndPublishOldBatch should claim at most getBatchSize()
+    messages, oldest first, publish them and return how many of them are older than getClaimCreatedAfter(). The claims continue until
+    a batch has fewer old messages than the batch size.
+
+    Every old message is counted in outbox.relay.catch.up.messages and logged as a warning. They would have been lost without the
+    catch-up, so a non zero value means the lookback is too short for this outbox(or the relay was down for longer than it). */
+    public void catchUp(String outboxName, IntSupplier claimAndPublishOldBatch) {
+        Counter catchUpMessages = Counter.builder("outbox.relay.catch.up.messages")
+                .description("Number of outbox messages older than the relay lookback that are published by the catch-up scan")
+                .baseUnit("messages")
+                .tag("table", outboxName)
+                .register(meterRegistry);
+
+        int total = drainWorker(claimAndPublishOldBatch);
+        if (total > 0) {
+            catchUpMessages.increment(total);
+            log.warn("{} messages of {} that are older than the relay lookback of {} days are claimed by the catch-up scan and " +
+                    "sent to message bus!", total, outboxName, outboxRelayConfigData.getRelayLookbackDays());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    private int drainWorker(IntSupplier claimAndPublishBatch) {
+        int total = 0;
+        int claimed;
+        do {
+            claimed = claimAndPublishBatch.getAsInt();
+            total += claimed;
+        } while (claimed > 0 && claimed >= outboxRelayConfigData.getBatchSize());
+
+        return total;
+    }
+
+    private int getWorkerResult(String outboxName, Future<Integer> result) throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            log.error("Outbox relay worker of {} failed!", outboxName, e.getCause());
+
+            return 0;
+        }
+    }
+
+    /* the pool is only created when claiming is enabled and used, so services that don't use the relay don't get idle threads.
+    With spring.threads.virtual.enabled, the workers are virtual threads. The worker count still limits how many of them claim at the
+    same time, so they don't take more DB connections than before. */
+    private synchronized ExecutorService getWorkerPool() {
+        if (workerPool == null) {
+            ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment) ?
+                    Thread.ofVirtual().name("outbox-relay-", 0).factory() : Executors.defaultThreadFactory();
+            workerPool = Executors.newFixedThreadPool(outboxRelayConfigData.getWorkerCount(), threadFactory);
+        }
+
+        return workerPool;
+    }
+}
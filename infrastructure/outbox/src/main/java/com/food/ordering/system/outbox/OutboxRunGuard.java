@@ -0,0 +1,32 @@
+package com.food.ordering.system.outbox;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/* Makes sure that the runs of an outbox scheduler never overlap. The scheduled run and the wake-ups of the OutboxNotificationListener
+call processOutboxMessage() on different threads. The schedulers that read every STARTED row(instead of claiming them) would publish the
+same rows twice if two of their runs overlapped.
+
+A caller that finds a run in progress doesn't wait for it. It only asks for one more run and returns, and the thread that holds the
+run does that one more run after its current one. So a row that is inserted while a run is in progress(and possibly after that run has
+read the table) is still published right away and the listener thread is never blocked by a long run. The requests that arrive during
+a run are collapsed into a single extra run. */
+public class OutboxRunGuard {
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final AtomicBoolean runRequested = new AtomicBoolean();
+
+    public void run(Runnable outboxRun) {
+        runRequested.set(true);
+
+        /* the flag is checked after the unlock, so a request that couldn't get the lock while we were running is never lost: either we
+        see its flag here, or it gets the lock itself. */
+        while (runRequested.get() && runLock.tryLock()) {
+            try {
+                runRequested.set(false);
+                outboxRun.run();
+            } finally {
+                runLock.unlock();
+            }
+        }
+    }
+}
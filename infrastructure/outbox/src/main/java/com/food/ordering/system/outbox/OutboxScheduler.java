@@ -2,4 +2,10 @@ package com.food.ordering.system.outbox;
 
 public interface OutboxScheduler {
     void processOutboxMessage();
+
+    /* Name of the outbox table that this scheduler publishes from. The OutboxNotificationListener calls processOutboxMessage() as soon
+    as a row is inserted into that table. Schedulers that don't publish anything(like the cleaner schedulers) are not woken up. */
+    default String getOutboxTableName() {
+        return null;
+    }
 }
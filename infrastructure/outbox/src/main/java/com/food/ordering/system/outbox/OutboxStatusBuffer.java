@@ -0,0 +1,71 @@
+package com.food.ordering.system.outbox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/* Collects the outbox messages that got their final outbox status(COMPLETED or FAILED) in the kafka callbacks. The outbox schedulers
+drain this buffer periodically and write the statuses with a few bulk updates, instead of running one update tx per message on the
+kafka producer thread.
+
+A published row stays STARTED in the table until its status is written. The schedulers that read every STARTED row pass what they read
+through excludePending() first, so a run that comes before the next flush(e.g. woken up by a notification) doesn't publish the rows
+that are still waiting for their kafka callback or for the flush again. A message stops being pending when its status is written
+(release()), or after PENDING_TIMEOUT if no callback ever comes(e.g. the send failed before it reached the kafka producer). The timeout
+is the default delivery.timeout.ms of the kafka producer, the callback of a send that reached the producer comes within that time.
+
+If the app stops before a drained batch is written, those messages stay in STARTED state and are published again. That's the same
+duplicate case that the consumers already eliminate. */
+public class OutboxStatusBuffer<T> {
+    private static final long PENDING_TIMEOUT_NANOS = Duration.ofMinutes(2).toNanos();
+
+    private final ConcurrentLinkedQueue<T> outboxMessages = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, Long> pendingSince = new ConcurrentHashMap<>();
+    private final Function<T, UUID> idExtractor;
+
+    public OutboxStatusBuffer(Function<T, UUID> idExtractor) {
+        this.idExtractor = idExtractor;
+    }
+
+    /* Returns the given outbox messages without the ones that are published and still waiting for their status, and marks the
+    returned ones as pending. Called by one scheduler run at a time(see OutboxRunGuard). */
+    public List<T> excludePending(List<T> readOutboxMessages) {
+        long now = System.nanoTime();
+        List<T> notPendingOutboxMessages = new ArrayList<>(readOutboxMessages.size());
+        for (T outboxMessage : readOutboxMessages) {
+            UUID id = idExtractor.apply(outboxMessage);
+            Long since = pendingSince.get(id);
+            if (since == null || now - since >= PENDING_TIMEOUT_NANOS) {
+                pendingSince.put(id, now);
+                notPendingOutboxMessages.add(outboxMessage);
+            }
+        }
+
+        return notPendingOutboxMessages;
+    }
+
+    public void add(T outboxMessage) {
+        outboxMessages.add(outboxMessage);
+    }
+
+    public List<T> drain() {
+        List<T> drainedOutboxMessages = new ArrayList<>();
+        T outboxMessage;
+        while ((outboxMessage = outboxMessages.poll()) != null) {
+            drainedOutboxMessages.add(outboxMessage);
+        }
+
+        return drainedOutboxMessages;
+    }
+
+    /* Called after the statuses of the drained messages are written(or failed to be written, then they are STARTED and should be
+    published again). */
+    public void release(List<T> writtenOutboxMessages) {
+        writtenOutboxMessages.forEach(outboxMessage -> pendingSince.remove(idExtractor.apply(outboxMessage)));
+    }
+}
@@ -0,0 +1,19 @@
+package com.food.ordering.system.outbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/* Maps the outbox-cleanup config of a service. When enabled is false(the default), the cleaner schedulers load the completed outbox
+messages and delete them with one statement, like before. */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "outbox-cleanup")
+public class OutboxCleanupConfigData {
+    private boolean enabled;
+    private int chunkSize;
+    private int maxRowsPerSecond;
+    private boolean archiveEnabled;
+    private String archiveDirectory;
+    private int archiveMaxRowsPerFile;
+}
@@ -0,0 +1,31 @@
+package com.food.ordering.system.outbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/* Maps the outbox-relay config of a service. When claim-enabled is false(the default), the outbox schedulers keep loading every
+pending outbox message in one go. When notify-enabled is false(the default), the outbox schedulers only run with their fixed rate.
+When partitioning-enabled is false(the default), the cleaner schedulers delete the completed outbox messages row by row. */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "outbox-relay")
+public class OutboxRelayConfigData {
+    private boolean claimEnabled;
+    private int workerCount;
+    private int batchSize;
+    private long leaseMs;
+    private boolean notifyEnabled;
+    private String notifyChannel;
+    private int notifyPollTimeoutMs;
+    private long notifyReconnectDelayMs;
+    private long statusFlushIntervalMs;
+    private boolean backlogMetricsEnabled;
+    private long backlogMetricsIntervalMs;
+    private boolean partitioningEnabled;
+    private int partitionPremakeDays;
+    private int partitionRetentionDays;
+    private String partitionMaintenanceCron;
+    private int relayLookbackDays;
+    private long catchUpIntervalMs;
+}
@@ -0,0 +1,113 @@
+package com.food.ordering.system.saga.timeline;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/* The timestamps of a saga at every hop between the services. It travels in the saga-timeline kafka header of the saga messages in a
+compact form: stage=epochMillis entries separated with ';', e.g. payment.request_enqueue=1700000000000;payment.request_send=1700000000012
+
+A stage is <hop>.<event>. The hop is the request/response pair(payment, payment_cancel or approval) and the events are in the order
+they happen:
+ - request_enqueue: the request is inserted into the outbox table of the order svc
+ - request_send: the request is sent to kafka by the outbox scheduler
+ - request_ack: kafka acked the request(recorded only in the order svc, it happens after the request has left)
+ - request_consume: the request is received by the payment or restaurant svc
+ - response_enqueue: the response is inserted into the outbox table, in the same tx that processed the request
+ - response_send: the response is sent to kafka
+ - response_consume: the response is received by the order svc
+ - response_commit: the tx of the order svc that processed the response is committed
+
+Each svc appends its own events to the timeline it received and sends it on with its response, so the order svc gets the whole
+timeline of a hop with the response. Instances are immutable, append() returns a new timeline. */
+public final class SagaTimeline {
+    public static final String HEADER_NAME = "saga-timeline";
+
+    public static final String PAYMENT_HOP = "payment";
+    public static final String PAYMENT_CANCEL_HOP = "payment_cancel";
+    public static final String APPROVAL_HOP = "approval";
+
+    public static final String REQUEST_ENQUEUE = "request_enqueue";
+    public static final String REQUEST_SEND = "request_send";
+    public static final String REQUEST_ACK = "request_ack";
+    public static final String REQUEST_CONSUME = "request_consume";
+    public static final String RESPONSE_ENQUEUE = "response_enqueue";
+    public static final String RESPONSE_SEND = "response_send";
+    public static final String RESPONSE_CONSUME = "response_consume";
+    public static final String RESPONSE_COMMIT = "response_commit";
+
+    private static final String ENTRY_DELIMITER = ";";
+    private static final String VALUE_DELIMITER = "=";
+    private static final SagaTimeline EMPTY = new SagaTimeline(List.of());
+
+    private final List<Entry> entries;
+
+    private SagaTimeline(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static SagaTimeline empty() {
+        return EMPTY;
+    }
+
+    /* A missing header gives an empty timeline. The malformed entries are skipped, the timeline is only used for diagnostics, so it
+    should never fail the processing of a saga message. */
+    public static SagaTimeline decode(String encodedTimeline) {
+        if (encodedTimeline == null || encodedTimeline.isBlank()) {
+            return EMPTY;
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (String encodedEntry : encodedTimeline.split(ENTRY_DELIMITER)) {
+            int valueIndex = encodedEntry.indexOf(VALUE_DELIMITER);
+            if (valueIndex <= 0) {
+                continue;
+            }
+
+            try {
+                entries.add(new Entry(encodedEntry.substring(0, valueIndex),
+                        Instant.ofEpochMilli(Long.parseLong(encodedEntry.substring(valueIndex + 1)))));
+            } catch (NumberFormatException e) {
+                // skip the malformed entry
+            }
+        }
+
+        return new SagaTimeline(Collections.unmodifiableList(entries));
+    }
+
+    public static String stage(String hop, String event) {
+        return hop + "." + event;
+    }
+
+    public SagaTimeline append(String hop, String event, Instant recordedAt) {
+        List<Entry> newEntries = new ArrayList<>(entries.size() + 1);
+        newEntries.addAll(entries);
+        newEntries.add(new Entry(stage(hop, event), recordedAt));
+
+        return new SagaTimeline(Collections.unmodifiableList(newEntries));
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public String encode() {
+        StringBuilder encodedTimeline = new StringBuilder(entries.size() * 40);
+        for (Entry entry : entries) {
+            if (!encodedTimeline.isEmpty()) {
+                encodedTimeline.append(ENTRY_DELIMITER);
+            }
+            encodedTimeline.append(entry.stage()).append(VALUE_DELIMITER).append(entry.recordedAt().toEpochMilli());
+        }
+
+        return encodedTimeline.toString();
+    }
+
+    public record Entry(String stage, Instant recordedAt) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.food.ordering.system.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Map;
+
+/* The postgres and kafka that the services of a load test run share, both in the JVM of the load test(postgres as a child process).
+Nothing has to be installed or started before a run and every run starts from empty tables and topics.
+
+The embedded kafka runs in KRaft mode with 1 broker, so the replication factor of the internal topics of the transactions and the
+consumer offsets is set to 1. The topics are created with the same number of partitions as in the docker compose setup, so the
+listeners run with the same concurrency. */
+@Slf4j
+public class EmbeddedInfrastructure implements AutoCloseable {
+    public static final String[] TOPICS = {
+            "payment-request",
+            "payment-response",
+            "restaurant-approval-request",
+            "restaurant-approval-response",
+            "customer"
+    };
+    private static final int PARTITION_COUNT = 3;
+
+    private final EmbeddedPostgres embeddedPostgres;
+    private final EmbeddedKafkaKraftBroker embeddedKafka;
+
+    private EmbeddedInfrastructure(EmbeddedPostgres embeddedPostgres, EmbeddedKafkaKraftBroker embeddedKafka) {
+        this.embeddedPostgres = embeddedPostgres;
+        this.embeddedKafka = embeddedKafka;
+    }
+
+    public static EmbeddedInfrastructure start() throws IOException {
+        EmbeddedPostgres embeddedPostgres = EmbeddedPostgres.builder()
+                // the services keep their hikari pools(10 connections each) and the load test polls the orders table.
+                .setServerConfig("max_connections", "200")
+                .start();
+
+        EmbeddedKafkaKraftBroker embeddedKafka = new EmbeddedKafkaKraftBroker(1, PARTITION_COUNT, TOPICS);
+        embeddedKafka.brokerProperties(Map.of(
+                "transaction.state.log.replication.factor", "1",
+                "transaction.state.log.min.isr", "1",
+                "offsets.topic.replication.factor", "1"));
+        embeddedKafka.afterPropertiesSet();
+
+        log.info("Embedded postgres is started on port {} and embedded kafka on {}", embeddedPostgres.getPort(),
+                embeddedKafka.getBrokersAsString());
+
+        return new EmbeddedInfrastructure(embeddedPostgres, embeddedKafka);
+    }
+
+    public int getPostgresPort() {
+        return embeddedPostgres.getPort();
+    }
+
+    public DataSource getPostgresDataSource() {
+        return embeddedPostgres.getPostgresDatabase();
+    }
+
+    public String getKafkaBootstrapServers() {
+        return embeddedKafka.getBrokersAsString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        embeddedKafka.destroy();
+        embeddedPostgres.close();
+    }
+}
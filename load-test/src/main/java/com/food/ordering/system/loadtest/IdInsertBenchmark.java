@@ -0,0 +1,143 @@
+package com.food.ordering.system.loadtest;
+
+import com.food.ordering.system.domain.id.IdGenerator;
+import com.food.ordering.system.domain.id.RandomIdGenerator;
+import com.food.ordering.system.domain.id.UuidV7IdGenerator;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Measures the insert throughput into a table with a uuid primary key(shaped like "order".payment_outbox: id, saga_id, created_at and
+a payload) with the random UUIDs of before and the UUIDv7 ids of IdGenerators now. Both tables are filled in the same embedded
+postgres, one after the other, by the same number of writer threads with jdbc batches(reWriteBatchedInserts, like the services).
+
+shared_buffers is kept small on purpose, so the primary key index outgrows it early in the run like it does in production after some
+time. From then on a random id needs a random leaf page of the index, which is mostly not in the buffers and is split when it's
+full. The UUIDv7 ids always go to the right-most leaf pages. So the throughput is printed per tenth of the rows: with random ids it
+drops as the index grows, with UUIDv7 it should stay flat. The size of the index at the end shows the half empty pages of the splits.
+
+From the root directory of the repository:
+    mvn -pl load-test -am install -DskipTests
+    mvn -pl load-test exec:java -Dexec.mainClass=com.food.ordering.system.loadtest.IdInsertBenchmark -Did-insert-benchmark.rows=5000000
+
+Options(system properties with the id-insert-benchmark. prefix): rows(2000000), threads(8), batch-size(500), shared-buffers(32MB).
+Like the load test, compare the numbers with the numbers of runs on the same machine only. */
+@Slf4j
+public class IdInsertBenchmark {
+    private static final String PREFIX = "id-insert-benchmark.";
+    private static final int SEGMENT_COUNT = 10;
+    private static final String PAYLOAD = "{\"orderId\":\"%s\",\"customerId\":\"d215b5f8-0249-4dc5-89a3-51fd148cfb41\",\"price\":50.00}";
+
+    public static void main(String[] args) throws Exception {
+        long rows = Long.parseLong(System.getProperty(PREFIX + "rows", "2000000"));
+        int threads = Integer.parseInt(System.getProperty(PREFIX + "threads", "8"));
+        int batchSize = Integer.parseInt(System.getProperty(PREFIX + "batch-size", "500"));
+        String sharedBuffers = System.getProperty(PREFIX + "shared-buffers", "32MB");
+
+        try (EmbeddedPostgres embeddedPostgres = EmbeddedPostgres.builder()
+                .setServerConfig("shared_buffers", sharedBuffers)
+                .setServerConfig("max_connections", String.valueOf(threads + 10))
+                .start()) {
+            String jdbcUrl = "jdbc:postgresql://localhost:" + embeddedPostgres.getPort() +
+                    "/postgres?user=postgres&reWriteBatchedInserts=true";
+
+            run(jdbcUrl, "id_insert_random", new RandomIdGenerator(), rows, threads, batchSize);
+            run(jdbcUrl, "id_insert_uuid_v7", new UuidV7IdGenerator(), rows, threads, batchSize);
+        }
+    }
+
+    private static void run(String jdbcUrl,
+                            String tableName,
+                            IdGenerator idGenerator,
+                            long rows,
+                            int threads,
+                            int batchSize) throws Exception {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + tableName + " (id uuid PRIMARY KEY, saga_id uuid NOT NULL, " +
+                    "created_at timestamp with time zone NOT NULL, payload character varying NOT NULL)");
+        }
+
+        long segmentRows = Math.max(rows / SEGMENT_COUNT, batchSize);
+        List<Long> segmentRowsPerSecond = new ArrayList<>();
+        AtomicLong insertedRows = new AtomicLong();
+        long startNanos = System.nanoTime();
+
+        try (ExecutorService writers = Executors.newFixedThreadPool(threads)) {
+            long segmentStartNanos = startNanos;
+            for (long segmentStart = 0; segmentStart < rows; segmentStart += segmentRows) {
+                long segmentEnd = Math.min(segmentStart + segmentRows, rows);
+                AtomicLong nextBatchStart = new AtomicLong(segmentStart);
+                List<Future<?>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    results.add(writers.submit(() -> {
+                        insertBatches(jdbcUrl, tableName, idGenerator, nextBatchStart, segmentEnd, batchSize, insertedRows);
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get();
+                }
+
+                long nowNanos = System.nanoTime();
+                segmentRowsPerSecond.add((segmentEnd - segmentStart) * 1_000_000_000L / Math.max(nowNanos - segmentStartNanos, 1));
+                segmentStartNanos = nowNanos;
+            }
+        }
+
+        long totalRowsPerSecond = insertedRows.get() * 1_000_000_000L / Math.max(System.nanoTime() - startNanos, 1);
+        try (Connection connection = DriverManager.getConnection(jdbcUrl);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_relation_size('" + tableName + "_pkey'), " +
+                     "pg_relation_size('" + tableName + "')")) {
+            resultSet.next();
+            log.info("{}: {} rows, {} rows/s overall, rows/s per tenth of the rows: {}, primary key index: {} MB, table: {} MB",
+                    tableName, insertedRows.get(), totalRowsPerSecond, segmentRowsPerSecond, resultSet.getLong(1) / (1024 * 1024),
+                    resultSet.getLong(2) / (1024 * 1024));
+        }
+    }
+
+    // every batch is its own tx, like a chunk of OrderBatchCreateHelper.
+    private static void insertBatches(String jdbcUrl,
+                                      String tableName,
+                                      IdGenerator idGenerator,
+                                      AtomicLong nextBatchStart,
+                                      long segmentEnd,
+                                      int batchSize,
+                                      AtomicLong insertedRows) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl);
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO " + tableName +
+                     " (id, saga_id, created_at, payload) VALUES (?, ?, ?, ?)")) {
+            connection.setAutoCommit(false);
+
+            long batchStart;
+            while ((batchStart = nextBatchStart.getAndAdd(batchSize)) < segmentEnd) {
+                long batchEnd = Math.min(batchStart + batchSize, segmentEnd);
+                for (long row = batchStart; row < batchEnd; row++) {
+                    statement.setObject(1, idGenerator.generateId());
+                    statement.setObject(2, idGenerator.generateId());
+                    statement.setTimestamp(3, Timestamp.from(Instant.now()));
+                    statement.setString(4, PAYLOAD.formatted(idGenerator.generateId()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+                insertedRows.addAndGet(batchEnd - batchStart);
+            }
+        }
+    }
+}
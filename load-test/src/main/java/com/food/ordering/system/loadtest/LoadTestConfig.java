@@ -0,0 +1,92 @@
+package com.food.ordering.system.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/* Options of a load test run. They are read from the system properties(-Dload-test.<name>=...), so they can be passed to
+mvn exec:java as they are:
+ - rates: the order rates(orders per second) of the stages, comma separated. Each rate is run as its own stage, one after the other.
+ - duration-seconds: how long the orders are submitted in a stage.
+ - warm-up-seconds: orders are submitted at the first rate for this long before the first stage and not measured. The first orders
+ after the start warm up the jit, the connection pools and the kafka producers, they would only distort the first stage.
+ - completion-timeout-seconds: how long a stage waits for its orders to be APPROVED or CANCELLED after the last submit. An order that
+ is still not done after that is counted as timed out.
+ - poll-interval-ms: how often the orders table is polled for the completed orders. It's the resolution of the measured latencies.
+ - customer-count: number of seeded customers. The orders are spread over them round robin.
+ - cancelled-ratio: ratio of the customers that have no credit, their orders are cancelled by the payment svc. So both the success
+ and the compensation path of the saga are under load.
+ - report-file, baseline-file: where the json report is written and the baseline that it's compared to(see LoadTestReport).
+ - max-regression-percent, fail-on-regression: a stage regresses if its p99 latency is higher or its throughput is lower than the
+ baseline by more than this percent. With fail-on-regression the run exits with 1 then, so a CI job fails.
+ - virtual-threads: sets spring.threads.virtual.enabled of all the services to true or false. Without it, each service runs with the
+ value of its config file. See LoadTestRunner for comparing the two modes. */
+@Getter
+@Builder
+@AllArgsConstructor
+public class LoadTestConfig {
+    private static final String PREFIX = "load-test.";
+
+    private final List<Integer> rates;
+    private final int durationSeconds;
+    private final int warmUpSeconds;
+    private final int completionTimeoutSeconds;
+    private final long pollIntervalMs;
+    private final int customerCount;
+    private final double cancelledRatio;
+    private final Path repositoryRoot;
+    private final Path reportFile;
+    private final Path baselineFile;
+    private final double maxRegressionPercent;
+    private final boolean failOnRegression;
+    // null if the threading mode of the config files is used.
+    private final Boolean virtualThreads;
+
+    public static LoadTestConfig fromSystemProperties() {
+        Path repositoryRoot = Path.of(getProperty("repository-root", findRepositoryRoot().toString()));
+        String virtualThreads = getProperty("virtual-threads", null);
+
+        return LoadTestConfig.builder()
+                .rates(Arrays.stream(getProperty("rates", "50,100,200").split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .toList())
+                .durationSeconds(Integer.parseInt(getProperty("duration-seconds", "60")))
+                .warmUpSeconds(Integer.parseInt(getProperty("warm-up-seconds", "20")))
+                .completionTimeoutSeconds(Integer.parseInt(getProperty("completion-timeout-seconds", "60")))
+                .pollIntervalMs(Long.parseLong(getProperty("poll-interval-ms", "50")))
+                .customerCount(Integer.parseInt(getProperty("customer-count", "1000")))
+                .cancelledRatio(Double.parseDouble(getProperty("cancelled-ratio", "0.1")))
+                .repositoryRoot(repositoryRoot)
+                .reportFile(Path.of(getProperty("report-file",
+                        repositoryRoot.resolve("load-test/target/load-test-report.json").toString())))
+                .baselineFile(Path.of(getProperty("baseline-file",
+                        repositoryRoot.resolve("load-test/baseline.json").toString())))
+                .maxRegressionPercent(Double.parseDouble(getProperty("max-regression-percent", "20")))
+                .failOnRegression(Boolean.parseBoolean(getProperty("fail-on-regression", "false")))
+                .virtualThreads(virtualThreads == null ? null : Boolean.valueOf(virtualThreads))
+                .build();
+    }
+
+    private static String getProperty(String name, String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+
+    /* mvn exec:java runs in the directory of the module when it's started with -pl, and in the root directory otherwise. */
+    private static Path findRepositoryRoot() {
+        Path directory = Path.of("").toAbsolutePath();
+        while (directory != null) {
+            if (Files.isDirectory(directory.resolve("order-service"))) {
+                return directory;
+            }
+            directory = directory.getParent();
+        }
+
+        throw new IllegalStateException("Could not find the root directory of the repository, set -D" + PREFIX + "repository-root");
+    }
+}
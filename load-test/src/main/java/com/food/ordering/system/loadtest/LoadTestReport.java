@@ -0,0 +1,99 @@
+package com.food.ordering.system.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* The machine readable result of a load test run:
+{
+  "createdAt": "...",
+  "maxRegressionPercent": 20.0,
+  "stages": [ { "targetRate": 100, "throughput": 99.4, "p99LatencyMs": 412.0, ... }, ... ],
+  "regressions": [ "..." ]
+}
+
+The stages are compared to the stages of the baseline file with the same targetRate. A baseline is the report of an earlier run that
+is accepted as good(copy the report to load-test/baseline.json), it's best created on the same machine as the CI runs on, because the
+numbers only make sense in comparison to the same hardware. A stage regresses when its p99 latency is more than max-regression-percent
+higher or its throughput is more than max-regression-percent lower than in the baseline. Stages without a baseline are not compared. */
+@Slf4j
+public class LoadTestReport {
+    private final LoadTestConfig loadTestConfig;
+    private final ObjectMapper objectMapper;
+
+    public LoadTestReport(LoadTestConfig loadTestConfig) {
+        this.loadTestConfig = loadTestConfig;
+        this.objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /* writes the report and returns the regressions, empty if there is no baseline or no stage regressed. */
+    public List<String> write(List<StageResult> stageResults) throws IOException {
+        List<String> regressions = compareToBaseline(stageResults);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("createdAt", ZonedDateTime.now(ZoneOffset.UTC).toString());
+        report.put("maxRegressionPercent", loadTestConfig.getMaxRegressionPercent());
+        // null if the services ran with the threading mode of their config files.
+        report.put("virtualThreads", loadTestConfig.getVirtualThreads());
+        report.put("stages", stageResults);
+        report.put("regressions", regressions);
+
+        Path reportFile = loadTestConfig.getReportFile();
+        if (reportFile.getParent() != null) {
+            Files.createDirectories(reportFile.getParent());
+        }
+        objectMapper.writeValue(reportFile.toFile(), report);
+        log.info("Load test report is written to {}", reportFile);
+
+        return regressions;
+    }
+
+    private List<String> compareToBaseline(List<StageResult> stageResults) throws IOException {
+        Path baselineFile = loadTestConfig.getBaselineFile();
+        List<String> regressions = new ArrayList<>();
+        if (!Files.exists(baselineFile)) {
+            log.info("There is no baseline at {}, the results are not compared", baselineFile);
+            return regressions;
+        }
+
+        Map<Integer, JsonNode> baselineStages = new LinkedHashMap<>();
+        for (JsonNode baselineStage : objectMapper.readTree(baselineFile.toFile()).path("stages")) {
+            baselineStages.put(baselineStage.path("targetRate").asInt(), baselineStage);
+        }
+
+        double tolerance = loadTestConfig.getMaxRegressionPercent() / 100;
+        for (StageResult stageResult : stageResults) {
+            JsonNode baselineStage = baselineStages.get(stageResult.getTargetRate());
+            if (baselineStage == null) {
+                continue;
+            }
+
+            double baselineP99 = baselineStage.path("p99LatencyMs").asDouble();
+            if (baselineP99 > 0 && stageResult.getP99LatencyMs() > baselineP99 * (1 + tolerance)) {
+                regressions.add("%d orders/s: p99 latency is %.1f ms, baseline is %.1f ms".formatted(stageResult.getTargetRate(),
+                        stageResult.getP99LatencyMs(), baselineP99));
+            }
+
+            double baselineThroughput = baselineStage.path("throughput").asDouble();
+            if (stageResult.getThroughput() < baselineThroughput * (1 - tolerance)) {
+                regressions.add("%d orders/s: throughput is %.1f orders/s, baseline is %.1f orders/s".formatted(
+                        stageResult.getTargetRate(), stageResult.getThroughput(), baselineThroughput));
+            }
+        }
+
+        regressions.forEach(regression -> log.warn("Regression against the baseline: {}", regression));
+
+        return regressions;
+    }
+}
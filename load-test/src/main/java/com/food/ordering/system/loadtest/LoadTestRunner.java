@@ -0,0 +1,68 @@
+package com.food.ordering.system.loadtest;
+
+import com.food.ordering.system.order.service.application.rest.OrderController;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* Runs the whole saga(order -> payment -> restaurant approval -> order) under load in one JVM: embedded postgres, embedded kafka and
+the order, payment and restaurant services, each one as its own spring context with the config of its container module.
+
+From the root directory of the repository:
+    mvn -pl load-test -am install -DskipTests
+    mvn -pl load-test exec:java -Dload-test.rates=50,100,200 -Dload-test.duration-seconds=60
+
+The options are described in LoadTestConfig. The rates are run one after the other as stages, each with its own latency percentiles
+and throughput, and the report is written to load-test/target/load-test-report.json. With -Dload-test.fail-on-regression=true the
+run exits with 1 if a stage regressed against load-test/baseline.json(see LoadTestReport).
+
+To compare the platform thread and the virtual thread mode of the services(spring.threads.virtual.enabled), run the same stages in
+both modes and use the report of the first run as the baseline of the second:
+    mvn -pl load-test exec:java -Dload-test.virtual-threads=false -Dload-test.report-file=target/platform-threads-report.json
+    mvn -pl load-test exec:java -Dload-test.virtual-threads=true -Dload-test.report-file=target/virtual-threads-report.json \
+        -Dload-test.baseline-file=target/platform-threads-report.json
+The second report has the latencies and the throughput of both runs per stage, and lists the stages where the virtual thread mode
+is worse than the platform thread mode by more than max-regression-percent. The DB pool size is the same in both modes.
+
+The numbers are not the numbers of a production setup: everything shares the cpus of one machine and kafka has a single broker.
+They are meant to be compared with the numbers of earlier runs on the same machine, to see what a change does to the saga. */
+@Slf4j
+public class LoadTestRunner {
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig loadTestConfig = LoadTestConfig.fromSystemProperties();
+        List<String> regressions;
+
+        try (EmbeddedInfrastructure embeddedInfrastructure = EmbeddedInfrastructure.start();
+             ServiceLauncher serviceLauncher = new ServiceLauncher(loadTestConfig, embeddedInfrastructure)) {
+            ConfigurableApplicationContext orderServiceContext = serviceLauncher.startServices();
+
+            TestDataSeeder testDataSeeder = new TestDataSeeder(embeddedInfrastructure.getPostgresDataSource(), loadTestConfig);
+            testDataSeeder.seed();
+
+            OrderLoadGenerator orderLoadGenerator = new OrderLoadGenerator(orderServiceContext.getBean(OrderController.class),
+                    embeddedInfrastructure.getPostgresDataSource(), testDataSeeder, loadTestConfig);
+
+            if (loadTestConfig.getWarmUpSeconds() > 0) {
+                log.info("Warming up for {} s", loadTestConfig.getWarmUpSeconds());
+                orderLoadGenerator.runStage(loadTestConfig.getRates().get(0), loadTestConfig.getWarmUpSeconds());
+            }
+
+            List<StageResult> stageResults = new ArrayList<>();
+            for (int rate : loadTestConfig.getRates()) {
+                stageResults.add(orderLoadGenerator.runStage(rate, loadTestConfig.getDurationSeconds()));
+            }
+
+            regressions = new LoadTestReport(loadTestConfig).write(stageResults);
+        }
+
+        if (!regressions.isEmpty() && loadTestConfig.isFailOnRegression()) {
+            log.error("{} regressions against the baseline", regressions.size());
+            System.exit(1);
+        }
+
+        // the kafka clients and the schedulers of the services may leave non daemon threads behind.
+        System.exit(0);
+    }
+}
@@ -0,0 +1,208 @@
+package com.food.ordering.system.loadtest;
+
+import com.food.ordering.system.order.service.application.rest.OrderController;
+import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
+import com.food.ordering.system.order.service.domain.dto.create.CreateOrderResponse;
+import com.food.ordering.system.order.service.domain.dto.create.OrderAddress;
+import com.food.ordering.system.order.service.domain.dto.create.OrderItem;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Creates orders with a fixed rate through the OrderController of the order svc and measures how long their sagas take.
+
+The load is open loop: an order is submitted every 1/rate seconds, no matter how long the previous ones take(each one on its own
+virtual thread). A closed loop(N threads that submit the next order when their previous one returns) would slow down with the
+system and hide the queueing that builds up under load, it measures a lower latency the more the system is overloaded.
+
+An order is done when its status in the orders table is APPROVED or CANCELLED. The pending orders are polled every poll-interval-ms,
+so the latencies are up to one poll interval longer than the sagas really take. The throughput of a stage is the number of done
+orders divided by the time from the first submit until the last order is done, so a system that can't keep up with the rate shows
+a lower throughput than the rate. */
+@Slf4j
+public class OrderLoadGenerator {
+    private static final UUID RESTAURANT_ID = UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb45");
+    private static final UUID PRODUCT_ID = UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb48");
+    private static final BigDecimal PRODUCT_PRICE = new BigDecimal("50.00");
+    private static final int POLL_BATCH_SIZE = 1000;
+
+    private static final String COMPLETED_ORDERS_QUERY = "SELECT tracking_id, order_status::text FROM \"order\".orders " +
+            "WHERE tracking_id = ANY(?) AND order_status IN ('APPROVED', 'CANCELLED')";
+
+    private final OrderController orderController;
+    private final DataSource dataSource;
+    private final TestDataSeeder testDataSeeder;
+    private final LoadTestConfig loadTestConfig;
+    private final AtomicInteger nextCustomerNumber = new AtomicInteger();
+
+    public OrderLoadGenerator(OrderController orderController,
+                              DataSource dataSource,
+                              TestDataSeeder testDataSeeder,
+                              LoadTestConfig loadTestConfig) {
+        this.orderController = orderController;
+        this.dataSource = dataSource;
+        this.testDataSeeder = testDataSeeder;
+        this.loadTestConfig = loadTestConfig;
+    }
+
+    public StageResult runStage(int rate, int durationSeconds) throws InterruptedException {
+        Map<UUID, Long> pendingOrders = new ConcurrentHashMap<>();
+        List<Long> latencyNanos = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong submitted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong approved = new AtomicLong();
+        AtomicLong cancelled = new AtomicLong();
+        AtomicLong lastCompletionNanos = new AtomicLong();
+        long firstSubmitNanos = System.nanoTime();
+
+        log.info("Stage with {} orders/s for {} s is started", rate, durationSeconds);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try (ExecutorService submitExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            scheduler.scheduleAtFixedRate(() -> submitExecutor.execute(() -> {
+                long submitNanos = System.nanoTime();
+                submitted.incrementAndGet();
+                try {
+                    // with async-accept-enabled, the future is completed after the group commit of the order.
+                    CreateOrderResponse createOrderResponse = orderController.createOrder(createOrderCommand()).join().getBody();
+                    pendingOrders.put(createOrderResponse.getOrderTrackingId(), submitNanos);
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                    log.debug("Order is rejected", e);
+                }
+            }), 0, TimeUnit.SECONDS.toNanos(1) / rate, TimeUnit.NANOSECONDS);
+
+            long submitEndNanos = firstSubmitNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+            while (System.nanoTime() < submitEndNanos) {
+                pollCompletedOrders(pendingOrders, latencyNanos, approved, cancelled, lastCompletionNanos);
+                Thread.sleep(loadTestConfig.getPollIntervalMs());
+            }
+            scheduler.shutdownNow();
+            // closing the executor waits for the submits that are still running.
+        } finally {
+            scheduler.shutdownNow();
+        }
+
+        long completionDeadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(loadTestConfig.getCompletionTimeoutSeconds());
+        while (!pendingOrders.isEmpty() && System.nanoTime() < completionDeadlineNanos) {
+            pollCompletedOrders(pendingOrders, latencyNanos, approved, cancelled, lastCompletionNanos);
+            Thread.sleep(loadTestConfig.getPollIntervalMs());
+        }
+
+        long completed = approved.get() + cancelled.get();
+        double elapsedSeconds = (lastCompletionNanos.get() - firstSubmitNanos) / 1e9;
+        List<Long> sortedLatencyNanos = new ArrayList<>(latencyNanos);
+        Collections.sort(sortedLatencyNanos);
+
+        StageResult stageResult = StageResult.builder()
+                .targetRate(rate)
+                .durationSeconds(durationSeconds)
+                .submitted(submitted.get())
+                .approved(approved.get())
+                .cancelled(cancelled.get())
+                .rejected(rejected.get())
+                .timedOut(pendingOrders.size())
+                .throughput(completed > 0 && elapsedSeconds > 0 ? completed / elapsedSeconds : 0)
+                .p50LatencyMs(getPercentileMs(sortedLatencyNanos, 50))
+                .p90LatencyMs(getPercentileMs(sortedLatencyNanos, 90))
+                .p99LatencyMs(getPercentileMs(sortedLatencyNanos, 99))
+                .maxLatencyMs(getPercentileMs(sortedLatencyNanos, 100))
+                .build();
+
+        log.info("Stage with {} orders/s is done: {} submitted, {} approved, {} cancelled, {} rejected, {} timed out, " +
+                        "throughput: {} orders/s, p50: {} ms, p99: {} ms", rate, stageResult.getSubmitted(), stageResult.getApproved(),
+                stageResult.getCancelled(), stageResult.getRejected(), stageResult.getTimedOut(),
+                String.format("%.1f", stageResult.getThroughput()), stageResult.getP50LatencyMs(), stageResult.getP99LatencyMs());
+
+        return stageResult;
+    }
+
+    private void pollCompletedOrders(Map<UUID, Long> pendingOrders,
+                                     List<Long> latencyNanos,
+                                     AtomicLong approved,
+                                     AtomicLong cancelled,
+                                     AtomicLong lastCompletionNanos) {
+        if (pendingOrders.isEmpty()) {
+            return;
+        }
+
+        List<UUID> trackingIds = new ArrayList<>(pendingOrders.keySet());
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(COMPLETED_ORDERS_QUERY)) {
+            for (int from = 0; from < trackingIds.size(); from += POLL_BATCH_SIZE) {
+                List<UUID> batch = trackingIds.subList(from, Math.min(from + POLL_BATCH_SIZE, trackingIds.size()));
+                Array ids = connection.createArrayOf("uuid", batch.toArray());
+                statement.setArray(1, ids);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    long pollNanos = System.nanoTime();
+                    while (resultSet.next()) {
+                        Long submitNanos = pendingOrders.remove(resultSet.getObject(1, UUID.class));
+                        if (submitNanos == null) {
+                            continue;
+                        }
+
+                        latencyNanos.add(pollNanos - submitNanos);
+                        lastCompletionNanos.accumulateAndGet(pollNanos, Math::max);
+                        if ("APPROVED".equals(resultSet.getString(2))) {
+                            approved.incrementAndGet();
+                        } else {
+                            cancelled.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Could not poll the completed orders, they are polled again", e);
+        }
+    }
+
+    private CreateOrderCommand createOrderCommand() {
+        int customerNumber = Math.floorMod(nextCustomerNumber.getAndIncrement(), loadTestConfig.getCustomerCount());
+
+        return CreateOrderCommand.builder()
+                .customerId(testDataSeeder.getCustomerId(customerNumber))
+                .restaurantId(RESTAURANT_ID)
+                .address(OrderAddress.builder()
+                        .street("street_1")
+                        .postalCode("1000AB")
+                        .city("Paris")
+                        .build())
+                .price(PRODUCT_PRICE)
+                .items(List.of(OrderItem.builder()
+                        .productId(PRODUCT_ID)
+                        .quantity(1)
+                        .price(PRODUCT_PRICE)
+                        .subTotal(PRODUCT_PRICE)
+                        .build()))
+                .build();
+    }
+
+    private double getPercentileMs(List<Long> sortedLatencyNanos, int percentile) {
+        if (sortedLatencyNanos.isEmpty()) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencyNanos.size()) - 1;
+
+        return sortedLatencyNanos.get(Math.max(index, 0)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,104 @@
+package com.food.ordering.system.loadtest;
+
+import com.food.ordering.system.loadtest.order.OrderServiceLoadTestConfiguration;
+import com.food.ordering.system.loadtest.payment.PaymentServiceLoadTestConfiguration;
+import com.food.ordering.system.loadtest.restaurant.RestaurantServiceLoadTestConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Starts the services as separate spring contexts in the JVM of the load test. Each context gets the application.yml and the init sql
+files of its container module from the source tree, so the load test runs with the config that is shipped, only the addresses of
+postgres and kafka(and the schema registry) are overridden with command line args. Command line args win over the config file.
+
+The restaurant svc is started first, because its init-schema.sql creates the materialized view that the order svc reads the
+restaurants from. The payment svc comes next and the order svc last, so no order is created before its listeners are running.
+
+The schema registry is replaced by the mock registry of the confluent serializers(mock://). The avro schemas are registered in the
+JVM, which is enough since all the services run in the same JVM. */
+@Slf4j
+public class ServiceLauncher implements AutoCloseable {
+    private static final String MOCK_SCHEMA_REGISTRY_URL = "mock://load-test";
+
+    private final LoadTestConfig loadTestConfig;
+    private final EmbeddedInfrastructure embeddedInfrastructure;
+    private final List<ConfigurableApplicationContext> applicationContexts = new ArrayList<>();
+
+    public ServiceLauncher(LoadTestConfig loadTestConfig, EmbeddedInfrastructure embeddedInfrastructure) {
+        this.loadTestConfig = loadTestConfig;
+        this.embeddedInfrastructure = embeddedInfrastructure;
+    }
+
+    public ConfigurableApplicationContext startServices() throws IOException {
+        start(RestaurantServiceLoadTestConfiguration.class, "restaurant-service/restaurant-container", "application.yml", true);
+        start(PaymentServiceLoadTestConfiguration.class, "payment-service/payment-container", "application.yml", true);
+
+        return start(OrderServiceLoadTestConfiguration.class, "order-service/order-container", "application.yaml", false);
+    }
+
+    @Override
+    public void close() {
+        // the reverse order of the start, so the order svc stops creating sagas first.
+        for (int i = applicationContexts.size() - 1; i >= 0; i--) {
+            applicationContexts.get(i).close();
+        }
+        applicationContexts.clear();
+    }
+
+    private ConfigurableApplicationContext start(Class<?> configurationClass,
+                                                 String containerModule,
+                                                 String configFileName,
+                                                 boolean withInitData) throws IOException {
+        Path resources = loadTestConfig.getRepositoryRoot().resolve(containerModule).resolve("src/main/resources");
+        Path configFile = resources.resolve(configFileName);
+        if (!Files.exists(configFile)) {
+            throw new IllegalStateException("Config file " + configFile + " of " + containerModule + " does not exist");
+        }
+
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.config.location=file:" + configFile,
+                "--spring.datasource.url=" + getDatasourceUrl(configFile),
+                "--spring.sql.init.schema-locations=file:" + resources.resolve("init-schema.sql") + ", optional:file:" +
+                        resources.resolve("init-schema-partitioned-outbox-${outbox-relay.partitioning-enabled:false}.sql"),
+                "--server.port=0",
+                "--kafka-config.bootstrap-servers=" + embeddedInfrastructure.getKafkaBootstrapServers(),
+                "--kafka-config.schema-registry-url=" + MOCK_SCHEMA_REGISTRY_URL,
+                "--kafka-config.replication-factor=1"));
+        if (loadTestConfig.getVirtualThreads() != null) {
+            args.add("--spring.threads.virtual.enabled=" + loadTestConfig.getVirtualThreads());
+        }
+        if (withInitData) {
+            args.add("--spring.sql.init.data-locations=file:" + resources.resolve("init-data.sql"));
+        }
+
+        log.info("Starting {}", containerModule);
+        ConfigurableApplicationContext applicationContext = new SpringApplicationBuilder(configurationClass)
+                .run(args.toArray(String[]::new));
+        applicationContexts.add(applicationContext);
+
+        return applicationContext;
+    }
+
+    /* the url of the config file(with its currentSchema and the other params), pointed at the embedded postgres. */
+    private String getDatasourceUrl(Path configFile) throws IOException {
+        List<PropertySource<?>> propertySources = new YamlPropertySourceLoader().load(configFile.toString(),
+                new FileSystemResource(configFile));
+        String url = propertySources.stream()
+                .map(propertySource -> propertySource.getProperty("spring.datasource.url"))
+                .filter(property -> property != null)
+                .map(Object::toString)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("spring.datasource.url is not set in " + configFile));
+
+        return url.replaceFirst("//[^/]+/", "//localhost:" + embeddedInfrastructure.getPostgresPort() + "/");
+    }
+}
@@ -0,0 +1,25 @@
+package com.food.ordering.system.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/* Result of one stage of a load test run, one entry of the stages array of the report. The latencies are in milliseconds, from the
+call of OrderController.createOrder() until the order is seen as APPROVED or CANCELLED in the orders table. */
+@Getter
+@Builder
+@AllArgsConstructor
+public class StageResult {
+    private final int targetRate;
+    private final int durationSeconds;
+    private final long submitted;
+    private final long approved;
+    private final long cancelled;
+    private final long rejected;
+    private final long timedOut;
+    private final double throughput;
+    private final double p50LatencyMs;
+    private final double p90LatencyMs;
+    private final double p99LatencyMs;
+    private final double maxLatencyMs;
+}
@@ -0,0 +1,85 @@
+package com.food.ordering.system.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/* Seeds the customers of the load test after the services have created their schemas. The customers are inserted into the customer
+table of the order svc directly(instead of through the customer svc and the customer topic) and get their credit in the payment
+svc. The ids are derived from the number of the customer, so the load generator knows them without reading them back.
+
+The last cancelled-ratio part of the customers gets no credit, so their payments fail and the sagas of their orders end with
+CANCELLED. The other customers get more credit than a load test can spend. */
+@Slf4j
+public class TestDataSeeder {
+    private static final String CUSTOMER_ID = "md5('load-test-customer-' || n)::uuid";
+    private static final String ROW_ID = "md5('load-test-%s-' || n)::uuid";
+    private static final String CREDIT = "CASE WHEN n < ? THEN 99999999.99 ELSE 0.00 END";
+
+    private static final String INSERT_CUSTOMERS = "INSERT INTO \"order\".customers(id, username, first_name, last_name) " +
+            "SELECT " + CUSTOMER_ID + ", 'load_test_' || n, 'Load', 'Test ' || n FROM generate_series(0, ? - 1) AS n";
+    private static final String INSERT_CREDIT_ENTRIES = "INSERT INTO payment.credit_entry(id, customer_id, total_credit_amount) " +
+            "SELECT " + ROW_ID.formatted("credit-entry") + ", " + CUSTOMER_ID + ", " + CREDIT + " FROM generate_series(0, ? - 1) AS n";
+    private static final String INSERT_CREDIT_HISTORIES = "INSERT INTO payment.credit_history(id, customer_id, amount, type) " +
+            "SELECT " + ROW_ID.formatted("credit-history") + ", " + CUSTOMER_ID + ", " + CREDIT + ", 'CREDIT' " +
+            "FROM generate_series(0, ? - 1) AS n";
+    private static final String INSERT_CREDIT_BALANCES = "INSERT INTO payment.credit_balance(customer_id, total_credit_amount, " +
+            "total_debit_amount, last_credit_history_id) SELECT " + CUSTOMER_ID + ", " + CREDIT + ", 0.00, " +
+            ROW_ID.formatted("credit-history") + " FROM generate_series(0, ? - 1) AS n";
+
+    private final DataSource dataSource;
+    private final LoadTestConfig loadTestConfig;
+
+    public TestDataSeeder(DataSource dataSource, LoadTestConfig loadTestConfig) {
+        this.dataSource = dataSource;
+        this.loadTestConfig = loadTestConfig;
+    }
+
+    public void seed() throws SQLException {
+        int customerCount = loadTestConfig.getCustomerCount();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            insert(connection, INSERT_CUSTOMERS, customerCount);
+            for (String insert : new String[] { INSERT_CREDIT_ENTRIES, INSERT_CREDIT_HISTORIES, INSERT_CREDIT_BALANCES }) {
+                insert(connection, insert, getCreditedCustomerCount(), customerCount);
+            }
+            connection.commit();
+        }
+
+        log.info("{} customers are seeded, {} of them have no credit", customerCount, customerCount - getCreditedCustomerCount());
+    }
+
+    /* the same id as md5('load-test-customer-' || n)::uuid in postgres. */
+    public UUID getCustomerId(int customerNumber) {
+        try {
+            ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("MD5")
+                    .digest(("load-test-customer-" + customerNumber).getBytes(StandardCharsets.UTF_8)));
+
+            return new UUID(digest.getLong(), digest.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported by the JVM", e);
+        }
+    }
+
+    private int getCreditedCustomerCount() {
+        return (int) Math.round(loadTestConfig.getCustomerCount() * (1 - loadTestConfig.getCancelledRatio()));
+    }
+
+    private void insert(Connection connection, String sql, int... params) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setInt(i + 1, params[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.food.ordering.system.loadtest.order;
+
+import com.food.ordering.system.order.service.domain.OrderDomainService;
+import com.food.ordering.system.order.service.domain.OrderDomainServiceImpl;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/* The same as OrderServiceApplication and the BeanConfiguration of order-container. The classes of all the services are on the
+classpath of the load test, so the component scan leaves out the packages of the other services. */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableJpaRepositories(basePackages = { "com.food.ordering.system.order.service.dataaccess", "com.food.ordering.system.dataaccess" })
+@EntityScan(basePackages = { "com.food.ordering.system.order.service.dataaccess", "com.food.ordering.system.dataaccess" })
+@ComponentScan(basePackages = "com.food.ordering.system", excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX,
+        pattern = "com\\.food\\.ordering\\.system\\.(payment|restaurant|customer|loadtest)\\..*"))
+public class OrderServiceLoadTestConfiguration {
+    @Bean
+    public OrderDomainService orderDomainService() {
+        return new OrderDomainServiceImpl();
+    }
+}
@@ -0,0 +1,25 @@
+package com.food.ordering.system.loadtest.payment;
+
+import com.food.ordering.system.payment.service.domain.PaymentDomainService;
+import com.food.ordering.system.payment.service.domain.PaymentDomainServiceImpl;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/* The same as PaymentServiceApplication and the BeanConfiguration of payment-container, without the packages of the other services. */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableJpaRepositories(basePackages = "com.food.ordering.system.payment.service.dataaccess")
+@EntityScan(basePackages = "com.food.ordering.system.payment.service.dataaccess")
+@ComponentScan(basePackages = "com.food.ordering.system", excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX,
+        pattern = "com\\.food\\.ordering\\.system\\.(order|restaurant|customer|loadtest)\\..*"))
+public class PaymentServiceLoadTestConfiguration {
+    @Bean
+    public PaymentDomainService paymentDomainService() {
+        return new PaymentDomainServiceImpl();
+    }
+}
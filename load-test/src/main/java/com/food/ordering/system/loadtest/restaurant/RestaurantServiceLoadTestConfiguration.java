@@ -0,0 +1,26 @@
+package com.food.ordering.system.loadtest.restaurant;
+
+import com.food.ordering.system.restaurant.service.domain.RestaurantDomainService;
+import com.food.ordering.system.restaurant.service.domain.RestaurantDomainServiceImpl;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/* The same as RestaurantServiceApplication and the BeanConfiguration of restaurant-container, without the packages of the other
+services. */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableJpaRepositories(basePackages = { "com.food.ordering.system.restaurant.service.dataaccess", "com.food.ordering.system.dataaccess" })
+@EntityScan(basePackages = { "com.food.ordering.system.restaurant.service.dataaccess", "com.food.ordering.system.dataaccess" })
+@ComponentScan(basePackages = "com.food.ordering.system", excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX,
+        pattern = "com\\.food\\.ordering\\.system\\.(order|payment|customer|loadtest)\\..*"))
+public class RestaurantServiceLoadTestConfiguration {
+    @Bean
+    public RestaurantDomainService restaurantDomainService() {
+        return new RestaurantDomainServiceImpl();
+    }
+}
@@ -0,0 +1,17 @@
+package com.food.ordering.system.order.service.application.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/* Maps the order-event-stream config of the order svc(see OrderStatusEventBroadcaster). */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "order-event-stream")
+public class OrderEventStreamConfigData {
+    private int maxSubscriptions;
+    private long emitterTimeoutMs;
+    private int bufferSize;
+    private long writeTimeoutMs;
+    private long heartbeatIntervalMs;
+}
@@ -0,0 +1,7 @@
+package com.food.ordering.system.order.service.application.exception;
+
+public class OrderEventStreamLimitException extends RuntimeException {
+    public OrderEventStreamLimitException(String message) {
+        super(message);
+    }
+}
@@ -2,8 +2,11 @@ package com.food.ordering.system.order.service.application.exception.handler;
 
 import com.food.ordering.system.application.handler.ErrorDTO;
 import com.food.ordering.system.application.handler.GlobalExceptionHandler;
+import com.food.ordering.system.order.service.application.exception.OrderEventStreamLimitException;
+import com.food.ordering.system.order.service.domain.exception.OrderAcceptanceQueueFullException;
 import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
 import com.food.ordering.system.order.service.domain.exception.OrderNotFoundException;
+import com.food.ordering.system.order.service.domain.exception.OrderSaveFailedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -40,4 +43,42 @@ public class OrderGlobalExceptionHandler extends GlobalExceptionHandler {
                 .message(orderNotFoundException.getMessage()) // the message comes from order domain layer
                 .build();
     }
+
+    // the client can retry later or on another instance, or poll GET /orders/{trackingId} in the meantime.
+    @ResponseBody
+    @ExceptionHandler(value = {OrderEventStreamLimitException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorDTO handleException(OrderEventStreamLimitException orderEventStreamLimitException) {
+        log.warn(orderEventStreamLimitException.getMessage());
+
+        return ErrorDTO.builder()
+                .code(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message(orderEventStreamLimitException.getMessage())
+                .build();
+    }
+
+    @ResponseBody
+    @ExceptionHandler(value = {OrderAcceptanceQueueFullException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorDTO handleException(OrderAcceptanceQueueFullException orderAcceptanceQueueFullException) {
+        log.warn(orderAcceptanceQueueFullException.getMessage());
+
+        return ErrorDTO.builder()
+                .code(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message(orderAcceptanceQueueFullException.getMessage())
+                .build();
+    }
+
+    // the order is valid, it can be submitted again.
+    @ResponseBody
+    @ExceptionHandler(value = {OrderSaveFailedException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorDTO handleException(OrderSaveFailedException orderSaveFailedException) {
+        log.error(orderSaveFailedException.getMessage(), orderSaveFailedException);
+
+        return ErrorDTO.builder()
+                .code(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message(orderSaveFailedException.getMessage())
+                .build();
+    }
 }
@@ -1,45 +1,111 @@
 package com.food.ordering.system.order.service.application.rest;
 
+import com.food.ordering.system.order.service.application.sse.OrderStatusEventBroadcaster;
+import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResponse;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderResponse;
 import com.food.ordering.system.order.service.domain.dto.track.TrackOrderQuery;
 import com.food.ordering.system.order.service.domain.dto.track.TrackOrderResponse;
 import com.food.ordering.system.order.service.domain.ports.input.service.OrderApplicationService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
 @RequestMapping(value = "/orders", produces = "application/vnd.api.v1+json")
 public class OrderController {
     private final OrderApplicationService orderApplicationService;
+    private final OrderStatusEventBroadcaster orderStatusEventBroadcaster;
+    private final OrderServiceConfigData orderServiceConfigData;
 
-    public OrderController(OrderApplicationService orderApplicationService) {
+    public OrderController(OrderApplicationService orderApplicationService,
+                           OrderStatusEventBroadcaster orderStatusEventBroadcaster,
+                           OrderServiceConfigData orderServiceConfigData) {
         this.orderApplicationService = orderApplicationService;
+        this.orderStatusEventBroadcaster = orderStatusEventBroadcaster;
+        this.orderServiceConfigData = orderServiceConfigData;
     }
 
+    /* With order-service.async-accept-enabled, the order is handed over to the group commit writer and the request thread is released
+    right away. Spring MVC keeps the request open(async servlet request) and writes 202 Accepted when the future completes, which is
+    after the group tx of the order commits(see OrderGroupCommitWriter). A rejected order completes the future with its exception and
+    it's handled by OrderGlobalExceptionHandler like in the sync mode. */
     @PostMapping
-    public ResponseEntity<CreateOrderResponse> createOrder(@RequestBody CreateOrderCommand createOrderCommand) {
+    public CompletableFuture<ResponseEntity<CreateOrderResponse>> createOrder(@RequestBody CreateOrderCommand createOrderCommand) {
         log.info("Creating order for customer: {} at restaurant: {}", createOrderCommand.getCustomerId(), createOrderCommand.getRestaurantId());
 
+        if (orderServiceConfigData.isAsyncAcceptEnabled()) {
+            return orderApplicationService.acceptOrder(createOrderCommand)
+                    .thenApply(createOrderResponse -> {
+                        log.info("Order accepted with tracking id: {}", createOrderResponse.getOrderTrackingId());
+
+                        return ResponseEntity.accepted().body(createOrderResponse);
+                    });
+        }
+
         CreateOrderResponse createOrderResponse = orderApplicationService.createOrder(createOrderCommand);
 
         log.info("Order created with tracking id: {}", createOrderResponse.getOrderTrackingId());
 
-        return ResponseEntity.ok(createOrderResponse);
+        return CompletableFuture.completedFuture(ResponseEntity.ok(createOrderResponse));
+    }
+
+    /* Creates many orders with one request, e.g. for the partners that forward the orders of their own customers. The body is a json
+    array of the same objects as the body of POST /orders. Each order gets its own result(in the order of the request), an order that
+    is rejected doesn't stop the others. See OrderBatchCreateCommandHandler. */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateOrderResponse> createOrders(@RequestBody List<CreateOrderCommand> createOrderCommands) {
+        log.info("Creating a batch of {} orders", createOrderCommands.size());
+
+        BatchCreateOrderResponse batchCreateOrderResponse = orderApplicationService.createOrders(createOrderCommands);
+
+        log.info("Batch is created with {} orders and {} rejected orders", batchCreateOrderResponse.getCreatedCount(),
+                batchCreateOrderResponse.getRejectedCount());
+
+        return ResponseEntity.ok(batchCreateOrderResponse);
     }
 
+    /* The ETag is the version of the order tracking, which changes with every status change of the order. A client that polls with
+    If-None-Match and the last ETag gets 304 Not Modified without a body until the order changes. */
     @GetMapping("/{trackingId}")
-    public ResponseEntity<TrackOrderResponse> getOrderByTrackingId(@PathVariable UUID trackingId) {
+    public ResponseEntity<TrackOrderResponse> getOrderByTrackingId(@PathVariable UUID trackingId, WebRequest webRequest) {
         TrackOrderResponse trackOrderResponse = orderApplicationService.trackOrder(TrackOrderQuery.builder()
                 .orderTrackingId(trackingId)
                 .build());
 
+        String eTag = "\"" + trackOrderResponse.getVersion() + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            log.debug("Order status with tracking id: {} is not modified", trackingId);
+
+            // the response is already set to 304 Not Modified with the ETag header by checkNotModified().
+            return null;
+        }
+
         log.info("Returning order status with tracking id: {}", trackOrderResponse.getOrderTrackingId());
 
-        return ResponseEntity.ok(trackOrderResponse);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(trackOrderResponse);
+    }
+
+    /* Server-sent events of the status changes of an order, instead of polling GET /orders/{trackingId}. The current status is sent
+    first, then an order-status event(same body as GET /orders/{trackingId}, the event id is its ETag version) for every change until
+    the order is APPROVED or CANCELLED. See OrderStatusEventBroadcaster. */
+    @GetMapping(value = "/{trackingId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getOrderEvents(@PathVariable UUID trackingId) {
+        log.info("Subscribing to the order status events of tracking id: {}", trackingId);
+
+        return orderStatusEventBroadcaster.subscribe(trackingId, () -> orderApplicationService.trackOrder(TrackOrderQuery.builder()
+                .orderTrackingId(trackingId)
+                .build()));
     }
 }
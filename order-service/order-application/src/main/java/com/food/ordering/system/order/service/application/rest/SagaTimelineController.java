@@ -0,0 +1,42 @@
+package com.food.ordering.system.order.service.application.rest;
+
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaStageLatency;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaTimelineResponse;
+import com.food.ordering.system.order.service.domain.ports.input.service.SagaTimelineService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/* Diagnostic endpoints of the saga timelines(see SagaTimelineServiceImpl):
+ - /saga-timelines/{sagaId}: the stages of one saga in time order, with the time spent since the previous stage
+ - /saga-timelines/stage-latencies?lastMinutes=15: p50/p95/p99 of the time spent in each stage, over the sagas of the last minutes */
+@Slf4j
+@RestController
+@RequestMapping(value = "/saga-timelines", produces = "application/vnd.api.v1+json")
+public class SagaTimelineController {
+    private static final int MAX_LAST_MINUTES = 24 * 60;
+
+    private final SagaTimelineService sagaTimelineService;
+
+    public SagaTimelineController(SagaTimelineService sagaTimelineService) {
+        this.sagaTimelineService = sagaTimelineService;
+    }
+
+    @GetMapping("/{sagaId}")
+    public ResponseEntity<SagaTimelineResponse> getSagaTimeline(@PathVariable UUID sagaId) {
+        SagaTimelineResponse sagaTimelineResponse = sagaTimelineService.getSagaTimeline(sagaId);
+
+        log.info("Returning {} timeline stages of saga id: {}", sagaTimelineResponse.getStages().size(), sagaId);
+
+        return ResponseEntity.ok(sagaTimelineResponse);
+    }
+
+    // the window is capped, a percentile query over days of timelines would put a lot of load on the DB.
+    @GetMapping("/stage-latencies")
+    public ResponseEntity<List<SagaStageLatency>> getStageLatencies(@RequestParam(defaultValue = "15") int lastMinutes) {
+        return ResponseEntity.ok(sagaTimelineService.getStageLatencies(Math.max(1, Math.min(lastMinutes, MAX_LAST_MINUTES))));
+    }
+}
@@ -0,0 +1,164 @@
+package com.food.ordering.system.order.service.application.sse;
+
+import com.food.ordering.system.order.service.application.config.OrderEventStreamConfigData;
+import com.food.ordering.system.order.service.application.exception.OrderEventStreamLimitException;
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
+import com.food.ordering.system.order.service.domain.dto.track.TrackOrderResponse;
+import com.food.ordering.system.order.service.domain.mapper.OrderDataMapper;
+import com.food.ordering.system.order.service.domain.ports.output.message.publisher.tracking.OrderStatusChangedMessagePublisher;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/* Fans the status changes of the orders out to the open GET /orders/{trackingId}/events connections of this instance.
+
+The connections are async servlet requests(SseEmitter): after subscribe() returns, the tomcat request thread goes back to the pool and
+an idle connection only holds its socket in the NIO connector and a few objects here. So a node can keep many thousands of them open,
+the limits are max-subscriptions and server.tomcat.max-connections. The events are written by drain tasks that run on virtual threads,
+see OrderStatusSubscription for the bounded buffer of each connection. Each subscription has at most one drain task at a time, so there
+are at most max-subscriptions of them. SseEmitter.send() blocks until the client takes the bytes, which only parks the virtual thread
+of that connection, the other connections are written meanwhile. A write that blocks for longer than write-timeout-ms closes its
+connection(see closeSlowSubscriptions()).
+
+publish() is called by the sagas after their tx commits(see OrderTrackingProjection), it only puts the event into the buffers of the
+subscriptions of that order and returns. Only the changes that are processed by this instance are pushed. With more than one order svc
+instance, a change that is processed by another instance reaches the client when it reconnects(it gets the current status first) or
+with a GET /orders/{trackingId}, so the clients should still poll with a long interval and If-None-Match.
+
+Proxies and load balancers close the connections that are idle for too long, so a heartbeat comment is sent every
+heartbeat-interval-ms. The number of open connections is published as the order.event.stream.subscriptions gauge. */
+@Slf4j
+@Component
+public class OrderStatusEventBroadcaster implements OrderStatusChangedMessagePublisher {
+    private final OrderEventStreamConfigData orderEventStreamConfigData;
+    private final OrderDataMapper orderDataMapper;
+    private final Map<UUID, Set<OrderStatusSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+    private final Executor senderExecutor;
+
+    @Autowired
+    public OrderStatusEventBroadcaster(OrderEventStreamConfigData orderEventStreamConfigData,
+                                       OrderDataMapper orderDataMapper,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this(orderEventStreamConfigData, orderDataMapper, meterRegistry,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-event-sender-", 0).factory()));
+    }
+
+    // the tests run the drain tasks on their own thread.
+    OrderStatusEventBroadcaster(OrderEventStreamConfigData orderEventStreamConfigData,
+                                OrderDataMapper orderDataMapper,
+                                ObjectProvider<MeterRegistry> meterRegistry,
+                                Executor senderExecutor) {
+        this.orderEventStreamConfigData = orderEventStreamConfigData;
+        this.orderDataMapper = orderDataMapper;
+        this.senderExecutor = senderExecutor;
+
+        meterRegistry.ifAvailable(registry -> Gauge.builder("order.event.stream.subscriptions", subscriptionCount, AtomicInteger::get)
+                .description("Number of open order status event streams")
+                .register(registry));
+    }
+
+    /* The subscription is registered before the current status is read, so a change that commits in between is not lost: it's either
+    in the current status or it comes as an event(or both, then the older one is skipped by its version). */
+    public SseEmitter subscribe(UUID trackingId, Supplier<TrackOrderResponse> currentStatus) {
+        if (subscriptionCount.incrementAndGet() > orderEventStreamConfigData.getMaxSubscriptions()) {
+            subscriptionCount.decrementAndGet();
+            throw new OrderEventStreamLimitException("Order event stream limit of " +
+                    orderEventStreamConfigData.getMaxSubscriptions() + " connections is reached");
+        }
+
+        SseEmitter emitter = new SseEmitter(orderEventStreamConfigData.getEmitterTimeoutMs());
+        OrderStatusSubscription subscription = new OrderStatusSubscription(trackingId, emitter, senderExecutor,
+                orderEventStreamConfigData.getBufferSize(), this::unsubscribe);
+        // added inside compute(), so an unsubscribe() that removes the empty set of this order at the same time can't drop it.
+        subscriptions.compute(trackingId, (id, orderSubscriptions) -> {
+            Set<OrderStatusSubscription> newOrderSubscriptions = orderSubscriptions != null ? orderSubscriptions :
+                    ConcurrentHashMap.newKeySet();
+            newOrderSubscriptions.add(subscription);
+            return newOrderSubscriptions;
+        });
+
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+
+        try {
+            subscription.offer(currentStatus.get());
+        } catch (RuntimeException e) {
+            // e.g. OrderNotFoundException, the request fails with it and the emitter is never used.
+            subscription.close();
+            throw e;
+        }
+
+        log.debug("Order status events of order tracking id: {} are subscribed", trackingId);
+
+        return emitter;
+    }
+
+    @Override
+    public void publish(OrderTracking orderTracking) {
+        Set<OrderStatusSubscription> orderSubscriptions = subscriptions.get(orderTracking.getTrackingId());
+        if (orderSubscriptions == null) {
+            return;
+        }
+
+        TrackOrderResponse trackOrderResponse = orderDataMapper.orderTrackingToTrackOrderResponse(orderTracking);
+        orderSubscriptions.forEach(subscription -> subscription.offer(trackOrderResponse));
+    }
+
+    @Scheduled(fixedRateString = "${order-event-stream.heartbeat-interval-ms}",
+            initialDelayString = "${order-event-stream.heartbeat-interval-ms}")
+    public void sendHeartbeats() {
+        subscriptions.values().forEach(orderSubscriptions -> orderSubscriptions.forEach(OrderStatusSubscription::offerHeartbeat));
+    }
+
+    @Scheduled(fixedRateString = "${order-event-stream.write-timeout-ms}",
+            initialDelayString = "${order-event-stream.write-timeout-ms}")
+    public void closeSlowSubscriptions() {
+        long nowNanos = System.nanoTime();
+        long writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(orderEventStreamConfigData.getWriteTimeoutMs());
+        subscriptions.values().forEach(orderSubscriptions -> orderSubscriptions.forEach(subscription ->
+                subscription.closeIfWriteTimedOut(nowNanos, writeTimeoutNanos)));
+    }
+
+    // the clients reconnect to another instance.
+    @PreDestroy
+    public void stop() {
+        subscriptions.values().forEach(orderSubscriptions -> orderSubscriptions.forEach(subscription -> {
+            subscription.close();
+            subscription.getEmitter().complete();
+        }));
+        if (senderExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    int getSubscriptionCount() {
+        return subscriptionCount.get();
+    }
+
+    private void unsubscribe(OrderStatusSubscription subscription) {
+        subscriptions.computeIfPresent(subscription.getTrackingId(), (trackingId, orderSubscriptions) -> {
+            orderSubscriptions.remove(subscription);
+            return orderSubscriptions.isEmpty() ? null : orderSubscriptions;
+        });
+        subscriptionCount.decrementAndGet();
+    }
+}
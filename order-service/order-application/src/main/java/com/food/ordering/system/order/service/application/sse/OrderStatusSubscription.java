@@ -0,0 +1,204 @@
+package com.food.ordering.system.order.service.application.sse;
+
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import com.food.ordering.system.order.service.domain.dto.track.TrackOrderResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/* One open GET /orders/{trackingId}/events connection. The status changes are not written by the thread that offers them, they're put
+into a buffer of at most bufferSize events and written by a drain task of the sender executor(a virtual thread per task, see
+OrderStatusEventBroadcaster). So a slow client only holds a virtual thread, never a saga thread or a pooled thread that the other
+connections need, and it can't make the service buffer an unbounded number of events for it: when the buffer is full, the oldest event
+is dropped. Every event carries the whole status of the order, so a client that misses an event still ends up with the last status.
+
+At most one drain task of a subscription is queued or running at any time, so the events of a connection are written in order and
+never concurrently. Events with a version that is not newer than the last written one are skipped(e.g. the current status that is sent
+at subscribe time, racing with a change).
+
+A write that blocks for longer than the write timeout(a client that doesn't read) is found by closeIfWriteTimedOut(), which is called
+periodically. The subscription is closed, the blocked thread is interrupted and the emitter is completed on another task, because
+completing it waits for the write to end. */
+@Slf4j
+class OrderStatusSubscription {
+    static final String EVENT_NAME = "order-status";
+
+    private final UUID trackingId;
+    private final SseEmitter emitter;
+    private final Executor senderExecutor;
+    private final int bufferSize;
+    private final Consumer<OrderStatusSubscription> onClose;
+    private final Deque<TrackOrderResponse> buffer;
+    private boolean heartbeatPending;
+    private boolean draining;
+    private boolean closed;
+    private long lastSentVersion = -1;
+    // set while the emitter writes, so closeIfWriteTimedOut() can find the writes that block.
+    private volatile Thread writingThread;
+    private volatile long writeStartedNanos;
+
+    OrderStatusSubscription(UUID trackingId,
+                            SseEmitter emitter,
+                            Executor senderExecutor,
+                            int bufferSize,
+                            Consumer<OrderStatusSubscription> onClose) {
+        this.trackingId = trackingId;
+        this.emitter = emitter;
+        this.senderExecutor = senderExecutor;
+        this.bufferSize = bufferSize;
+        this.onClose = onClose;
+        this.buffer = new ArrayDeque<>(bufferSize);
+    }
+
+    UUID getTrackingId() {
+        return trackingId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    void offer(TrackOrderResponse trackOrderResponse) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            if (buffer.size() >= bufferSize) {
+                TrackOrderResponse dropped = buffer.pollFirst();
+                log.debug("Event buffer of order tracking id: {} is full, dropping the event with version: {}", trackingId,
+                        dropped.getVersion());
+            }
+            buffer.addLast(trackOrderResponse);
+        }
+
+        scheduleDrain();
+    }
+
+    void offerHeartbeat() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            heartbeatPending = true;
+        }
+
+        scheduleDrain();
+    }
+
+    // called when the connection is completed, timed out or failed. The emitter itself is completed by the caller(or by the container).
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            buffer.clear();
+        }
+
+        onClose.accept(this);
+    }
+
+    /* Returns true if the subscription is closed because its current write started more than writeTimeoutNanos before nowNanos. */
+    boolean closeIfWriteTimedOut(long nowNanos, long writeTimeoutNanos) {
+        Thread blockedThread = writingThread;
+        if (blockedThread == null || nowNanos - writeStartedNanos <= writeTimeoutNanos) {
+            return false;
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+        }
+
+        log.warn("Order status event of order tracking id: {} could not be written in {} ms, the connection is closed", trackingId,
+                TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+        close();
+        blockedThread.interrupt();
+        senderExecutor.execute(emitter::complete);
+
+        return true;
+    }
+
+    private void scheduleDrain() {
+        synchronized (this) {
+            if (draining || closed) {
+                return;
+            }
+
+            draining = true;
+        }
+
+        senderExecutor.execute(this::drain);
+    }
+
+    private void drain() {
+        while (true) {
+            TrackOrderResponse trackOrderResponse;
+            boolean heartbeat;
+            synchronized (this) {
+                trackOrderResponse = buffer.pollFirst();
+                heartbeat = trackOrderResponse == null && heartbeatPending;
+                heartbeatPending = false;
+                if (trackOrderResponse == null && !heartbeat || closed) {
+                    draining = false;
+                    return;
+                }
+            }
+
+            try {
+                if (heartbeat) {
+                    write(SseEmitter.event().comment("heartbeat"));
+                } else if (trackOrderResponse.getVersion() > lastSentVersion) {
+                    send(trackOrderResponse);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client is gone, the emitter calls onError/onCompletion and the subscription is closed from there.
+                log.debug("Could not send the order status event of order tracking id: {}", trackingId, e);
+                completeAndClose();
+            }
+        }
+    }
+
+    private void send(TrackOrderResponse trackOrderResponse) throws IOException {
+        write(SseEmitter.event()
+                .id(String.valueOf(trackOrderResponse.getVersion()))
+                .name(EVENT_NAME)
+                .data(trackOrderResponse, MediaType.APPLICATION_JSON));
+        lastSentVersion = trackOrderResponse.getVersion();
+
+        /* there won't be any other status change after these, so the connection is closed instead of staying open until the timeout. A
+        client that reconnects anyway gets the final status again and is closed again. */
+        if (trackOrderResponse.getOrderStatus() == OrderStatus.APPROVED || trackOrderResponse.getOrderStatus() == OrderStatus.CANCELLED) {
+            completeAndClose();
+        }
+    }
+
+    private void write(SseEmitter.SseEventBuilder event) throws IOException {
+        writeStartedNanos = System.nanoTime();
+        writingThread = Thread.currentThread();
+        try {
+            emitter.send(event);
+        } finally {
+            writingThread = null;
+            // an interrupt of closeIfWriteTimedOut() that came after the write ended must not leak into what the thread runs next.
+            Thread.interrupted();
+        }
+    }
+
+    private void completeAndClose() {
+        close();
+        emitter.complete();
+    }
+}
@@ -0,0 +1,93 @@
+package com.food.ordering.system.order.service.application.sse;
+
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import com.food.ordering.system.order.service.application.config.OrderEventStreamConfigData;
+import com.food.ordering.system.order.service.application.exception.OrderEventStreamLimitException;
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
+import com.food.ordering.system.order.service.domain.dto.track.TrackOrderResponse;
+import com.food.ordering.system.order.service.domain.exception.OrderNotFoundException;
+import com.food.ordering.system.order.service.domain.mapper.OrderDataMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/* The open subscriptions are counted against max-subscriptions, so every subscription that ends has to give its place back. The drain
+tasks run on the test thread. */
+public class OrderStatusEventBroadcasterTest {
+    private static final UUID TRACKING_ID = UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb18");
+    private static final UUID ORDER_ID = UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb17");
+
+    private OrderStatusEventBroadcaster orderStatusEventBroadcaster;
+
+    @BeforeEach
+    void init() {
+        OrderEventStreamConfigData orderEventStreamConfigData = new OrderEventStreamConfigData();
+        orderEventStreamConfigData.setMaxSubscriptions(1);
+        orderEventStreamConfigData.setEmitterTimeoutMs(60000);
+        orderEventStreamConfigData.setBufferSize(8);
+        orderEventStreamConfigData.setWriteTimeoutMs(10000);
+
+        orderStatusEventBroadcaster = new OrderStatusEventBroadcaster(orderEventStreamConfigData, new OrderDataMapper(),
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class), Runnable::run);
+    }
+
+    @Test
+    void testSubscriptionIsCountedUntilFinalStatus() {
+        orderStatusEventBroadcaster.subscribe(TRACKING_ID, () -> getTrackOrderResponse(1, OrderStatus.PAID));
+        assertEquals(1, orderStatusEventBroadcaster.getSubscriptionCount());
+
+        orderStatusEventBroadcaster.publish(getOrderTracking(2, OrderStatus.APPROVED));
+
+        assertEquals(0, orderStatusEventBroadcaster.getSubscriptionCount());
+    }
+
+    @Test
+    void testSubscriptionIsNotCountedWhenCurrentStatusFails() {
+        assertThrows(OrderNotFoundException.class, () -> orderStatusEventBroadcaster.subscribe(TRACKING_ID, () -> {
+            throw new OrderNotFoundException("Could not find order with tracking id: " + TRACKING_ID);
+        }));
+
+        assertEquals(0, orderStatusEventBroadcaster.getSubscriptionCount());
+        // the place is free again.
+        orderStatusEventBroadcaster.subscribe(TRACKING_ID, () -> getTrackOrderResponse(1, OrderStatus.PAID));
+        assertEquals(1, orderStatusEventBroadcaster.getSubscriptionCount());
+    }
+
+    @Test
+    void testSubscriptionOverLimitIsRejected() {
+        orderStatusEventBroadcaster.subscribe(TRACKING_ID, () -> getTrackOrderResponse(1, OrderStatus.PAID));
+
+        assertThrows(OrderEventStreamLimitException.class, () -> orderStatusEventBroadcaster.subscribe(TRACKING_ID,
+                () -> getTrackOrderResponse(1, OrderStatus.PAID)));
+        assertEquals(1, orderStatusEventBroadcaster.getSubscriptionCount());
+    }
+
+    private TrackOrderResponse getTrackOrderResponse(long version, OrderStatus orderStatus) {
+        return TrackOrderResponse.builder()
+                .orderTrackingId(TRACKING_ID)
+                .orderStatus(orderStatus)
+                .failureMessages(new ArrayList<>())
+                .version(version)
+                .build();
+    }
+
+    private OrderTracking getOrderTracking(long version, OrderStatus orderStatus) {
+        return OrderTracking.builder()
+                .trackingId(TRACKING_ID)
+                .orderId(ORDER_ID)
+                .orderStatus(orderStatus)
+                .failureMessages(new ArrayList<>())
+                .version(version)
+                .updatedAt(ZonedDateTime.now(ZoneOffset.UTC))
+                .build();
+    }
+}
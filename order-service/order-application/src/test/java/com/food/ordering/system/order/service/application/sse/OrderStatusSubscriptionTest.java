@@ -0,0 +1,164 @@
+package com.food.ordering.system.order.service.application.sse;
+
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import com.food.ordering.system.order.service.domain.dto.track.TrackOrderResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* The drain tasks run on the test thread: either right away(Runnable::run) or when runQueuedTasks() is called, so the events can be
+offered while a drain task is still waiting. The emitter only records what's sent to it. */
+public class OrderStatusSubscriptionTest {
+    private static final UUID TRACKING_ID = UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb18");
+    private static final long WRITE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final FakeSseEmitter emitter = new FakeSseEmitter();
+    private final Queue<Runnable> queuedTasks = new ArrayDeque<>();
+    private final AtomicInteger closeCount = new AtomicInteger();
+
+    @Test
+    void testOldestEventIsDroppedWhenBufferIsFull() {
+        OrderStatusSubscription subscription = createSubscription(queuedTasks::add, 2);
+
+        subscription.offer(getTrackOrderResponse(1, OrderStatus.PENDING));
+        subscription.offer(getTrackOrderResponse(2, OrderStatus.PAID));
+        subscription.offer(getTrackOrderResponse(3, OrderStatus.PAID));
+        // one drain task for all of them.
+        assertEquals(1, queuedTasks.size());
+        runQueuedTasks();
+
+        assertEquals(List.of(2L, 3L), emitter.getSentVersions());
+    }
+
+    @Test
+    void testStaleVersionIsSkipped() {
+        OrderStatusSubscription subscription = createSubscription(Runnable::run, 8);
+
+        subscription.offer(getTrackOrderResponse(2, OrderStatus.PAID));
+        subscription.offer(getTrackOrderResponse(1, OrderStatus.PENDING));
+        subscription.offer(getTrackOrderResponse(2, OrderStatus.PAID));
+        subscription.offer(getTrackOrderResponse(3, OrderStatus.PAID));
+
+        assertEquals(List.of(2L, 3L), emitter.getSentVersions());
+    }
+
+    @Test
+    void testConnectionIsClosedOnApproved() {
+        assertConnectionIsClosedOn(OrderStatus.APPROVED);
+    }
+
+    @Test
+    void testConnectionIsClosedOnCancelled() {
+        assertConnectionIsClosedOn(OrderStatus.CANCELLED);
+    }
+
+    @Test
+    void testBlockedWriteIsClosedAfterWriteTimeout() {
+        OrderStatusSubscription subscription = createSubscription(Runnable::run, 8);
+        // the check runs while the write blocks, once before and once after the write timeout.
+        emitter.onSend(() -> {
+            long writeStartedNanos = System.nanoTime();
+            assertFalse(subscription.closeIfWriteTimedOut(writeStartedNanos, WRITE_TIMEOUT_NANOS));
+            assertTrue(subscription.closeIfWriteTimedOut(writeStartedNanos + WRITE_TIMEOUT_NANOS + 1, WRITE_TIMEOUT_NANOS));
+        });
+
+        subscription.offer(getTrackOrderResponse(1, OrderStatus.PENDING));
+
+        assertEquals(1, closeCount.get());
+        assertTrue(emitter.isCompleted());
+        // the interrupt of the blocked write is cleared after it.
+        assertFalse(Thread.currentThread().isInterrupted());
+
+        subscription.offer(getTrackOrderResponse(2, OrderStatus.PAID));
+        assertEquals(List.of(1L), emitter.getSentVersions());
+    }
+
+    @Test
+    void testIdleSubscriptionIsNotClosedByWriteTimeout() {
+        OrderStatusSubscription subscription = createSubscription(Runnable::run, 8);
+        subscription.offer(getTrackOrderResponse(1, OrderStatus.PENDING));
+
+        assertFalse(subscription.closeIfWriteTimedOut(System.nanoTime() + WRITE_TIMEOUT_NANOS * 2, WRITE_TIMEOUT_NANOS));
+        assertEquals(0, closeCount.get());
+    }
+
+    private void assertConnectionIsClosedOn(OrderStatus finalStatus) {
+        OrderStatusSubscription subscription = createSubscription(Runnable::run, 8);
+
+        subscription.offer(getTrackOrderResponse(1, OrderStatus.PAID));
+        subscription.offer(getTrackOrderResponse(2, finalStatus));
+        subscription.offer(getTrackOrderResponse(3, finalStatus));
+
+        assertEquals(List.of(1L, 2L), emitter.getSentVersions());
+        assertTrue(emitter.isCompleted());
+        assertEquals(1, closeCount.get());
+    }
+
+    private OrderStatusSubscription createSubscription(Executor senderExecutor, int bufferSize) {
+        return new OrderStatusSubscription(TRACKING_ID, emitter, senderExecutor, bufferSize,
+                subscription -> closeCount.incrementAndGet());
+    }
+
+    private void runQueuedTasks() {
+        Runnable task;
+        while ((task = queuedTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private TrackOrderResponse getTrackOrderResponse(long version, OrderStatus orderStatus) {
+        return TrackOrderResponse.builder()
+                .orderTrackingId(TRACKING_ID)
+                .orderStatus(orderStatus)
+                .failureMessages(new ArrayList<>())
+                .version(version)
+                .build();
+    }
+
+    private static class FakeSseEmitter extends SseEmitter {
+        private final List<Long> sentVersions = new ArrayList<>();
+        private Runnable onSend = () -> {
+        };
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            onSend.run();
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(TrackOrderResponse.class::isInstance)
+                    .map(data -> ((TrackOrderResponse) data).getVersion())
+                    .forEach(sentVersions::add);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        void onSend(Runnable onSend) {
+            this.onSend = onSend;
+        }
+
+        List<Long> getSentVersions() {
+            return sentVersions;
+        }
+
+        boolean isCompleted() {
+            return completed;
+        }
+    }
+}
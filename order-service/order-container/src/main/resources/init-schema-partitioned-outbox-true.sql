@@ -0,0 +1,148 @@
+-- Runs after init-schema.sql only when outbox-relay.partitioning-enabled is true(see spring.sql.init.schema-locations). It creates
+-- payment_outbox and restaurant_approval_outbox again, range partitioned by created_at with one partition per UTC day, so that
+-- OutboxPartitionManager can drop the completed days instead of deleting their rows.
+
+DROP TABLE IF EXISTS "order".payment_outbox CASCADE;
+
+CREATE TABLE "order".payment_outbox
+(
+    id uuid NOT NULL,
+    saga_id uuid NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    processed_at TIMESTAMP WITH TIME ZONE,
+    type character varying COLLATE pg_catalog."default" NOT NULL,
+    payload jsonb,
+    payload_bytes bytea,
+    outbox_status outbox_status NOT NULL,
+    saga_status saga_status NOT NULL,
+    order_status order_status NOT NULL,
+    version integer NOT NULL,
+    locked_until TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT payment_outbox_payload_check CHECK (payload IS NOT NULL OR payload_bytes IS NOT NULL),
+    -- the partition key must be part of the primary key and of every unique index of a partitioned table.
+    CONSTRAINT payment_outbox_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX "payment_outbox_saga_status"
+    ON "order".payment_outbox
+        (type, outbox_status, saga_status);
+
+CREATE INDEX "payment_outbox_started_created_at"
+    ON "order".payment_outbox
+        (created_at) WHERE outbox_status = 'STARTED';
+
+DROP TABLE IF EXISTS "order".restaurant_approval_outbox CASCADE;
+
+CREATE TABLE "order".restaurant_approval_outbox
+(
+    id uuid NOT NULL,
+    saga_id uuid NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    processed_at TIMESTAMP WITH TIME ZONE,
+    type character varying COLLATE pg_catalog."default" NOT NULL,
+    payload jsonb NOT NULL,
+    outbox_status outbox_status NOT NULL,
+    saga_status saga_status NOT NULL,
+    order_status order_status NOT NULL,
+    version integer NOT NULL,
+    CONSTRAINT restaurant_approval_outbox_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX "restaurant_approval_outbox_saga_status"
+    ON "order".restaurant_approval_outbox
+        (type, outbox_status, saga_status);
+
+CREATE INDEX "restaurant_approval_outbox_started_created_at"
+    ON "order".restaurant_approval_outbox
+        (created_at) WHERE outbox_status = 'STARTED';
+
+-- A unique index on (type, saga_id, saga_status) can't be created on a partitioned table, it would need created_at and then a
+-- second row of a saga with another created_at would not be rejected. So the saga keys of the rows are kept in these small tables that
+-- are not partitioned, and their primary key rejects a duplicate key like the unique indexes of init-schema.sql do: the triggers below
+-- write them in the same tx as the outbox row, so a second tx that inserts(or updates to) the same saga status gets a unique violation
+-- and is rolled back. OutboxPartitionManager deletes the keys of a partition before it's dropped.
+DROP TABLE IF EXISTS "order".payment_outbox_saga_key CASCADE;
+
+CREATE TABLE "order".payment_outbox_saga_key
+(
+    type character varying COLLATE pg_catalog."default" NOT NULL,
+    saga_id uuid NOT NULL,
+    saga_status saga_status NOT NULL,
+    CONSTRAINT payment_outbox_saga_key_pkey PRIMARY KEY (type, saga_id, saga_status)
+);
+
+DROP TABLE IF EXISTS "order".restaurant_approval_outbox_saga_key CASCADE;
+
+CREATE TABLE "order".restaurant_approval_outbox_saga_key
+(
+    type character varying COLLATE pg_catalog."default" NOT NULL,
+    saga_id uuid NOT NULL,
+    saga_status saga_status NOT NULL,
+    CONSTRAINT restaurant_approval_outbox_saga_key_pkey PRIMARY KEY (type, saga_id, saga_status)
+);
+
+-- The key table is given as the trigger argument. An update that doesn't change the saga key(e.g. the outbox status updates) does
+-- nothing, the ones that only set outbox_status don't even fire the trigger because of UPDATE OF.
+DROP function IF EXISTS "order".maintain_outbox_saga_key CASCADE;
+
+CREATE OR replace function "order".maintain_outbox_saga_key()
+    returns trigger
+AS '
+    BEGIN
+        IF TG_OP = ''UPDATE'' AND OLD.type = NEW.type AND OLD.saga_id = NEW.saga_id AND OLD.saga_status = NEW.saga_status THEN
+            return null;
+        END IF;
+        IF TG_OP IN (''UPDATE'', ''DELETE'') THEN
+            EXECUTE format(''DELETE FROM "order".%I WHERE type = $1 AND saga_id = $2 AND saga_status = $3'', TG_ARGV[0])
+                USING OLD.type, OLD.saga_id, OLD.saga_status;
+        END IF;
+        IF TG_OP IN (''INSERT'', ''UPDATE'') THEN
+            EXECUTE format(''INSERT INTO "order".%I(type, saga_id, saga_status) VALUES ($1, $2, $3)'', TG_ARGV[0])
+                USING NEW.type, NEW.saga_id, NEW.saga_status;
+        END IF;
+        return null;
+    END;
+'  LANGUAGE plpgsql;
+
+CREATE trigger maintain_payment_outbox_saga_key
+    after INSERT OR DELETE OR UPDATE OF type, saga_id, saga_status
+    ON "order".payment_outbox FOR each row
+EXECUTE PROCEDURE "order".maintain_outbox_saga_key('payment_outbox_saga_key');
+
+CREATE trigger maintain_restaurant_approval_outbox_saga_key
+    after INSERT OR DELETE OR UPDATE OF type, saga_id, saga_status
+    ON "order".restaurant_approval_outbox FOR each row
+EXECUTE PROCEDURE "order".maintain_outbox_saga_key('restaurant_approval_outbox_saga_key');
+
+-- the notification triggers of init-schema.sql are dropped with the tables.
+CREATE trigger notify_payment_outbox_inserted
+    after INSERT
+    ON "order".payment_outbox FOR each statement
+EXECUTE PROCEDURE "order".notify_outbox_inserted();
+
+CREATE trigger notify_restaurant_approval_outbox_inserted
+    after INSERT
+    ON "order".restaurant_approval_outbox FOR each statement
+EXECUTE PROCEDURE "order".notify_outbox_inserted();
+
+-- takes the rows that don't fit a daily partition, e.g. when the partitions of a day couldn't be created in time.
+CREATE TABLE "order".payment_outbox_default PARTITION OF "order".payment_outbox DEFAULT;
+
+CREATE TABLE "order".restaurant_approval_outbox_default PARTITION OF "order".restaurant_approval_outbox DEFAULT;
+
+-- the partition of today, so the first inserts don't go to the default partition. OutboxPartitionManager creates the partitions of the
+-- next partition-premake-days days when the app is ready and with partition-maintenance-cron, and drops the old ones once all of their
+-- rows are completed.
+DO '
+    DECLARE
+        partition_date date := (now() AT TIME ZONE ''UTC'')::date;
+        outbox_table text;
+    BEGIN
+        FOREACH outbox_table IN ARRAY ARRAY[''payment_outbox'', ''restaurant_approval_outbox'']
+        LOOP
+            EXECUTE format(''CREATE TABLE IF NOT EXISTS "order".%I PARTITION OF "order".%I FOR VALUES FROM (%L) TO (%L)'',
+                           outbox_table || ''_p'' || to_char(partition_date, ''YYYYMMDD''), outbox_table,
+                           partition_date::text || '' 00:00:00+00'', (partition_date + 1)::text || '' 00:00:00+00'');
+        END LOOP;
+    END;
+' LANGUAGE plpgsql;
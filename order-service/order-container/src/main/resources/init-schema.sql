@@ -21,6 +21,8 @@ CREATE TABLE "order".orders
     CONSTRAINT orders_pkey PRIMARY KEY (id)
 );
 
+CREATE UNIQUE INDEX "orders_tracking_id_idx" ON "order".orders (tracking_id);
+
 DROP TABLE IF EXISTS "order".order_items CASCADE;
 
 CREATE TABLE "order".order_items
@@ -63,6 +65,21 @@ ALTER TABLE "order".order_address
         ON DELETE CASCADE
     NOT VALID;
 
+-- Read model of GET /orders/{trackingId}(see OrderTrackingProjection): one small row per order with only what the clients poll for.
+-- It's written in the same tx as the order, version is increased with every change of the order and is the ETag of the response.
+DROP TABLE IF EXISTS "order".order_tracking CASCADE;
+
+CREATE TABLE "order".order_tracking
+(
+    tracking_id uuid NOT NULL,
+    order_id uuid NOT NULL,
+    order_status order_status NOT NULL,
+    failure_messages character varying COLLATE pg_catalog."default",
+    version bigint NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT order_tracking_pkey PRIMARY KEY (tracking_id)
+);
+
 --
 
 DROP TYPE IF EXISTS saga_status;
@@ -75,6 +92,8 @@ CREATE TYPE outbox_status AS ENUM ('STARTED', 'COMPLETED', 'FAILED');
 
 DROP TABLE IF EXISTS "order".payment_outbox CASCADE;
 
+-- With outbox-relay.partitioning-enabled, this table and restaurant_approval_outbox are created again as partitioned tables by
+-- init-schema-partitioned-outbox-true.sql, which runs after this script.
 CREATE TABLE "order".payment_outbox
 (
     id uuid NOT NULL,
@@ -82,11 +101,14 @@ CREATE TABLE "order".payment_outbox
     created_at TIMESTAMP WITH TIME ZONE NOT NULL,
     processed_at TIMESTAMP WITH TIME ZONE,
     type character varying COLLATE pg_catalog."default" NOT NULL, -- type of the saga
-    payload jsonb NOT NULL, -- keeps the event data
+    payload jsonb, -- keeps the event data, when the payload format is json
+    payload_bytes bytea, -- the avro encoded kafka record value(with the schema id), when the payload format is avro
     outbox_status outbox_status NOT NULL,
     saga_status saga_status NOT NULL,
     order_status order_status NOT NULL,
     version integer NOT NULL, -- used for optimistic locking
+    locked_until TIMESTAMP WITH TIME ZONE, -- lease of the relay worker that claimed the row, see outbox-relay config
+    CONSTRAINT payment_outbox_payload_check CHECK (payload IS NOT NULL OR payload_bytes IS NOT NULL),
     CONSTRAINT payment_outbox_pkey PRIMARY KEY (id)
 );
 
@@ -99,6 +121,11 @@ CREATE UNIQUE INDEX "payment_outbox_saga_id"
    ON "order".payment_outbox
    (type, saga_id, saga_status);
 
+-- the relay only looks for the STARTED rows, this keeps its lookups small however big the completed part of the table grows.
+CREATE INDEX "payment_outbox_started_created_at"
+    ON "order".payment_outbox
+        (created_at) WHERE outbox_status = 'STARTED';
+
 DROP TABLE IF EXISTS "order".restaurant_approval_outbox CASCADE;
 
 CREATE TABLE "order".restaurant_approval_outbox
@@ -124,6 +151,37 @@ CREATE UNIQUE INDEX "restaurant_approval_outbox_saga_id"
    ON "order".restaurant_approval_outbox
    (type, saga_id, saga_status);
 
+CREATE INDEX "restaurant_approval_outbox_started_created_at"
+    ON "order".restaurant_approval_outbox
+        (created_at) WHERE outbox_status = 'STARTED';
+
+-- Wakes up the outbox schedulers of the service(see OutboxNotificationListener) right after an outbox message is committed. The channel
+-- must match outbox-relay.notify-channel and the payload is the table name that the schedulers return from getOutboxTableName().
+DROP function IF EXISTS "order".notify_outbox_inserted;
+
+CREATE OR replace function "order".notify_outbox_inserted()
+    returns trigger
+AS '
+    BEGIN
+        PERFORM pg_notify(''order_outbox_inserted'', TG_TABLE_NAME);
+        return null;
+    END;
+'  LANGUAGE plpgsql;
+
+DROP trigger IF EXISTS notify_payment_outbox_inserted ON "order".payment_outbox;
+
+CREATE trigger notify_payment_outbox_inserted
+    after INSERT
+    ON "order".payment_outbox FOR each statement
+EXECUTE PROCEDURE "order".notify_outbox_inserted();
+
+DROP trigger IF EXISTS notify_restaurant_approval_outbox_inserted ON "order".restaurant_approval_outbox;
+
+CREATE trigger notify_restaurant_approval_outbox_inserted
+    after INSERT
+    ON "order".restaurant_approval_outbox FOR each statement
+EXECUTE PROCEDURE "order".notify_outbox_inserted();
+
 DROP TABLE IF EXISTS "order".customers CASCADE;
 
 CREATE TABLE "order".customers
@@ -133,4 +191,30 @@ CREATE TABLE "order".customers
     first_name character varying COLLATE pg_catalog."default" NOT NULL,
     last_name character varying COLLATE pg_catalog."default" NOT NULL,
     CONSTRAINT customers_pkey PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+-- Append-only timeline of the sagas(see SagaTimelineServiceImpl), one row per stage. The rows are only inserted in batches and never
+-- updated, so there is no primary key on the saga id and stage(a stage that is recorded twice is deduplicated when it's read). The ids
+-- come from a sequence that hibernate allocates in blocks of 100, so a batch insert doesn't need a round trip per row.
+-- The BRIN index on recorded_at is tiny compared to a btree and is enough for the "last N minutes" percentile query, because the rows
+-- are inserted in roughly increasing recorded_at order.
+DROP TABLE IF EXISTS "order".saga_timeline CASCADE;
+DROP SEQUENCE IF EXISTS "order".saga_timeline_id_seq;
+
+CREATE SEQUENCE "order".saga_timeline_id_seq INCREMENT BY 100;
+
+CREATE TABLE "order".saga_timeline
+(
+    id bigint NOT NULL,
+    saga_id uuid NOT NULL,
+    stage character varying COLLATE pg_catalog."default" NOT NULL,
+    recorded_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT saga_timeline_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX "saga_timeline_saga_id"
+    ON "order".saga_timeline
+        (saga_id);
+
+CREATE INDEX "saga_timeline_recorded_at"
+    ON "order".saga_timeline USING brin
+        (recorded_at);
@@ -0,0 +1,127 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.domain.valueobject.PaymentStatus;
+import com.food.ordering.system.order.service.domain.dto.message.PaymentResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static com.food.ordering.system.saga.order.SagaConstants.ORDER_SAGA_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/* The db rejects a second outbox message of a saga and saga status, whatever its created_at is. Without partitioning that's the unique
+index restaurant_approval_outbox_saga_id, with it the primary key of restaurant_approval_outbox_saga_key(see
+PartitionedOutboxSagaUniqueIndexTest). The last test runs two payment responses of the same saga concurrently, only one approval
+outbox message is left. Uses the same data as OrderPaymentSagaTest. */
+@Slf4j
+@SpringBootTest(classes = OrderServiceApplication.class)
+@Sql(value = {"classpath:sql/OrderPaymentSagaTestSetup.sql"})
+@Sql(value = {"classpath:sql/OrderPaymentSagaTestCleanUp.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class OutboxSagaUniqueIndexTest {
+    private static final String INSERT_APPROVAL_OUTBOX_MESSAGE = "insert into \"order\".restaurant_approval_outbox" +
+            "(id, saga_id, created_at, type, payload, outbox_status, saga_status, order_status, version) " +
+            "values (?, ?, ?, ?, '{}', 'STARTED', 'PROCESSING', 'PAID', 0)";
+    private static final String COUNT_APPROVAL_OUTBOX_MESSAGES = "select count(*) from \"order\".restaurant_approval_outbox " +
+            "where type = ? and saga_id = ? and saga_status = 'PROCESSING'";
+    private static final String DELETE_APPROVAL_OUTBOX_MESSAGES = "delete from \"order\".restaurant_approval_outbox " +
+            "where type = ? and saga_id = ?";
+
+    @Autowired
+    private OrderPaymentSaga orderPaymentSaga;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07afa");
+    private final UUID ORDER_ID = UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb17");
+    private final UUID CUSTOMER_ID = UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb41");
+    private final UUID PAYMENT_ID = UUID.randomUUID();
+    private final BigDecimal PRICE = new BigDecimal("100");
+
+    @Test
+    void testIndexRejectsDuplicateWithSameCreatedAt() {
+        OffsetDateTime createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+        insertApprovalOutboxMessage(createdAt);
+
+        assertThrows(DataIntegrityViolationException.class, () -> insertApprovalOutboxMessage(createdAt));
+    }
+
+    // with partitioning, the second row would go into the partition of the previous day(or the default partition).
+    @Test
+    void testIndexRejectsDuplicateWithDifferentCreatedAt() {
+        OffsetDateTime createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+        insertApprovalOutboxMessage(createdAt);
+
+        assertThrows(DataIntegrityViolationException.class, () -> insertApprovalOutboxMessage(createdAt.minusDays(1)));
+        assertEquals(1, countApprovalOutboxMessages());
+    }
+
+    // the saga key of a deleted message is free again, e.g. after the cleaner scheduler deleted a completed message.
+    @Test
+    void testDuplicateIsAcceptedAfterMessageIsDeleted() {
+        OffsetDateTime createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+        insertApprovalOutboxMessage(createdAt);
+        jdbcTemplate.update(DELETE_APPROVAL_OUTBOX_MESSAGES, ORDER_SAGA_NAME, SAGA_ID);
+
+        insertApprovalOutboxMessage(createdAt.minusDays(1));
+
+        assertEquals(1, countApprovalOutboxMessages());
+    }
+
+    @Test
+    void testConcurrentPaymentResponsesInsertSingleApprovalOutboxMessage() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+
+        for (int i = 0; i < 2; i++) {
+            new Thread(() -> {
+                try {
+                    orderPaymentSaga.process(getPaymentResponse());
+                } catch (OptimisticLockingFailureException e) {
+                    log.error("OptimisticLockingFailureException occurred for {}", Thread.currentThread().getName());
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+
+        latch.await();
+
+        assertEquals(1, countApprovalOutboxMessages());
+    }
+
+    private void insertApprovalOutboxMessage(OffsetDateTime createdAt) {
+        jdbcTemplate.update(INSERT_APPROVAL_OUTBOX_MESSAGE, UUID.randomUUID(), SAGA_ID, createdAt, ORDER_SAGA_NAME);
+    }
+
+    private int countApprovalOutboxMessages() {
+        return jdbcTemplate.queryForObject(COUNT_APPROVAL_OUTBOX_MESSAGES, Integer.class, ORDER_SAGA_NAME, SAGA_ID);
+    }
+
+    private PaymentResponse getPaymentResponse() {
+        return PaymentResponse.builder()
+                .id(UUID.randomUUID().toString())
+                .sagaId(SAGA_ID.toString())
+                .paymentStatus(PaymentStatus.COMPLETED)
+                .paymentId(PAYMENT_ID.toString())
+                .orderId(ORDER_ID.toString())
+                .customerId(CUSTOMER_ID.toString())
+                .price(PRICE)
+                .createdAt(Instant.now())
+                .failureMessages(new ArrayList<>())
+                .build();
+    }
+}
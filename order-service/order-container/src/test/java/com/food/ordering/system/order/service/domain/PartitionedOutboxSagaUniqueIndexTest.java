@@ -0,0 +1,11 @@
+package com.food.ordering.system.order.service.domain;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+/* The tests of OutboxSagaUniqueIndexTest with the partitioned outbox tables of init-schema-partitioned-outbox-true.sql, whose unique
+keys can't leave out created_at. The saga keys are checked by restaurant_approval_outbox_saga_key instead. */
+@DirtiesContext
+@SpringBootTest(classes = OrderServiceApplication.class, properties = "outbox-relay.partitioning-enabled=true")
+public class PartitionedOutboxSagaUniqueIndexTest extends OutboxSagaUniqueIndexTest {
+}
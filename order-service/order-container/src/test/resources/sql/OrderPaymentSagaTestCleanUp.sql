@@ -1,3 +1,5 @@
 delete from "order".orders where id = 'd215b5f8-0249-4dc5-89a3-51fd148cfb17';
 
-delete from "order".payment_outbox where id = '8904808e-286f-449b-9b56-b63ba8351cf2';
\ No newline at end of file
+delete from "order".payment_outbox where id = '8904808e-286f-449b-9b56-b63ba8351cf2';
+
+delete from "order".restaurant_approval_outbox where saga_id = '15a497c1-0f4b-4eff-b9f4-c402c8c07afa';
\ No newline at end of file
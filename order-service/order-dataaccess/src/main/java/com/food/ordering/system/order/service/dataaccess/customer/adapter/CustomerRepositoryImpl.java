@@ -4,9 +4,11 @@ import com.food.ordering.system.order.service.dataaccess.customer.mapper.Custome
 import com.food.ordering.system.order.service.dataaccess.customer.repository.CustomerJpaRepository;
 import com.food.ordering.system.order.service.domain.entity.Customer;
 import com.food.ordering.system.order.service.domain.ports.output.repository.CustomerRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -33,4 +35,19 @@ public class CustomerRepositoryImpl implements CustomerRepository {
         return customerDataAccessMapper.customerEntityToCustomer(
                 customerJpaRepository.save(customerDataAccessMapper.customerToCustomerEntity(customer)));
     }
+
+    @Override
+    public boolean existsCustomer(UUID customerId) {
+        return customerJpaRepository.existsById(customerId);
+    }
+
+    @Override
+    public List<UUID> findCustomerIdsAfter(UUID customerId, int limit) {
+        return customerJpaRepository.findIdsAfter(customerId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<UUID> findExistingCustomerIds(List<UUID> customerIds) {
+        return customerJpaRepository.findIdsIn(customerIds);
+    }
 }
@@ -1,12 +1,22 @@
 package com.food.ordering.system.order.service.dataaccess.customer.repository;
 
 import com.food.ordering.system.order.service.dataaccess.customer.entity.CustomerEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 /* Use @Repository to make this interface as spring managed JPA bean. */
 @Repository
 public interface CustomerJpaRepository extends JpaRepository<CustomerEntity, UUID> {
+    // only the ids are selected, the customer entities are not materialized.
+    @Query("SELECT c.id FROM CustomerEntity c WHERE c.id > :customerId ORDER BY c.id")
+    List<UUID> findIdsAfter(@Param("customerId") UUID customerId, Pageable pageable);
+
+    @Query("SELECT c.id FROM CustomerEntity c WHERE c.id IN :customerIds")
+    List<UUID> findIdsIn(@Param("customerIds") List<UUID> customerIds);
 }
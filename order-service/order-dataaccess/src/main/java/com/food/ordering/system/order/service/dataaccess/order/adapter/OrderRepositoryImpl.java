@@ -6,19 +6,24 @@ import com.food.ordering.system.order.service.dataaccess.order.repository.OrderJ
 import com.food.ordering.system.order.service.domain.entity.Order;
 import com.food.ordering.system.order.service.domain.ports.output.repository.OrderRepository;
 import com.food.ordering.system.order.service.domain.valueobject.TrackingId;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Optional;
 
 @Component
 public class OrderRepositoryImpl implements OrderRepository {
     private final OrderJpaRepository orderJpaRepository;
     private final OrderDataAccessMapper orderDataAccessMapper;
+    private final EntityManager entityManager;
 
     public OrderRepositoryImpl(OrderJpaRepository orderJpaRepository,
-                               OrderDataAccessMapper orderDataAccessMapper) {
+                               OrderDataAccessMapper orderDataAccessMapper,
+                               EntityManager entityManager) {
         this.orderJpaRepository = orderJpaRepository;
         this.orderDataAccessMapper = orderDataAccessMapper;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -26,11 +31,26 @@ public class OrderRepositoryImpl implements OrderRepository {
         return orderDataAccessMapper.orderEntityToOrder(orderJpaRepository.save(orderDataAccessMapper.orderToOrderEntity(order)));
     }
 
+    /* save() merges an entity with an assigned id, which selects the order(and its items and address) first to see if it exists.
+    persist() only queues the inserts, hibernate sends them in jdbc batches at the flush. */
+    @Override
+    public void insertAll(List<Order> orders) {
+        orders.forEach(order -> entityManager.persist(orderDataAccessMapper.orderToOrderEntity(order)));
+        entityManager.flush();
+    }
+
     @Override
     public Optional<Order> findById(OrderId orderId) {
         return orderJpaRepository.findById(orderId.getValue()).map(orderDataAccessMapper::orderEntityToOrder);
     }
 
+    @Override
+    public List<Order> findByIds(List<OrderId> orderIds) {
+        return orderJpaRepository.findByIdIn(orderIds.stream().map(OrderId::getValue).toList()).stream()
+                .map(orderDataAccessMapper::orderEntityToOrder)
+                .toList();
+    }
+
     @Override
     public Optional<Order> findByTrackingId(TrackingId trackingId) {
         return orderJpaRepository.findByTrackingId(trackingId.getValue())
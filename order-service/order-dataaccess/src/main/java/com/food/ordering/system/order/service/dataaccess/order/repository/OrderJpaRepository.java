@@ -2,8 +2,11 @@ package com.food.ordering.system.order.service.dataaccess.order.repository;
 
 import com.food.ordering.system.order.service.dataaccess.order.entity.OrderEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +14,8 @@ import java.util.UUID;
 @Repository
 public interface OrderJpaRepository extends JpaRepository<OrderEntity, UUID> {
     Optional<OrderEntity> findByTrackingId(UUID trackingId);
+
+    // fetches the address and items together with the orders, instead of one more query per order for each of them.
+    @Query("SELECT DISTINCT o FROM OrderEntity o LEFT JOIN FETCH o.address LEFT JOIN FETCH o.items WHERE o.id IN :ids")
+    List<OrderEntity> findByIdIn(@Param("ids") List<UUID> ids);
 }
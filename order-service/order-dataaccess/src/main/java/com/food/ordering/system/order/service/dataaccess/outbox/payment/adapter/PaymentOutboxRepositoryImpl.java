@@ -1,5 +1,6 @@
 package com.food.ordering.system.order.service.dataaccess.outbox.payment.adapter;
 
+import com.food.ordering.system.order.service.dataaccess.outbox.payment.entity.PaymentOutboxEntity;
 import com.food.ordering.system.order.service.dataaccess.outbox.payment.exception.PaymentOutboxNotFoundException;
 import com.food.ordering.system.order.service.dataaccess.outbox.payment.mapper.PaymentOutboxDataAccessMapper;
 import com.food.ordering.system.order.service.dataaccess.outbox.payment.repository.PaymentOutboxJpaRepository;
@@ -7,8 +8,10 @@ import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderP
 import com.food.ordering.system.order.service.domain.ports.output.repository.PaymentOutboxRepository;
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.saga.SagaStatus;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Component;
 
+import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -20,11 +23,14 @@ public class PaymentOutboxRepositoryImpl implements PaymentOutboxRepository {
 
     private final PaymentOutboxJpaRepository paymentOutboxJpaRepository;
     private final PaymentOutboxDataAccessMapper paymentOutboxDataAccessMapper;
+    private final EntityManager entityManager;
 
     public PaymentOutboxRepositoryImpl(PaymentOutboxJpaRepository paymentOutboxJpaRepository,
-                                       PaymentOutboxDataAccessMapper paymentOutboxDataAccessMapper) {
+                                       PaymentOutboxDataAccessMapper paymentOutboxDataAccessMapper,
+                                       EntityManager entityManager) {
         this.paymentOutboxJpaRepository = paymentOutboxJpaRepository;
         this.paymentOutboxDataAccessMapper = paymentOutboxDataAccessMapper;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -35,6 +41,14 @@ public class PaymentOutboxRepositoryImpl implements PaymentOutboxRepository {
                                 .orderPaymentOutboxMessageToOutboxEntity(orderPaymentOutboxMessage)));
     }
 
+    // persist() instead of save(), which would select every message first(the version of a new message is 0, not null).
+    @Override
+    public void insertAll(List<OrderPaymentOutboxMessage> orderPaymentOutboxMessages) {
+        orderPaymentOutboxMessages.forEach(orderPaymentOutboxMessage -> entityManager.persist(paymentOutboxDataAccessMapper
+                .orderPaymentOutboxMessageToOutboxEntity(orderPaymentOutboxMessage)));
+        entityManager.flush();
+    }
+
     @Override
     public Optional<List<OrderPaymentOutboxMessage>> findByTypeAndOutboxStatusAndSagaStatus(String sagaType,
                                                                                             OutboxStatus outboxStatus,
@@ -58,6 +72,44 @@ public class PaymentOutboxRepositoryImpl implements PaymentOutboxRepository {
                 .map(paymentOutboxDataAccessMapper::paymentOutboxEntityToOrderPaymentOutboxMessage);
     }
 
+    @Override
+    public List<OrderPaymentOutboxMessage> findByTypeAndSagaIdsAndSagaStatus(String type,
+                                                                             List<UUID> sagaIds,
+                                                                             SagaStatus... sagaStatus) {
+        return paymentOutboxJpaRepository
+                .findByTypeAndSagaIdInAndSagaStatusIn(type, sagaIds, Arrays.asList(sagaStatus))
+                .stream()
+                .map(paymentOutboxDataAccessMapper::paymentOutboxEntityToOrderPaymentOutboxMessage)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<List<OrderPaymentOutboxMessage>> claimByTypeAndOutboxStatusAndSagaStatus(String type,
+                                                                                             OutboxStatus outboxStatus,
+                                                                                             int limit,
+                                                                                             ZonedDateTime lockedUntil,
+                                                                                             ZonedDateTime createdAfter,
+                                                                                             SagaStatus... sagaStatus) {
+        List<PaymentOutboxEntity> paymentOutboxEntities = paymentOutboxJpaRepository
+                .findAndLockByTypeAndOutboxStatusAndSagaStatusIn(type,
+                        outboxStatus.name(),
+                        Arrays.stream(sagaStatus).map(SagaStatus::name).collect(Collectors.toList()),
+                        createdAfter,
+                        limit);
+        paymentOutboxEntities.forEach(paymentOutboxEntity -> paymentOutboxEntity.setLockedUntil(lockedUntil));
+
+        /* flush to increment the versions now, so the returned messages carry the version that the outbox callback will check. */
+        return Optional.of(paymentOutboxJpaRepository.saveAllAndFlush(paymentOutboxEntities)
+                .stream()
+                .map(paymentOutboxDataAccessMapper::paymentOutboxEntityToOrderPaymentOutboxMessage)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public int updateOutboxStatusByIdsAndVersion(OutboxStatus outboxStatus, int version, List<UUID> ids) {
+        return paymentOutboxJpaRepository.updateOutboxStatusByIdInAndVersion(outboxStatus, ids, version);
+    }
+
     @Override
     public void deleteByTypeAndOutboxStatusAndSagaStatus(String type, OutboxStatus outboxStatus, SagaStatus... sagaStatus) {
         paymentOutboxJpaRepository.deleteByTypeAndOutboxStatusAndSagaStatusIn(type, outboxStatus,
@@ -25,6 +25,7 @@ public class PaymentOutboxEntity {
     private ZonedDateTime processedAt;
     private String type;
     private String payload;
+    private byte[] payloadBytes;
     @Enumerated(EnumType.STRING)
     private SagaStatus sagaStatus;
     @Enumerated(EnumType.STRING)
@@ -33,6 +34,7 @@ public class PaymentOutboxEntity {
     private OutboxStatus outboxStatus;
     @Version
     private int version; // to enable optimistic locking for this entity
+    private ZonedDateTime lockedUntil;
 
 
     @Override
@@ -15,10 +15,12 @@ public class PaymentOutboxDataAccessMapper {
                 .createdAt(orderPaymentOutboxMessage.getCreatedAt())
                 .type(orderPaymentOutboxMessage.getType())
                 .payload(orderPaymentOutboxMessage.getPayload())
+                .payloadBytes(orderPaymentOutboxMessage.getPayloadBytes())
                 .orderStatus(orderPaymentOutboxMessage.getOrderStatus())
                 .sagaStatus(orderPaymentOutboxMessage.getSagaStatus())
                 .outboxStatus(orderPaymentOutboxMessage.getOutboxStatus())
                 .version(orderPaymentOutboxMessage.getVersion())
+                .lockedUntil(orderPaymentOutboxMessage.getLockedUntil())
                 .build();
     }
 
@@ -30,10 +32,12 @@ public class PaymentOutboxDataAccessMapper {
                 .createdAt(paymentOutboxEntity.getCreatedAt())
                 .type(paymentOutboxEntity.getType())
                 .payload(paymentOutboxEntity.getPayload())
+                .payloadBytes(paymentOutboxEntity.getPayloadBytes())
                 .orderStatus(paymentOutboxEntity.getOrderStatus())
                 .sagaStatus(paymentOutboxEntity.getSagaStatus())
                 .outboxStatus(paymentOutboxEntity.getOutboxStatus())
                 .version(paymentOutboxEntity.getVersion())
+                .lockedUntil(paymentOutboxEntity.getLockedUntil())
                 .build();
     }
 
@@ -4,8 +4,12 @@ import com.food.ordering.system.order.service.dataaccess.outbox.payment.entity.P
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.saga.SagaStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,6 +25,30 @@ public interface PaymentOutboxJpaRepository extends JpaRepository<PaymentOutboxE
                                                                      UUID sagaId,
                                                                      List<SagaStatus> sagaStatus);
 
+    List<PaymentOutboxEntity> findByTypeAndSagaIdInAndSagaStatusIn(String type, List<UUID> sagaIds, List<SagaStatus> sagaStatus);
+
+    /* Rows that are locked by another claiming tx are skipped instead of waited for(SKIP LOCKED), so concurrent relay workers
+    always get disjoint batches. We pass the enums as strings, the postgres enum types are inferred because of stringtype=unspecified.
+    The lower bound on created_at lets postgres skip the old partitions of the table(partition pruning).*/
+    @Query(value = "SELECT * FROM payment_outbox " +
+            "WHERE type = :type AND outbox_status = :outboxStatus AND saga_status IN (:sagaStatus) " +
+            "AND created_at >= :createdAfter AND (locked_until IS NULL OR locked_until < now()) " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PaymentOutboxEntity> findAndLockByTypeAndOutboxStatusAndSagaStatusIn(@Param("type") String type,
+                                                                             @Param("outboxStatus") String outboxStatus,
+                                                                             @Param("sagaStatus") List<String> sagaStatus,
+                                                                             @Param("createdAfter") ZonedDateTime createdAfter,
+                                                                             @Param("limit") int limit);
+
+    /* Bulk update of the outbox statuses collected from the kafka callbacks. A bulk update doesn't go through the @Version check of
+    JPA, so we check and increment the version ourselves. The rows that are updated by another tx in the meantime are not updated. */
+    @Modifying
+    @Query("UPDATE PaymentOutboxEntity o SET o.outboxStatus = :outboxStatus, o.version = o.version + 1 " +
+            "WHERE o.id IN :ids AND o.version = :version")
+    int updateOutboxStatusByIdInAndVersion(@Param("outboxStatus") OutboxStatus outboxStatus,
+                                           @Param("ids") List<UUID> ids,
+                                           @Param("version") int version);
+
     void deleteByTypeAndOutboxStatusAndSagaStatusIn(String type,
                                                     OutboxStatus outboxStatus,
                                                     List<SagaStatus> sagaStatus);
@@ -59,6 +59,22 @@ public class ApprovalOutboxRepositoryImpl implements ApprovalOutboxRepository {
 
     }
 
+    @Override
+    public List<OrderApprovalOutboxMessage> findByTypeAndSagaIdsAndSagaStatus(String type,
+                                                                              List<UUID> sagaIds,
+                                                                              SagaStatus... sagaStatus) {
+        return approvalOutboxJpaRepository
+                .findByTypeAndSagaIdInAndSagaStatusIn(type, sagaIds, Arrays.asList(sagaStatus))
+                .stream()
+                .map(approvalOutboxDataAccessMapper::approvalOutboxEntityToOrderApprovalOutboxMessage)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int updateOutboxStatusByIdsAndVersion(OutboxStatus outboxStatus, int version, List<UUID> ids) {
+        return approvalOutboxJpaRepository.updateOutboxStatusByIdInAndVersion(outboxStatus, ids, version);
+    }
+
     @Override
     public void deleteByTypeAndOutboxStatusAndSagaStatus(String type, OutboxStatus outboxStatus, SagaStatus... sagaStatus) {
         approvalOutboxJpaRepository.deleteByTypeAndOutboxStatusAndSagaStatusIn(type, outboxStatus,
@@ -1,26 +1,29 @@
 package com.food.ordering.system.order.service.dataaccess.restaurant.adapter;
 
+import com.food.ordering.system.dataaccess.restaurant.cache.RestaurantCache;
 import com.food.ordering.system.dataaccess.restaurant.entity.RestaurantEntity;
-import com.food.ordering.system.dataaccess.restaurant.repository.RestaurantJpaRepository;
+import com.food.ordering.system.domain.valueobject.RestaurantId;
 import com.food.ordering.system.order.service.dataaccess.restaurant.mapper.RestaurantDataAccessMapper;
 import com.food.ordering.system.order.service.domain.entity.Restaurant;
 import com.food.ordering.system.order.service.domain.ports.output.repository.RestaurantRepository;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /* Adapter implementation for the RestaurantRepository interface from the order domain layer. RestaurantRepository interface is
 an output port in the order domain layer.*/
 @Component
 public class RestaurantRepositoryImpl implements RestaurantRepository {
-    private final RestaurantJpaRepository restaurantJpaRepository;
+    private final RestaurantCache restaurantCache;
     private final RestaurantDataAccessMapper restaurantDataAccessMapper;
 
-    public RestaurantRepositoryImpl(RestaurantJpaRepository restaurantJpaRepository,
+    public RestaurantRepositoryImpl(RestaurantCache restaurantCache,
                                     RestaurantDataAccessMapper restaurantDataAccessMapper) {
-        this.restaurantJpaRepository = restaurantJpaRepository;
+        this.restaurantCache = restaurantCache;
         this.restaurantDataAccessMapper = restaurantDataAccessMapper;
     }
 
@@ -28,9 +31,18 @@ public class RestaurantRepositoryImpl implements RestaurantRepository {
     public Optional<Restaurant> findRestaurantInformation(Restaurant restaurant) {
         List<UUID> restaurantProducts = restaurantDataAccessMapper.restaurantToRestaurantProducts(restaurant);
 
-        Optional<List<RestaurantEntity>> restaurantEntities = restaurantJpaRepository
+        Optional<List<RestaurantEntity>> restaurantEntities = restaurantCache
                 .findByRestaurantIdAndProductIdIn(restaurant.getId().getValue(), restaurantProducts);
 
         return restaurantEntities.map(restaurantDataAccessMapper::restaurantEntityToRestaurant);
     }
+
+    @Override
+    public Map<RestaurantId, Restaurant> findRestaurantsInformation(List<RestaurantId> restaurantIds) {
+        return restaurantCache.findByRestaurantIdIn(restaurantIds.stream().map(RestaurantId::getValue).toList())
+                .values()
+                .stream()
+                .map(restaurantDataAccessMapper::restaurantEntityToRestaurant)
+                .collect(Collectors.toMap(Restaurant::getId, restaurant -> restaurant));
+    }
 }
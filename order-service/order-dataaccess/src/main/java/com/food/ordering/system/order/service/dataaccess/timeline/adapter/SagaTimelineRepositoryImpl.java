@@ -0,0 +1,48 @@
+package com.food.ordering.system.order.service.dataaccess.timeline.adapter;
+
+import com.food.ordering.system.order.service.dataaccess.timeline.mapper.SagaTimelineDataAccessMapper;
+import com.food.ordering.system.order.service.dataaccess.timeline.repository.SagaTimelineJpaRepository;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaStageLatency;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaTimelineEntry;
+import com.food.ordering.system.order.service.domain.ports.output.repository.SagaTimelineRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class SagaTimelineRepositoryImpl implements SagaTimelineRepository {
+    private final SagaTimelineJpaRepository sagaTimelineJpaRepository;
+    private final SagaTimelineDataAccessMapper sagaTimelineDataAccessMapper;
+
+    public SagaTimelineRepositoryImpl(SagaTimelineJpaRepository sagaTimelineJpaRepository,
+                                      SagaTimelineDataAccessMapper sagaTimelineDataAccessMapper) {
+        this.sagaTimelineJpaRepository = sagaTimelineJpaRepository;
+        this.sagaTimelineDataAccessMapper = sagaTimelineDataAccessMapper;
+    }
+
+    // one tx for the whole flush, the inserts are sent in jdbc batches of hibernate.jdbc.batch_size.
+    @Transactional
+    @Override
+    public void insertAll(List<SagaTimelineEntry> sagaTimelineEntries) {
+        sagaTimelineJpaRepository.saveAll(sagaTimelineEntries.stream()
+                .map(sagaTimelineDataAccessMapper::sagaTimelineEntryToSagaTimelineEntity)
+                .toList());
+    }
+
+    @Override
+    public List<SagaTimelineEntry> findBySagaId(UUID sagaId) {
+        return sagaTimelineJpaRepository.findBySagaId(sagaId).stream()
+                .map(sagaTimelineDataAccessMapper::sagaTimelineEntityToSagaTimelineEntry)
+                .toList();
+    }
+
+    @Override
+    public List<SagaStageLatency> findStageLatencies(Instant recordedAfter) {
+        return sagaTimelineJpaRepository.findStageLatencies(recordedAfter).stream()
+                .map(sagaTimelineDataAccessMapper::sagaStageLatencyViewToSagaStageLatency)
+                .toList();
+    }
+}
@@ -0,0 +1,40 @@
+package com.food.ordering.system.order.service.dataaccess.timeline.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "saga_timeline")
+@Entity
+public class SagaTimelineEntity {
+    /* allocationSize must match the increment of saga_timeline_id_seq. Hibernate takes 100 ids with one call to the sequence, so the
+    inserts of a flush can be batched. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saga_timeline_id_generator")
+    @SequenceGenerator(name = "saga_timeline_id_generator", sequenceName = "saga_timeline_id_seq", allocationSize = 100)
+    private Long id;
+    private UUID sagaId;
+    private String stage;
+    private Instant recordedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SagaTimelineEntity that = (SagaTimelineEntity) o;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
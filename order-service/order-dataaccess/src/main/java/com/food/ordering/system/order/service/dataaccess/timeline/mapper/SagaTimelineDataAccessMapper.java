@@ -0,0 +1,37 @@
+package com.food.ordering.system.order.service.dataaccess.timeline.mapper;
+
+import com.food.ordering.system.order.service.dataaccess.timeline.entity.SagaTimelineEntity;
+import com.food.ordering.system.order.service.dataaccess.timeline.repository.SagaStageLatencyView;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaStageLatency;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaTimelineEntry;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SagaTimelineDataAccessMapper {
+
+    public SagaTimelineEntity sagaTimelineEntryToSagaTimelineEntity(SagaTimelineEntry sagaTimelineEntry) {
+        return SagaTimelineEntity.builder()
+                .sagaId(sagaTimelineEntry.getSagaId())
+                .stage(sagaTimelineEntry.getStage())
+                .recordedAt(sagaTimelineEntry.getRecordedAt())
+                .build();
+    }
+
+    public SagaTimelineEntry sagaTimelineEntityToSagaTimelineEntry(SagaTimelineEntity sagaTimelineEntity) {
+        return SagaTimelineEntry.builder()
+                .sagaId(sagaTimelineEntity.getSagaId())
+                .stage(sagaTimelineEntity.getStage())
+                .recordedAt(sagaTimelineEntity.getRecordedAt())
+                .build();
+    }
+
+    public SagaStageLatency sagaStageLatencyViewToSagaStageLatency(SagaStageLatencyView sagaStageLatencyView) {
+        return SagaStageLatency.builder()
+                .stage(sagaStageLatencyView.getStage())
+                .count(sagaStageLatencyView.getCount())
+                .p50Millis(sagaStageLatencyView.getP50Millis())
+                .p95Millis(sagaStageLatencyView.getP95Millis())
+                .p99Millis(sagaStageLatencyView.getP99Millis())
+                .build();
+    }
+}
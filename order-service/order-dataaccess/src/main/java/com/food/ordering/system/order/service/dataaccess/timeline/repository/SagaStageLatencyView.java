@@ -0,0 +1,10 @@
+package com.food.ordering.system.order.service.dataaccess.timeline.repository;
+
+// projection of the rows of SagaTimelineJpaRepository.findStageLatencies()
+public interface SagaStageLatencyView {
+    String getStage();
+    long getCount();
+    double getP50Millis();
+    double getP95Millis();
+    double getP99Millis();
+}
@@ -0,0 +1,32 @@
+package com.food.ordering.system.order.service.dataaccess.timeline.repository;
+
+import com.food.ordering.system.order.service.dataaccess.timeline.entity.SagaTimelineEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SagaTimelineJpaRepository extends JpaRepository<SagaTimelineEntity, Long> {
+    List<SagaTimelineEntity> findBySagaId(UUID sagaId);
+
+    /* The first time of every stage of a saga is taken(a stage can be recorded twice), then the latency of each stage is the time since
+    the previous stage of the same saga(lag() over the stages of the saga in time order). The first stage of a saga in the time window
+    has no latency. The aliases are quoted, so that postgres keeps their case for the projection. */
+    @Query(value = "WITH stages AS (" +
+            "SELECT saga_id, stage, min(recorded_at) AS recorded_at FROM saga_timeline " +
+            "WHERE recorded_at >= :recordedAfter GROUP BY saga_id, stage), " +
+            "latencies AS (" +
+            "SELECT stage, extract(epoch FROM recorded_at - lag(recorded_at) OVER (PARTITION BY saga_id ORDER BY recorded_at)) * 1000 " +
+            "AS latency_millis FROM stages) " +
+            "SELECT stage AS \"stage\", count(*) AS \"count\", " +
+            "percentile_cont(0.5) WITHIN GROUP (ORDER BY latency_millis) AS \"p50Millis\", " +
+            "percentile_cont(0.95) WITHIN GROUP (ORDER BY latency_millis) AS \"p95Millis\", " +
+            "percentile_cont(0.99) WITHIN GROUP (ORDER BY latency_millis) AS \"p99Millis\" " +
+            "FROM latencies WHERE latency_millis IS NOT NULL GROUP BY stage ORDER BY \"p99Millis\" DESC", nativeQuery = true)
+    List<SagaStageLatencyView> findStageLatencies(@Param("recordedAfter") Instant recordedAfter);
+}
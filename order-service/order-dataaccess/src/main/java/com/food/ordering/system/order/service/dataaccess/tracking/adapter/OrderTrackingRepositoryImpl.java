@@ -0,0 +1,86 @@
+package com.food.ordering.system.order.service.dataaccess.tracking.adapter;
+
+import com.food.ordering.system.order.service.dataaccess.tracking.cache.OrderTrackingCache;
+import com.food.ordering.system.order.service.dataaccess.tracking.mapper.OrderTrackingDataAccessMapper;
+import com.food.ordering.system.order.service.dataaccess.tracking.repository.OrderTrackingJpaRepository;
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
+import com.food.ordering.system.order.service.domain.ports.output.repository.OrderTrackingRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+public class OrderTrackingRepositoryImpl implements OrderTrackingRepository {
+    private final OrderTrackingJpaRepository orderTrackingJpaRepository;
+    private final OrderTrackingDataAccessMapper orderTrackingDataAccessMapper;
+    private final OrderTrackingCache orderTrackingCache;
+    private final EntityManager entityManager;
+
+    public OrderTrackingRepositoryImpl(OrderTrackingJpaRepository orderTrackingJpaRepository,
+                                       OrderTrackingDataAccessMapper orderTrackingDataAccessMapper,
+                                       OrderTrackingCache orderTrackingCache,
+                                       EntityManager entityManager) {
+        this.orderTrackingJpaRepository = orderTrackingJpaRepository;
+        this.orderTrackingDataAccessMapper = orderTrackingDataAccessMapper;
+        this.orderTrackingCache = orderTrackingCache;
+        this.entityManager = entityManager;
+    }
+
+    // the trackings of new orders can't be cached yet, so nothing is evicted here.
+    @Override
+    public void insertAll(List<OrderTracking> orderTrackings) {
+        orderTrackings.forEach(orderTracking -> entityManager.persist(orderTrackingDataAccessMapper
+                .orderTrackingToOrderTrackingEntity(orderTracking)));
+        entityManager.flush();
+    }
+
+    @Override
+    public long save(OrderTracking orderTracking) {
+        long version = orderTrackingJpaRepository.upsert(orderTracking.getTrackingId(),
+                orderTracking.getOrderId(),
+                orderTracking.getOrderStatus().name(),
+                orderTrackingDataAccessMapper.failureMessagesToString(orderTracking.getFailureMessages()),
+                orderTracking.getUpdatedAt());
+
+        evictAfterCommit(orderTracking.getTrackingId());
+
+        return version;
+    }
+
+    // an unknown tracking id is not cached(see OrderTrackingCache), so there is nothing to evict.
+    @Override
+    public void insertIfAbsent(OrderTracking orderTracking) {
+        orderTrackingJpaRepository.insertIfAbsent(orderTracking.getTrackingId(),
+                orderTracking.getOrderId(),
+                orderTracking.getOrderStatus().name(),
+                orderTrackingDataAccessMapper.failureMessagesToString(orderTracking.getFailureMessages()),
+                orderTracking.getUpdatedAt());
+    }
+
+    @Override
+    public Optional<OrderTracking> findByTrackingId(UUID trackingId) {
+        return orderTrackingCache.get(trackingId, id -> orderTrackingJpaRepository.findById(id)
+                .map(orderTrackingDataAccessMapper::orderTrackingEntityToOrderTracking));
+    }
+
+    /* Evicting before the commit would let a concurrent poll cache the old row again until the tx commits, so the tracking is evicted
+    after the commit. If the tx rolls back, the cached tracking is still right. */
+    private void evictAfterCommit(UUID trackingId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orderTrackingCache.evict(trackingId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderTrackingCache.evict(trackingId);
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package com.food.ordering.system.order.service.dataaccess.tracking.cache;
+
+import com.food.ordering.system.order.service.dataaccess.tracking.config.OrderTrackingCacheConfigData;
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/* Keeps the order trackings that are polled in memory, so a poll of an order that didn't change doesn't need a DB round trip.
+
+A change of an order on this instance evicts its tracking after the tx commits(see OrderTrackingRepositoryImpl). A change on another
+order svc instance is seen after expire-after-write-ms at the latest, so it's the longest time a poll can be behind. Keep it in the
+range of the poll interval of the clients. Hit/miss/eviction counts are published as the cache.* metrics with cache=order-tracking tag. */
+@Component
+public class OrderTrackingCache {
+    private static final String CACHE_NAME = "order-tracking";
+
+    private final OrderTrackingCacheConfigData orderTrackingCacheConfigData;
+    private final Cache<UUID, OrderTracking> orderTrackings;
+
+    public OrderTrackingCache(OrderTrackingCacheConfigData orderTrackingCacheConfigData,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.orderTrackingCacheConfigData = orderTrackingCacheConfigData;
+        this.orderTrackings = Caffeine.newBuilder()
+                .maximumSize(orderTrackingCacheConfigData.getMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(orderTrackingCacheConfigData.getExpireAfterWriteMs()))
+                .recordStats()
+                .build();
+
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, orderTrackings, CACHE_NAME));
+    }
+
+    // an unknown tracking id is not cached, it's looked up again with the next call.
+    public Optional<OrderTracking> get(UUID trackingId, Function<UUID, Optional<OrderTracking>> loader) {
+        if (!orderTrackingCacheConfigData.isEnabled()) {
+            return loader.apply(trackingId);
+        }
+
+        return Optional.ofNullable(orderTrackings.get(trackingId, id -> loader.apply(id).orElse(null)));
+    }
+
+    public void evict(UUID trackingId) {
+        orderTrackings.invalidate(trackingId);
+    }
+}
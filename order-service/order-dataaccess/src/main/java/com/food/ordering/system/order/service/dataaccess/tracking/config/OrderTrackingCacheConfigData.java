@@ -0,0 +1,16 @@
+package com.food.ordering.system.order.service.dataaccess.tracking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/* Maps the order-tracking-cache config of the order svc. When enabled is false(the default), every GET /orders/{trackingId} reads the
+order_tracking row from the DB. */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "order-tracking-cache")
+public class OrderTrackingCacheConfigData {
+    private boolean enabled;
+    private long maximumSize;
+    private long expireAfterWriteMs;
+}
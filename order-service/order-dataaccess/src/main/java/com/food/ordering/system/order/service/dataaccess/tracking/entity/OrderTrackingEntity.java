@@ -0,0 +1,41 @@
+package com.food.ordering.system.order.service.dataaccess.tracking.entity;
+
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/* version is not a jpa @Version, it's increased by the upsert in OrderTrackingJpaRepository and not used for optimistic locking. */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_tracking")
+@Entity
+public class OrderTrackingEntity {
+    @Id
+    private UUID trackingId;
+    private UUID orderId;
+    @Enumerated(EnumType.STRING)
+    private OrderStatus orderStatus;
+    private String failureMessages;
+    private long version;
+    private ZonedDateTime updatedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderTrackingEntity that = (OrderTrackingEntity) o;
+        return Objects.equals(trackingId, that.trackingId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(trackingId);
+    }
+}
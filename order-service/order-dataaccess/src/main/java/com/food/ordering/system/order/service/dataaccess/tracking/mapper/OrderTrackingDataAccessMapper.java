@@ -0,0 +1,42 @@
+package com.food.ordering.system.order.service.dataaccess.tracking.mapper;
+
+import com.food.ordering.system.order.service.dataaccess.tracking.entity.OrderTrackingEntity;
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.food.ordering.system.order.service.domain.entity.Order.FAILURE_MESSAGE_DELIMITER;
+
+@Component
+public class OrderTrackingDataAccessMapper {
+    public OrderTrackingEntity orderTrackingToOrderTrackingEntity(OrderTracking orderTracking) {
+        return OrderTrackingEntity.builder()
+                .trackingId(orderTracking.getTrackingId())
+                .orderId(orderTracking.getOrderId())
+                .orderStatus(orderTracking.getOrderStatus())
+                .failureMessages(failureMessagesToString(orderTracking.getFailureMessages()))
+                .version(1)
+                .updatedAt(orderTracking.getUpdatedAt())
+                .build();
+    }
+
+    public OrderTracking orderTrackingEntityToOrderTracking(OrderTrackingEntity orderTrackingEntity) {
+        return OrderTracking.builder()
+                .trackingId(orderTrackingEntity.getTrackingId())
+                .orderId(orderTrackingEntity.getOrderId())
+                .orderStatus(orderTrackingEntity.getOrderStatus())
+                .failureMessages(orderTrackingEntity.getFailureMessages() == null || orderTrackingEntity.getFailureMessages().isEmpty() ?
+                        new ArrayList<>() : new ArrayList<>(Arrays.asList(orderTrackingEntity.getFailureMessages()
+                        .split(FAILURE_MESSAGE_DELIMITER))))
+                .version(orderTrackingEntity.getVersion())
+                .updatedAt(orderTrackingEntity.getUpdatedAt())
+                .build();
+    }
+
+    public String failureMessagesToString(List<String> failureMessages) {
+        return failureMessages != null ? String.join(FAILURE_MESSAGE_DELIMITER, failureMessages) : "";
+    }
+}
@@ -0,0 +1,43 @@
+package com.food.ordering.system.order.service.dataaccess.tracking.repository;
+
+import com.food.ordering.system.order.service.dataaccess.tracking.entity.OrderTrackingEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+@Repository
+public interface OrderTrackingJpaRepository extends JpaRepository<OrderTrackingEntity, UUID> {
+    /* One statement whether the row exists or not, the version is increased by the DB. So two txs that change the same order can't
+    end up with the same version(the second one waits for the row lock of the first one). The order status is passed as a string, the
+    postgres enum type is inferred because of stringtype=unspecified. RETURNING gives the new version back with the same round trip, so
+    the status change can be pushed with the version that GET /orders/{trackingId} returns as ETag. */
+    @Query(value = "INSERT INTO order_tracking(tracking_id, order_id, order_status, failure_messages, version, updated_at) " +
+            "VALUES (:trackingId, :orderId, :orderStatus, :failureMessages, 1, :updatedAt) " +
+            "ON CONFLICT (tracking_id) DO UPDATE SET order_status = EXCLUDED.order_status, " +
+            "failure_messages = EXCLUDED.failure_messages, version = order_tracking.version + 1, updated_at = EXCLUDED.updated_at " +
+            "RETURNING version",
+            nativeQuery = true)
+    long upsert(@Param("trackingId") UUID trackingId,
+                @Param("orderId") UUID orderId,
+                @Param("orderStatus") String orderStatus,
+                @Param("failureMessages") String failureMessages,
+                @Param("updatedAt") ZonedDateTime updatedAt);
+
+    /* Writes the tracking of an order that doesn't have one yet. If a saga tx inserts the row in the meantime, its row(with the newer
+    status) is kept, the insert waits for that tx and does nothing. */
+    @Modifying
+    @Query(value = "INSERT INTO order_tracking(tracking_id, order_id, order_status, failure_messages, version, updated_at) " +
+            "VALUES (:trackingId, :orderId, :orderStatus, :failureMessages, 1, :updatedAt) " +
+            "ON CONFLICT (tracking_id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("trackingId") UUID trackingId,
+                       @Param("orderId") UUID orderId,
+                       @Param("orderStatus") String orderStatus,
+                       @Param("failureMessages") String failureMessages,
+                       @Param("updatedAt") ZonedDateTime updatedAt);
+}
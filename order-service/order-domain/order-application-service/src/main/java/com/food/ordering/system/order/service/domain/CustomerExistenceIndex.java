@@ -0,0 +1,132 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
+import com.food.ordering.system.order.service.domain.ports.output.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* In-memory set of the ids of the customers that exist in the order.customers table. Creating an order only needs to know that the
+customer exists, so we check this set instead of loading the customer from the DB for every order.
+
+The set is filled from the customers table in batches of customer-index-warm-up-batch-size when the app is ready, and every customer
+that comes from the customer topic(CustomerMessageListenerImpl) is added to it after it's saved. A customer can't be deleted, so an
+id in this set never becomes invalid.
+
+A customer that is saved in a tx is only added after that tx commits(see add()), so a rolled back save never leaves an id in the set.
+
+An id that is not in the set is looked up in the DB(only its id, the customer is not loaded), because the warm up may still be running or the customer may be saved by
+another order svc instance. Only the customers that are found are added, so the unknown ids keep going to the DB(they are rare, an
+order of an unknown customer is rejected anyway).
+
+Memory: roughly 100 bytes per customer(UUID + set entry), e.g. ~100MB for 1M customers. */
+@Slf4j
+@Component
+public class CustomerExistenceIndex {
+    private final CustomerRepository customerRepository;
+    private final OrderServiceConfigData orderServiceConfigData;
+    private final Set<UUID> customerIds = ConcurrentHashMap.newKeySet();
+
+    public CustomerExistenceIndex(CustomerRepository customerRepository,
+                                  OrderServiceConfigData orderServiceConfigData) {
+        this.customerRepository = customerRepository;
+        this.orderServiceConfigData = orderServiceConfigData;
+    }
+
+    public boolean exists(UUID customerId) {
+        if (customerIds.contains(customerId)) {
+            return true;
+        }
+
+        if (customerRepository.existsCustomer(customerId)) {
+            customerIds.add(customerId);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /* Same as exists() for many customers: the ids that are not in the set are looked up in the DB with one query. Returns the ids of the
+    given customers that exist. */
+    public Set<UUID> findExisting(Collection<UUID> customerIds) {
+        Set<UUID> existingCustomerIds = new HashSet<>();
+        List<UUID> unknownCustomerIds = new ArrayList<>();
+        for (UUID customerId : new HashSet<>(customerIds)) {
+            if (this.customerIds.contains(customerId)) {
+                existingCustomerIds.add(customerId);
+            } else {
+                unknownCustomerIds.add(customerId);
+            }
+        }
+
+        if (!unknownCustomerIds.isEmpty()) {
+            List<UUID> foundCustomerIds = customerRepository.findExistingCustomerIds(unknownCustomerIds);
+            this.customerIds.addAll(foundCustomerIds);
+            existingCustomerIds.addAll(foundCustomerIds);
+        }
+
+        return existingCustomerIds;
+    }
+
+    /* Called with a customer that is just saved. When the save runs in a tx, the id is added after the commit. */
+    public void add(UUID customerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            customerIds.add(customerId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                customerIds.add(customerId);
+            }
+        });
+    }
+
+    /* Runs on its own thread, so the other ApplicationReadyEvent listeners(e.g. the outbox notification listener) don't wait for it. The
+    orders that arrive during the warm up fall back to the DB lookup. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (orderServiceConfigData.getCustomerIndexWarmUpBatchSize() <= 0) {
+            return;
+        }
+
+        Thread.ofPlatform()
+                .name("customer-index-warm-up")
+                .daemon()
+                .start(this::loadCustomerIds);
+    }
+
+    /* Keyset pagination over the primary key, so each batch is an index range scan, no matter how far the warm up is. */
+    private void loadCustomerIds() {
+        int batchSize = orderServiceConfigData.getCustomerIndexWarmUpBatchSize();
+        UUID lastCustomerId = new UUID(0, 0);
+        List<UUID> batch;
+        try {
+            do {
+                batch = customerRepository.findCustomerIdsAfter(lastCustomerId, batchSize);
+                customerIds.addAll(batch);
+                if (!batch.isEmpty()) {
+                    lastCustomerId = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == batchSize);
+
+            log.info("Customer existence index is warmed up with {} customers", customerIds.size());
+        } catch (RuntimeException e) {
+            // not fatal, the customers that are not loaded are looked up in the DB.
+            log.error("Customer existence index warm up failed after {} customers!", customerIds.size(), e);
+        }
+    }
+}
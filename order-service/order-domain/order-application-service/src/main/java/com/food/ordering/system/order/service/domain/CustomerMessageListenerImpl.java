@@ -14,11 +14,14 @@ import org.springframework.stereotype.Service;
 public class CustomerMessageListenerImpl implements CustomerMessageListener {
     private final CustomerRepository customerRepository;
     private final OrderDataMapper orderDataMapper;
+    private final CustomerExistenceIndex customerExistenceIndex;
 
     public CustomerMessageListenerImpl(CustomerRepository customerRepository,
-                                       OrderDataMapper orderDataMapper) {
+                                       OrderDataMapper orderDataMapper,
+                                       CustomerExistenceIndex customerExistenceIndex) {
         this.customerRepository = customerRepository;
         this.orderDataMapper = orderDataMapper;
+        this.customerExistenceIndex = customerExistenceIndex;
     }
 
     @Override
@@ -31,6 +34,8 @@ public class CustomerMessageListenerImpl implements CustomerMessageListener {
                     customerModel.getId());
         }
 
+        customerExistenceIndex.add(customer.getId().getValue());
+
         log.info("Customer is created in order database with id: {}", customer.getId());
     }
 }
@@ -1,5 +1,6 @@
 package com.food.ordering.system.order.service.domain;
 
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResponse;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderResponse;
 import com.food.ordering.system.order.service.domain.dto.track.TrackOrderQuery;
@@ -9,6 +10,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /* @Validated is to enable @Valid on the interface methods which we're implementing here.
 
 Note: We can use package private access modifier in class level instead of using public. So we will expose
@@ -22,12 +26,18 @@ OrderCreateCommandHandler and OrderTrackCommandHandler.*/
 @Service
 public class OrderApplicationServiceImpl implements OrderApplicationService {
     private final OrderCreateCommandHandler orderCreateCommandHandler;
+    private final OrderBatchCreateCommandHandler orderBatchCreateCommandHandler;
     private final OrderTrackCommandHandler orderTrackCommandHandler;
+    private final OrderGroupCommitWriter orderGroupCommitWriter;
 
     public OrderApplicationServiceImpl(OrderCreateCommandHandler orderCreateCommandHandler,
-                                       OrderTrackCommandHandler orderTrackCommandHandler) {
+                                       OrderBatchCreateCommandHandler orderBatchCreateCommandHandler,
+                                       OrderTrackCommandHandler orderTrackCommandHandler,
+                                       OrderGroupCommitWriter orderGroupCommitWriter) {
         this.orderCreateCommandHandler = orderCreateCommandHandler;
+        this.orderBatchCreateCommandHandler = orderBatchCreateCommandHandler;
         this.orderTrackCommandHandler = orderTrackCommandHandler;
+        this.orderGroupCommitWriter = orderGroupCommitWriter;
     }
 
     @Override
@@ -35,6 +45,16 @@ public class OrderApplicationServiceImpl implements OrderApplicationService {
         return orderCreateCommandHandler.createOrder(createOrderCommand);
     }
 
+    @Override
+    public CompletableFuture<CreateOrderResponse> acceptOrder(CreateOrderCommand createOrderCommand) {
+        return orderGroupCommitWriter.accept(createOrderCommand);
+    }
+
+    @Override
+    public BatchCreateOrderResponse createOrders(List<CreateOrderCommand> createOrderCommands) {
+        return orderBatchCreateCommandHandler.createOrders(createOrderCommands);
+    }
+
     @Override
     public TrackOrderResponse trackOrder(TrackOrderQuery trackOrderQuery) {
         return orderTrackCommandHandler.trackOrder(trackOrderQuery);
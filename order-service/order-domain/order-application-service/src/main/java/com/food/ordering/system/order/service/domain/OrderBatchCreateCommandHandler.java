@@ -0,0 +1,188 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.domain.valueobject.RestaurantId;
+import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResponse;
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResult;
+import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
+import com.food.ordering.system.order.service.domain.dto.create.OrderItem;
+import com.food.ordering.system.order.service.domain.entity.Order;
+import com.food.ordering.system.order.service.domain.entity.Restaurant;
+import com.food.ordering.system.order.service.domain.event.OrderCreatedEvent;
+import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
+import com.food.ordering.system.order.service.domain.mapper.OrderDataMapper;
+import com.food.ordering.system.order.service.domain.ports.output.repository.RestaurantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/* Creates the orders of a batch(POST /orders/batch). The result is the same as calling createOrder() for every order, but:
+ - the customers of all the orders are checked with one lookup(CustomerExistenceIndex.findExisting()) and the restaurants with all of
+ their products are loaded with one lookup, instead of one of each per order.
+ - the validated orders are saved in chunks of batch-create-chunk-size, each chunk in its own tx with jdbc batch inserts(see
+ OrderBatchCreateHelper). A tx per order would cost a commit(a WAL flush) per order and one tx for the whole batch would hold its
+ locks and its memory until the last order is saved.
+
+Every order gets its own result. An order that fails the validation is rejected with the reason and doesn't stop the others, the
+same goes for a malformed order(e.g. one with null fields) that fails with any other exception. If a chunk can't be saved, only the
+orders of that chunk are rejected(as retryable), the chunks that are already committed stay. The client can submit the rejected
+orders again. */
+@Slf4j
+@Component
+public class OrderBatchCreateCommandHandler {
+    private static final String ORDER_CREATED_MESSAGE = "Order created successfully";
+
+    private final OrderDomainService orderDomainService;
+    private final CustomerExistenceIndex customerExistenceIndex;
+    private final RestaurantRepository restaurantRepository;
+    private final OrderDataMapper orderDataMapper;
+    private final OrderBatchCreateHelper orderBatchCreateHelper;
+    private final OrderServiceConfigData orderServiceConfigData;
+
+    public OrderBatchCreateCommandHandler(OrderDomainService orderDomainService,
+                                          CustomerExistenceIndex customerExistenceIndex,
+                                          RestaurantRepository restaurantRepository,
+                                          OrderDataMapper orderDataMapper,
+                                          OrderBatchCreateHelper orderBatchCreateHelper,
+                                          OrderServiceConfigData orderServiceConfigData) {
+        this.orderDomainService = orderDomainService;
+        this.customerExistenceIndex = customerExistenceIndex;
+        this.restaurantRepository = restaurantRepository;
+        this.orderDataMapper = orderDataMapper;
+        this.orderBatchCreateHelper = orderBatchCreateHelper;
+        this.orderServiceConfigData = orderServiceConfigData;
+    }
+
+    public BatchCreateOrderResponse createOrders(List<CreateOrderCommand> createOrderCommands) {
+        if (createOrderCommands.size() > orderServiceConfigData.getBatchCreateMaxOrders()) {
+            throw new OrderDomainException("A batch can have at most " + orderServiceConfigData.getBatchCreateMaxOrders() +
+                    " orders, but it has " + createOrderCommands.size() + " orders!");
+        }
+
+        return createOrders(createOrderCommands, orderServiceConfigData.getBatchCreateChunkSize());
+    }
+
+    // also used by OrderGroupCommitWriter, with the size of its group as chunk size.
+    BatchCreateOrderResponse createOrders(List<CreateOrderCommand> createOrderCommands, int chunkSize) {
+        // a malformed order(e.g. without a customer id) is left out of the lookups, it's rejected by its validation below.
+        Set<UUID> existingCustomerIds = customerExistenceIndex.findExisting(createOrderCommands.stream()
+                .filter(Objects::nonNull)
+                .map(CreateOrderCommand::getCustomerId)
+                .filter(Objects::nonNull)
+                .toList());
+        Map<RestaurantId, Restaurant> restaurants = restaurantRepository.findRestaurantsInformation(createOrderCommands.stream()
+                .filter(Objects::nonNull)
+                .map(CreateOrderCommand::getRestaurantId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(RestaurantId::new)
+                .toList());
+
+        BatchCreateOrderResult[] results = new BatchCreateOrderResult[createOrderCommands.size()];
+        List<ValidatedOrder> validatedOrders = new ArrayList<>();
+        for (int index = 0; index < createOrderCommands.size(); index++) {
+            try {
+                validatedOrders.add(new ValidatedOrder(index,
+                        validateAndInitiateOrder(createOrderCommands.get(index), existingCustomerIds, restaurants)));
+            } catch (OrderDomainException e) {
+                log.warn("Order {} of the batch is rejected: {}", index, e.getMessage());
+                results[index] = rejectedResult(index, e.getMessage());
+            } catch (RuntimeException e) {
+                // the @Valid of the input port doesn't check the elements of the batch, e.g. missing items end up here.
+                log.warn("Order {} of the batch is rejected, it's malformed", index, e);
+                results[index] = rejectedResult(index, "Order is not valid, check its fields!");
+            }
+        }
+
+        int validChunkSize = Math.max(chunkSize, 1);
+        for (int from = 0; from < validatedOrders.size(); from += validChunkSize) {
+            persistChunk(validatedOrders.subList(from, Math.min(from + validChunkSize, validatedOrders.size())), results);
+        }
+
+        List<BatchCreateOrderResult> resultList = Arrays.asList(results);
+        int createdCount = (int) resultList.stream().filter(BatchCreateOrderResult::isCreated).count();
+
+        log.info("Batch of {} orders is processed: {} created, {} rejected", resultList.size(), createdCount,
+                resultList.size() - createdCount);
+
+        return BatchCreateOrderResponse.builder()
+                .createdCount(createdCount)
+                .rejectedCount(resultList.size() - createdCount)
+                .results(resultList)
+                .build();
+    }
+
+    private void persistChunk(List<ValidatedOrder> chunk, BatchCreateOrderResult[] results) {
+        try {
+            orderBatchCreateHelper.persistOrders(chunk.stream().map(ValidatedOrder::orderCreatedEvent).toList());
+
+            chunk.forEach(validatedOrder -> {
+                Order order = validatedOrder.orderCreatedEvent().getOrder();
+                results[validatedOrder.index()] = BatchCreateOrderResult.builder()
+                        .index(validatedOrder.index())
+                        .created(true)
+                        .orderTrackingId(order.getTrackingId().getValue())
+                        .orderStatus(order.getOrderStatus())
+                        .message(ORDER_CREATED_MESSAGE)
+                        .build();
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not save a chunk of {} orders of the batch!", chunk.size(), e);
+
+            chunk.forEach(validatedOrder -> results[validatedOrder.index()] = BatchCreateOrderResult.builder()
+                    .index(validatedOrder.index())
+                    .created(false)
+                    .retryable(true)
+                    .message("Could not save the order, it can be submitted again!")
+                    .build());
+        }
+    }
+
+    /* The same checks as OrderCreateHelper.persistOrder(), against the customers and restaurants that are loaded for the whole batch. */
+    private OrderCreatedEvent validateAndInitiateOrder(CreateOrderCommand createOrderCommand,
+                                                       Set<UUID> existingCustomerIds,
+                                                       Map<RestaurantId, Restaurant> restaurants) {
+        if (!existingCustomerIds.contains(createOrderCommand.getCustomerId())) {
+            throw new OrderDomainException("Could not find customer with customer id: " + createOrderCommand.getCustomerId());
+        }
+
+        Restaurant restaurant = restaurants.get(new RestaurantId(createOrderCommand.getRestaurantId()));
+        if (restaurant == null) {
+            throw new OrderDomainException("Could not find restaurant with restaurant id: " + createOrderCommand.getRestaurantId());
+        }
+
+        // the restaurant has all of its products here, not only the products of this order.
+        Set<UUID> restaurantProductIds = restaurant.getProducts().stream()
+                .map(product -> product.getId().getValue())
+                .collect(Collectors.toSet());
+        for (OrderItem orderItem : createOrderCommand.getItems()) {
+            if (!restaurantProductIds.contains(orderItem.getProductId())) {
+                throw new OrderDomainException("Could not find product with product id: " + orderItem.getProductId() +
+                        " in restaurant with restaurant id: " + createOrderCommand.getRestaurantId());
+            }
+        }
+
+        Order order = orderDataMapper.createOrderCommandToOrder(createOrderCommand);
+
+        return orderDomainService.validateAndInitiateOrder(order, restaurant);
+    }
+
+    private BatchCreateOrderResult rejectedResult(int index, String message) {
+        return BatchCreateOrderResult.builder()
+                .index(index)
+                .created(false)
+                .message(message)
+                .build();
+    }
+
+    private record ValidatedOrder(int index, OrderCreatedEvent orderCreatedEvent) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import com.food.ordering.system.order.service.domain.entity.Order;
+import com.food.ordering.system.order.service.domain.event.OrderCreatedEvent;
+import com.food.ordering.system.order.service.domain.mapper.OrderDataMapper;
+import com.food.ordering.system.order.service.domain.outbox.scheduler.payment.PaymentOutboxHelper;
+import com.food.ordering.system.order.service.domain.ports.output.repository.OrderRepository;
+import com.food.ordering.system.outbox.OutboxStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/* Saves a chunk of the validated orders of a batch in one tx: the orders with their items and addresses, and a payment outbox message
+per order. All of them are inserted with jdbc batches(hibernate.jdbc.batch_size with order_inserts, see application.yaml), so a chunk
+of N orders needs a few round trips instead of N times the inserts of a single order. Either the whole chunk is saved or nothing. */
+@Slf4j
+@Component
+public class OrderBatchCreateHelper {
+    private final OrderRepository orderRepository;
+    private final PaymentOutboxHelper paymentOutboxHelper;
+    private final OrderDataMapper orderDataMapper;
+    private final OrderSagaHelper orderSagaHelper;
+    private final OrderTrackingProjection orderTrackingProjection;
+
+    public OrderBatchCreateHelper(OrderRepository orderRepository,
+                                  PaymentOutboxHelper paymentOutboxHelper,
+                                  OrderDataMapper orderDataMapper,
+                                  OrderSagaHelper orderSagaHelper,
+                                  OrderTrackingProjection orderTrackingProjection) {
+        this.orderRepository = orderRepository;
+        this.paymentOutboxHelper = paymentOutboxHelper;
+        this.orderDataMapper = orderDataMapper;
+        this.orderSagaHelper = orderSagaHelper;
+        this.orderTrackingProjection = orderTrackingProjection;
+    }
+
+    @Transactional
+    public void persistOrders(List<OrderCreatedEvent> orderCreatedEvents) {
+        List<Order> orders = orderCreatedEvents.stream().map(OrderCreatedEvent::getOrder).toList();
+        orderRepository.insertAll(orders);
+        orderTrackingProjection.orderCreated(orders);
+
+        // a new order is always PENDING.
+        paymentOutboxHelper.savePaymentOutboxMessages(
+                orderCreatedEvents.stream().map(orderDataMapper::orderCreatedEventToOrderPaymentEventPayload).toList(),
+                OrderStatus.PENDING,
+                orderSagaHelper.orderStatusToSagaStatus(OrderStatus.PENDING),
+                OutboxStatus.STARTED
+        );
+
+        log.info("{} orders are saved", orders.size());
+    }
+}
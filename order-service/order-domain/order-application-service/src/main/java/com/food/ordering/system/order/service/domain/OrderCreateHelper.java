@@ -1,19 +1,18 @@
 package com.food.ordering.system.order.service.domain;
 
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
-import com.food.ordering.system.order.service.domain.entity.Customer;
 import com.food.ordering.system.order.service.domain.entity.Order;
 import com.food.ordering.system.order.service.domain.entity.Restaurant;
 import com.food.ordering.system.order.service.domain.event.OrderCreatedEvent;
 import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
 import com.food.ordering.system.order.service.domain.mapper.OrderDataMapper;
-import com.food.ordering.system.order.service.domain.ports.output.repository.CustomerRepository;
 import com.food.ordering.system.order.service.domain.ports.output.repository.OrderRepository;
 import com.food.ordering.system.order.service.domain.ports.output.repository.RestaurantRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,24 +21,27 @@ import java.util.UUID;
 public class OrderCreateHelper {
     private final OrderDomainService orderDomainService;
     private final OrderRepository orderRepository;
-    private final CustomerRepository customerRepository;
+    private final CustomerExistenceIndex customerExistenceIndex;
     private final RestaurantRepository restaurantRepository;
     private final OrderDataMapper orderDataMapper;
+    private final OrderTrackingProjection orderTrackingProjection;
 //    private final OrderCreatedPaymentRequestMessagePublisher orderCreatedPaymentRequestMessagePublisher;
 
     /* Inject the fields using constructor injection. */
     public OrderCreateHelper(OrderDomainService orderDomainService,
                              OrderRepository orderRepository,
-                             CustomerRepository customerRepository,
+                             CustomerExistenceIndex customerExistenceIndex,
                              RestaurantRepository restaurantRepository,
-                             OrderDataMapper orderDataMapper
+                             OrderDataMapper orderDataMapper,
+                             OrderTrackingProjection orderTrackingProjection
 //                             OrderCreatedPaymentRequestMessagePublisher orderCreatedPaymentRequestMessagePublisher
     ) {
         this.orderDomainService = orderDomainService;
         this.orderRepository = orderRepository;
-        this.customerRepository = customerRepository;
+        this.customerExistenceIndex = customerExistenceIndex;
         this.restaurantRepository = restaurantRepository;
         this.orderDataMapper = orderDataMapper;
+        this.orderTrackingProjection = orderTrackingProjection;
 //        this.orderCreatedPaymentRequestMessagePublisher = orderCreatedPaymentRequestMessagePublisher;
     }
 
@@ -75,12 +77,12 @@ public class OrderCreateHelper {
     /* Note: If we had to do more business checks(more complex business logic and checks), with the customer object,
     we would pass the customer object to the domain service and do the business logic checks there, instead of here in the
     application service. However, just to check the availability of a customer, we don't need to pass it to the domain service.*/
+    // only the existence of the customer is checked, which is a memory lookup for the known customers.
     private void checkCustomer(UUID customerId) {
-        Optional<Customer> customer =  customerRepository.findCustomer(customerId);
-        if (customer.isEmpty()) {
-            log.warn("Could not find customer with customer id: {}", customer);
+        if (!customerExistenceIndex.exists(customerId)) {
+            log.warn("Could not find customer with customer id: {}", customerId);
 
-            throw new OrderDomainException("Could not find customer with customer id: " + customer);
+            throw new OrderDomainException("Could not find customer with customer id: " + customerId);
         }
     }
 
@@ -106,6 +108,8 @@ public class OrderCreateHelper {
             throw new OrderDomainException("Could not save order!");
         }
 
+        orderTrackingProjection.orderCreated(List.of(order));
+
         log.info("Order is saved with id: {}", orderResult.getId());
 
         return orderResult;
@@ -0,0 +1,183 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResponse;
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResult;
+import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
+import com.food.ordering.system.order.service.domain.dto.create.CreateOrderResponse;
+import com.food.ordering.system.order.service.domain.exception.OrderAcceptanceQueueFullException;
+import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
+import com.food.ordering.system.order.service.domain.exception.OrderSaveFailedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/* The write path of the async order acceptance(order-service.async-accept-enabled). accept() only puts the order into a queue and
+returns a future, the HTTP request thread is released(see OrderController.createOrder()). group-commit-writers threads take the
+accepted orders from the queue and save them as groups: a group is closed when it has group-commit-max-orders orders or when
+group-commit-max-delay-ms passed since its first order, whichever comes first. Then the whole group is validated with one customer
+and one restaurant lookup and saved in ONE tx with jdbc batch inserts(see OrderBatchCreateCommandHandler). So under load, N orders cost
+one commit(one WAL flush) and a few round trips instead of N commits with four INSERTs each. With a single order in the queue, it
+waits at most group-commit-max-delay-ms longer than before.
+
+Durability is the same as with the sync createOrder(): the future of an order is only completed after the tx of its group commits, so
+a client never gets an accepted response for an order that is not in the DB. An order that fails the validation is rejected on its
+own(the others of its group are saved) with OrderDomainException(400). If the group tx fails, all the orders of the group are
+rejected with OrderSaveFailedException(503), they are valid and can be submitted again.
+
+The queue is bounded by group-commit-queue-capacity, so a DB that can't keep up doesn't make the service hold an unbounded number
+of orders in memory: accept() fails with OrderAcceptanceQueueFullException(503) instead. On shutdown, the orders that are still in the
+queue are rejected. */
+@Slf4j
+@Component
+public class OrderGroupCommitWriter {
+    private final OrderBatchCreateCommandHandler orderBatchCreateCommandHandler;
+    private final OrderServiceConfigData orderServiceConfigData;
+    private final BlockingQueue<AcceptedOrder> acceptedOrders;
+    private final List<Thread> writerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public OrderGroupCommitWriter(OrderBatchCreateCommandHandler orderBatchCreateCommandHandler,
+                                  OrderServiceConfigData orderServiceConfigData) {
+        this.orderBatchCreateCommandHandler = orderBatchCreateCommandHandler;
+        this.orderServiceConfigData = orderServiceConfigData;
+        this.acceptedOrders = new LinkedBlockingQueue<>(Math.max(orderServiceConfigData.getGroupCommitQueueCapacity(), 1));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!orderServiceConfigData.isAsyncAcceptEnabled()) {
+            return;
+        }
+
+        running = true;
+        for (int i = 0; i < Math.max(orderServiceConfigData.getGroupCommitWriters(), 1); i++) {
+            writerThreads.add(Thread.ofPlatform()
+                    .name("order-group-commit-writer-" + i)
+                    .daemon()
+                    .start(this::write));
+        }
+
+        log.info("Order group commit is started with {} writers", writerThreads.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        writerThreads.forEach(writerThread -> {
+            try {
+                // the group that is being saved is finished first.
+                writerThread.join(orderServiceConfigData.getGroupCommitMaxDelayMs() + 10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        AcceptedOrder acceptedOrder;
+        while ((acceptedOrder = acceptedOrders.poll()) != null) {
+            acceptedOrder.response().completeExceptionally(
+                    new OrderAcceptanceQueueFullException("Order service is shutting down, the order can be submitted again!"));
+        }
+    }
+
+    public CompletableFuture<CreateOrderResponse> accept(CreateOrderCommand createOrderCommand) {
+        CompletableFuture<CreateOrderResponse> response = new CompletableFuture<>();
+        if (!running || !acceptedOrders.offer(new AcceptedOrder(createOrderCommand, response))) {
+            log.warn("Order of customer: {} is not accepted, the group commit queue is full", createOrderCommand.getCustomerId());
+
+            throw new OrderAcceptanceQueueFullException("Order service is busy, the order can be submitted again!");
+        }
+
+        return response;
+    }
+
+    private void write() {
+        while (running) {
+            try {
+                List<AcceptedOrder> group = takeGroup();
+                if (!group.isEmpty()) {
+                    commitGroup(group);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // commitGroup() completes the futures itself, this only keeps the writer alive.
+                log.error("Order group commit writer failed", e);
+            }
+        }
+    }
+
+    private List<AcceptedOrder> takeGroup() throws InterruptedException {
+        List<AcceptedOrder> group = new ArrayList<>();
+        AcceptedOrder first = acceptedOrders.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+            return group;
+        }
+
+        group.add(first);
+        int maxOrders = Math.max(orderServiceConfigData.getGroupCommitMaxOrders(), 1);
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(orderServiceConfigData.getGroupCommitMaxDelayMs());
+        while (group.size() < maxOrders) {
+            // whatever is already waiting is taken without waiting.
+            acceptedOrders.drainTo(group, maxOrders - group.size());
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (group.size() >= maxOrders || remainingNanos <= 0) {
+                break;
+            }
+
+            AcceptedOrder next = acceptedOrders.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+
+        return group;
+    }
+
+    private void commitGroup(List<AcceptedOrder> group) {
+        BatchCreateOrderResponse batchCreateOrderResponse;
+        try {
+            // the chunk size is the size of the group, so the whole group is saved with one tx.
+            batchCreateOrderResponse = orderBatchCreateCommandHandler.createOrders(group.stream()
+                    .map(AcceptedOrder::createOrderCommand)
+                    .toList(), group.size());
+        } catch (RuntimeException e) {
+            log.error("Could not save a group of {} accepted orders!", group.size(), e);
+            group.forEach(acceptedOrder -> acceptedOrder.response().completeExceptionally(
+                    new OrderSaveFailedException("Could not save the order, it can be submitted again!")));
+
+            return;
+        }
+
+        for (BatchCreateOrderResult result : batchCreateOrderResponse.getResults()) {
+            CompletableFuture<CreateOrderResponse> response = group.get(result.getIndex()).response();
+            if (result.isCreated()) {
+                response.complete(CreateOrderResponse.builder()
+                        .orderTrackingId(result.getOrderTrackingId())
+                        .orderStatus(result.getOrderStatus())
+                        .message(result.getMessage())
+                        .build());
+            } else if (result.isRetryable()) {
+                response.completeExceptionally(new OrderSaveFailedException(result.getMessage()));
+            } else {
+                response.completeExceptionally(new OrderDomainException(result.getMessage()));
+            }
+        }
+
+        log.debug("Group of {} accepted orders is committed", group.size());
+    }
+
+    private record AcceptedOrder(CreateOrderCommand createOrderCommand, CompletableFuture<CreateOrderResponse> response) {
+    }
+}
@@ -20,8 +20,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.food.ordering.system.domain.DomainConstants.UTC;
 
@@ -177,6 +182,118 @@ public class OrderPaymentSaga implements SagaStep<PaymentResponse> {
 //        return EmptyEvent.INSTANCE;
     }
 
+    /* Batch version of process() and rollback() for the payment responses of one kafka poll, in a single tx. The payment outbox
+    messages, the orders and the approval outbox messages that the responses need, are loaded with one IN (...) query each.
+
+    The responses are processed in their order on the same loaded objects. So a duplicate response in the same batch doesn't find its
+    outbox message in the expected saga status anymore and is skipped, just like a duplicate that comes after the first one is
+    committed. Optimistic locking still protects the outbox messages from another consumer that processes the same saga at the same
+    time. If anything fails, the whole tx is rolled back and the caller processes the responses one by one again. */
+    @Transactional
+    public void processBatch(List<PaymentResponse> paymentResponses) {
+        Map<UUID, List<OrderPaymentOutboxMessage>> paymentOutboxMessages = paymentOutboxHelper
+                .getPaymentOutboxMessagesBySagaIdsAndSagaStatus(getSagaIds(paymentResponses), SagaStatus.STARTED,
+                        SagaStatus.PROCESSING)
+                .stream()
+                .collect(Collectors.groupingBy(OrderPaymentOutboxMessage::getSagaId));
+        Map<UUID, Order> orders = orderSagaHelper.findOrders(paymentResponses.stream()
+                .map(PaymentResponse::getOrderId)
+                .distinct()
+                .toList());
+        Map<UUID, OrderApprovalOutboxMessage> approvalOutboxMessages = getCompensatingApprovalOutboxMessages(paymentResponses);
+
+        Map<UUID, Order> changedOrders = new LinkedHashMap<>();
+        Map<UUID, OrderPaymentOutboxMessage> changedPaymentOutboxMessages = new LinkedHashMap<>();
+        List<OrderApprovalOutboxMessage> changedApprovalOutboxMessages = new ArrayList<>();
+
+        paymentResponses.forEach(paymentResponse -> {
+            UUID sagaId = UUID.fromString(paymentResponse.getSagaId());
+            List<SagaStatus> currentSagaStatuses = List.of(getCurrentSagaStatus(paymentResponse.getPaymentStatus()));
+            Optional<OrderPaymentOutboxMessage> orderPaymentOutboxMessageResponse = paymentOutboxMessages
+                    .getOrDefault(sagaId, List.of())
+                    .stream()
+                    .filter(orderPaymentOutboxMessage -> currentSagaStatuses.contains(orderPaymentOutboxMessage.getSagaStatus()))
+                    .findFirst();
+
+            if (orderPaymentOutboxMessageResponse.isEmpty()) {
+                log.info("An outbox message with saga id: {} is already processed!", paymentResponse.getSagaId());
+
+                return;
+            }
+
+            // same NO-OP as the OrderDomainException of findOrder() in the kafka listener.
+            Order order = orders.get(UUID.fromString(paymentResponse.getOrderId()));
+            if (order == null) {
+                log.error("No order found for order id: {}", paymentResponse.getOrderId());
+
+                return;
+            }
+
+            if (paymentResponse.getPaymentStatus() == PaymentStatus.COMPLETED) {
+                log.info("Completing payment for order with id: {}", paymentResponse.getOrderId());
+                OrderPaidEvent domainEvent = orderDomainService.payOrder(order);
+                SagaStatus sagaStatus = orderSagaHelper.orderStatusToSagaStatus(order.getOrderStatus());
+
+                getUpdatedPaymentOutboxMessage(orderPaymentOutboxMessageResponse.get(), order.getOrderStatus(), sagaStatus);
+                approvalOutboxHelper.saveApprovalOutboxMessage(orderDataMapper.orderPaidEventToOrderApprovalEventPayload(domainEvent),
+                        order.getOrderStatus(),
+                        sagaStatus,
+                        OutboxStatus.STARTED,
+                        sagaId);
+
+                log.info("Order with id: {} is paid.", order.getId().getValue());
+            } else {
+                log.info("Cancelling order with id: {}", paymentResponse.getOrderId());
+                orderDomainService.cancelOrder(order, paymentResponse.getFailureMessages());
+                SagaStatus sagaStatus = orderSagaHelper.orderStatusToSagaStatus(order.getOrderStatus());
+
+                getUpdatedPaymentOutboxMessage(orderPaymentOutboxMessageResponse.get(), order.getOrderStatus(), sagaStatus);
+                if (paymentResponse.getPaymentStatus() == PaymentStatus.CANCELLED) {
+                    OrderApprovalOutboxMessage orderApprovalOutboxMessage = approvalOutboxMessages.get(sagaId);
+                    if (orderApprovalOutboxMessage == null) {
+                        throw new OrderDomainException("Approval outbox message could not be found in " +
+                                SagaStatus.COMPENSATING.name() + " status!");
+                    }
+
+                    changedApprovalOutboxMessages.add(getUpdatedApprovalOutboxMessage(orderApprovalOutboxMessage,
+                            order.getOrderStatus(), sagaStatus));
+                }
+
+                log.info("Order with id: {} is cancelled.", order.getId().getValue());
+            }
+
+            changedOrders.put(order.getId().getValue(), order);
+            changedPaymentOutboxMessages.put(orderPaymentOutboxMessageResponse.get().getId(), orderPaymentOutboxMessageResponse.get());
+        });
+
+        changedOrders.values().forEach(orderSagaHelper::saveOrder);
+        changedPaymentOutboxMessages.values().forEach(paymentOutboxHelper::save);
+        changedApprovalOutboxMessages.forEach(approvalOutboxHelper::save);
+    }
+
+    private List<UUID> getSagaIds(List<PaymentResponse> paymentResponses) {
+        return paymentResponses.stream()
+                .map(paymentResponse -> UUID.fromString(paymentResponse.getSagaId()))
+                .distinct()
+                .toList();
+    }
+
+    // only the cancelled payments need their approval outbox message, see rollback().
+    private Map<UUID, OrderApprovalOutboxMessage> getCompensatingApprovalOutboxMessages(List<PaymentResponse> paymentResponses) {
+        List<PaymentResponse> cancelledPaymentResponses = paymentResponses.stream()
+                .filter(paymentResponse -> paymentResponse.getPaymentStatus() == PaymentStatus.CANCELLED)
+                .toList();
+        if (cancelledPaymentResponses.isEmpty()) {
+            return Map.of();
+        }
+
+        return approvalOutboxHelper.getApprovalOutboxMessagesBySagaIdsAndSagaStatus(getSagaIds(cancelledPaymentResponses),
+                        SagaStatus.COMPENSATING)
+                .stream()
+                .collect(Collectors.toMap(OrderApprovalOutboxMessage::getSagaId, orderApprovalOutboxMessage -> orderApprovalOutboxMessage,
+                        (orderApprovalOutboxMessage, otherOrderApprovalOutboxMessage) -> orderApprovalOutboxMessage));
+    }
+
     private OrderPaymentOutboxMessage getUpdatedPaymentOutboxMessage(OrderPaymentOutboxMessage orderPaymentOutboxMessage,
                                                                      OrderStatus orderStatus,
                                                                      SagaStatus sagaStatus) {
@@ -241,8 +358,12 @@ public class OrderPaymentSaga implements SagaStep<PaymentResponse> {
                     SagaStatus.COMPENSATING.name() + " status!");
         }
 
-        OrderApprovalOutboxMessage orderApprovalOutboxMessage = orderApprovalOutboxMessageResponse.get();
+        return getUpdatedApprovalOutboxMessage(orderApprovalOutboxMessageResponse.get(), orderStatus, sagaStatus);
+    }
 
+    private OrderApprovalOutboxMessage getUpdatedApprovalOutboxMessage(OrderApprovalOutboxMessage orderApprovalOutboxMessage,
+                                                                       OrderStatus orderStatus,
+                                                                       SagaStatus sagaStatus) {
         orderApprovalOutboxMessage.setProcessedAt(ZonedDateTime.now(ZoneId.of(UTC)));
         orderApprovalOutboxMessage.setOrderStatus(orderStatus);
         orderApprovalOutboxMessage.setSagaStatus(sagaStatus);
@@ -9,16 +9,22 @@ import com.food.ordering.system.saga.SagaStatus;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class OrderSagaHelper {
     private final OrderRepository orderRepository;
+    private final OrderTrackingProjection orderTrackingProjection;
 
-    public OrderSagaHelper(OrderRepository orderRepository) {
+    public OrderSagaHelper(OrderRepository orderRepository,
+                           OrderTrackingProjection orderTrackingProjection) {
         this.orderRepository = orderRepository;
+        this.orderTrackingProjection = orderTrackingProjection;
     }
 
     public Order findOrder(String orderId) {
@@ -33,8 +39,20 @@ public class OrderSagaHelper {
         return orderResponse.get();
     }
 
+    /* Loads the orders of a batch of saga responses with one query, keyed by order id. An order that can't be found is not in the
+    map, so the caller can skip its response instead of failing the whole batch. */
+    public Map<UUID, Order> findOrders(List<String> orderIds) {
+        return orderRepository.findByIds(orderIds.stream()
+                        .map(orderId -> new OrderId(UUID.fromString(orderId)))
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(order -> order.getId().getValue(), order -> order));
+    }
+
+    // every status change of a saga goes through here, so the tracking read model is updated here as well.
     public void saveOrder(Order order) {
         orderRepository.save(order);
+        orderTrackingProjection.orderChanged(order);
     }
 
     SagaStatus orderStatusToSagaStatus(OrderStatus orderStatus) {
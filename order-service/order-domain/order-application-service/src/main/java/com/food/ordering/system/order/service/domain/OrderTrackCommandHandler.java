@@ -1,39 +1,69 @@
 package com.food.ordering.system.order.service.domain;
 
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
 import com.food.ordering.system.order.service.domain.dto.track.TrackOrderQuery;
 import com.food.ordering.system.order.service.domain.dto.track.TrackOrderResponse;
 import com.food.ordering.system.order.service.domain.entity.Order;
 import com.food.ordering.system.order.service.domain.exception.OrderNotFoundException;
 import com.food.ordering.system.order.service.domain.mapper.OrderDataMapper;
 import com.food.ordering.system.order.service.domain.ports.output.repository.OrderRepository;
+import com.food.ordering.system.order.service.domain.ports.output.repository.OrderTrackingRepository;
 import com.food.ordering.system.order.service.domain.valueobject.TrackingId;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.UUID;
 
-/* We won't have any business logic here(except a simple existence check in trackOrder()), so no domain service call is necessary here. */
+/* We won't have any business logic here(except a simple existence check in trackOrder()), so no domain service call is necessary here.
+
+The order is read from the order tracking read model(see OrderTrackingProjection), not from the orders table. There is no @Transactional
+here on purpose: a tracking that is in the cache is returned without taking a DB connection from the pool.
+
+The orders that are older than the read model have no tracking row. For them, the order is loaded from the orders table once and its
+tracking row is written(see OrderTrackingProjection.orderTrackingMissing()), the later polls read the row like for any other order. */
 @Slf4j
 @Component
 public class OrderTrackCommandHandler {
     private final OrderDataMapper orderDataMapper;
+    private final OrderTrackingRepository orderTrackingRepository;
     private final OrderRepository orderRepository;
+    private final OrderTrackingProjection orderTrackingProjection;
 
-    public OrderTrackCommandHandler(OrderDataMapper orderDataMapper, OrderRepository orderRepository) {
+    public OrderTrackCommandHandler(OrderDataMapper orderDataMapper,
+                                    OrderTrackingRepository orderTrackingRepository,
+                                    OrderRepository orderRepository,
+                                    OrderTrackingProjection orderTrackingProjection) {
         this.orderDataMapper = orderDataMapper;
+        this.orderTrackingRepository = orderTrackingRepository;
         this.orderRepository = orderRepository;
+        this.orderTrackingProjection = orderTrackingProjection;
     }
 
-    @Transactional(readOnly = true)
     public TrackOrderResponse trackOrder(TrackOrderQuery trackOrderQuery) {
-        Optional<Order> orderResult = orderRepository.findByTrackingId(new TrackingId(trackOrderQuery.getOrderTrackingId()));
-        if (orderResult.isEmpty()) {
+        Optional<OrderTracking> orderTrackingResult = orderTrackingRepository.findByTrackingId(trackOrderQuery.getOrderTrackingId());
+        if (orderTrackingResult.isEmpty()) {
+            orderTrackingResult = backfillOrderTracking(trackOrderQuery.getOrderTrackingId());
+        }
+
+        if (orderTrackingResult.isEmpty()) {
             log.warn("Could not find order with tracking id: {}", trackOrderQuery.getOrderTrackingId());
 
             throw new OrderNotFoundException("Could not find order with tracking id: " + trackOrderQuery.getOrderTrackingId());
         }
 
-        return orderDataMapper.orderToTrackOrderResponse(orderResult.get());
+        return orderDataMapper.orderTrackingToTrackOrderResponse(orderTrackingResult.get());
+    }
+
+    // the tracking is read again after the insert, it may be the row of a saga tx that changed the order in the meantime.
+    private Optional<OrderTracking> backfillOrderTracking(UUID trackingId) {
+        Optional<Order> orderResult = orderRepository.findByTrackingId(new TrackingId(trackingId));
+        if (orderResult.isEmpty()) {
+            return Optional.empty();
+        }
+
+        orderTrackingProjection.orderTrackingMissing(orderResult.get());
+
+        return orderTrackingRepository.findByTrackingId(trackingId);
     }
 }
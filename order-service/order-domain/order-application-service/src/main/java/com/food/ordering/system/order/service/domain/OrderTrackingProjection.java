@@ -0,0 +1,96 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
+import com.food.ordering.system.order.service.domain.entity.Order;
+import com.food.ordering.system.order.service.domain.ports.output.message.publisher.tracking.OrderStatusChangedMessagePublisher;
+import com.food.ordering.system.order.service.domain.ports.output.repository.OrderTrackingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static com.food.ordering.system.domain.DomainConstants.UTC;
+
+/* Keeps the order tracking read model("order".order_tracking) in sync with the orders. GET /orders/{trackingId} is polled by the
+customers all the time and only needs the status and the failure messages of an order, so it reads this one small row by its primary
+key(from a cache, see OrderTrackingRepositoryImpl) instead of loading the order with its items and address.
+
+Every place that saves an order calls this in the same tx, so the read model can't get out of sync with the order: the create
+helpers for the new orders and OrderSagaHelper.saveOrder() for every status change of the sagas.
+
+A status change is also pushed to the clients that follow the order(see OrderStatusChangedMessagePublisher), but only after the tx
+commits. So a client never sees a status that is rolled back afterwards(e.g. when the saga tx fails and the kafka message is retried),
+and it sees the same version with GET /orders/{trackingId}. */
+@Slf4j
+@Component
+public class OrderTrackingProjection {
+    private final OrderTrackingRepository orderTrackingRepository;
+    private final OrderStatusChangedMessagePublisher orderStatusChangedMessagePublisher;
+
+    public OrderTrackingProjection(OrderTrackingRepository orderTrackingRepository,
+                                   OrderStatusChangedMessagePublisher orderStatusChangedMessagePublisher) {
+        this.orderTrackingRepository = orderTrackingRepository;
+        this.orderStatusChangedMessagePublisher = orderStatusChangedMessagePublisher;
+    }
+
+    @Transactional
+    public void orderCreated(List<Order> orders) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of(UTC));
+        orderTrackingRepository.insertAll(orders.stream().map(order -> orderToOrderTracking(order, now)).toList());
+    }
+
+    @Transactional
+    public void orderChanged(Order order) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of(UTC));
+        long version = orderTrackingRepository.save(orderToOrderTracking(order, now));
+        publishAfterCommit(orderToOrderTracking(order, now, version));
+
+        log.debug("Order tracking of order with id: {} is updated with status: {}", order.getId().getValue(), order.getOrderStatus());
+    }
+
+    /* The orders that are created before the read model existed don't have a tracking row. OrderTrackCommandHandler falls back to the
+    orders table for them and writes the row here, so only the first poll of such an order loads it. Nothing is pushed to the clients,
+    the status of the order didn't change. */
+    @Transactional
+    public void orderTrackingMissing(Order order) {
+        orderTrackingRepository.insertIfAbsent(orderToOrderTracking(order, ZonedDateTime.now(ZoneId.of(UTC))));
+
+        log.info("Order tracking of order with id: {} is backfilled with status: {}", order.getId().getValue(),
+                order.getOrderStatus());
+    }
+
+    private void publishAfterCommit(OrderTracking orderTracking) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orderStatusChangedMessagePublisher.publish(orderTracking);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderStatusChangedMessagePublisher.publish(orderTracking);
+            }
+        });
+    }
+
+    // the version of a tracking that is being written is set by the DB.
+    private OrderTracking orderToOrderTracking(Order order, ZonedDateTime updatedAt) {
+        return orderToOrderTracking(order, updatedAt, 0);
+    }
+
+    private OrderTracking orderToOrderTracking(Order order, ZonedDateTime updatedAt, long version) {
+        return OrderTracking.builder()
+                .trackingId(order.getTrackingId().getValue())
+                .orderId(order.getId().getValue())
+                .orderStatus(order.getOrderStatus())
+                .failureMessages(order.getFailureMessages())
+                .version(version)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
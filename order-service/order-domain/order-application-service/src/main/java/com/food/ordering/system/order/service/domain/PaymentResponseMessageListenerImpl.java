@@ -7,6 +7,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.List;
+
 import static com.food.ordering.system.order.service.domain.entity.Order.FAILURE_MESSAGE_DELIMITER;
 
 @Slf4j
@@ -36,4 +38,10 @@ public class PaymentResponseMessageListenerImpl implements PaymentResponseMessag
                 paymentResponse.getOrderId(),
                 String.join(FAILURE_MESSAGE_DELIMITER, paymentResponse.getFailureMessages()));
     }
+
+    @Override
+    public void processPaymentResponses(List<PaymentResponse> paymentResponses) {
+        orderPaymentSaga.processBatch(paymentResponses);
+        log.info("{} payment responses are processed with order payment saga", paymentResponses.size());
+    }
 }
@@ -0,0 +1,126 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaStageLatency;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaTimelineEntry;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaTimelineResponse;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaTimelineStageResponse;
+import com.food.ordering.system.order.service.domain.ports.input.service.SagaTimelineService;
+import com.food.ordering.system.order.service.domain.ports.output.repository.SagaTimelineRepository;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* Records the timelines that the order svc collects for its sagas(see SagaTimeline) into the append-only saga_timeline table.
+
+To keep it cheap enough to leave on in production, record() doesn't touch the DB. The entries are added to an in-memory buffer and
+flushed every saga-timeline-flush-interval-ms with one batched insert. If the buffer already has saga-timeline-max-buffered-entries
+entries(e.g. the DB is down), the new entries are dropped. A failed flush is also dropped and not retried. The timeline is only for
+diagnostics, it must never slow down or fail a saga.
+
+The same stage can be recorded more than once(e.g. a redelivered response), so the reads only use the first time of each stage.
+
+Note: the stages are recorded with the clocks of the different services, so a clock skew between the services shows up in the
+latency of the stages where the timeline crosses a service. */
+@Slf4j
+@Service
+public class SagaTimelineServiceImpl implements SagaTimelineService {
+    private final SagaTimelineRepository sagaTimelineRepository;
+    private final OrderServiceConfigData orderServiceConfigData;
+    private final ConcurrentLinkedQueue<SagaTimelineEntry> bufferedEntries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedEntryCount = new AtomicInteger();
+
+    public SagaTimelineServiceImpl(SagaTimelineRepository sagaTimelineRepository,
+                                   OrderServiceConfigData orderServiceConfigData) {
+        this.sagaTimelineRepository = sagaTimelineRepository;
+        this.orderServiceConfigData = orderServiceConfigData;
+    }
+
+    @Override
+    public void record(UUID sagaId, SagaTimeline sagaTimeline) {
+        if (!orderServiceConfigData.isSagaTimelineEnabled() || sagaTimeline.isEmpty()) {
+            return;
+        }
+
+        int entryCount = sagaTimeline.getEntries().size();
+        if (bufferedEntryCount.addAndGet(entryCount) > orderServiceConfigData.getSagaTimelineMaxBufferedEntries()) {
+            bufferedEntryCount.addAndGet(-entryCount);
+            log.debug("Saga timeline buffer is full, dropping the timeline of saga id: {}", sagaId);
+
+            return;
+        }
+
+        sagaTimeline.getEntries().forEach(entry -> bufferedEntries.add(SagaTimelineEntry.builder()
+                .sagaId(sagaId)
+                .stage(entry.stage())
+                .recordedAt(entry.recordedAt())
+                .build()));
+    }
+
+    @Scheduled(fixedDelayString = "${order-service.saga-timeline-flush-interval-ms}")
+    public void flush() {
+        List<SagaTimelineEntry> sagaTimelineEntries = new ArrayList<>();
+        SagaTimelineEntry sagaTimelineEntry;
+        while ((sagaTimelineEntry = bufferedEntries.poll()) != null) {
+            sagaTimelineEntries.add(sagaTimelineEntry);
+        }
+
+        if (sagaTimelineEntries.isEmpty()) {
+            return;
+        }
+
+        bufferedEntryCount.addAndGet(-sagaTimelineEntries.size());
+        try {
+            sagaTimelineRepository.insertAll(sagaTimelineEntries);
+        } catch (Exception e) {
+            log.error("Could not write {} saga timeline entries, they are dropped", sagaTimelineEntries.size(), e);
+        }
+    }
+
+    @Override
+    public SagaTimelineResponse getSagaTimeline(UUID sagaId) {
+        List<SagaTimelineEntry> sagaTimelineEntries = new ArrayList<>(sagaTimelineRepository.findBySagaId(sagaId));
+        sagaTimelineEntries.sort(Comparator.comparing(SagaTimelineEntry::getRecordedAt));
+
+        List<SagaTimelineStageResponse> stages = new ArrayList<>();
+        Set<String> recordedStages = new HashSet<>();
+        Instant previousRecordedAt = null;
+        for (SagaTimelineEntry entry : sagaTimelineEntries) {
+            if (!recordedStages.add(entry.getStage())) {
+                continue;
+            }
+
+            stages.add(SagaTimelineStageResponse.builder()
+                    .stage(entry.getStage())
+                    .recordedAt(entry.getRecordedAt())
+                    .elapsedMillis(previousRecordedAt == null ? 0 :
+                            Duration.between(previousRecordedAt, entry.getRecordedAt()).toMillis())
+                    .build());
+            previousRecordedAt = entry.getRecordedAt();
+        }
+
+        return SagaTimelineResponse.builder()
+                .sagaId(sagaId)
+                .totalMillis(stages.isEmpty() ? 0 :
+                        Duration.between(stages.get(0).getRecordedAt(), stages.get(stages.size() - 1).getRecordedAt()).toMillis())
+                .stages(stages)
+                .build();
+    }
+
+    @Override
+    public List<SagaStageLatency> getStageLatencies(int lastMinutes) {
+        return sagaTimelineRepository.findStageLatencies(Instant.now().minus(Duration.ofMinutes(lastMinutes)));
+    }
+}
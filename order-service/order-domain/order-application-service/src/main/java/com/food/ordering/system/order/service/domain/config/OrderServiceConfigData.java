@@ -1,5 +1,6 @@
 package com.food.ordering.system.order.service.domain.config;
 
+import com.food.ordering.system.outbox.OutboxPayloadFormat;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -13,4 +14,21 @@ public class OrderServiceConfigData {
     private String paymentResponseTopicName;
     private String restaurantApprovalRequestTopicName;
     private String restaurantApprovalResponseTopicName;
+    // 0 disables the warm up of CustomerExistenceIndex, then it's only filled with the customers that are looked up or received.
+    private int customerIndexWarmUpBatchSize;
+    // see SagaTimelineServiceImpl
+    private boolean sagaTimelineEnabled;
+    private long sagaTimelineFlushIntervalMs;
+    private int sagaTimelineMaxBufferedEntries;
+    // format of the payment outbox payloads, JSON when it's not set. See PaymentOutboxHelper.
+    private OutboxPayloadFormat outboxPayloadFormat;
+    // see OrderBatchCreateCommandHandler
+    private int batchCreateMaxOrders;
+    private int batchCreateChunkSize;
+    // see OrderGroupCommitWriter
+    private boolean asyncAcceptEnabled;
+    private int groupCommitMaxOrders;
+    private long groupCommitMaxDelayMs;
+    private int groupCommitQueueCapacity;
+    private int groupCommitWriters;
 }
@@ -0,0 +1,18 @@
+package com.food.ordering.system.order.service.domain.dto.create;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class BatchCreateOrderResponse {
+    private final int createdCount;
+    private final int rejectedCount;
+    @NotNull
+    private final List<BatchCreateOrderResult> results;
+}
@@ -0,0 +1,25 @@
+package com.food.ordering.system.order.service.domain.dto.create;
+
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+/* Result of one order of a batch, index is the position of its CreateOrderCommand in the request. orderTrackingId and orderStatus are
+null if the order is rejected, message tells why then. retryable is true if the order is valid but could not be saved, so it can be
+submitted again as it is. */
+@Getter
+@Builder
+@AllArgsConstructor
+public class BatchCreateOrderResult {
+    private final int index;
+    private final boolean created;
+    private final boolean retryable;
+    private final UUID orderTrackingId;
+    private final OrderStatus orderStatus;
+    @NotNull
+    private final String message;
+}
@@ -0,0 +1,18 @@
+package com.food.ordering.system.order.service.domain.dto.timeline;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/* The latency percentiles of a stage across the sagas. The latency of a stage in a saga is the time between the previous stage of the
+saga and this stage, e.g. the latency of payment.request_consume is the time that the payment request spent in kafka. */
+@Getter
+@Builder
+@AllArgsConstructor
+public class SagaStageLatency {
+    private final String stage;
+    private final long count;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+}
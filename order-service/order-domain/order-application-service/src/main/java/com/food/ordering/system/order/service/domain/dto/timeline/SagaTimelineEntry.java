@@ -0,0 +1,18 @@
+package com.food.ordering.system.order.service.domain.dto.timeline;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/* One stage of a saga timeline(see SagaTimeline), as it's stored in the saga_timeline table. */
+@Getter
+@Builder
+@AllArgsConstructor
+public class SagaTimelineEntry {
+    private final UUID sagaId;
+    private final String stage;
+    private final Instant recordedAt;
+}
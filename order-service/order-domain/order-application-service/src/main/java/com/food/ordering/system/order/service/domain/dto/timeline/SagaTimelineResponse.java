@@ -0,0 +1,18 @@
+package com.food.ordering.system.order.service.domain.dto.timeline;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class SagaTimelineResponse {
+    private final UUID sagaId;
+    // time between the first and the last stage of the saga.
+    private final long totalMillis;
+    private final List<SagaTimelineStageResponse> stages;
+}
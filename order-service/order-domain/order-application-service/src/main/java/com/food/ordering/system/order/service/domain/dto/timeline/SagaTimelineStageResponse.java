@@ -0,0 +1,17 @@
+package com.food.ordering.system.order.service.domain.dto.timeline;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class SagaTimelineStageResponse {
+    private final String stage;
+    private final Instant recordedAt;
+    // time since the previous stage of the saga, 0 for the first stage.
+    private final long elapsedMillis;
+}
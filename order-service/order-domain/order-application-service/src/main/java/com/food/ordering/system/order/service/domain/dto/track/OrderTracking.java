@@ -0,0 +1,24 @@
+package com.food.ordering.system.order.service.domain.dto.track;
+
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/* One row of the order tracking read model(see OrderTrackingProjection). version starts with 1 and is increased by the DB with every
+change, so the version of a tracking that is being written is ignored. */
+@Getter
+@Builder
+@AllArgsConstructor
+public class OrderTracking {
+    private final UUID trackingId;
+    private final UUID orderId;
+    private final OrderStatus orderStatus;
+    private final List<String> failureMessages;
+    private final long version;
+    private final ZonedDateTime updatedAt;
+}
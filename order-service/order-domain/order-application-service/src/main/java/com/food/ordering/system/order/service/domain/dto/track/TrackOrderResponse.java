@@ -1,5 +1,6 @@
 package com.food.ordering.system.order.service.domain.dto.track;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.food.ordering.system.domain.valueobject.OrderStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,4 +19,7 @@ public class TrackOrderResponse {
     @NotNull
     private final OrderStatus orderStatus;
     private final List<String> failureMessages;
+    // version of the order tracking, it's sent as the ETag header of GET /orders/{trackingId}, not in the body.
+    @JsonIgnore
+    private final long version;
 }
@@ -0,0 +1,9 @@
+package com.food.ordering.system.order.service.domain.exception;
+
+/* Thrown when an order can't be accepted because the group commit queue is full(see OrderGroupCommitWriter). The order is not saved,
+the client can submit it again. */
+public class OrderAcceptanceQueueFullException extends RuntimeException {
+    public OrderAcceptanceQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.food.ordering.system.order.service.domain.exception;
+
+/* Thrown when a valid order could not be saved, e.g. the tx of its group failed(see OrderGroupCommitWriter). Unlike
+OrderDomainException, it's not a problem of the order, the client can submit it again. */
+public class OrderSaveFailedException extends RuntimeException {
+    public OrderSaveFailedException(String message) {
+        super(message);
+    }
+}
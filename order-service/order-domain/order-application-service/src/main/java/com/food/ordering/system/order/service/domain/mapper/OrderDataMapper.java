@@ -1,10 +1,12 @@
 package com.food.ordering.system.order.service.domain.mapper;
 
+import com.food.ordering.system.domain.id.IdGenerators;
 import com.food.ordering.system.domain.valueobject.*;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderResponse;
 import com.food.ordering.system.order.service.domain.dto.create.OrderAddress;
 import com.food.ordering.system.order.service.domain.dto.message.CustomerModel;
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
 import com.food.ordering.system.order.service.domain.dto.track.TrackOrderResponse;
 import com.food.ordering.system.order.service.domain.entity.*;
 import com.food.ordering.system.order.service.domain.event.OrderCancelledEvent;
@@ -62,6 +64,15 @@ public class OrderDataMapper {
                 .build();
     }
 
+    public TrackOrderResponse orderTrackingToTrackOrderResponse(OrderTracking orderTracking) {
+        return TrackOrderResponse.builder()
+                .orderTrackingId(orderTracking.getTrackingId())
+                .orderStatus(orderTracking.getOrderStatus())
+                .failureMessages(orderTracking.getFailureMessages())
+                .version(orderTracking.getVersion())
+                .build();
+    }
+
     public OrderPaymentEventPayload orderCreatedEventToOrderPaymentEventPayload(OrderCreatedEvent orderCreatedEvent) {
         return OrderPaymentEventPayload.builder()
                 .customerId(orderCreatedEvent.getOrder().getCustomerId().getValue().toString())
@@ -89,7 +100,7 @@ public class OrderDataMapper {
 
     private StreetAddress orderAddressToStreetAddress(OrderAddress orderAddress) {
         return new StreetAddress(
-                UUID.randomUUID(),
+                IdGenerators.newId(),
                 orderAddress.getStreet(),
                 orderAddress.getPostalCode(),
                 orderAddress.getCity());
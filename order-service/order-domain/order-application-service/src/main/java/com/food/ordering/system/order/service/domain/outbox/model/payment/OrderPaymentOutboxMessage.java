@@ -20,11 +20,13 @@ public class OrderPaymentOutboxMessage {
     private ZonedDateTime createdAt;
     private ZonedDateTime processedAt;
     private String type;
-    private String payload; // json representation of the domain event
+    private String payload; // json representation of the domain event, null if payloadBytes is set
+    private byte[] payloadBytes; // the encoded kafka record value, when the outbox stores the avro payloads
     private SagaStatus sagaStatus;
     private OrderStatus orderStatus;
     private OutboxStatus outboxStatus;
     private int version;
+    private ZonedDateTime lockedUntil; // lease of the relay worker that claimed this message
 
     public void setProcessedAt(ZonedDateTime processedAt) {
         this.processedAt = processedAt;
@@ -2,6 +2,7 @@ package com.food.ordering.system.order.service.domain.outbox.scheduler.approval;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.food.ordering.system.domain.id.IdGenerators;
 import com.food.ordering.system.domain.valueobject.OrderStatus;
 import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
 import com.food.ordering.system.order.service.domain.outbox.model.approval.OrderApprovalEventPayload;
@@ -16,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.food.ordering.system.saga.order.SagaConstants.ORDER_SAGA_NAME;
 
@@ -45,6 +47,12 @@ public class ApprovalOutboxHelper {
         return approvalOutboxRepository.findByTypeAndSagaIdAndSagaStatus(ORDER_SAGA_NAME, sagaId, sagaStatuses);
     }
 
+    @Transactional(readOnly = true)
+    public List<OrderApprovalOutboxMessage> getApprovalOutboxMessagesBySagaIdsAndSagaStatus(List<UUID> sagaIds,
+                                                                                            SagaStatus ...sagaStatuses) {
+        return approvalOutboxRepository.findByTypeAndSagaIdsAndSagaStatus(ORDER_SAGA_NAME, sagaIds, sagaStatuses);
+    }
+
     // this method is a state-changing method, so do not set readOnly = true
     @Transactional
     public void save(OrderApprovalOutboxMessage orderApprovalOutboxMessage) {
@@ -59,6 +67,27 @@ public class ApprovalOutboxHelper {
         log.info("OrderApprovalOutboxMessage saved with id: {}", orderApprovalOutboxMessage.getId());
     }
 
+    /* Writes the outbox statuses that are collected from the kafka callbacks(see OutboxStatusBuffer) in a single tx, with one bulk
+    update per outbox status and version. If a message is updated by another tx in the meantime(like a saga step), its
+    version doesn't match anymore and its status is not updated. So it stays in STARTED state and will be published again, which is
+    the same result that an optimistic locking failure had with the single updates. */
+    @Transactional
+    public void updateOutboxStatus(List<OrderApprovalOutboxMessage> orderApprovalOutboxMessages) {
+        orderApprovalOutboxMessages.stream()
+                .collect(Collectors.groupingBy(OrderApprovalOutboxMessage::getOutboxStatus,
+                        Collectors.groupingBy(OrderApprovalOutboxMessage::getVersion,
+                                Collectors.mapping(OrderApprovalOutboxMessage::getId, Collectors.toList()))))
+                .forEach((outboxStatus, idsByVersion) -> idsByVersion.forEach((version, ids) -> {
+                    int updatedCount = approvalOutboxRepository.updateOutboxStatusByIdsAndVersion(outboxStatus, version, ids);
+                    if (updatedCount < ids.size()) {
+                        log.warn("{} of {} OrderApprovalOutboxMessage could not be updated with outbox status: {}, they are updated " +
+                                "by another tx!", ids.size() - updatedCount, ids.size(), outboxStatus.name());
+                    }
+                }));
+
+        log.info("{} OrderApprovalOutboxMessage are updated with their outbox status", orderApprovalOutboxMessages.size());
+    }
+
     @Transactional
     public void deleteApprovalOutboxMessageByOutboxStatusAndSagaStatus(OutboxStatus outboxStatus, SagaStatus ...sagaStatuses) {
         approvalOutboxRepository.deleteByTypeAndOutboxStatusAndSagaStatus(ORDER_SAGA_NAME, outboxStatus, sagaStatuses);
@@ -71,7 +100,7 @@ public class ApprovalOutboxHelper {
                                           OutboxStatus outboxStatus,
                                           UUID sagaId) {
         save(OrderApprovalOutboxMessage.builder()
-                .id(UUID.randomUUID())
+                .id(IdGenerators.newId())
                 .sagaId(sagaId)
                 .createdAt(orderApprovalEventPayload.getCreatedAt())
                 .type(ORDER_SAGA_NAME)
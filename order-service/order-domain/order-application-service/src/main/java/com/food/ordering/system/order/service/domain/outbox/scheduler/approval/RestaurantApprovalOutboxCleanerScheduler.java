@@ -1,6 +1,8 @@
 package com.food.ordering.system.order.service.domain.outbox.scheduler.approval;
 
 import com.food.ordering.system.order.service.domain.outbox.model.approval.OrderApprovalOutboxMessage;
+import com.food.ordering.system.outbox.OutboxCleaner;
+import com.food.ordering.system.outbox.OutboxPartitionManager;
 import com.food.ordering.system.outbox.OutboxScheduler;
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.saga.SagaStatus;
@@ -10,20 +12,43 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class RestaurantApprovalOutboxCleanerScheduler implements OutboxScheduler {
+    /* the terminal rows that the outbox partitions may only contain before they are dropped, see the DELETE below. Also used by
+    the chunked cleanup. */
+    private static final String COMPLETED_CONDITION =
+            "outbox_status = 'COMPLETED' AND saga_status IN ('SUCCEEDED', 'FAILED', 'COMPENSATED')";
+
     private final ApprovalOutboxHelper approvalOutboxHelper;
+    private final Optional<OutboxPartitionManager> outboxPartitionManager;
+    private final Optional<OutboxCleaner> outboxCleaner;
 
-    public RestaurantApprovalOutboxCleanerScheduler(ApprovalOutboxHelper approvalOutboxHelper) {
+    public RestaurantApprovalOutboxCleanerScheduler(ApprovalOutboxHelper approvalOutboxHelper,
+                                                    Optional<OutboxPartitionManager> outboxPartitionManager,
+                                                    Optional<OutboxCleaner> outboxCleaner) {
         this.approvalOutboxHelper = approvalOutboxHelper;
+        this.outboxPartitionManager = outboxPartitionManager;
+        this.outboxCleaner = outboxCleaner;
     }
 
     @Override
     @Scheduled(cron = "@midnight") // will be triggered every midnight
     public void processOutboxMessage() {
+        /* With outbox-relay.partitioning-enabled, the old partitions that only have completed rows are dropped as a whole instead of
+        deleting their rows one by one. */
+        if (outboxPartitionManager.isPresent()) {
+            outboxPartitionManager.get().dropCompletedPartitions(RestaurantApprovalOutboxScheduler.OUTBOX_TABLE_NAME, COMPLETED_CONDITION);
+            return;
+        }
+
+        /* With outbox-cleanup.enabled, the completed rows are archived and deleted in chunks, without loading them all into memory. */
+        if (outboxCleaner.isPresent()) {
+            outboxCleaner.get().clean(RestaurantApprovalOutboxScheduler.OUTBOX_TABLE_NAME, COMPLETED_CONDITION);
+            return;
+        }
+
         Optional<List<OrderApprovalOutboxMessage>> outboxMessagesResponse =
                 approvalOutboxHelper.getApprovalOutboxMessageByOutboxStatusAndSagaStatus(
                         OutboxStatus.COMPLETED,
@@ -33,9 +58,7 @@ public class RestaurantApprovalOutboxCleanerScheduler implements OutboxScheduler
 
         if (outboxMessagesResponse.isPresent()) {
             List<OrderApprovalOutboxMessage> outboxMessages = outboxMessagesResponse.get();
-            log.info("Received {} OrderApprovalOutboxMessage for clean-up. The payloads: {}",
-                    outboxMessages.size(),
-                    outboxMessages.stream().map(OrderApprovalOutboxMessage::getPayload).collect(Collectors.joining("\n")));
+            log.info("Received {} OrderApprovalOutboxMessage for clean-up!", outboxMessages.size());
 
             approvalOutboxHelper.deleteApprovalOutboxMessageByOutboxStatusAndSagaStatus(
                     OutboxStatus.COMPLETED,
@@ -2,9 +2,12 @@ package com.food.ordering.system.order.service.domain.outbox.scheduler.approval;
 
 import com.food.ordering.system.order.service.domain.outbox.model.approval.OrderApprovalOutboxMessage;
 import com.food.ordering.system.order.service.domain.ports.output.message.publisher.restaurantapproval.RestaurantApprovalRequestMessagePublisher;
+import com.food.ordering.system.outbox.OutboxRunGuard;
 import com.food.ordering.system.outbox.OutboxScheduler;
 import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.outbox.OutboxStatusBuffer;
 import com.food.ordering.system.saga.SagaStatus;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -17,8 +20,13 @@ import java.util.stream.Collectors;
 @Slf4j
 @Component
 public class RestaurantApprovalOutboxScheduler implements OutboxScheduler {
+    public static final String OUTBOX_TABLE_NAME = "restaurant_approval_outbox";
+
     private final ApprovalOutboxHelper approvalOutboxHelper;
     private final RestaurantApprovalRequestMessagePublisher restaurantApprovalRequestMessagePublisher;
+    private final OutboxStatusBuffer<OrderApprovalOutboxMessage> outboxStatusBuffer =
+            new OutboxStatusBuffer<>(OrderApprovalOutboxMessage::getId);
+    private final OutboxRunGuard outboxRunGuard = new OutboxRunGuard();
 
     public RestaurantApprovalOutboxScheduler(ApprovalOutboxHelper approvalOutboxHelper,
                                              RestaurantApprovalRequestMessagePublisher restaurantApprovalRequestMessagePublisher) {
@@ -31,6 +39,11 @@ public class RestaurantApprovalOutboxScheduler implements OutboxScheduler {
     @Scheduled(fixedDelayString = "${order-service.outbox-scheduler-fixed-rate}",
             initialDelayString = "${order-service.outbox-scheduler-initial-delay}")
     public void processOutboxMessage() {
+        // the scheduled run and the wake-ups of the outbox notification listener never run at the same time, see OutboxRunGuard.
+        outboxRunGuard.run(this::publishOutboxMessages);
+    }
+
+    private void publishOutboxMessages() {
         /* Note: Remember that SagaStatus.PROCESSING corresponds to the OrderStatus.PAID. So this is the state that an order requires
         an approval from restaurant svc. */
         Optional<List<OrderApprovalOutboxMessage>> outboxMessagesResponse =
@@ -38,23 +51,47 @@ public class RestaurantApprovalOutboxScheduler implements OutboxScheduler {
                         OutboxStatus.STARTED,
                         SagaStatus.PROCESSING);
 
-        if (outboxMessagesResponse.isPresent() && outboxMessagesResponse.get().size() > 0) {
-            List<OrderApprovalOutboxMessage> outboxMessages = outboxMessagesResponse.get();
+        /* the rows that are published by an earlier run and still wait for their kafka callback or for the next flushOutboxStatus()
+        are STARTED too, they are not published again. */
+        List<OrderApprovalOutboxMessage> outboxMessages = outboxStatusBuffer.excludePending(outboxMessagesResponse.orElse(List.of()));
+        if (!outboxMessages.isEmpty()) {
             log.info("Received {} OrderApprovalOutboxMessage with ids: {}, sending to message bus!",
                     outboxMessages.size(),
                     outboxMessages.stream().map(outboxMessage -> outboxMessage.getId().toString()).collect(Collectors.joining(",")));
 
-            outboxMessages.forEach(outboxMessage -> restaurantApprovalRequestMessagePublisher.publish(
-                    outboxMessage,
-                    this::updateOutboxStatus));
+            restaurantApprovalRequestMessagePublisher.publishBatch(outboxMessages, this::updateOutboxStatus);
 
             log.info("{} OrderApprovalOutboxMessage sent to message bus!", outboxMessages.size());
         }
     }
 
+    /* Writes the outbox statuses that are collected from the kafka callbacks with bulk updates. */
+    @Scheduled(fixedDelayString = "${outbox-relay.status-flush-interval-ms}")
+    public void flushOutboxStatus() {
+        List<OrderApprovalOutboxMessage> outboxMessages = outboxStatusBuffer.drain();
+        if (!outboxMessages.isEmpty()) {
+            try {
+                approvalOutboxHelper.updateOutboxStatus(outboxMessages);
+            } finally {
+                outboxStatusBuffer.release(outboxMessages);
+            }
+        }
+    }
+
+    /* The scheduler is destroyed before the helper and the repositories it depends on, so the last statuses can still be written. */
+    @PreDestroy
+    public void flushOutboxStatusOnShutdown() {
+        flushOutboxStatus();
+    }
+
     private void updateOutboxStatus(OrderApprovalOutboxMessage orderApprovalOutboxMessage, OutboxStatus outboxStatus) {
         orderApprovalOutboxMessage.setOutboxStatus(outboxStatus);
-        approvalOutboxHelper.save(orderApprovalOutboxMessage);
-        log.info("OrderApprovalOutboxMessage is updated with outbox status: {}", outboxStatus.name());
+        outboxStatusBuffer.add(orderApprovalOutboxMessage);
+        log.debug("OrderApprovalOutboxMessage is buffered with outbox status: {}", outboxStatus.name());
+    }
+
+    @Override
+    public String getOutboxTableName() {
+        return OUTBOX_TABLE_NAME;
     }
 }
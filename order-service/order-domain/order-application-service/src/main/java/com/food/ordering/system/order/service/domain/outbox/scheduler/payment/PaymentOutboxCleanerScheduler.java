@@ -1,6 +1,8 @@
 package com.food.ordering.system.order.service.domain.outbox.scheduler.payment;
 
 import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentOutboxMessage;
+import com.food.ordering.system.outbox.OutboxCleaner;
+import com.food.ordering.system.outbox.OutboxPartitionManager;
 import com.food.ordering.system.outbox.OutboxScheduler;
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.saga.SagaStatus;
@@ -10,22 +12,45 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
-/* Note: Before deleting the completed outbox events of order payment outbox table, you might also create an archive table and move the data
-there. Then you can use that table along with the logs for analyzing the system. */
+/* Note: With outbox-cleanup.archive-enabled, the completed outbox events of order payment outbox table are written into compressed archive
+files before they are deleted(see OutboxCleaner). Then you can use them along with the logs for analyzing the system. */
 @Slf4j
 @Component
 public class PaymentOutboxCleanerScheduler implements OutboxScheduler {
+    /* the terminal rows that the outbox partitions may only contain before they are dropped, see the DELETE below. Also used by
+    the chunked cleanup. */
+    private static final String COMPLETED_CONDITION =
+            "outbox_status = 'COMPLETED' AND saga_status IN ('SUCCEEDED', 'FAILED', 'COMPENSATED')";
+
     private final PaymentOutboxHelper paymentOutboxHelper;
+    private final Optional<OutboxPartitionManager> outboxPartitionManager;
+    private final Optional<OutboxCleaner> outboxCleaner;
 
-    public PaymentOutboxCleanerScheduler(PaymentOutboxHelper paymentOutboxHelper) {
+    public PaymentOutboxCleanerScheduler(PaymentOutboxHelper paymentOutboxHelper,
+                                         Optional<OutboxPartitionManager> outboxPartitionManager,
+                                         Optional<OutboxCleaner> outboxCleaner) {
         this.paymentOutboxHelper = paymentOutboxHelper;
+        this.outboxPartitionManager = outboxPartitionManager;
+        this.outboxCleaner = outboxCleaner;
     }
 
     @Override
     @Scheduled(cron = "@midnight")
     public void processOutboxMessage() {
+        /* With outbox-relay.partitioning-enabled, the old partitions that only have completed rows are dropped as a whole instead of
+        deleting their rows one by one. */
+        if (outboxPartitionManager.isPresent()) {
+            outboxPartitionManager.get().dropCompletedPartitions(PaymentOutboxScheduler.OUTBOX_TABLE_NAME, COMPLETED_CONDITION);
+            return;
+        }
+
+        /* With outbox-cleanup.enabled, the completed rows are archived and deleted in chunks, without loading them all into memory. */
+        if (outboxCleaner.isPresent()) {
+            outboxCleaner.get().clean(PaymentOutboxScheduler.OUTBOX_TABLE_NAME, COMPLETED_CONDITION);
+            return;
+        }
+
         /* We want to double-check that the SagaStatus of the messages is one of the ending states(succeeded, failed, compensated) and not a
         starting or intermediate state like STARTED, PROCESSING or COMPENSATING. */
         Optional<List<OrderPaymentOutboxMessage>> outboxMessagesResponse =
@@ -39,9 +64,7 @@ public class PaymentOutboxCleanerScheduler implements OutboxScheduler {
         if (outboxMessagesResponse.isPresent()) {
             List<OrderPaymentOutboxMessage> outboxMessages = outboxMessagesResponse.get();
 
-            log.info("Received {} OrderPaymentOutboxMessage for clean-up. The payloads: {}",
-                    outboxMessages.size(),
-                    outboxMessages.stream().map(OrderPaymentOutboxMessage::getPayload).collect(Collectors.joining("\n")));
+            log.info("Received {} OrderPaymentOutboxMessage for clean-up!", outboxMessages.size());
 
             paymentOutboxHelper.deletePaymentOutboxMessageByOutboxStatusAndSagaStatus(
                     OutboxStatus.COMPLETED,
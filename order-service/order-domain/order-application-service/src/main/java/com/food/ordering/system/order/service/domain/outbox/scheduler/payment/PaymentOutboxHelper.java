@@ -2,21 +2,30 @@ package com.food.ordering.system.order.service.domain.outbox.scheduler.payment;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.food.ordering.system.domain.id.IdGenerators;
 import com.food.ordering.system.domain.valueobject.OrderStatus;
+import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
 import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
 import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentEventPayload;
 import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentOutboxMessage;
+import com.food.ordering.system.order.service.domain.ports.output.message.publisher.payment.PaymentRequestMessageEncoder;
 import com.food.ordering.system.order.service.domain.ports.output.repository.PaymentOutboxRepository;
+import com.food.ordering.system.outbox.OutboxPayloadFormat;
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.saga.SagaStatus;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import static com.food.ordering.system.domain.DomainConstants.UTC;
 import static com.food.ordering.system.saga.order.SagaConstants.ORDER_SAGA_NAME;
 
 @Slf4j
@@ -24,11 +33,17 @@ import static com.food.ordering.system.saga.order.SagaConstants.ORDER_SAGA_NAME;
 public class PaymentOutboxHelper {
     private final PaymentOutboxRepository paymentOutboxRepository;
     private final ObjectMapper objectMapper;
+    private final PaymentRequestMessageEncoder paymentRequestMessageEncoder;
+    private final OrderServiceConfigData orderServiceConfigData;
 
     public PaymentOutboxHelper(PaymentOutboxRepository paymentOutboxRepository,
-                               ObjectMapper objectMapper) {
+                               ObjectMapper objectMapper,
+                               PaymentRequestMessageEncoder paymentRequestMessageEncoder,
+                               OrderServiceConfigData orderServiceConfigData) {
         this.paymentOutboxRepository = paymentOutboxRepository;
         this.objectMapper = objectMapper;
+        this.paymentRequestMessageEncoder = paymentRequestMessageEncoder;
+        this.orderServiceConfigData = orderServiceConfigData;
     }
 
     /* Use readOnly = true because this method doesn't change the state and only gets data.*/
@@ -39,11 +54,27 @@ public class PaymentOutboxHelper {
         return paymentOutboxRepository.findByTypeAndOutboxStatusAndSagaStatus(ORDER_SAGA_NAME, outboxStatus, sagaStatuses);
     }
 
+    /* The claim tx only locks and leases the rows and commits right away. The publishing happens after this tx, so the row locks are
+    not held while waiting for kafka. */
+    @Transactional
+    public Optional<List<OrderPaymentOutboxMessage>> claimPaymentOutboxMessageByOutboxStatusAndSagaStatus(
+            int limit, Duration lease, ZonedDateTime createdAfter, OutboxStatus outboxStatus, SagaStatus ... sagaStatuses
+    ) {
+        return paymentOutboxRepository.claimByTypeAndOutboxStatusAndSagaStatus(ORDER_SAGA_NAME, outboxStatus, limit,
+                ZonedDateTime.now(ZoneId.of(UTC)).plus(lease), createdAfter, sagaStatuses);
+    }
+
     @Transactional(readOnly = true)
     public Optional<OrderPaymentOutboxMessage> getPaymentOutboxMessageBySagaIdAndSagaStatus(UUID sagaId, SagaStatus ...sagaStatuses) {
         return paymentOutboxRepository.findByTypeAndSagaIdAndSagaStatus(ORDER_SAGA_NAME, sagaId, sagaStatuses);
     }
 
+    @Transactional(readOnly = true)
+    public List<OrderPaymentOutboxMessage> getPaymentOutboxMessagesBySagaIdsAndSagaStatus(List<UUID> sagaIds,
+                                                                                          SagaStatus ...sagaStatuses) {
+        return paymentOutboxRepository.findByTypeAndSagaIdsAndSagaStatus(ORDER_SAGA_NAME, sagaIds, sagaStatuses);
+    }
+
     @Transactional
     public void save(OrderPaymentOutboxMessage orderPaymentOutboxMessage) {
         OrderPaymentOutboxMessage response = paymentOutboxRepository.save(orderPaymentOutboxMessage);
@@ -58,28 +89,77 @@ public class PaymentOutboxHelper {
         log.info("OrderPaymentOutboxMessage saved with outbox id: {}", orderPaymentOutboxMessage.getId());
     }
 
+    /* Writes the outbox statuses that are collected from the kafka callbacks(see OutboxStatusBuffer) in a single tx, with one bulk
+    update per outbox status and version. If a message is updated by another tx in the meantime(like a saga step), its
+    version doesn't match anymore and its status is not updated. So it stays in STARTED state and will be published again, which is
+    the same result that an optimistic locking failure had with the single updates. */
+    @Transactional
+    public void updateOutboxStatus(List<OrderPaymentOutboxMessage> orderPaymentOutboxMessages) {
+        orderPaymentOutboxMessages.stream()
+                .collect(Collectors.groupingBy(OrderPaymentOutboxMessage::getOutboxStatus,
+                        Collectors.groupingBy(OrderPaymentOutboxMessage::getVersion,
+                                Collectors.mapping(OrderPaymentOutboxMessage::getId, Collectors.toList()))))
+                .forEach((outboxStatus, idsByVersion) -> idsByVersion.forEach((version, ids) -> {
+                    int updatedCount = paymentOutboxRepository.updateOutboxStatusByIdsAndVersion(outboxStatus, version, ids);
+                    if (updatedCount < ids.size()) {
+                        log.warn("{} of {} OrderPaymentOutboxMessage could not be updated with outbox status: {}, they are updated " +
+                                "by another tx!", ids.size() - updatedCount, ids.size(), outboxStatus.name());
+                    }
+                }));
+
+        log.info("{} OrderPaymentOutboxMessage are updated with their outbox status", orderPaymentOutboxMessages.size());
+    }
+
     @Transactional
     public void deletePaymentOutboxMessageByOutboxStatusAndSagaStatus(OutboxStatus outboxStatus,
                                                                       SagaStatus ...sagaStatuses) {
         paymentOutboxRepository.deleteByTypeAndOutboxStatusAndSagaStatus(ORDER_SAGA_NAME, outboxStatus, sagaStatuses);
     }
 
+    /* With outbox-payload-format: avro, the request is encoded here once, into the bytes that are sent to kafka. Then the outbox relay
+    publishes these bytes as they are, instead of parsing the json, mapping it to the avro model and serializing that for every
+    publish. The json payload is not stored then. */
     @Transactional
     public void savePaymentOutboxMessage(OrderPaymentEventPayload paymentEventPayload,
                                          OrderStatus orderStatus,
                                          SagaStatus sagaStatus,
                                          OutboxStatus outboxStatus,
                                          UUID sagaId) {
-        save(OrderPaymentOutboxMessage.builder()
-                .id(UUID.randomUUID())
+        save(createPaymentOutboxMessage(paymentEventPayload, orderStatus, sagaStatus, outboxStatus, sagaId));
+    }
+
+    /* One message per payload, each with a new saga. The messages are inserted together in jdbc batches(see OrderBatchCreateHelper). */
+    @Transactional
+    public void savePaymentOutboxMessages(List<OrderPaymentEventPayload> paymentEventPayloads,
+                                          OrderStatus orderStatus,
+                                          SagaStatus sagaStatus,
+                                          OutboxStatus outboxStatus) {
+        paymentOutboxRepository.insertAll(paymentEventPayloads.stream()
+                .map(paymentEventPayload -> createPaymentOutboxMessage(paymentEventPayload, orderStatus, sagaStatus, outboxStatus,
+                        IdGenerators.newId()))
+                .toList());
+
+        log.info("{} OrderPaymentOutboxMessage are saved", paymentEventPayloads.size());
+    }
+
+    private OrderPaymentOutboxMessage createPaymentOutboxMessage(OrderPaymentEventPayload paymentEventPayload,
+                                                                 OrderStatus orderStatus,
+                                                                 SagaStatus sagaStatus,
+                                                                 OutboxStatus outboxStatus,
+                                                                 UUID sagaId) {
+        boolean avroPayload = OutboxPayloadFormat.AVRO == orderServiceConfigData.getOutboxPayloadFormat();
+
+        return OrderPaymentOutboxMessage.builder()
+                .id(IdGenerators.newId())
                 .sagaId(sagaId)
                 .createdAt(paymentEventPayload.getCreatedAt())
                 .type(ORDER_SAGA_NAME)
-                .payload(createPayload(paymentEventPayload))
+                .payload(avroPayload ? null : createPayload(paymentEventPayload))
+                .payloadBytes(avroPayload ? paymentRequestMessageEncoder.encode(sagaId, paymentEventPayload) : null)
                 .orderStatus(orderStatus)
                 .sagaStatus(sagaStatus)
                 .outboxStatus(outboxStatus)
-                .build());
+                .build();
     }
 
     private String createPayload(OrderPaymentEventPayload paymentEventPayload) {
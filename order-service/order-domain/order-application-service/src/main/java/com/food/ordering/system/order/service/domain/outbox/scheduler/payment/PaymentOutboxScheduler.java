@@ -2,14 +2,18 @@ package com.food.ordering.system.order.service.domain.outbox.scheduler.payment;
 
 import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentOutboxMessage;
 import com.food.ordering.system.order.service.domain.ports.output.message.publisher.payment.PaymentRequestMessagePublisher;
+import com.food.ordering.system.outbox.OutboxRelay;
+import com.food.ordering.system.outbox.OutboxRunGuard;
 import com.food.ordering.system.outbox.OutboxScheduler;
 import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.outbox.OutboxStatusBuffer;
 import com.food.ordering.system.saga.SagaStatus;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -17,28 +21,55 @@ import java.util.stream.Collectors;
 @Slf4j
 @Component
 public class PaymentOutboxScheduler implements OutboxScheduler {
+    public static final String OUTBOX_TABLE_NAME = "payment_outbox";
+
     private final PaymentOutboxHelper paymentOutboxHelper;
     private final PaymentRequestMessagePublisher paymentRequestMessagePublisher;
+    private final OutboxRelay outboxRelay;
+    private final OutboxStatusBuffer<OrderPaymentOutboxMessage> outboxStatusBuffer =
+            new OutboxStatusBuffer<>(OrderPaymentOutboxMessage::getId);
+    private final OutboxRunGuard outboxRunGuard = new OutboxRunGuard();
 
     public PaymentOutboxScheduler(PaymentOutboxHelper paymentOutboxHelper,
-                                  PaymentRequestMessagePublisher paymentRequestMessagePublisher) {
+                                  PaymentRequestMessagePublisher paymentRequestMessagePublisher,
+                                  OutboxRelay outboxRelay) {
         this.paymentOutboxHelper = paymentOutboxHelper;
         this.paymentRequestMessagePublisher = paymentRequestMessagePublisher;
+        this.outboxRelay = outboxRelay;
     }
 
     /* Here, we pull the outbox table. Actually we will pull the domain events that are persisted into the outbox table.
-    We want to get only outbox messages with outbox_status set as started and saga_status as started or compensating. */
+    We want to get only outbox messages with outbox_status set as started and saga_status as started or compensating.
+
+    With outbox-relay.claim-enabled, the outbox relay workers claim bounded batches of messages instead, so multiple workers and
+    multiple order svc instances can drain the table in parallel without publishing the same message twice.
+
+    Note: There is no @Transactional on this method. The reads and the claims run in the txs of the PaymentOutboxHelper methods and
+    the outbox callback runs on the kafka producer thread anyway. A tx here would only keep a DB connection busy while the relay
+    workers are draining the table with their own connections. */
     @Override
-    @Transactional
     @Scheduled(fixedDelayString = "${order-service.outbox-scheduler-fixed-rate}",
             initialDelayString = "${order-service.outbox-scheduler-initial-delay}")
     public void processOutboxMessage() {
+        // the scheduled run and the wake-ups of the outbox notification listener never run at the same time, see OutboxRunGuard.
+        outboxRunGuard.run(this::publishOutboxMessages);
+    }
+
+    private void publishOutboxMessages() {
+        if (outboxRelay.isClaimEnabled()) {
+            outboxRelay.drain(getOutboxTableName(), this::claimAndPublishOutboxMessages);
+
+            return;
+        }
+
         Optional<List<OrderPaymentOutboxMessage>> outboxMessagesResponse = paymentOutboxHelper.
                 getPaymentOutboxMessageByOutboxStatusAndSagaStatus(OutboxStatus.STARTED,
                         SagaStatus.STARTED, SagaStatus.COMPENSATING);
 
-        if (outboxMessagesResponse.isPresent() && outboxMessagesResponse.get().size() > 0) {
-            List<OrderPaymentOutboxMessage> outboxMessages = outboxMessagesResponse.get();
+        /* the rows that are published by an earlier run and still wait for their kafka callback or for the next flushOutboxStatus()
+        are STARTED too, they are not published again. */
+        List<OrderPaymentOutboxMessage> outboxMessages = outboxStatusBuffer.excludePending(outboxMessagesResponse.orElse(List.of()));
+        if (!outboxMessages.isEmpty()) {
             log.info("Received {} OrderPaymentOutboxMessage with ids: {}, sending to message bus!",
                     outboxMessages.size(),
                     outboxMessages.stream().map(outboxMessage -> outboxMessage.getId().toString()).collect(Collectors.joining(",")));
@@ -61,19 +92,83 @@ public class PaymentOutboxScheduler implements OutboxScheduler {
               producer. This can not be avoided with strict lock and wait implementations. But those types of locking will also slow down
               the app and is not acceptable in distributed apps. Because of that, we will also be cautious on the consumer side which is
               payment svc in this case and we will eliminate duplicate messages This will make sure to have idempotent messages.*/
-            outboxMessages.forEach(outboxMessage -> paymentRequestMessagePublisher.publish(outboxMessage, this::updateOutboxStatus));
+            paymentRequestMessagePublisher.publishBatch(outboxMessages, this::updateOutboxStatus);
 
             log.info("{} OrderPaymentOutboxMessage sent to message bus!", outboxMessages.size());
         }
     }
 
+    private int claimAndPublishOutboxMessages() {
+        return claimAndPublishOutboxMessages(outboxRelay.getClaimCreatedAfter()).size();
+    }
+
+    /* The claims of processOutboxMessage() only look at the rows of the last outbox-relay.relay-lookback-days days, this run
+    publishes the older STARTED rows that they never see. See OutboxRelay.catchUp(). */
+    @Scheduled(fixedDelayString = "${outbox-relay.catch-up-interval-ms}",
+            initialDelayString = "${outbox-relay.catch-up-interval-ms}")
+    public void catchUpOutboxMessages() {
+        if (outboxRelay.isCatchUpEnabled()) {
+            outboxRelay.catchUp(getOutboxTableName(), this::claimAndPublishOldOutboxMessages);
+        }
+    }
+
+    /* The claim is ordered by created_at, so the old rows come first. The newer rows that fill up the rest of the last batch are
+    published as well, they are claimed like in a drain and are not counted. */
+    private int claimAndPublishOldOutboxMessages() {
+        ZonedDateTime claimCreatedAfter = outboxRelay.getClaimCreatedAfter();
+
+        return (int) claimAndPublishOutboxMessages(outboxRelay.getCatchUpCreatedAfter()).stream()
+                .filter(outboxMessage -> outboxMessage.getCreatedAt().isBefore(claimCreatedAfter))
+                .count();
+    }
+
+    private List<OrderPaymentOutboxMessage> claimAndPublishOutboxMessages(ZonedDateTime createdAfter) {
+        List<OrderPaymentOutboxMessage> outboxMessages = paymentOutboxHelper
+                .claimPaymentOutboxMessageByOutboxStatusAndSagaStatus(outboxRelay.getBatchSize(), outboxRelay.getLease(),
+                        createdAfter, OutboxStatus.STARTED, SagaStatus.STARTED, SagaStatus.COMPENSATING)
+                .orElse(List.of());
+
+        if (!outboxMessages.isEmpty()) {
+            log.info("Claimed {} OrderPaymentOutboxMessage with ids: {}, sending to message bus!",
+                    outboxMessages.size(),
+                    outboxMessages.stream().map(outboxMessage -> outboxMessage.getId().toString()).collect(Collectors.joining(",")));
+
+            paymentRequestMessagePublisher.publishBatch(outboxMessages, this::updateOutboxStatus);
+        }
+
+        return outboxMessages;
+    }
+
+    /* Writes the outbox statuses that are collected from the kafka callbacks with bulk updates. */
+    @Scheduled(fixedDelayString = "${outbox-relay.status-flush-interval-ms}")
+    public void flushOutboxStatus() {
+        List<OrderPaymentOutboxMessage> outboxMessages = outboxStatusBuffer.drain();
+        if (!outboxMessages.isEmpty()) {
+            try {
+                paymentOutboxHelper.updateOutboxStatus(outboxMessages);
+            } finally {
+                outboxStatusBuffer.release(outboxMessages);
+            }
+        }
+    }
+
+    /* The scheduler is destroyed before the helper and the repositories it depends on, so the last statuses can still be written. */
+    @PreDestroy
+    public void flushOutboxStatusOnShutdown() {
+        flushOutboxStatus();
+    }
+
     private void updateOutboxStatus(OrderPaymentOutboxMessage orderPaymentOutboxMessage, OutboxStatus outboxStatus) {
         orderPaymentOutboxMessage.setOutboxStatus(outboxStatus);
 
-        /* Note: This method is called from processOutboxMessage() and maybe other methods in future. The processOutboxMessage() has
-        @Transactional. We also have the @Transactional on paymentOutboxHelper.save() as well. We used @Transactional on
-         paymentOutboxHelper.save() itself just to be safe(if it was called from somewhere else)*/
-        paymentOutboxHelper.save(orderPaymentOutboxMessage);
-        log.info("OrderPaymentOutboxMessage is updated with outbox status: {}", outboxStatus.name());
+        /* Note: This method is called from the kafka callback of the messages published in processOutboxMessage(). We don't update
+        the DB on the kafka producer thread, the status is written with the next flushOutboxStatus() together with the other acks.*/
+        outboxStatusBuffer.add(orderPaymentOutboxMessage);
+        log.debug("OrderPaymentOutboxMessage is buffered with outbox status: {}", outboxStatus.name());
+    }
+
+    @Override
+    public String getOutboxTableName() {
+        return OUTBOX_TABLE_NAME;
     }
 }
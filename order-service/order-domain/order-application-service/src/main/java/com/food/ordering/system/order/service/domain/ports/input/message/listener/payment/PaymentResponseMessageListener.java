@@ -2,10 +2,15 @@ package com.food.ordering.system.order.service.domain.ports.input.message.listen
 
 import com.food.ordering.system.order.service.domain.dto.message.PaymentResponse;
 
+import java.util.List;
+
 public interface PaymentResponseMessageListener {
     void paymentCompleted(PaymentResponse paymentResponse);
 
     /* This method can be called in case a payment is failed because of a business logic invariant. But it can be a response
     to the payment cancel request as part of the saga rollback operation.*/
     void paymentCancelled(PaymentResponse paymentResponse);
+
+    // completes and rolls back the orders of a batch of payment responses together, in one tx.
+    void processPaymentResponses(List<PaymentResponse> paymentResponses);
 }
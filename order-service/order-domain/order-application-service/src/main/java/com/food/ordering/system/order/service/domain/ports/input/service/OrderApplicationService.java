@@ -1,13 +1,19 @@
 package com.food.ordering.system.order.service.domain.ports.input.service;
 
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResponse;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderResponse;
 import com.food.ordering.system.order.service.domain.dto.track.TrackOrderQuery;
 import com.food.ordering.system.order.service.domain.dto.track.TrackOrderResponse;
 
 import javax.validation.Valid;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface OrderApplicationService {
     CreateOrderResponse createOrder(@Valid CreateOrderCommand createOrderCommand);
+    // completed when the order is saved with a group commit(see OrderGroupCommitWriter), fails if it's rejected.
+    CompletableFuture<CreateOrderResponse> acceptOrder(@Valid CreateOrderCommand createOrderCommand);
+    BatchCreateOrderResponse createOrders(@Valid List<CreateOrderCommand> createOrderCommands);
     TrackOrderResponse trackOrder(@Valid TrackOrderQuery trackOrderQuery);
 }
@@ -0,0 +1,15 @@
+package com.food.ordering.system.order.service.domain.ports.input.service;
+
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaStageLatency;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaTimelineResponse;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface SagaTimelineService {
+    // the entries are buffered and written to the DB in the background, so this can be called on the hot path of a saga.
+    void record(UUID sagaId, SagaTimeline sagaTimeline);
+    SagaTimelineResponse getSagaTimeline(UUID sagaId);
+    List<SagaStageLatency> getStageLatencies(int lastMinutes);
+}
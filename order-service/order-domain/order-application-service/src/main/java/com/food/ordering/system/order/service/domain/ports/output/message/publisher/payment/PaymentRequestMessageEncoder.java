@@ -0,0 +1,11 @@
+package com.food.ordering.system.order.service.domain.ports.output.message.publisher.payment;
+
+import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentEventPayload;
+
+import java.util.UUID;
+
+/* Encodes a payment request into the exact bytes that the messaging adapter sends to the payment svc. It's used when the payment outbox
+stores the encoded requests(outbox-payload-format: avro), so the outbox relay doesn't need to convert them again for every publish. */
+public interface PaymentRequestMessageEncoder {
+    byte[] encode(UUID sagaId, OrderPaymentEventPayload orderPaymentEventPayload);
+}
@@ -3,9 +3,17 @@ package com.food.ordering.system.order.service.domain.ports.output.message.publi
 import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentOutboxMessage;
 import com.food.ordering.system.outbox.OutboxStatus;
 
+import java.util.List;
 import java.util.function.BiConsumer;
 
 public interface PaymentRequestMessagePublisher {
     void publish(OrderPaymentOutboxMessage orderPaymentOutboxMessage,
                  BiConsumer<OrderPaymentOutboxMessage, OutboxStatus> outboxCallback);
+
+    /* Publishes a batch of outbox messages. By default every message is published on its own, the messaging adapter overrides this
+    to send the whole batch in one kafka tx when the kafka producer is transactional. */
+    default void publishBatch(List<OrderPaymentOutboxMessage> orderPaymentOutboxMessages,
+                              BiConsumer<OrderPaymentOutboxMessage, OutboxStatus> outboxCallback) {
+        orderPaymentOutboxMessages.forEach(orderPaymentOutboxMessage -> publish(orderPaymentOutboxMessage, outboxCallback));
+    }
 }
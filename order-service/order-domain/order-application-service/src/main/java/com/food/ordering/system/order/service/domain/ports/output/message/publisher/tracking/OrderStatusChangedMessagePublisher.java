@@ -0,0 +1,9 @@
+package com.food.ordering.system.order.service.domain.ports.output.message.publisher.tracking;
+
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
+
+/* Pushes a status change of an order to the clients that follow it(GET /orders/{trackingId}/events). It's called after the tx of the
+change is committed and must not block the caller, the caller is a saga thread. */
+public interface OrderStatusChangedMessagePublisher {
+    void publish(OrderTracking orderTracking);
+}
@@ -17,6 +17,9 @@ public interface ApprovalOutboxRepository {
     Optional<OrderApprovalOutboxMessage> findByTypeAndSagaIdAndSagaStatus(String type,
                                                                          UUID sagaId,
                                                                          SagaStatus ...sagaStatuses);
+    List<OrderApprovalOutboxMessage> findByTypeAndSagaIdsAndSagaStatus(String type, List<UUID> sagaIds, SagaStatus ...sagaStatuses);
+    /* Updates the outbox status of the given messages if they still have the given version and returns the number of updated rows. */
+    int updateOutboxStatusByIdsAndVersion(OutboxStatus outboxStatus, int version, List<UUID> ids);
     void deleteByTypeAndOutboxStatusAndSagaStatus(String type,
                                                   OutboxStatus outboxStatus,
                                                   SagaStatus ...sagaStatuses);
@@ -2,10 +2,20 @@ package com.food.ordering.system.order.service.domain.ports.output.repository;
 
 import com.food.ordering.system.order.service.domain.entity.Customer;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface CustomerRepository {
     Optional<Customer> findCustomer(UUID customerId);
     Customer save(Customer customer);
+
+    // only checks the id, the customer is not loaded.
+    boolean existsCustomer(UUID customerId);
+
+    // at most limit customer ids that are greater than customerId, in ascending order.
+    List<UUID> findCustomerIdsAfter(UUID customerId, int limit);
+
+    // the ids of the given customers that exist, with one query.
+    List<UUID> findExistingCustomerIds(List<UUID> customerIds);
 }
@@ -4,12 +4,17 @@ import com.food.ordering.system.domain.valueobject.OrderId;
 import com.food.ordering.system.order.service.domain.entity.Order;
 import com.food.ordering.system.order.service.domain.valueobject.TrackingId;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface OrderRepository {
     /* As you see, we pass the domain entity(in this case Order) to repositories and it will be the
      repository implementations responsibility to convert the order entity objects into JPA entity objects and save into the DB.*/
     Order save(Order order);
+    /* Inserts the given new orders(with their items and addresses) in jdbc batches, without checking if they exist first like save()
+    does. Must be called in a tx. */
+    void insertAll(List<Order> orders);
     Optional<Order> findById(OrderId orderId);
+    List<Order> findByIds(List<OrderId> orderIds);
     Optional<Order> findByTrackingId(TrackingId trackingId);
 }
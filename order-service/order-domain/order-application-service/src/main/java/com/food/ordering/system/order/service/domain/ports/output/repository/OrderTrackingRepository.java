@@ -0,0 +1,17 @@
+package com.food.ordering.system.order.service.domain.ports.output.repository;
+
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface OrderTrackingRepository {
+    // inserts the trackings of new orders in jdbc batches with version 1. Must be called in a tx.
+    void insertAll(List<OrderTracking> orderTrackings);
+    // inserts or updates the tracking and increases its version. Returns the new version. Must be called in a tx.
+    long save(OrderTracking orderTracking);
+    // inserts the tracking with version 1 unless the order already has one. Must be called in a tx.
+    void insertIfAbsent(OrderTracking orderTracking);
+    Optional<OrderTracking> findByTrackingId(UUID trackingId);
+}
@@ -4,18 +4,32 @@ import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderP
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.saga.SagaStatus;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface PaymentOutboxRepository {
     OrderPaymentOutboxMessage save(OrderPaymentOutboxMessage orderPaymentOutboxMessage);
+    // inserts the given new messages in jdbc batches. Must be called in a tx.
+    void insertAll(List<OrderPaymentOutboxMessage> orderPaymentOutboxMessages);
     Optional<List<OrderPaymentOutboxMessage>> findByTypeAndOutboxStatusAndSagaStatus(String type,
                                                           OutboxStatus outboxStatus,
                                                           SagaStatus ...sagaStatuses);
     Optional<OrderPaymentOutboxMessage> findByTypeAndSagaIdAndSagaStatus(String type,
                                                                          UUID sagaId,
                                                                          SagaStatus ...sagaStatuses);
+    List<OrderPaymentOutboxMessage> findByTypeAndSagaIdsAndSagaStatus(String type, List<UUID> sagaIds, SagaStatus ...sagaStatuses);
+    /* Locks at most `limit` messages that are not leased by another relay worker(skipping the rows that are locked by other claiming
+    txs) and leases them until lockedUntil. Only the messages created after createdAfter are claimed. Must be called in a tx. */
+    Optional<List<OrderPaymentOutboxMessage>> claimByTypeAndOutboxStatusAndSagaStatus(String type,
+                                                                                      OutboxStatus outboxStatus,
+                                                                                      int limit,
+                                                                                      ZonedDateTime lockedUntil,
+                                                                                      ZonedDateTime createdAfter,
+                                                                                      SagaStatus ...sagaStatuses);
+    /* Updates the outbox status of the given messages if they still have the given version and returns the number of updated rows. */
+    int updateOutboxStatusByIdsAndVersion(OutboxStatus outboxStatus, int version, List<UUID> ids);
     void deleteByTypeAndOutboxStatusAndSagaStatus(String type,
                                    OutboxStatus outboxStatus,
                                    SagaStatus ...sagaStatuses);
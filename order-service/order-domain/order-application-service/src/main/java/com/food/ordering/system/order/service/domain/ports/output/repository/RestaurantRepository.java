@@ -1,7 +1,10 @@
 package com.food.ordering.system.order.service.domain.ports.output.repository;
 
+import com.food.ordering.system.domain.valueobject.RestaurantId;
 import com.food.ordering.system.order.service.domain.entity.Restaurant;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface RestaurantRepository {
@@ -9,4 +12,7 @@ public interface RestaurantRepository {
      the name and price*/
     Optional<Restaurant> findRestaurantInformation(Restaurant restaurant);
 
+    /* the given restaurants with all of their products, loaded together. A restaurant that could not be found is not in the map. */
+    Map<RestaurantId, Restaurant> findRestaurantsInformation(List<RestaurantId> restaurantIds);
+
 }
@@ -0,0 +1,16 @@
+package com.food.ordering.system.order.service.domain.ports.output.repository;
+
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaStageLatency;
+import com.food.ordering.system.order.service.domain.dto.timeline.SagaTimelineEntry;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface SagaTimelineRepository {
+    void insertAll(List<SagaTimelineEntry> sagaTimelineEntries);
+    List<SagaTimelineEntry> findBySagaId(UUID sagaId);
+
+    // the latency percentiles of every stage that is recorded after recordedAfter.
+    List<SagaStageLatency> findStageLatencies(Instant recordedAfter);
+}
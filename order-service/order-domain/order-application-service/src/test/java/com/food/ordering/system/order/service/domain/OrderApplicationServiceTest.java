@@ -3,6 +3,7 @@ package com.food.ordering.system.order.service.domain;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.food.ordering.system.domain.valueobject.*;
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResponse;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
 import com.food.ordering.system.order.service.domain.dto.create.CreateOrderResponse;
 import com.food.ordering.system.order.service.domain.dto.create.OrderAddress;
@@ -31,12 +32,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static com.food.ordering.system.saga.order.SagaConstants.ORDER_SAGA_NAME;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 
 /* We use @TestInstance() to creat a single instance of this test class. By default, for each test method, a new instance of
@@ -176,6 +182,8 @@ public class OrderApplicationServiceTest {
         /* Since we have mocked the customerRepository, we need to mock findCustomer method. So we use Mockito when() method and
         if findCustomer method is called, we tell it to return the object that we have defined(customer).*/
         when(customerRepository.findCustomer(CUSTOMER_ID)).thenReturn(Optional.of(customer));
+        // the customer existence check(CustomerExistenceIndex) only asks whether the id exists.
+        when(customerRepository.existsCustomer(CUSTOMER_ID)).thenReturn(true);
         when(restaurantRepository.findRestaurantInformation(orderDataMapper.createOrderCommandToRestaurant(createOrderCommand)))
                 .thenReturn(Optional.of(restaurantResponse));
 
@@ -229,6 +237,95 @@ public class OrderApplicationServiceTest {
                 orderDomainException.getMessage());
     }
 
+    @Test
+    public void testCreateOrdersWithRejectedOrder() {
+        Restaurant restaurantResponse = Restaurant.builder()
+                .restaurantId(new RestaurantId(RESTAURANT_ID))
+                .products(List.of(new Product(new ProductId(PRODUCT_ID), "product-1", new Money(new BigDecimal("50.00")))))
+                .active(true)
+                .build();
+
+        when(customerRepository.findExistingCustomerIds(anyList())).thenReturn(List.of(CUSTOMER_ID));
+        when(restaurantRepository.findRestaurantsInformation(anyList()))
+                .thenReturn(Map.of(new RestaurantId(RESTAURANT_ID), restaurantResponse));
+
+        BatchCreateOrderResponse batchCreateOrderResponse = orderApplicationService.createOrders(
+                List.of(createOrderCommand, createOrderCommandWrongPrice));
+
+        assertEquals(1, batchCreateOrderResponse.getCreatedCount());
+        assertEquals(1, batchCreateOrderResponse.getRejectedCount());
+        assertEquals(OrderStatus.PENDING, batchCreateOrderResponse.getResults().get(0).getOrderStatus());
+        assertNotNull(batchCreateOrderResponse.getResults().get(0).getOrderTrackingId());
+        assertFalse(batchCreateOrderResponse.getResults().get(1).isCreated());
+        assertEquals("Total price: " + new BigDecimal("250.00") + " is not equal to Order items total: " + new BigDecimal("200.00") + "!",
+                batchCreateOrderResponse.getResults().get(1).getMessage());
+    }
+
+    // an order without items and one without an address fail with an NPE, they're rejected without failing the batch.
+    @Test
+    public void testCreateOrdersWithMalformedOrders() {
+        Restaurant restaurantResponse = Restaurant.builder()
+                .restaurantId(new RestaurantId(RESTAURANT_ID))
+                .products(List.of(new Product(new ProductId(PRODUCT_ID), "product-1", new Money(new BigDecimal("50.00")))))
+                .active(true)
+                .build();
+
+        when(customerRepository.findExistingCustomerIds(anyList())).thenReturn(List.of(CUSTOMER_ID));
+        when(restaurantRepository.findRestaurantsInformation(anyList()))
+                .thenReturn(Map.of(new RestaurantId(RESTAURANT_ID), restaurantResponse));
+        CreateOrderCommand createOrderCommandWithoutItems = CreateOrderCommand.builder()
+                .customerId(CUSTOMER_ID)
+                .restaurantId(RESTAURANT_ID)
+                .address(createOrderCommand.getAddress())
+                .price(PRICE)
+                .build();
+        CreateOrderCommand createOrderCommandWithoutAddress = CreateOrderCommand.builder()
+                .customerId(CUSTOMER_ID)
+                .restaurantId(RESTAURANT_ID)
+                .price(PRICE)
+                .items(createOrderCommand.getItems())
+                .build();
+
+        BatchCreateOrderResponse batchCreateOrderResponse = orderApplicationService.createOrders(
+                List.of(createOrderCommandWithoutItems, createOrderCommand, createOrderCommandWithoutAddress));
+
+        assertEquals(1, batchCreateOrderResponse.getCreatedCount());
+        assertEquals(2, batchCreateOrderResponse.getRejectedCount());
+        assertTrue(batchCreateOrderResponse.getResults().get(1).isCreated());
+        assertFalse(batchCreateOrderResponse.getResults().get(0).isCreated());
+        assertFalse(batchCreateOrderResponse.getResults().get(0).isRetryable());
+        assertEquals("Order is not valid, check its fields!", batchCreateOrderResponse.getResults().get(0).getMessage());
+        assertFalse(batchCreateOrderResponse.getResults().get(2).isCreated());
+        assertEquals("Order is not valid, check its fields!", batchCreateOrderResponse.getResults().get(2).getMessage());
+    }
+
+    /* Both orders are accepted within group-commit-max-delay-ms(see application.yml), so they're saved as one group. The valid order
+    is completed, the other one fails on its own. */
+    @Test
+    public void testAcceptOrdersWithGroupCommit() throws Exception {
+        Restaurant restaurantResponse = Restaurant.builder()
+                .restaurantId(new RestaurantId(RESTAURANT_ID))
+                .products(List.of(new Product(new ProductId(PRODUCT_ID), "product-1", new Money(new BigDecimal("50.00")))))
+                .active(true)
+                .build();
+
+        when(customerRepository.findExistingCustomerIds(anyList())).thenReturn(List.of(CUSTOMER_ID));
+        when(restaurantRepository.findRestaurantsInformation(anyList()))
+                .thenReturn(Map.of(new RestaurantId(RESTAURANT_ID), restaurantResponse));
+
+        CompletableFuture<CreateOrderResponse> acceptedOrder = orderApplicationService.acceptOrder(createOrderCommand);
+        CompletableFuture<CreateOrderResponse> rejectedOrder = orderApplicationService.acceptOrder(createOrderCommandWrongPrice);
+
+        CreateOrderResponse createOrderResponse = acceptedOrder.get(10, TimeUnit.SECONDS);
+        assertEquals(OrderStatus.PENDING, createOrderResponse.getOrderStatus());
+        assertNotNull(createOrderResponse.getOrderTrackingId());
+
+        ExecutionException executionException = assertThrows(ExecutionException.class, () -> rejectedOrder.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(OrderDomainException.class, executionException.getCause());
+        assertEquals("Total price: " + new BigDecimal("250.00") + " is not equal to Order items total: " + new BigDecimal("200.00") + "!",
+                executionException.getCause().getMessage());
+    }
+
     private OrderPaymentOutboxMessage getOrderPaymentOutboxMessage() {
         OrderPaymentEventPayload orderPaymentEventPayload = OrderPaymentEventPayload.builder()
                 .orderId(ORDER_ID.toString())
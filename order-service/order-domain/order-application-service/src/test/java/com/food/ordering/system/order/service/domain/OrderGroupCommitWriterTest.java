@@ -0,0 +1,121 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResponse;
+import com.food.ordering.system.order.service.domain.dto.create.BatchCreateOrderResult;
+import com.food.ordering.system.order.service.domain.dto.create.CreateOrderCommand;
+import com.food.ordering.system.order.service.domain.dto.create.CreateOrderResponse;
+import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
+import com.food.ordering.system.order.service.domain.exception.OrderSaveFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/* The orders of a group are rejected with OrderDomainException(400) only if they are invalid. The ones that could not be saved are
+rejected with OrderSaveFailedException(503). A group has a single order here, so every accept() is committed on its own. */
+public class OrderGroupCommitWriterTest {
+    private OrderBatchCreateCommandHandler orderBatchCreateCommandHandler;
+    private OrderGroupCommitWriter orderGroupCommitWriter;
+
+    @BeforeEach
+    void init() {
+        OrderServiceConfigData orderServiceConfigData = new OrderServiceConfigData();
+        orderServiceConfigData.setAsyncAcceptEnabled(true);
+        orderServiceConfigData.setGroupCommitWriters(1);
+        orderServiceConfigData.setGroupCommitMaxOrders(1);
+        orderServiceConfigData.setGroupCommitMaxDelayMs(0);
+        orderServiceConfigData.setGroupCommitQueueCapacity(10);
+
+        orderBatchCreateCommandHandler = mock(OrderBatchCreateCommandHandler.class);
+        orderGroupCommitWriter = new OrderGroupCommitWriter(orderBatchCreateCommandHandler, orderServiceConfigData);
+        orderGroupCommitWriter.start();
+    }
+
+    @AfterEach
+    void stop() {
+        orderGroupCommitWriter.stop();
+    }
+
+    @Test
+    void testCreatedOrderIsAccepted() throws Exception {
+        UUID orderTrackingId = UUID.randomUUID();
+        when(orderBatchCreateCommandHandler.createOrders(anyList(), anyInt())).thenReturn(getResponse(BatchCreateOrderResult.builder()
+                .index(0)
+                .created(true)
+                .orderTrackingId(orderTrackingId)
+                .orderStatus(OrderStatus.PENDING)
+                .message("Order created successfully")
+                .build()));
+
+        CreateOrderResponse createOrderResponse = accept().get(5, TimeUnit.SECONDS);
+
+        assertEquals(orderTrackingId, createOrderResponse.getOrderTrackingId());
+        assertEquals(OrderStatus.PENDING, createOrderResponse.getOrderStatus());
+    }
+
+    @Test
+    void testInvalidOrderIsRejectedWithDomainException() {
+        when(orderBatchCreateCommandHandler.createOrders(anyList(), anyInt())).thenReturn(getResponse(BatchCreateOrderResult.builder()
+                .index(0)
+                .created(false)
+                .message("Could not find restaurant")
+                .build()));
+
+        assertInstanceOf(OrderDomainException.class, getFailure(accept()));
+    }
+
+    @Test
+    void testOrderOfFailedChunkIsRejectedWithSaveFailedException() {
+        when(orderBatchCreateCommandHandler.createOrders(anyList(), anyInt())).thenReturn(getResponse(BatchCreateOrderResult.builder()
+                .index(0)
+                .created(false)
+                .retryable(true)
+                .message("Could not save the order, it can be submitted again!")
+                .build()));
+
+        assertInstanceOf(OrderSaveFailedException.class, getFailure(accept()));
+    }
+
+    @Test
+    void testOrderOfFailedGroupIsRejectedWithSaveFailedException() {
+        when(orderBatchCreateCommandHandler.createOrders(anyList(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        assertInstanceOf(OrderSaveFailedException.class, getFailure(accept()));
+    }
+
+    private CompletableFuture<CreateOrderResponse> accept() {
+        return orderGroupCommitWriter.accept(CreateOrderCommand.builder()
+                .customerId(UUID.randomUUID())
+                .restaurantId(UUID.randomUUID())
+                .build());
+    }
+
+    private Throwable getFailure(CompletableFuture<CreateOrderResponse> response) {
+        return assertThrows(ExecutionException.class, () -> response.get(5, TimeUnit.SECONDS)).getCause();
+    }
+
+    private BatchCreateOrderResponse getResponse(BatchCreateOrderResult result) {
+        return BatchCreateOrderResponse.builder()
+                .createdCount(result.isCreated() ? 1 : 0)
+                .rejectedCount(result.isCreated() ? 0 : 1)
+                .results(List.of(result))
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.domain.valueobject.OrderId;
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import com.food.ordering.system.domain.valueobject.PaymentStatus;
+import com.food.ordering.system.order.service.domain.dto.message.PaymentResponse;
+import com.food.ordering.system.order.service.domain.entity.Order;
+import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
+import com.food.ordering.system.order.service.domain.mapper.OrderDataMapper;
+import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentOutboxMessage;
+import com.food.ordering.system.order.service.domain.outbox.scheduler.approval.ApprovalOutboxHelper;
+import com.food.ordering.system.order.service.domain.outbox.scheduler.payment.PaymentOutboxHelper;
+import com.food.ordering.system.order.service.domain.ports.output.repository.OrderRepository;
+import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.saga.SagaStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* processBatch() with a mixed batch of payment responses: one that is already processed(its payment outbox message is not in the
+expected saga status anymore), one that completes a payment and one that can't be processed. The outbox helpers and the order
+repository are mocks, the domain service is the real one. */
+public class OrderPaymentSagaBatchTest {
+    private final UUID PROCESSED_SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07af1");
+    private final UUID PAID_SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07af2");
+    private final UUID FAILING_SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07af3");
+
+    private OrderRepository orderRepository;
+    private PaymentOutboxHelper paymentOutboxHelper;
+    private ApprovalOutboxHelper approvalOutboxHelper;
+    private OrderPaymentSaga orderPaymentSaga;
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        orderRepository = mock(OrderRepository.class);
+        paymentOutboxHelper = mock(PaymentOutboxHelper.class);
+        approvalOutboxHelper = mock(ApprovalOutboxHelper.class);
+        orderPaymentSaga = new OrderPaymentSaga(new OrderDomainServiceImpl(),
+                new OrderSagaHelper(orderRepository, mock(OrderTrackingProjection.class)),
+                paymentOutboxHelper,
+                approvalOutboxHelper,
+                mock(OrderDataMapper.class));
+
+        when(paymentOutboxHelper.getPaymentOutboxMessagesBySagaIdsAndSagaStatus(anyList(), eq(SagaStatus.STARTED),
+                eq(SagaStatus.PROCESSING)))
+                .thenReturn(List.of(getPaymentOutboxMessage(PROCESSED_SAGA_ID, SagaStatus.PROCESSING),
+                        getPaymentOutboxMessage(PAID_SAGA_ID, SagaStatus.STARTED),
+                        getPaymentOutboxMessage(FAILING_SAGA_ID, SagaStatus.PROCESSING)));
+        when(orderRepository.findByIds(anyList())).thenReturn(orders);
+    }
+
+    @Test
+    void testOnlyTheNewResponseIsPersisted() {
+        orders.add(getOrder(PROCESSED_SAGA_ID, OrderStatus.PAID));
+        orders.add(getOrder(PAID_SAGA_ID, OrderStatus.PENDING));
+        // the order of the last response doesn't exist, which is a NO-OP like in process().
+
+        orderPaymentSaga.processBatch(List.of(
+                getPaymentResponse(PROCESSED_SAGA_ID, PaymentStatus.COMPLETED),
+                getPaymentResponse(PAID_SAGA_ID, PaymentStatus.COMPLETED),
+                getPaymentResponse(FAILING_SAGA_ID, PaymentStatus.FAILED)));
+
+        ArgumentCaptor<Order> savedOrder = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(savedOrder.capture());
+        assertEquals(PAID_SAGA_ID, savedOrder.getValue().getId().getValue());
+        assertEquals(OrderStatus.PAID, savedOrder.getValue().getOrderStatus());
+
+        ArgumentCaptor<OrderPaymentOutboxMessage> savedPaymentOutboxMessage = ArgumentCaptor.forClass(OrderPaymentOutboxMessage.class);
+        verify(paymentOutboxHelper).save(savedPaymentOutboxMessage.capture());
+        assertEquals(PAID_SAGA_ID, savedPaymentOutboxMessage.getValue().getSagaId());
+        assertEquals(SagaStatus.PROCESSING, savedPaymentOutboxMessage.getValue().getSagaStatus());
+
+        verify(approvalOutboxHelper, times(1)).saveApprovalOutboxMessage(any(), eq(OrderStatus.PAID), eq(SagaStatus.PROCESSING),
+                eq(OutboxStatus.STARTED), eq(PAID_SAGA_ID));
+        verify(approvalOutboxHelper, never()).save(any());
+    }
+
+    @Test
+    void testFailingResponseFailsTheWholeBatchBeforeAnythingIsSaved() {
+        orders.add(getOrder(PROCESSED_SAGA_ID, OrderStatus.PAID));
+        orders.add(getOrder(PAID_SAGA_ID, OrderStatus.PENDING));
+        orders.add(getOrder(FAILING_SAGA_ID, OrderStatus.CANCELLING));
+        // the cancelled payment has no approval outbox message in COMPENSATING status.
+        when(approvalOutboxHelper.getApprovalOutboxMessagesBySagaIdsAndSagaStatus(anyList(), eq(SagaStatus.COMPENSATING)))
+                .thenReturn(List.of());
+
+        assertThrows(OrderDomainException.class, () -> orderPaymentSaga.processBatch(List.of(
+                getPaymentResponse(PROCESSED_SAGA_ID, PaymentStatus.COMPLETED),
+                getPaymentResponse(PAID_SAGA_ID, PaymentStatus.COMPLETED),
+                getPaymentResponse(FAILING_SAGA_ID, PaymentStatus.CANCELLED))));
+
+        /* the orders and the outbox messages are saved at the end of the batch, so nothing is written for the paid order either. The
+        approval outbox message that is inserted for it is rolled back with the tx and the caller processes the responses one by one. */
+        verify(orderRepository, never()).save(any());
+        verify(paymentOutboxHelper, never()).save(any());
+        verify(approvalOutboxHelper, never()).save(any());
+    }
+
+    private Order getOrder(UUID orderId, OrderStatus orderStatus) {
+        return Order.builder()
+                .orderId(new OrderId(orderId))
+                .orderStatus(orderStatus)
+                .build();
+    }
+
+    // the order id of each response is its saga id to keep the test data short.
+    private PaymentResponse getPaymentResponse(UUID sagaId, PaymentStatus paymentStatus) {
+        return PaymentResponse.builder()
+                .id(UUID.randomUUID().toString())
+                .sagaId(sagaId.toString())
+                .orderId(sagaId.toString())
+                .paymentStatus(paymentStatus)
+                .failureMessages(new ArrayList<>())
+                .build();
+    }
+
+    private OrderPaymentOutboxMessage getPaymentOutboxMessage(UUID sagaId, SagaStatus sagaStatus) {
+        return OrderPaymentOutboxMessage.builder()
+                .id(UUID.randomUUID())
+                .sagaId(sagaId)
+                .sagaStatus(sagaStatus)
+                .outboxStatus(OutboxStatus.COMPLETED)
+                .build();
+    }
+}
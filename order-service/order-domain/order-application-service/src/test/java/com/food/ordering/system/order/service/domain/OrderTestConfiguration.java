@@ -1,8 +1,12 @@
 package com.food.ordering.system.order.service.domain;
 
+import com.food.ordering.system.order.service.domain.ports.output.message.publisher.payment.PaymentRequestMessageEncoder;
 import com.food.ordering.system.order.service.domain.ports.output.message.publisher.payment.PaymentRequestMessagePublisher;
 import com.food.ordering.system.order.service.domain.ports.output.message.publisher.restaurantapproval.RestaurantApprovalRequestMessagePublisher;
+import com.food.ordering.system.order.service.domain.ports.output.message.publisher.tracking.OrderStatusChangedMessagePublisher;
 import com.food.ordering.system.order.service.domain.ports.output.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.Mockito;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -34,6 +38,11 @@ public class OrderTestConfiguration {
         return Mockito.mock(PaymentRequestMessagePublisher.class);
     }
 
+    @Bean
+    public PaymentRequestMessageEncoder paymentRequestMessageEncoder() {
+        return Mockito.mock(PaymentRequestMessageEncoder.class);
+    }
+
     @Bean
     public RestaurantApprovalRequestMessagePublisher restaurantApprovalRequestMessagePublisher() {
         return Mockito.mock(RestaurantApprovalRequestMessagePublisher.class);
@@ -64,6 +73,27 @@ public class OrderTestConfiguration {
         return Mockito.mock(ApprovalOutboxRepository.class);
     }
 
+    @Bean
+    public SagaTimelineRepository sagaTimelineRepository() {
+        return Mockito.mock(SagaTimelineRepository.class);
+    }
+
+    @Bean
+    public OrderTrackingRepository orderTrackingRepository() {
+        return Mockito.mock(OrderTrackingRepository.class);
+    }
+
+    @Bean
+    public OrderStatusChangedMessagePublisher orderStatusChangedMessagePublisher() {
+        return Mockito.mock(OrderStatusChangedMessagePublisher.class);
+    }
+
+    // the containers get their registry from actuator, which is not on the classpath of this module. Used by the OutboxRelay.
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
     /* this is a real bean, not a mocked bean.
     Note: The OrderDomainServiceImpl class is plain java object, we didn't use spring dep @Bean in the domain core module,
     so to be able to inject this class, we need to create a spring bean for it. We will do the same in application bean configuration when
@@ -0,0 +1,102 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.domain.valueobject.OrderId;
+import com.food.ordering.system.domain.valueobject.OrderStatus;
+import com.food.ordering.system.order.service.domain.dto.track.OrderTracking;
+import com.food.ordering.system.order.service.domain.dto.track.TrackOrderQuery;
+import com.food.ordering.system.order.service.domain.dto.track.TrackOrderResponse;
+import com.food.ordering.system.order.service.domain.entity.Order;
+import com.food.ordering.system.order.service.domain.exception.OrderNotFoundException;
+import com.food.ordering.system.order.service.domain.mapper.OrderDataMapper;
+import com.food.ordering.system.order.service.domain.ports.output.message.publisher.tracking.OrderStatusChangedMessagePublisher;
+import com.food.ordering.system.order.service.domain.ports.output.repository.OrderRepository;
+import com.food.ordering.system.order.service.domain.ports.output.repository.OrderTrackingRepository;
+import com.food.ordering.system.order.service.domain.valueobject.TrackingId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/* trackOrder() for an order that was created before the order tracking read model existed, so it has no tracking row. The repositories
+are mocks, the projection is the real one. */
+public class OrderTrackCommandHandlerTest {
+    private final UUID TRACKING_ID = UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb18");
+    private final UUID ORDER_ID = UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb17");
+
+    private OrderTrackingRepository orderTrackingRepository;
+    private OrderRepository orderRepository;
+    private OrderStatusChangedMessagePublisher orderStatusChangedMessagePublisher;
+    private OrderTrackCommandHandler orderTrackCommandHandler;
+
+    @BeforeEach
+    void init() {
+        orderTrackingRepository = mock(OrderTrackingRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        orderStatusChangedMessagePublisher = mock(OrderStatusChangedMessagePublisher.class);
+        orderTrackCommandHandler = new OrderTrackCommandHandler(new OrderDataMapper(),
+                orderTrackingRepository,
+                orderRepository,
+                new OrderTrackingProjection(orderTrackingRepository, orderStatusChangedMessagePublisher));
+    }
+
+    @Test
+    void testOrderWithoutTrackingIsReadFromOrdersAndBackfilled() {
+        OrderTracking backfilledOrderTracking = OrderTracking.builder()
+                .trackingId(TRACKING_ID)
+                .orderId(ORDER_ID)
+                .orderStatus(OrderStatus.PAID)
+                .failureMessages(new ArrayList<>())
+                .version(1)
+                .updatedAt(ZonedDateTime.now(ZoneOffset.UTC))
+                .build();
+        when(orderTrackingRepository.findByTrackingId(TRACKING_ID)).thenReturn(Optional.empty(), Optional.of(backfilledOrderTracking));
+        when(orderRepository.findByTrackingId(new TrackingId(TRACKING_ID))).thenReturn(Optional.of(getOrder()));
+
+        TrackOrderResponse trackOrderResponse = orderTrackCommandHandler.trackOrder(new TrackOrderQuery(TRACKING_ID));
+
+        ArgumentCaptor<OrderTracking> insertedOrderTracking = ArgumentCaptor.forClass(OrderTracking.class);
+        verify(orderTrackingRepository).insertIfAbsent(insertedOrderTracking.capture());
+        assertEquals(ORDER_ID, insertedOrderTracking.getValue().getOrderId());
+        assertEquals(OrderStatus.PAID, insertedOrderTracking.getValue().getOrderStatus());
+        verify(orderTrackingRepository, never()).save(any());
+        // the status of the order didn't change, so nothing is pushed to the clients that follow the order.
+        verifyNoInteractions(orderStatusChangedMessagePublisher);
+
+        assertEquals(TRACKING_ID, trackOrderResponse.getOrderTrackingId());
+        assertEquals(OrderStatus.PAID, trackOrderResponse.getOrderStatus());
+        assertEquals(1, trackOrderResponse.getVersion());
+    }
+
+    @Test
+    void testUnknownTrackingIdIsNotFound() {
+        when(orderTrackingRepository.findByTrackingId(TRACKING_ID)).thenReturn(Optional.empty());
+        when(orderRepository.findByTrackingId(new TrackingId(TRACKING_ID))).thenReturn(Optional.empty());
+
+        assertThrows(OrderNotFoundException.class, () -> orderTrackCommandHandler.trackOrder(new TrackOrderQuery(TRACKING_ID)));
+
+        verify(orderTrackingRepository, never()).insertIfAbsent(any());
+    }
+
+    private Order getOrder() {
+        return Order.builder()
+                .orderId(new OrderId(ORDER_ID))
+                .trackingId(new TrackingId(TRACKING_ID))
+                .orderStatus(OrderStatus.PAID)
+                .failureMessages(new ArrayList<>())
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.food.ordering.system.order.service.domain;
+
+import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentOutboxMessage;
+import com.food.ordering.system.order.service.domain.outbox.scheduler.payment.PaymentOutboxHelper;
+import com.food.ordering.system.order.service.domain.outbox.scheduler.payment.PaymentOutboxScheduler;
+import com.food.ordering.system.order.service.domain.ports.output.message.publisher.payment.PaymentRequestMessagePublisher;
+import com.food.ordering.system.outbox.OutboxRelay;
+import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.outbox.config.OutboxRelayConfigData;
+import com.food.ordering.system.saga.SagaStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* catchUpOutboxMessages() with a relay lookback of 7 days and a batch size of 2. The claims of the catch-up have no created_at lower
+bound and return the oldest STARTED messages first, so the mocked claims return the messages that are older than the lookback before
+the newer ones. */
+public class PaymentOutboxCatchUpTest {
+    private static final int BATCH_SIZE = 2;
+    private static final ZonedDateTime NO_LOWER_BOUND = Instant.EPOCH.atZone(ZoneOffset.UTC);
+
+    private OutboxRelayConfigData outboxRelayConfigData;
+    private PaymentOutboxHelper paymentOutboxHelper;
+    private PaymentRequestMessagePublisher paymentRequestMessagePublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentOutboxScheduler paymentOutboxScheduler;
+
+    @BeforeEach
+    void init() {
+        outboxRelayConfigData = new OutboxRelayConfigData();
+        outboxRelayConfigData.setClaimEnabled(true);
+        outboxRelayConfigData.setWorkerCount(1);
+        outboxRelayConfigData.setBatchSize(BATCH_SIZE);
+        outboxRelayConfigData.setLeaseMs(90000);
+        outboxRelayConfigData.setRelayLookbackDays(7);
+
+        paymentOutboxHelper = mock(PaymentOutboxHelper.class);
+        paymentRequestMessagePublisher = mock(PaymentRequestMessagePublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        paymentOutboxScheduler = new PaymentOutboxScheduler(paymentOutboxHelper, paymentRequestMessagePublisher,
+                new OutboxRelay(outboxRelayConfigData, new MockEnvironment(), meterRegistry));
+    }
+
+    @Test
+    void testMessagesOlderThanLookbackArePublishedAndCounted() {
+        List<OrderPaymentOutboxMessage> firstBatch = List.of(getPaymentOutboxMessage(10), getPaymentOutboxMessage(9));
+        List<OrderPaymentOutboxMessage> lastBatch = List.of(getPaymentOutboxMessage(8), getPaymentOutboxMessage(1));
+        when(paymentOutboxHelper.claimPaymentOutboxMessageByOutboxStatusAndSagaStatus(eq(BATCH_SIZE), any(), eq(NO_LOWER_BOUND),
+                eq(OutboxStatus.STARTED), eq(SagaStatus.STARTED), eq(SagaStatus.COMPENSATING)))
+                .thenReturn(Optional.of(firstBatch), Optional.of(lastBatch));
+
+        paymentOutboxScheduler.catchUpOutboxMessages();
+
+        // the last batch has only one old message, so the catch-up stops after it. The message of yesterday is published, not counted.
+        verify(paymentOutboxHelper, times(2)).claimPaymentOutboxMessageByOutboxStatusAndSagaStatus(anyInt(), any(), any(), any(),
+                any(), any());
+        verify(paymentRequestMessagePublisher).publishBatch(eq(firstBatch), any());
+        verify(paymentRequestMessagePublisher).publishBatch(eq(lastBatch), any());
+        assertEquals(3, meterRegistry.get("outbox.relay.catch.up.messages")
+                .tag("table", PaymentOutboxScheduler.OUTBOX_TABLE_NAME).counter().count());
+    }
+
+    @Test
+    void testNothingIsCountedWhenThereAreNoOldMessages() {
+        when(paymentOutboxHelper.claimPaymentOutboxMessageByOutboxStatusAndSagaStatus(anyInt(), any(), any(), any(), any(), any()))
+                .thenReturn(Optional.of(List.of(getPaymentOutboxMessage(1))));
+
+        paymentOutboxScheduler.catchUpOutboxMessages();
+
+        assertEquals(0, meterRegistry.get("outbox.relay.catch.up.messages")
+                .tag("table", PaymentOutboxScheduler.OUTBOX_TABLE_NAME).counter().count());
+    }
+
+    // with relay-lookback-days = 0 the claims of the relay already scan all partitions.
+    @Test
+    void testCatchUpDoesNotRunWithoutLookback() {
+        outboxRelayConfigData.setRelayLookbackDays(0);
+
+        paymentOutboxScheduler.catchUpOutboxMessages();
+
+        verify(paymentOutboxHelper, never()).claimPaymentOutboxMessageByOutboxStatusAndSagaStatus(anyInt(), any(), any(), any(),
+                any(), any());
+    }
+
+    private OrderPaymentOutboxMessage getPaymentOutboxMessage(int ageInDays) {
+        return OrderPaymentOutboxMessage.builder()
+                .id(UUID.randomUUID())
+                .sagaId(UUID.randomUUID())
+                .createdAt(ZonedDateTime.now(ZoneOffset.UTC).minusDays(ageInDays))
+                .sagaStatus(SagaStatus.STARTED)
+                .outboxStatus(OutboxStatus.STARTED)
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.food.ordering.system.order.service.domain.entity;
 
 import com.food.ordering.system.domain.entity.AggregateRoot;
 import com.food.ordering.system.domain.exception.DomainException;
+import com.food.ordering.system.domain.id.IdGenerators;
 import com.food.ordering.system.domain.valueobject.*;
 import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
 import com.food.ordering.system.order.service.domain.valueobject.OrderItemId;
@@ -9,7 +10,6 @@ import com.food.ordering.system.order.service.domain.valueobject.StreetAddress;
 import com.food.ordering.system.order.service.domain.valueobject.TrackingId;
 
 import java.util.List;
-import java.util.UUID;
 
 /* This will be the aggregate root for order process. So we extend the AggregateRoot abstract class.
 
@@ -32,8 +32,9 @@ public class Order extends AggregateRoot<OrderId> {
     public static final String FAILURE_MESSAGE_DELIMITER = ",";
 
     public void initializeOrder() {
-        setId(new OrderId(UUID.randomUUID()));
-        trackingId = new TrackingId(UUID.randomUUID());
+        setId(new OrderId(IdGenerators.newId()));
+        // the tracking id is given to the customer to look the order up, so it stays random.
+        trackingId = new TrackingId(IdGenerators.newRandomId());
         orderStatus = OrderStatus.PENDING;
         initializeOrderItems();
     }
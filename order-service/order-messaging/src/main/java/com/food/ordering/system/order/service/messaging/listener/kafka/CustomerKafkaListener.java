@@ -12,6 +12,7 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
@@ -30,7 +31,8 @@ public class CustomerKafkaListener implements KafkaConsumer<CustomerAvroModel> {
     public void receive(@Payload List<CustomerAvroModel> messages,
                         @Header(KafkaHeaders.RECEIVED_KEY) List<String> keys,
                         @Header(KafkaHeaders.PARTITION) List<Integer> partitions,
-                        @Header(KafkaHeaders.OFFSET) List<Long> offsets) {
+                        @Header(KafkaHeaders.OFFSET) List<Long> offsets,
+                        @Header(name = KafkaHeaders.BATCH_CONVERTED_HEADERS, required = false) List<Map<String, Object>> headers) {
         log.info("{} number of customer create messages received with keys {}, partitions {} and offsets {}",
                 messages.size(),
                 keys.toString(),
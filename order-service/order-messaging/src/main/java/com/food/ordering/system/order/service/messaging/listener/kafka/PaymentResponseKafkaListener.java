@@ -1,11 +1,17 @@
 package com.food.ordering.system.order.service.messaging.listener.kafka;
 
+import com.food.ordering.system.kafka.consumer.KafkaBatchProcessor;
 import com.food.ordering.system.kafka.consumer.KafkaConsumer;
+import com.food.ordering.system.kafka.consumer.KafkaListenerMetrics;
+import com.food.ordering.system.kafka.consumer.KeyOrderedRecordProcessor;
 import com.food.ordering.system.kafka.order.avro.model.PaymentResponseAvroModel;
 import com.food.ordering.system.kafka.order.avro.model.PaymentStatus;
 import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
 import com.food.ordering.system.order.service.domain.ports.input.message.listener.payment.PaymentResponseMessageListener;
+import com.food.ordering.system.order.service.domain.ports.input.service.SagaTimelineService;
 import com.food.ordering.system.order.service.messaging.mapper.OrderMessagingDataMapper;
+import com.food.ordering.system.order.service.messaging.metrics.OrderSagaMetrics;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -14,18 +20,36 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
 public class PaymentResponseKafkaListener implements KafkaConsumer<PaymentResponseAvroModel> {
     private final PaymentResponseMessageListener paymentResponseMessageListener;
     private final OrderMessagingDataMapper orderMessagingDataMapper;
+    private final KafkaBatchProcessor kafkaBatchProcessor;
+    private final KeyOrderedRecordProcessor keyOrderedRecordProcessor;
+    private final KafkaListenerMetrics kafkaListenerMetrics;
+    private final OrderSagaMetrics orderSagaMetrics;
+    private final SagaTimelineService sagaTimelineService;
 
     public PaymentResponseKafkaListener(PaymentResponseMessageListener paymentResponseMessageListener,
-                                        OrderMessagingDataMapper orderMessagingDataMapper) {
+                                        OrderMessagingDataMapper orderMessagingDataMapper,
+                                        KafkaBatchProcessor kafkaBatchProcessor,
+                                        KeyOrderedRecordProcessor keyOrderedRecordProcessor,
+                                        KafkaListenerMetrics kafkaListenerMetrics,
+                                        OrderSagaMetrics orderSagaMetrics,
+                                        SagaTimelineService sagaTimelineService) {
         this.paymentResponseMessageListener = paymentResponseMessageListener;
         this.orderMessagingDataMapper = orderMessagingDataMapper;
+        this.kafkaBatchProcessor = kafkaBatchProcessor;
+        this.keyOrderedRecordProcessor = keyOrderedRecordProcessor;
+        this.kafkaListenerMetrics = kafkaListenerMetrics;
+        this.orderSagaMetrics = orderSagaMetrics;
+        this.sagaTimelineService = sagaTimelineService;
     }
 
     @Override
@@ -33,49 +57,110 @@ public class PaymentResponseKafkaListener implements KafkaConsumer<PaymentRespon
     public void receive(@Payload List<PaymentResponseAvroModel> messages,
                         @Header(KafkaHeaders.RECEIVED_KEY) List<String> keys,
                         @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
-                        @Header(KafkaHeaders.OFFSET) List<Long> offsets) {
+                        @Header(KafkaHeaders.OFFSET) List<Long> offsets,
+                        @Header(name = KafkaHeaders.BATCH_CONVERTED_HEADERS, required = false) List<Map<String, Object>> headers) {
         log.info("{} number of payment responses received with keys: {}, partitions: {}, and offsets: {}",
                 messages.size(),
                 keys.toString(),
                 partitions.toString(),
                 offsets.toString());
 
-        messages.forEach(paymentResponseAvroModel -> {
-            try {
-                if (PaymentStatus.COMPLETED == paymentResponseAvroModel.getPaymentStatus()) {
-                    log.info("Processing successful payment for order id: {}", paymentResponseAvroModel.getOrderId());
-
-                    paymentResponseMessageListener.paymentCompleted(
-                            orderMessagingDataMapper.paymentResponseAvroModelToPaymentResponse(paymentResponseAvroModel)
-                    );
-                } else if (PaymentStatus.CANCELLED == paymentResponseAvroModel.getPaymentStatus() ||
-                        PaymentStatus.FAILED == paymentResponseAvroModel.getPaymentStatus()) {
-                    log.info("Processing unsuccessful payment for order id: {}", paymentResponseAvroModel.getOrderId());
-
-                    paymentResponseMessageListener.paymentCancelled(
-                            orderMessagingDataMapper.paymentResponseAvroModelToPaymentResponse(paymentResponseAvroModel)
-                    );
-                }
-            } catch (OptimisticLockingFailureException e) {
-                /* we have enabled optimistic locking and it can be thrown from the OrderPaymentSaga's process() or rollback(). */
-                // NO-OP for optimistic locking. This means another thread finished the work for the same message, do not throw error to
-                // prevent reading the data from kafka again!
-                log.error("Caught optimistic locking exception in PaymentResponseKafkaListener for order id: {}",
-                        paymentResponseAvroModel.getOrderId());
-            } catch (OrderDomainException e) {
-                /* If OrderDomainException is thrown which is caused by order couldn't be found, then saga cannot continue. Therefore,
-                we shouldn't retry the op. So we also catch this exception here and make it a no-op instead of propagating
-                the exception.We don't do anything about it, just logging.*/
-                // NO-OP for OrderDomainException
-                log.error("No order found for order id: {}", paymentResponseAvroModel.getOrderId());
+        /* The map is only read after this point, so it's safe to read it from the worker threads of keyOrderedRecordProcessor. */
+        Map<PaymentResponseAvroModel, SagaTimeline> sagaTimelines = getSagaTimelines(messages, headers);
+
+        /* The responses of a saga must be processed in order, so the records are keyed by saga id. The responses of different
+        sagas run in parallel. */
+        if (keyOrderedRecordProcessor.isEnabled()) {
+            keyOrderedRecordProcessor.process("payment responses", messages, PaymentResponseAvroModel::getSagaId,
+                    paymentResponseAvroModel -> processPaymentResponse(paymentResponseAvroModel, sagaTimelines));
+        } else {
+            kafkaBatchProcessor.process("payment responses", messages,
+                    paymentResponseAvroModels -> processPaymentResponses(paymentResponseAvroModels, sagaTimelines),
+                    paymentResponseAvroModel -> processPaymentResponse(paymentResponseAvroModel, sagaTimelines));
+        }
+    }
+
+    private void processPaymentResponses(List<PaymentResponseAvroModel> paymentResponseAvroModels,
+                                         Map<PaymentResponseAvroModel, SagaTimeline> sagaTimelines) {
+        paymentResponseAvroModels.forEach(paymentResponseAvroModel ->
+                orderSagaMetrics.recordDecision("payment", paymentResponseAvroModel.getPaymentStatus().name()));
+
+        orderSagaMetrics.recordStep(OrderSagaMetrics.PAYMENT_SAGA, "processBatch", () ->
+                paymentResponseMessageListener.processPaymentResponses(paymentResponseAvroModels.stream()
+                        .map(orderMessagingDataMapper::paymentResponseAvroModelToPaymentResponse)
+                        .toList()));
+
+        paymentResponseAvroModels.forEach(paymentResponseAvroModel -> recordSagaTimeline(paymentResponseAvroModel, sagaTimelines));
+    }
+
+    private void processPaymentResponse(PaymentResponseAvroModel paymentResponseAvroModel,
+                                        Map<PaymentResponseAvroModel, SagaTimeline> sagaTimelines) {
+        orderSagaMetrics.recordDecision("payment", paymentResponseAvroModel.getPaymentStatus().name());
+
+        try {
+            if (PaymentStatus.COMPLETED == paymentResponseAvroModel.getPaymentStatus()) {
+                log.info("Processing successful payment for order id: {}", paymentResponseAvroModel.getOrderId());
+
+                orderSagaMetrics.recordStep(OrderSagaMetrics.PAYMENT_SAGA, "process", () ->
+                        paymentResponseMessageListener.paymentCompleted(
+                                orderMessagingDataMapper.paymentResponseAvroModelToPaymentResponse(paymentResponseAvroModel)
+                        ));
+            } else if (PaymentStatus.CANCELLED == paymentResponseAvroModel.getPaymentStatus() ||
+                    PaymentStatus.FAILED == paymentResponseAvroModel.getPaymentStatus()) {
+                log.info("Processing unsuccessful payment for order id: {}", paymentResponseAvroModel.getOrderId());
+
+                orderSagaMetrics.recordStep(OrderSagaMetrics.PAYMENT_SAGA, "rollback", () ->
+                        paymentResponseMessageListener.paymentCancelled(
+                                orderMessagingDataMapper.paymentResponseAvroModelToPaymentResponse(paymentResponseAvroModel)
+                        ));
             }
 
-            /* What about other errors? What will happen when some other exception is thrown during saga operation?
-            Since we don't catch those other exceptions, the exception will be propagated and spring will assume that
-            the event listener method call is failed and then it will read the same message again from kafka. So it does the retry for
-            messages that were failed to process, automatically. But for OptimisticLockingFailureException we don't want this behavior(we don't
-            want to retry the message that we failed to process) so we catch that exception and prevent propagation of that exception.
-            Because it was already processed by another thread.*/
-        });
+            recordSagaTimeline(paymentResponseAvroModel, sagaTimelines);
+        } catch (OptimisticLockingFailureException e) {
+            /* we have enabled optimistic locking and it can be thrown from the OrderPaymentSaga's process() or rollback(). */
+            // NO-OP for optimistic locking. This means another thread finished the work for the same message, do not throw error to
+            // prevent reading the data from kafka again!
+            log.error("Caught optimistic locking exception in PaymentResponseKafkaListener for order id: {}",
+                    paymentResponseAvroModel.getOrderId());
+            kafkaListenerMetrics.recordSkippedMessage("payment response", KafkaListenerMetrics.OPTIMISTIC_LOCK);
+        } catch (OrderDomainException e) {
+            /* If OrderDomainException is thrown which is caused by order couldn't be found, then saga cannot continue. Therefore,
+            we shouldn't retry the op. So we also catch this exception here and make it a no-op instead of propagating
+            the exception.We don't do anything about it, just logging.*/
+            // NO-OP for OrderDomainException
+            log.error("No order found for order id: {}", paymentResponseAvroModel.getOrderId());
+            kafkaListenerMetrics.recordSkippedMessage("payment response", KafkaListenerMetrics.NOT_FOUND);
+        }
+
+        /* What about other errors? What will happen when some other exception is thrown during saga operation?
+        Since we don't catch those other exceptions, the exception will be propagated and spring will assume that
+        the event listener method call is failed and then it will read the same message again from kafka. So it does the retry for
+        messages that were failed to process, automatically. But for OptimisticLockingFailureException we don't want this behavior(we don't
+        want to retry the message that we failed to process) so we catch that exception and prevent propagation of that exception.
+        Because it was already processed by another thread.*/
+    }
+
+    private Map<PaymentResponseAvroModel, SagaTimeline> getSagaTimelines(List<PaymentResponseAvroModel> messages,
+                                                                         List<Map<String, Object>> headers) {
+        Instant consumedAt = Instant.now();
+        Map<PaymentResponseAvroModel, SagaTimeline> sagaTimelines = new IdentityHashMap<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            sagaTimelines.put(messages.get(i), SagaTimeline.decode(getHeaderValue(headers, i, SagaTimeline.HEADER_NAME))
+                    .append(getSagaHop(messages.get(i)), SagaTimeline.RESPONSE_CONSUME, consumedAt));
+        }
+
+        return sagaTimelines;
+    }
+
+    // the tx of the response is committed when the saga step returns, so this is the end of the hop.
+    private void recordSagaTimeline(PaymentResponseAvroModel paymentResponseAvroModel,
+                                    Map<PaymentResponseAvroModel, SagaTimeline> sagaTimelines) {
+        sagaTimelineService.record(paymentResponseAvroModel.getSagaId(), sagaTimelines.get(paymentResponseAvroModel)
+                .append(getSagaHop(paymentResponseAvroModel), SagaTimeline.RESPONSE_COMMIT, Instant.now()));
+    }
+
+    private String getSagaHop(PaymentResponseAvroModel paymentResponseAvroModel) {
+        return PaymentStatus.CANCELLED == paymentResponseAvroModel.getPaymentStatus() ?
+                SagaTimeline.PAYMENT_CANCEL_HOP : SagaTimeline.PAYMENT_HOP;
     }
 }
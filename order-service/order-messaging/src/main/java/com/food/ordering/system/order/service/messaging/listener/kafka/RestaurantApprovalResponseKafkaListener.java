@@ -1,11 +1,16 @@
 package com.food.ordering.system.order.service.messaging.listener.kafka;
 
 import com.food.ordering.system.kafka.consumer.KafkaConsumer;
+import com.food.ordering.system.kafka.consumer.KafkaListenerMetrics;
+import com.food.ordering.system.kafka.consumer.KeyOrderedRecordProcessor;
 import com.food.ordering.system.kafka.order.avro.model.OrderApprovalStatus;
 import com.food.ordering.system.kafka.order.avro.model.RestaurantApprovalResponseAvroModel;
 import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
 import com.food.ordering.system.order.service.domain.ports.input.message.listener.restaurantapproval.RestaurantApprovalResponseMessageListener;
+import com.food.ordering.system.order.service.domain.ports.input.service.SagaTimelineService;
 import com.food.ordering.system.order.service.messaging.mapper.OrderMessagingDataMapper;
+import com.food.ordering.system.order.service.messaging.metrics.OrderSagaMetrics;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -14,7 +19,10 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.food.ordering.system.order.service.domain.entity.Order.FAILURE_MESSAGE_DELIMITER;
 
@@ -23,11 +31,23 @@ import static com.food.ordering.system.order.service.domain.entity.Order.FAILURE
 public class RestaurantApprovalResponseKafkaListener implements KafkaConsumer<RestaurantApprovalResponseAvroModel> {
     private final RestaurantApprovalResponseMessageListener restaurantApprovalResponseMessageListener;
     private final OrderMessagingDataMapper orderMessagingDataMapper;
+    private final KeyOrderedRecordProcessor keyOrderedRecordProcessor;
+    private final KafkaListenerMetrics kafkaListenerMetrics;
+    private final OrderSagaMetrics orderSagaMetrics;
+    private final SagaTimelineService sagaTimelineService;
 
     public RestaurantApprovalResponseKafkaListener(RestaurantApprovalResponseMessageListener restaurantApprovalResponseMessageListener,
-                                                   OrderMessagingDataMapper orderMessagingDataMapper) {
+                                                   OrderMessagingDataMapper orderMessagingDataMapper,
+                                                   KeyOrderedRecordProcessor keyOrderedRecordProcessor,
+                                                   KafkaListenerMetrics kafkaListenerMetrics,
+                                                   OrderSagaMetrics orderSagaMetrics,
+                                                   SagaTimelineService sagaTimelineService) {
         this.restaurantApprovalResponseMessageListener = restaurantApprovalResponseMessageListener;
         this.orderMessagingDataMapper = orderMessagingDataMapper;
+        this.keyOrderedRecordProcessor = keyOrderedRecordProcessor;
+        this.kafkaListenerMetrics = kafkaListenerMetrics;
+        this.orderSagaMetrics = orderSagaMetrics;
+        this.sagaTimelineService = sagaTimelineService;
     }
 
     @Override
@@ -36,36 +56,73 @@ public class RestaurantApprovalResponseKafkaListener implements KafkaConsumer<Re
     public void receive(@Payload List<RestaurantApprovalResponseAvroModel> messages,
                         @Header(KafkaHeaders.RECEIVED_KEY) List<String> keys,
                         @Header(KafkaHeaders.PARTITION) List<Integer> partitions,
-                        @Header(KafkaHeaders.OFFSET) List<Long> offsets) {
+                        @Header(KafkaHeaders.OFFSET) List<Long> offsets,
+                        @Header(name = KafkaHeaders.BATCH_CONVERTED_HEADERS, required = false) List<Map<String, Object>> headers) {
         log.info("{} number of restaurant approval responses received with keys {}, partitions {}, and offsets {}",
                 messages.size(),
                 keys.toString(),
                 partitions.toString(),
                 offsets.toString());
 
-        messages.forEach(restaurantApprovalResponseAvroModel -> {
-            try {
-                if (OrderApprovalStatus.APPROVED == restaurantApprovalResponseAvroModel.getOrderApprovalStatus()) {
-                    log.info("Processing approved order for order id: {}", restaurantApprovalResponseAvroModel.getOrderId());
-                    restaurantApprovalResponseMessageListener.orderApproved(orderMessagingDataMapper
-                            .approvalResponseAvroModelToApprovalResponse(restaurantApprovalResponseAvroModel));
-                } else if(OrderApprovalStatus.REJECTED == restaurantApprovalResponseAvroModel.getOrderApprovalStatus()) {
-                    log.info("Processing rejected order for order id: {}, with failure messages: {}",
-                            restaurantApprovalResponseAvroModel.getOrderId(),
-                            String.join(FAILURE_MESSAGE_DELIMITER,
-                                    restaurantApprovalResponseAvroModel.getFailureMessages()));
+        Map<RestaurantApprovalResponseAvroModel, SagaTimeline> sagaTimelines = getSagaTimelines(messages, headers);
 
-                    restaurantApprovalResponseMessageListener.orderRejected(orderMessagingDataMapper
-                            .approvalResponseAvroModelToApprovalResponse(restaurantApprovalResponseAvroModel));
-                }
-            } catch (OptimisticLockingFailureException e) {
-                // NO-OP for OptimisticLockingFailureException
-                log.error("Caught optimistic locking exception in RestaurantApprovalResponseKafkaListener for order id: {}",
-                        restaurantApprovalResponseAvroModel.getOrderId());
-            } catch (OrderDomainException e) {
-                // NO-OP for OrderDomainException
-                log.error("No order found for order id: {}", restaurantApprovalResponseAvroModel.getOrderId());
+        if (keyOrderedRecordProcessor.isEnabled()) {
+            keyOrderedRecordProcessor.process("restaurant approval responses", messages,
+                    RestaurantApprovalResponseAvroModel::getSagaId,
+                    restaurantApprovalResponseAvroModel ->
+                            processRestaurantApprovalResponse(restaurantApprovalResponseAvroModel, sagaTimelines));
+        } else {
+            messages.forEach(restaurantApprovalResponseAvroModel ->
+                    processRestaurantApprovalResponse(restaurantApprovalResponseAvroModel, sagaTimelines));
+        }
+    }
+
+    private void processRestaurantApprovalResponse(RestaurantApprovalResponseAvroModel restaurantApprovalResponseAvroModel,
+                                                   Map<RestaurantApprovalResponseAvroModel, SagaTimeline> sagaTimelines) {
+        orderSagaMetrics.recordDecision("approval", restaurantApprovalResponseAvroModel.getOrderApprovalStatus().name());
+
+        try {
+            if (OrderApprovalStatus.APPROVED == restaurantApprovalResponseAvroModel.getOrderApprovalStatus()) {
+                log.info("Processing approved order for order id: {}", restaurantApprovalResponseAvroModel.getOrderId());
+                orderSagaMetrics.recordStep(OrderSagaMetrics.APPROVAL_SAGA, "process", () ->
+                        restaurantApprovalResponseMessageListener.orderApproved(orderMessagingDataMapper
+                                .approvalResponseAvroModelToApprovalResponse(restaurantApprovalResponseAvroModel)));
+            } else if(OrderApprovalStatus.REJECTED == restaurantApprovalResponseAvroModel.getOrderApprovalStatus()) {
+                log.info("Processing rejected order for order id: {}, with failure messages: {}",
+                        restaurantApprovalResponseAvroModel.getOrderId(),
+                        String.join(FAILURE_MESSAGE_DELIMITER,
+                                restaurantApprovalResponseAvroModel.getFailureMessages()));
+
+                orderSagaMetrics.recordStep(OrderSagaMetrics.APPROVAL_SAGA, "rollback", () ->
+                        restaurantApprovalResponseMessageListener.orderRejected(orderMessagingDataMapper
+                                .approvalResponseAvroModelToApprovalResponse(restaurantApprovalResponseAvroModel)));
             }
-        });
+
+            // the tx of the response is committed when the saga step returns, so this is the end of the hop.
+            sagaTimelineService.record(restaurantApprovalResponseAvroModel.getSagaId(),
+                    sagaTimelines.get(restaurantApprovalResponseAvroModel)
+                            .append(SagaTimeline.APPROVAL_HOP, SagaTimeline.RESPONSE_COMMIT, Instant.now()));
+        } catch (OptimisticLockingFailureException e) {
+            // NO-OP for OptimisticLockingFailureException
+            log.error("Caught optimistic locking exception in RestaurantApprovalResponseKafkaListener for order id: {}",
+                    restaurantApprovalResponseAvroModel.getOrderId());
+            kafkaListenerMetrics.recordSkippedMessage("restaurant approval response", KafkaListenerMetrics.OPTIMISTIC_LOCK);
+        } catch (OrderDomainException e) {
+            // NO-OP for OrderDomainException
+            log.error("No order found for order id: {}", restaurantApprovalResponseAvroModel.getOrderId());
+            kafkaListenerMetrics.recordSkippedMessage("restaurant approval response", KafkaListenerMetrics.NOT_FOUND);
+        }
+    }
+
+    private Map<RestaurantApprovalResponseAvroModel, SagaTimeline> getSagaTimelines(
+            List<RestaurantApprovalResponseAvroModel> messages, List<Map<String, Object>> headers) {
+        Instant consumedAt = Instant.now();
+        Map<RestaurantApprovalResponseAvroModel, SagaTimeline> sagaTimelines = new IdentityHashMap<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            sagaTimelines.put(messages.get(i), SagaTimeline.decode(getHeaderValue(headers, i, SagaTimeline.HEADER_NAME))
+                    .append(SagaTimeline.APPROVAL_HOP, SagaTimeline.RESPONSE_CONSUME, consumedAt));
+        }
+
+        return sagaTimelines;
     }
 }
@@ -0,0 +1,39 @@
+package com.food.ordering.system.order.service.messaging.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/* Metrics of the saga steps that are triggered by the payment and restaurant approval responses:
+ - saga.step.duration: how long a step of OrderPaymentSaga or OrderApprovalSaga takes(process, rollback or processBatch), including
+ its tx. It's published with a percentile histogram, so the p99 of each step can be calculated from the scraped buckets.
+ - saga.decisions: the payment(COMPLETED, CANCELLED, FAILED) and approval(APPROVED, REJECTED) decisions that the order service receives.
+ Their rate shows how many of the sagas are going to be compensated. */
+@Component
+public class OrderSagaMetrics {
+    public static final String PAYMENT_SAGA = "OrderPaymentSaga";
+    public static final String APPROVAL_SAGA = "OrderApprovalSaga";
+
+    private static final String STEP_DURATION = "saga.step.duration";
+    private static final String DECISIONS = "saga.decisions";
+
+    private final MeterRegistry meterRegistry;
+
+    public OrderSagaMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // the step is timed even if it throws, a failing step is also where saga time goes.
+    public void recordStep(String sagaName, String step, Runnable sagaStep) {
+        Timer.builder(STEP_DURATION)
+                .tag("saga", sagaName)
+                .tag("step", step)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(sagaStep);
+    }
+
+    public void recordDecision(String decision, String status) {
+        meterRegistry.counter(DECISIONS, "decision", decision, "status", status).increment();
+    }
+}
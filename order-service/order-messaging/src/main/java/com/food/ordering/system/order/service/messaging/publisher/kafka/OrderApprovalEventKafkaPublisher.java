@@ -6,12 +6,17 @@ import com.food.ordering.system.kafka.producer.service.KafkaProducer;
 import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
 import com.food.ordering.system.order.service.domain.outbox.model.approval.OrderApprovalEventPayload;
 import com.food.ordering.system.order.service.domain.outbox.model.approval.OrderApprovalOutboxMessage;
+import com.food.ordering.system.order.service.domain.ports.input.service.SagaTimelineService;
 import com.food.ordering.system.order.service.domain.ports.output.message.publisher.restaurantapproval.RestaurantApprovalRequestMessagePublisher;
 import com.food.ordering.system.order.service.messaging.mapper.OrderMessagingDataMapper;
 import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 @Slf4j
@@ -21,15 +26,18 @@ public class OrderApprovalEventKafkaPublisher implements RestaurantApprovalReque
     private final KafkaProducer<String, RestaurantApprovalRequestAvroModel> kafkaProducer;
     private final OrderServiceConfigData orderServiceConfigData;
     private final KafkaMessageHelper kafkaMessageHelper;
+    private final SagaTimelineService sagaTimelineService;
 
     public OrderApprovalEventKafkaPublisher(OrderMessagingDataMapper orderMessagingDataMapper,
                                             KafkaProducer<String, RestaurantApprovalRequestAvroModel> kafkaProducer,
                                             OrderServiceConfigData orderServiceConfigData,
-                                            KafkaMessageHelper kafkaMessageHelper) {
+                                            KafkaMessageHelper kafkaMessageHelper,
+                                            SagaTimelineService sagaTimelineService) {
         this.orderMessagingDataMapper = orderMessagingDataMapper;
         this.kafkaProducer = kafkaProducer;
         this.orderServiceConfigData = orderServiceConfigData;
         this.kafkaMessageHelper = kafkaMessageHelper;
+        this.sagaTimelineService = sagaTimelineService;
     }
 
 
@@ -54,11 +62,12 @@ public class OrderApprovalEventKafkaPublisher implements RestaurantApprovalReque
             kafkaProducer.send(orderServiceConfigData.getRestaurantApprovalRequestTopicName(),
                     sagaId,
                     restaurantApprovalRequestAvroModel,
+                    getSagaTimelineHeaders(orderApprovalOutboxMessage),
                     kafkaMessageHelper.getKafkaCallback(
                             orderServiceConfigData.getRestaurantApprovalRequestTopicName(),
                             restaurantApprovalRequestAvroModel,
                             orderApprovalOutboxMessage,
-                            outboxCallback,
+                            recordingRequestAck(outboxCallback),
                             orderApprovalEventPayload.getOrderId(),
                             "RestaurantApprovalRequestAvroModel")
             );
@@ -70,4 +79,67 @@ public class OrderApprovalEventKafkaPublisher implements RestaurantApprovalReque
                     " error: {}", orderApprovalEventPayload.getOrderId(), sagaId, e.getMessage());
         }
     }
+
+    /* In the transactional mode the whole batch is sent in one kafka tx, so the consumers(with read_committed isolation) see either
+    all the messages of the batch or none of them. Otherwise every message is published on its own. */
+    @Override
+    public void publishBatch(List<OrderApprovalOutboxMessage> orderApprovalOutboxMessages,
+                             BiConsumer<OrderApprovalOutboxMessage, OutboxStatus> outboxCallback) {
+        if (!kafkaProducer.isTransactional()) {
+            RestaurantApprovalRequestMessagePublisher.super.publishBatch(orderApprovalOutboxMessages, outboxCallback);
+
+            return;
+        }
+
+        try {
+            List<String> sagaIds = orderApprovalOutboxMessages.stream()
+                    .map(orderApprovalOutboxMessage -> orderApprovalOutboxMessage.getSagaId().toString())
+                    .toList();
+            List<RestaurantApprovalRequestAvroModel> restaurantApprovalRequestAvroModels = orderApprovalOutboxMessages.stream()
+                    .map(orderApprovalOutboxMessage -> orderMessagingDataMapper.orderApprovalEventToRestaurantApprovalRequestAvroModel(
+                            orderApprovalOutboxMessage.getSagaId().toString(),
+                            kafkaMessageHelper.getOrderEventPayload(orderApprovalOutboxMessage.getPayload(), OrderApprovalEventPayload.class)))
+                    .toList();
+            List<Map<String, String>> headers = orderApprovalOutboxMessages.stream()
+                    .map(this::getSagaTimelineHeaders)
+                    .toList();
+
+            kafkaProducer.sendInTransaction(orderServiceConfigData.getRestaurantApprovalRequestTopicName(),
+                    sagaIds,
+                    restaurantApprovalRequestAvroModels,
+                    headers,
+                    kafkaMessageHelper.getKafkaTransactionCallback(
+                            orderServiceConfigData.getRestaurantApprovalRequestTopicName(),
+                            orderApprovalOutboxMessages,
+                            recordingRequestAck(outboxCallback),
+                            "RestaurantApprovalRequestAvroModel"));
+
+            log.info("{} RestaurantApprovalRequestAvroModel sent to kafka in one transaction", restaurantApprovalRequestAvroModels.size());
+        } catch (Exception e) {
+            log.error("Error while sending {} RestaurantApprovalRequestAvroModel to kafka in a transaction, error: {}",
+                    orderApprovalOutboxMessages.size(), e.getMessage());
+        }
+    }
+
+    /* The timeline of a saga hop starts with the request: the time that it's inserted into the outbox and the time that it's sent. The
+    payment or restaurant svc appends its own stages and sends the timeline back with its response. */
+    private Map<String, String> getSagaTimelineHeaders(OrderApprovalOutboxMessage orderApprovalOutboxMessage) {
+        return Map.of(SagaTimeline.HEADER_NAME, SagaTimeline.empty()
+                .append(SagaTimeline.APPROVAL_HOP, SagaTimeline.REQUEST_ENQUEUE, orderApprovalOutboxMessage.getCreatedAt().toInstant())
+                .append(SagaTimeline.APPROVAL_HOP, SagaTimeline.REQUEST_SEND, Instant.now())
+                .encode());
+    }
+
+    /* The ack of kafka arrives after the request has left, so it can't travel with the request. It's recorded here and merged with the
+    rest of the timeline when it's read. */
+    private BiConsumer<OrderApprovalOutboxMessage, OutboxStatus> recordingRequestAck(
+            BiConsumer<OrderApprovalOutboxMessage, OutboxStatus> outboxCallback) {
+        return (orderApprovalOutboxMessage, outboxStatus) -> {
+            outboxCallback.accept(orderApprovalOutboxMessage, outboxStatus);
+            if (OutboxStatus.COMPLETED == outboxStatus) {
+                sagaTimelineService.record(orderApprovalOutboxMessage.getSagaId(), SagaTimeline.empty()
+                        .append(SagaTimeline.APPROVAL_HOP, SagaTimeline.REQUEST_ACK, Instant.now()));
+            }
+        };
+    }
 }
@@ -2,42 +2,62 @@ package com.food.ordering.system.order.service.messaging.publisher.kafka;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.food.ordering.system.domain.valueobject.OrderStatus;
 import com.food.ordering.system.kafka.order.avro.model.PaymentRequestAvroModel;
 import com.food.ordering.system.kafka.producer.KafkaMessageHelper;
+import com.food.ordering.system.kafka.producer.service.KafkaByteArrayProducer;
 import com.food.ordering.system.kafka.producer.service.KafkaProducer;
 import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
 import com.food.ordering.system.order.service.domain.exception.OrderDomainException;
 import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentEventPayload;
 import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentOutboxMessage;
+import com.food.ordering.system.order.service.domain.ports.input.service.SagaTimelineService;
 import com.food.ordering.system.order.service.domain.ports.output.message.publisher.payment.PaymentRequestMessagePublisher;
 import com.food.ordering.system.order.service.messaging.mapper.OrderMessagingDataMapper;
 import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class OrderPaymentEventKafkaPublisher implements PaymentRequestMessagePublisher {
     private final OrderMessagingDataMapper orderMessagingDataMapper;
     private final KafkaProducer<String, PaymentRequestAvroModel> kafkaProducer;
+    private final KafkaByteArrayProducer<String> kafkaByteArrayProducer;
     private final OrderServiceConfigData orderServiceConfigData;
     private final KafkaMessageHelper kafkaMessageHelper;
+    private final SagaTimelineService sagaTimelineService;
 
     public OrderPaymentEventKafkaPublisher(OrderMessagingDataMapper orderMessagingDataMapper,
                                            KafkaProducer<String, PaymentRequestAvroModel> kafkaProducer,
+                                           KafkaByteArrayProducer<String> kafkaByteArrayProducer,
                                            OrderServiceConfigData orderServiceConfigData,
-                                           KafkaMessageHelper kafkaMessageHelper) {
+                                           KafkaMessageHelper kafkaMessageHelper,
+                                           SagaTimelineService sagaTimelineService) {
         this.orderMessagingDataMapper = orderMessagingDataMapper;
         this.kafkaProducer = kafkaProducer;
+        this.kafkaByteArrayProducer = kafkaByteArrayProducer;
         this.orderServiceConfigData = orderServiceConfigData;
         this.kafkaMessageHelper = kafkaMessageHelper;
+        this.sagaTimelineService = sagaTimelineService;
     }
 
     @Override
     public void publish(OrderPaymentOutboxMessage orderPaymentOutboxMessage,
                         BiConsumer<OrderPaymentOutboxMessage, OutboxStatus> outboxCallback) {
+        if (orderPaymentOutboxMessage.getPayloadBytes() != null) {
+            publishEncoded(orderPaymentOutboxMessage, outboxCallback);
+
+            return;
+        }
+
         OrderPaymentEventPayload orderPaymentEventPayload = kafkaMessageHelper.getOrderEventPayload(
                 orderPaymentOutboxMessage.getPayload(),
                 OrderPaymentEventPayload.class);
@@ -54,11 +74,12 @@ public class OrderPaymentEventKafkaPublisher implements PaymentRequestMessagePub
             kafkaProducer.send(orderServiceConfigData.getPaymentRequestTopicName(),
                     sagaId,
                     paymentRequestAvroModel,
+                    getSagaTimelineHeaders(orderPaymentOutboxMessage),
                     kafkaMessageHelper.getKafkaCallback(
                             orderServiceConfigData.getPaymentRequestTopicName(),
                             paymentRequestAvroModel,
                             orderPaymentOutboxMessage,
-                            outboxCallback,
+                            recordingRequestAck(outboxCallback),
                             orderPaymentEventPayload.getOrderId(),
                             "PaymentRequestAvroModel"
                     ));
@@ -71,5 +92,137 @@ public class OrderPaymentEventKafkaPublisher implements PaymentRequestMessagePub
         }
     }
 
+    /* In the transactional mode the whole batch is sent in one kafka tx, so the consumers(with read_committed isolation) see either
+    all the messages of the batch or none of them. Otherwise every message is published on its own.
+
+    The messages with json and with avro payloads(e.g. right after outbox-payload-format is changed) are sent in separate txs, since
+    they go through different producers. */
+    @Override
+    public void publishBatch(List<OrderPaymentOutboxMessage> orderPaymentOutboxMessages,
+                             BiConsumer<OrderPaymentOutboxMessage, OutboxStatus> outboxCallback) {
+        if (!kafkaProducer.isTransactional()) {
+            PaymentRequestMessagePublisher.super.publishBatch(orderPaymentOutboxMessages, outboxCallback);
+
+            return;
+        }
+
+        Map<Boolean, List<OrderPaymentOutboxMessage>> outboxMessagesByEncoded = orderPaymentOutboxMessages.stream()
+                .collect(Collectors.partitioningBy(orderPaymentOutboxMessage -> orderPaymentOutboxMessage.getPayloadBytes() != null));
+        if (!outboxMessagesByEncoded.get(false).isEmpty()) {
+            publishBatchInTransaction(outboxMessagesByEncoded.get(false), outboxCallback);
+        }
+        if (!outboxMessagesByEncoded.get(true).isEmpty()) {
+            publishEncodedBatchInTransaction(outboxMessagesByEncoded.get(true), outboxCallback);
+        }
+    }
 
+    /* The payload bytes are already the record value(see PaymentRequestAvroMessageEncoder), so they are sent without any mapping or
+    serialization. */
+    private void publishEncoded(OrderPaymentOutboxMessage orderPaymentOutboxMessage,
+                                BiConsumer<OrderPaymentOutboxMessage, OutboxStatus> outboxCallback) {
+        String sagaId = orderPaymentOutboxMessage.getSagaId().toString();
+
+        try {
+            kafkaByteArrayProducer.send(orderServiceConfigData.getPaymentRequestTopicName(),
+                    sagaId,
+                    orderPaymentOutboxMessage.getPayloadBytes(),
+                    getSagaTimelineHeaders(orderPaymentOutboxMessage),
+                    kafkaMessageHelper.getKafkaCallback(
+                            orderServiceConfigData.getPaymentRequestTopicName(),
+                            orderPaymentOutboxMessage.getPayloadBytes(),
+                            orderPaymentOutboxMessage,
+                            recordingRequestAck(outboxCallback),
+                            sagaId,
+                            "PaymentRequestAvroModel bytes"
+                    ));
+
+            log.info("Encoded OrderPaymentEventPayload sent to kafka for saga id: {}", sagaId);
+        } catch (Exception e) {
+            log.error("Error while sending encoded OrderPaymentEventPayload to kafka with saga id: {}, error: {}",
+                    sagaId, e.getMessage());
+        }
+    }
+
+    private void publishEncodedBatchInTransaction(List<OrderPaymentOutboxMessage> orderPaymentOutboxMessages,
+                                                  BiConsumer<OrderPaymentOutboxMessage, OutboxStatus> outboxCallback) {
+        try {
+            kafkaByteArrayProducer.sendInTransaction(orderServiceConfigData.getPaymentRequestTopicName(),
+                    orderPaymentOutboxMessages.stream()
+                            .map(orderPaymentOutboxMessage -> orderPaymentOutboxMessage.getSagaId().toString())
+                            .toList(),
+                    orderPaymentOutboxMessages.stream().map(OrderPaymentOutboxMessage::getPayloadBytes).toList(),
+                    orderPaymentOutboxMessages.stream().map(this::getSagaTimelineHeaders).toList(),
+                    kafkaMessageHelper.getKafkaTransactionCallback(
+                            orderServiceConfigData.getPaymentRequestTopicName(),
+                            orderPaymentOutboxMessages,
+                            recordingRequestAck(outboxCallback),
+                            "PaymentRequestAvroModel bytes"));
+
+            log.info("{} encoded PaymentRequestAvroModel sent to kafka in one transaction", orderPaymentOutboxMessages.size());
+        } catch (Exception e) {
+            log.error("Error while sending {} encoded PaymentRequestAvroModel to kafka in a transaction, error: {}",
+                    orderPaymentOutboxMessages.size(), e.getMessage());
+        }
+    }
+
+    private void publishBatchInTransaction(List<OrderPaymentOutboxMessage> orderPaymentOutboxMessages,
+                                           BiConsumer<OrderPaymentOutboxMessage, OutboxStatus> outboxCallback) {
+        try {
+            List<String> sagaIds = orderPaymentOutboxMessages.stream()
+                    .map(orderPaymentOutboxMessage -> orderPaymentOutboxMessage.getSagaId().toString())
+                    .toList();
+            List<PaymentRequestAvroModel> paymentRequestAvroModels = orderPaymentOutboxMessages.stream()
+                    .map(orderPaymentOutboxMessage -> orderMessagingDataMapper.orderPaymentEventToPaymentRequestAvroModel(
+                            orderPaymentOutboxMessage.getSagaId().toString(),
+                            kafkaMessageHelper.getOrderEventPayload(orderPaymentOutboxMessage.getPayload(), OrderPaymentEventPayload.class)))
+                    .toList();
+            List<Map<String, String>> headers = orderPaymentOutboxMessages.stream()
+                    .map(this::getSagaTimelineHeaders)
+                    .toList();
+
+            kafkaProducer.sendInTransaction(orderServiceConfigData.getPaymentRequestTopicName(),
+                    sagaIds,
+                    paymentRequestAvroModels,
+                    headers,
+                    kafkaMessageHelper.getKafkaTransactionCallback(
+                            orderServiceConfigData.getPaymentRequestTopicName(),
+                            orderPaymentOutboxMessages,
+                            recordingRequestAck(outboxCallback),
+                            "PaymentRequestAvroModel"));
+
+            log.info("{} PaymentRequestAvroModel sent to kafka in one transaction", paymentRequestAvroModels.size());
+        } catch (Exception e) {
+            log.error("Error while sending {} PaymentRequestAvroModel to kafka in a transaction, error: {}",
+                    orderPaymentOutboxMessages.size(), e.getMessage());
+        }
+    }
+
+    /* The timeline of a saga hop starts with the request: the time that it's inserted into the outbox and the time that it's sent. The
+    payment or restaurant svc appends its own stages and sends the timeline back with its response. */
+    private Map<String, String> getSagaTimelineHeaders(OrderPaymentOutboxMessage orderPaymentOutboxMessage) {
+        String sagaHop = getSagaHop(orderPaymentOutboxMessage);
+
+        return Map.of(SagaTimeline.HEADER_NAME, SagaTimeline.empty()
+                .append(sagaHop, SagaTimeline.REQUEST_ENQUEUE, orderPaymentOutboxMessage.getCreatedAt().toInstant())
+                .append(sagaHop, SagaTimeline.REQUEST_SEND, Instant.now())
+                .encode());
+    }
+
+    /* The ack of kafka arrives after the request has left, so it can't travel with the request. It's recorded here and merged with the
+    rest of the timeline when it's read. */
+    private BiConsumer<OrderPaymentOutboxMessage, OutboxStatus> recordingRequestAck(
+            BiConsumer<OrderPaymentOutboxMessage, OutboxStatus> outboxCallback) {
+        return (orderPaymentOutboxMessage, outboxStatus) -> {
+            outboxCallback.accept(orderPaymentOutboxMessage, outboxStatus);
+            if (OutboxStatus.COMPLETED == outboxStatus) {
+                sagaTimelineService.record(orderPaymentOutboxMessage.getSagaId(), SagaTimeline.empty()
+                        .append(getSagaHop(orderPaymentOutboxMessage), SagaTimeline.REQUEST_ACK, Instant.now()));
+            }
+        };
+    }
+
+    private String getSagaHop(OrderPaymentOutboxMessage orderPaymentOutboxMessage) {
+        return OrderStatus.CANCELLING == orderPaymentOutboxMessage.getOrderStatus() ?
+                SagaTimeline.PAYMENT_CANCEL_HOP : SagaTimeline.PAYMENT_HOP;
+    }
 }
@@ -0,0 +1,50 @@
+package com.food.ordering.system.order.service.messaging.publisher.kafka;
+
+import com.food.ordering.system.kafka.config.data.KafkaConfigData;
+import com.food.ordering.system.kafka.order.avro.model.PaymentRequestAvroModel;
+import com.food.ordering.system.order.service.domain.config.OrderServiceConfigData;
+import com.food.ordering.system.order.service.domain.outbox.model.payment.OrderPaymentEventPayload;
+import com.food.ordering.system.order.service.domain.ports.output.message.publisher.payment.PaymentRequestMessageEncoder;
+import com.food.ordering.system.order.service.messaging.mapper.OrderMessagingDataMapper;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/* Encodes the payment requests with the same serializer that the kafka producer uses(KafkaAvroSerializer), for the same topic. So the
+bytes are exactly the record value that the producer would send: the magic byte, the schema id that is registered for the
+payment-request topic and the avro binary data. The payment svc reads them with its KafkaAvroDeserializer as before.
+
+The schema id is looked up(or registered) in the schema registry with the first encode and then cached by the serializer, so only the
+first outbox insert after a start waits for the schema registry. */
+@Component
+public class PaymentRequestAvroMessageEncoder implements PaymentRequestMessageEncoder {
+    private final OrderMessagingDataMapper orderMessagingDataMapper;
+    private final OrderServiceConfigData orderServiceConfigData;
+    private final KafkaAvroSerializer kafkaAvroSerializer;
+
+    public PaymentRequestAvroMessageEncoder(OrderMessagingDataMapper orderMessagingDataMapper,
+                                            OrderServiceConfigData orderServiceConfigData,
+                                            KafkaConfigData kafkaConfigData) {
+        this.orderMessagingDataMapper = orderMessagingDataMapper;
+        this.orderServiceConfigData = orderServiceConfigData;
+        this.kafkaAvroSerializer = new KafkaAvroSerializer();
+        this.kafkaAvroSerializer.configure(Map.of(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl()),
+                false);
+    }
+
+    @Override
+    public byte[] encode(UUID sagaId, OrderPaymentEventPayload orderPaymentEventPayload) {
+        PaymentRequestAvroModel paymentRequestAvroModel = orderMessagingDataMapper
+                .orderPaymentEventToPaymentRequestAvroModel(sagaId.toString(), orderPaymentEventPayload);
+
+        return kafkaAvroSerializer.serialize(orderServiceConfigData.getPaymentRequestTopicName(), paymentRequestAvroModel);
+    }
+
+    @PreDestroy
+    public void close() {
+        kafkaAvroSerializer.close();
+    }
+}
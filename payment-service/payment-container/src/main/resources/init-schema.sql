@@ -46,6 +46,18 @@ CREATE TABLE "payment".credit_history
     CONSTRAINT credit_history_pkey PRIMARY KEY (id)
 );
 
+-- running totals of credit_history per customer. Payments validate with this row(locked with FOR UPDATE) instead of summing the history.
+DROP TABLE IF EXISTS "payment".credit_balance CASCADE;
+
+CREATE TABLE "payment".credit_balance
+(
+    customer_id uuid NOT NULL,
+    total_credit_amount numeric(10,2) NOT NULL,
+    total_debit_amount numeric(10,2) NOT NULL,
+    last_credit_history_id uuid,
+    CONSTRAINT credit_balance_pkey PRIMARY KEY (customer_id)
+);
+
 -- To be sure it is created, we drop and recreate it.
 DROP TYPE IF EXISTS outbox_status;
 CREATE TYPE outbox_status AS ENUM ('STARTED', 'COMPLETED', 'FAILED');
@@ -63,6 +75,7 @@ CREATE TABLE "payment".order_outbox
     outbox_status outbox_status NOT NULL,
     payment_status payment_status NOT NULL,
     version integer NOT NULL,
+    saga_timeline character varying COLLATE pg_catalog."default", -- encoded saga timeline(SagaTimeline) of the request
     CONSTRAINT order_outbox_pkey PRIMARY KEY (id)
 );
 
@@ -72,4 +85,30 @@ CREATE INDEX "payment_order_outbox_saga_status"
 
 CREATE UNIQUE INDEX "payment_order_outbox_saga_id_payment_status_outbox_status"
     ON "payment".order_outbox
-        (type, saga_id, payment_status, outbox_status);
\ No newline at end of file
+        (type, saga_id, payment_status, outbox_status);
+
+-- the outbox backlog metrics(see OutboxBacklogMetrics) only count the STARTED rows, this keeps the count small however big the
+-- completed part of the table grows.
+CREATE INDEX "payment_order_outbox_started_created_at"
+    ON "payment".order_outbox
+        (created_at) WHERE outbox_status = 'STARTED';
+
+-- Wakes up the outbox schedulers of the service(see OutboxNotificationListener) right after an outbox message is committed. The channel
+-- must match outbox-relay.notify-channel and the payload is the table name that the schedulers return from getOutboxTableName().
+DROP function IF EXISTS "payment".notify_outbox_inserted;
+
+CREATE OR replace function "payment".notify_outbox_inserted()
+    returns trigger
+AS '
+    BEGIN
+        PERFORM pg_notify(''payment_outbox_inserted'', TG_TABLE_NAME);
+        return null;
+    END;
+'  LANGUAGE plpgsql;
+
+DROP trigger IF EXISTS notify_order_outbox_inserted ON "payment".order_outbox;
+
+CREATE trigger notify_order_outbox_inserted
+    after INSERT
+    ON "payment".order_outbox FOR each statement
+EXECUTE PROCEDURE "payment".notify_outbox_inserted();
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.food.ordering.system.payment.service.dataaccess.creditbalance.adapter;
+
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.payment.service.dataaccess.creditbalance.entity.CreditBalanceEntity;
+import com.food.ordering.system.payment.service.dataaccess.creditbalance.mapper.CreditBalanceDataAccessMapper;
+import com.food.ordering.system.payment.service.dataaccess.creditbalance.repository.CreditBalanceJpaRepository;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
+import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditBalanceRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+@Component
+public class CreditBalanceRepositoryImpl implements CreditBalanceRepository {
+
+    private final CreditBalanceJpaRepository creditBalanceJpaRepository;
+    private final CreditBalanceDataAccessMapper creditBalanceDataAccessMapper;
+
+    public CreditBalanceRepositoryImpl(CreditBalanceJpaRepository creditBalanceJpaRepository,
+                                       CreditBalanceDataAccessMapper creditBalanceDataAccessMapper) {
+        this.creditBalanceJpaRepository = creditBalanceJpaRepository;
+        this.creditBalanceDataAccessMapper = creditBalanceDataAccessMapper;
+    }
+
+    @Override
+    public CreditBalance save(CreditBalance creditBalance) {
+        return creditBalanceDataAccessMapper.creditBalanceEntityToCreditBalance(creditBalanceJpaRepository
+                .save(creditBalanceDataAccessMapper.creditBalanceToCreditBalanceEntity(creditBalance)));
+    }
+
+    @Override
+    public Optional<CreditBalance> findByCustomerIdForUpdate(CustomerId customerId) {
+        return creditBalanceJpaRepository.findByCustomerIdForUpdate(customerId.getValue())
+                .map(creditBalanceDataAccessMapper::creditBalanceEntityToCreditBalance);
+    }
+
+    @Override
+    public List<CreditBalance> findByCustomerIdsForUpdate(List<CustomerId> customerIds) {
+        return creditBalanceJpaRepository.findByCustomerIdInForUpdate(customerIds.stream().map(CustomerId::getValue).toList())
+                .stream()
+                .map(creditBalanceDataAccessMapper::creditBalanceEntityToCreditBalance)
+                .toList();
+    }
+
+    @Override
+    public void insertIfAbsent(CreditBalance creditBalance) {
+        CreditBalanceEntity creditBalanceEntity = creditBalanceDataAccessMapper.creditBalanceToCreditBalanceEntity(creditBalance);
+        creditBalanceJpaRepository.insertIfAbsent(creditBalanceEntity.getCustomerId(),
+                creditBalanceEntity.getTotalCreditAmount(),
+                creditBalanceEntity.getTotalDebitAmount(),
+                creditBalanceEntity.getLastCreditHistoryId());
+    }
+
+    @Override
+    public List<CustomerId> findAllCustomerIds() {
+        return creditBalanceJpaRepository.findAllCustomerIds().stream()
+                .map(CustomerId::new)
+                .toList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.food.ordering.system.payment.service.dataaccess.creditbalance.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "credit_balance")
+@Entity
+public class CreditBalanceEntity {
+
+    @Id
+    private UUID customerId;
+    private BigDecimal totalCreditAmount;
+    private BigDecimal totalDebitAmount;
+    private UUID lastCreditHistoryId;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CreditBalanceEntity that = (CreditBalanceEntity) o;
+        return customerId.equals(that.customerId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(customerId);
+    }
+}
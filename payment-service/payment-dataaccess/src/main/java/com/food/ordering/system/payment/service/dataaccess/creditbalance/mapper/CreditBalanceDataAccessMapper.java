@@ -0,0 +1,32 @@
+package com.food.ordering.system.payment.service.dataaccess.creditbalance.mapper;
+
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.Money;
+import com.food.ordering.system.payment.service.dataaccess.creditbalance.entity.CreditBalanceEntity;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
+import com.food.ordering.system.payment.service.domain.valueobject.CreditHistoryId;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CreditBalanceDataAccessMapper {
+
+    public CreditBalance creditBalanceEntityToCreditBalance(CreditBalanceEntity creditBalanceEntity) {
+        return CreditBalance.builder()
+                .customerId(new CustomerId(creditBalanceEntity.getCustomerId()))
+                .totalCreditAmount(new Money(creditBalanceEntity.getTotalCreditAmount()))
+                .totalDebitAmount(new Money(creditBalanceEntity.getTotalDebitAmount()))
+                .lastCreditHistoryId(creditBalanceEntity.getLastCreditHistoryId() == null ? null :
+                        new CreditHistoryId(creditBalanceEntity.getLastCreditHistoryId()))
+                .build();
+    }
+
+    public CreditBalanceEntity creditBalanceToCreditBalanceEntity(CreditBalance creditBalance) {
+        return CreditBalanceEntity.builder()
+                .customerId(creditBalance.getCustomerId().getValue())
+                .totalCreditAmount(creditBalance.getTotalCreditAmount().getAmount())
+                .totalDebitAmount(creditBalance.getTotalDebitAmount().getAmount())
+                .lastCreditHistoryId(creditBalance.getLastCreditHistoryId() == null ? null :
+                        creditBalance.getLastCreditHistoryId().getValue())
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.food.ordering.system.payment.service.dataaccess.creditbalance.repository;
+
+import com.food.ordering.system.payment.service.dataaccess.creditbalance.entity.CreditBalanceEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CreditBalanceJpaRepository extends JpaRepository<CreditBalanceEntity, UUID> {
+
+    // SELECT ... FOR UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CreditBalanceEntity c WHERE c.customerId = :customerId")
+    Optional<CreditBalanceEntity> findByCustomerIdForUpdate(@Param("customerId") UUID customerId);
+
+    /* Locks the rows in customer id order. So two txs that lock the snapshots of the same customers always lock them in the same
+    order and can't deadlock. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CreditBalanceEntity c WHERE c.customerId IN :customerIds ORDER BY c.customerId")
+    List<CreditBalanceEntity> findByCustomerIdInForUpdate(@Param("customerIds") List<UUID> customerIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO credit_balance(customer_id, total_credit_amount, total_debit_amount, last_credit_history_id) " +
+            "VALUES (:customerId, :totalCreditAmount, :totalDebitAmount, :lastCreditHistoryId) " +
+            "ON CONFLICT (customer_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("customerId") UUID customerId,
+                       @Param("totalCreditAmount") BigDecimal totalCreditAmount,
+                       @Param("totalDebitAmount") BigDecimal totalDebitAmount,
+                       @Param("lastCreditHistoryId") UUID lastCreditHistoryId);
+
+    @Query("SELECT c.customerId FROM CreditBalanceEntity c")
+    List<UUID> findAllCustomerIds();
+}
@@ -7,6 +7,7 @@ import com.food.ordering.system.payment.service.domain.entity.CreditEntry;
 import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditEntryRepository;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Optional;
 
 @Component
@@ -34,4 +35,13 @@ public class CreditEntryRepositoryImpl implements CreditEntryRepository {
                 .findByCustomerId(customerId.getValue())
                 .map(creditEntryDataAccessMapper::creditEntryEntityToCreditEntry);
     }
+
+    @Override
+    public List<CreditEntry> findByCustomerIds(List<CustomerId> customerIds) {
+        return creditEntryJpaRepository
+                .findByCustomerIdIn(customerIds.stream().map(CustomerId::getValue).toList())
+                .stream()
+                .map(creditEntryDataAccessMapper::creditEntryEntityToCreditEntry)
+                .toList();
+    }
 }
\ No newline at end of file
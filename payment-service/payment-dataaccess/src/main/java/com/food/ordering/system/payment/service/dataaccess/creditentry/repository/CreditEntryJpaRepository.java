@@ -4,6 +4,7 @@ import com.food.ordering.system.payment.service.dataaccess.creditentry.entity.Cr
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,5 +13,7 @@ public interface CreditEntryJpaRepository extends JpaRepository<CreditEntryEntit
 
     Optional<CreditEntryEntity> findByCustomerId(UUID customerId);
 
+    List<CreditEntryEntity> findByCustomerIdIn(List<UUID> customerIds);
+
 
 }
\ No newline at end of file
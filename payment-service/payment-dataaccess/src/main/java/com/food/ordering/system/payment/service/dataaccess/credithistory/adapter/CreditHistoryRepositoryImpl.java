@@ -1,15 +1,17 @@
 package com.food.ordering.system.payment.service.dataaccess.credithistory.adapter;
 
 import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.Money;
 import com.food.ordering.system.payment.service.dataaccess.credithistory.entity.CreditHistoryEntity;
+import com.food.ordering.system.payment.service.dataaccess.credithistory.entity.CreditHistoryTotalAmount;
 import com.food.ordering.system.payment.service.dataaccess.credithistory.mapper.CreditHistoryDataAccessMapper;
 import com.food.ordering.system.payment.service.dataaccess.credithistory.repository.CreditHistoryJpaRepository;
 import com.food.ordering.system.payment.service.domain.entity.CreditHistory;
 import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditHistoryRepository;
+import com.food.ordering.system.payment.service.domain.valueobject.TransactionType;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
@@ -31,13 +33,18 @@ public class CreditHistoryRepositoryImpl implements CreditHistoryRepository {
     }
 
     @Override
-    public Optional<List<CreditHistory>> findByCustomerId(CustomerId customerId) {
-        Optional<List<CreditHistoryEntity>> creditHistory =
-                creditHistoryJpaRepository.findByCustomerId(customerId.getValue());
-        return creditHistory
-                .map(creditHistoryList ->
-                        creditHistoryList.stream()
-                                .map(creditHistoryDataAccessMapper::creditHistoryEntityToCreditHistory)
-                                .collect(Collectors.toList()));
+    public void insert(CreditHistory creditHistory) {
+        CreditHistoryEntity creditHistoryEntity = creditHistoryDataAccessMapper.creditHistoryToCreditHistoryEntity(creditHistory);
+        creditHistoryJpaRepository.insert(creditHistoryEntity.getId(),
+                creditHistoryEntity.getCustomerId(),
+                creditHistoryEntity.getAmount(),
+                creditHistoryEntity.getType().name());
     }
-}
\ No newline at end of file
+
+    @Override
+    public Map<TransactionType, Money> getTotalAmountsByTransactionType(CustomerId customerId) {
+        return creditHistoryJpaRepository.getTotalAmountsByType(customerId.getValue()).stream()
+                .collect(Collectors.toMap(CreditHistoryTotalAmount::getType,
+                        creditHistoryTotalAmount -> new Money(creditHistoryTotalAmount.getTotalAmount())));
+    }
+}
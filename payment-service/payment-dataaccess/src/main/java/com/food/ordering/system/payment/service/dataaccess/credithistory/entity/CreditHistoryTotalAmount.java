@@ -0,0 +1,11 @@
+package com.food.ordering.system.payment.service.dataaccess.credithistory.entity;
+
+import com.food.ordering.system.payment.service.domain.valueobject.TransactionType;
+
+import java.math.BigDecimal;
+
+// projection of the SUM(amount) ... GROUP BY type query, one row per transaction type.
+public interface CreditHistoryTotalAmount {
+    TransactionType getType();
+    BigDecimal getTotalAmount();
+}
@@ -1,14 +1,30 @@
 package com.food.ordering.system.payment.service.dataaccess.credithistory.repository;
 
 import com.food.ordering.system.payment.service.dataaccess.credithistory.entity.CreditHistoryEntity;
+import com.food.ordering.system.payment.service.dataaccess.credithistory.entity.CreditHistoryTotalAmount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface CreditHistoryJpaRepository extends JpaRepository<CreditHistoryEntity, UUID> {
-    Optional<List<CreditHistoryEntity>> findByCustomerId(UUID customerId);
-}
\ No newline at end of file
+    @Query("SELECT c.type AS type, SUM(c.amount) AS totalAmount FROM CreditHistoryEntity c " +
+            "WHERE c.customerId = :customerId GROUP BY c.type")
+    List<CreditHistoryTotalAmount> getTotalAmountsByType(@Param("customerId") UUID customerId);
+
+    /* save() of an entity with an assigned id is a merge, which SELECTs the row first to find out whether it's new. A credit history
+    entry is never updated, so we insert it directly. */
+    @Modifying
+    @Query(value = "INSERT INTO credit_history(id, customer_id, amount, type) VALUES (:id, :customerId, :amount, :type)",
+            nativeQuery = true)
+    int insert(@Param("id") UUID id,
+               @Param("customerId") UUID customerId,
+               @Param("amount") BigDecimal amount,
+               @Param("type") String type);
+}
@@ -54,6 +54,20 @@ public class OrderOutboxRepositoryImpl implements OrderOutboxRepository {
                 .map(orderOutboxDataAccessMapper::orderOutboxEntityToOrderOutboxMessage);
     }
 
+    @Override
+    public List<OrderOutboxMessage> findByTypeAndSagaIdsAndOutboxStatus(String sagaType,
+                                                                        List<UUID> sagaIds,
+                                                                        OutboxStatus outboxStatus) {
+        return orderOutboxJpaRepository.findByTypeAndSagaIdInAndOutboxStatus(sagaType, sagaIds, outboxStatus).stream()
+                .map(orderOutboxDataAccessMapper::orderOutboxEntityToOrderOutboxMessage)
+                .toList();
+    }
+
+    @Override
+    public int updateOutboxStatusByIdsAndVersion(OutboxStatus outboxStatus, int version, List<UUID> ids) {
+        return orderOutboxJpaRepository.updateOutboxStatusByIdInAndVersion(outboxStatus, ids, version);
+    }
+
     @Override
     public void deleteByTypeAndOutboxStatus(String sagaType, OutboxStatus outboxStatus) {
         orderOutboxJpaRepository.deleteByTypeAndOutboxStatus(sagaType, outboxStatus);
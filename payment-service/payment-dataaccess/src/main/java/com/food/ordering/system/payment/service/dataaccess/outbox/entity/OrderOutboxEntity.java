@@ -31,6 +31,7 @@ public class OrderOutboxEntity {
     private PaymentStatus paymentStatus;
     @Version
     private int version;
+    private String sagaTimeline;
 
 
     @Override
@@ -17,6 +17,7 @@ public class OrderOutboxDataAccessMapper {
                 .outboxStatus(orderOutboxMessage.getOutboxStatus())
                 .paymentStatus(orderOutboxMessage.getPaymentStatus())
                 .version(orderOutboxMessage.getVersion())
+                .sagaTimeline(orderOutboxMessage.getSagaTimeline())
                 .build();
     }
 
@@ -30,6 +31,7 @@ public class OrderOutboxDataAccessMapper {
                 .outboxStatus(paymentOutboxEntity.getOutboxStatus())
                 .paymentStatus(paymentOutboxEntity.getPaymentStatus())
                 .version(paymentOutboxEntity.getVersion())
+                .sagaTimeline(paymentOutboxEntity.getSagaTimeline())
                 .build();
     }
 
@@ -4,6 +4,9 @@ import com.food.ordering.system.domain.valueobject.PaymentStatus;
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.payment.service.dataaccess.outbox.entity.OrderOutboxEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -20,6 +23,17 @@ public interface OrderOutboxJpaRepository extends JpaRepository<OrderOutboxEntit
                                                                                    PaymentStatus paymentStatus,
                                                                                    OutboxStatus outboxStatus);
 
+    List<OrderOutboxEntity> findByTypeAndSagaIdInAndOutboxStatus(String type, List<UUID> sagaIds, OutboxStatus outboxStatus);
+
+    /* Bulk update of the outbox statuses collected from the kafka callbacks. A bulk update doesn't go through the @Version check of
+    JPA, so we check and increment the version ourselves. The rows that are updated by another tx in the meantime are not updated. */
+    @Modifying
+    @Query("UPDATE OrderOutboxEntity o SET o.outboxStatus = :outboxStatus, o.version = o.version + 1 " +
+            "WHERE o.id IN :ids AND o.version = :version")
+    int updateOutboxStatusByIdInAndVersion(@Param("outboxStatus") OutboxStatus outboxStatus,
+                                           @Param("ids") List<UUID> ids,
+                                           @Param("version") int version);
+
     void deleteByTypeAndOutboxStatus(String type, OutboxStatus outboxStatus);
 
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.food.ordering.system.payment.service.domain.entity.Payment;
 import com.food.ordering.system.payment.service.domain.ports.output.repository.PaymentRepository;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -32,4 +33,11 @@ public class PaymentRepositoryImpl implements PaymentRepository {
         return paymentJpaRepository.findByOrderId(orderId)
                 .map(paymentDataAccessMapper::paymentEntityToPayment);
     }
+
+    @Override
+    public List<Payment> findByOrderIds(List<UUID> orderIds) {
+        return paymentJpaRepository.findByOrderIdIn(orderIds).stream()
+                .map(paymentDataAccessMapper::paymentEntityToPayment)
+                .toList();
+    }
 }
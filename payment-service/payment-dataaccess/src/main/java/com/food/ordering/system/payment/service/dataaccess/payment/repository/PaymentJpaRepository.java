@@ -4,10 +4,12 @@ import com.food.ordering.system.payment.service.dataaccess.payment.entity.Paymen
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PaymentJpaRepository extends JpaRepository<PaymentEntity, UUID> {
     Optional<PaymentEntity> findByOrderId(UUID orderId);
+    List<PaymentEntity> findByOrderIdIn(List<UUID> orderIds);
 }
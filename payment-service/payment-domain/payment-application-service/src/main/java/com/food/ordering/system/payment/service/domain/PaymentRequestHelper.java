@@ -1,11 +1,13 @@
 package com.food.ordering.system.payment.service.domain;
 
 import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.PaymentOrderStatus;
 import com.food.ordering.system.domain.valueobject.PaymentStatus;
 import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.payment.service.domain.creditbalance.CreditBalanceHelper;
 import com.food.ordering.system.payment.service.domain.dto.PaymentRequest;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
 import com.food.ordering.system.payment.service.domain.entity.CreditEntry;
-import com.food.ordering.system.payment.service.domain.entity.CreditHistory;
 import com.food.ordering.system.payment.service.domain.entity.Payment;
 import com.food.ordering.system.payment.service.domain.event.PaymentEvent;
 import com.food.ordering.system.payment.service.domain.exception.PaymentApplicationServiceException;
@@ -18,16 +20,23 @@ import com.food.ordering.system.payment.service.domain.outbox.model.OrderOutboxM
 import com.food.ordering.system.payment.service.domain.outbox.scheduler.OrderOutboxHelper;
 import com.food.ordering.system.payment.service.domain.ports.output.message.publisher.PaymentResponseMessagePublisher;
 import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditEntryRepository;
-import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditHistoryRepository;
 import com.food.ordering.system.payment.service.domain.ports.output.repository.PaymentRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /* helper component to call the repository methods and then call the helper class to persist data on local DB. Then we will fire the
 domain events when the DB ops are persisted. */
@@ -38,7 +47,7 @@ public class PaymentRequestHelper {
     private final PaymentDataMapper paymentDataMapper;
     private final PaymentRepository paymentRepository;
     private final CreditEntryRepository creditEntryRepository;
-    private final CreditHistoryRepository creditHistoryRepository;
+    private final CreditBalanceHelper creditBalanceHelper;
 //    private final PaymentCompletedMessagePublisher paymentCompletedMessagePublisher;
 //    private final PaymentCancelledMessagePublisher paymentCancelledMessagePublisher;
 //    private final PaymentFailedMessagePublisher paymentFailedMessagePublisher;
@@ -49,7 +58,7 @@ public class PaymentRequestHelper {
                                 PaymentDataMapper paymentDataMapper,
                                 PaymentRepository paymentRepository,
                                 CreditEntryRepository creditEntryRepository,
-                                CreditHistoryRepository creditHistoryRepository,
+                                CreditBalanceHelper creditBalanceHelper,
 //                                PaymentCompletedMessagePublisher paymentCompletedMessagePublisher,
 //                                PaymentCancelledMessagePublisher paymentCancelledMessagePublisher,
 //                                PaymentFailedMessagePublisher paymentFailedMessagePublisher
@@ -60,7 +69,7 @@ public class PaymentRequestHelper {
         this.paymentDataMapper = paymentDataMapper;
         this.paymentRepository = paymentRepository;
         this.creditEntryRepository = creditEntryRepository;
-        this.creditHistoryRepository = creditHistoryRepository;
+        this.creditBalanceHelper = creditBalanceHelper;
 //        this.paymentCompletedMessagePublisher = paymentCompletedMessagePublisher;
 //        this.paymentCancelledMessagePublisher = paymentCancelledMessagePublisher;
 //        this.paymentFailedMessagePublisher = paymentFailedMessagePublisher;
@@ -84,21 +93,22 @@ public class PaymentRequestHelper {
         Payment payment = paymentDataMapper.paymentRequestToPayment(paymentRequest);
 
         CreditEntry creditEntry = getCreditEntry(payment.getCustomerId());
-        List<CreditHistory> creditHistories = getCreditHistory(payment.getCustomerId());
+        CreditBalance creditBalance = creditBalanceHelper.getCreditBalanceForUpdate(payment.getCustomerId());
         List<String> failureMessages = new ArrayList<>();
 //        PaymentEvent paymentEvent = paymentDomainService.validateAndInitiatePayment(payment, creditEntry, creditHistories,
 //                failureMessages, paymentCompletedMessagePublisher, paymentFailedMessagePublisher);
 
-        PaymentEvent paymentEvent = paymentDomainService.validateAndInitiatePayment(payment, creditEntry, creditHistories, failureMessages);
+        PaymentEvent paymentEvent = paymentDomainService.validateAndInitiatePayment(payment, creditEntry, creditBalance, failureMessages);
 
-        persistDbObjects(payment, creditEntry, creditHistories, failureMessages);
+        persistDbObjects(payment, creditEntry, creditBalance, failureMessages);
 
         // OrderOutboxScheduler will process this message later
         orderOutboxHelper.saveOrderOutboxMessage(
                 paymentDataMapper.paymentEventToOrderEventPayload(paymentEvent),
                 paymentEvent.getPayment().getPaymentStatus(),
                 OutboxStatus.STARTED,
-                UUID.fromString(paymentRequest.getSagaId())
+                UUID.fromString(paymentRequest.getSagaId()),
+                paymentRequest.getSagaTimeline()
         );
 
 //        return paymentEvent;
@@ -122,26 +132,86 @@ public class PaymentRequestHelper {
 
         Payment payment = paymentResponse.get();
         CreditEntry creditEntry = getCreditEntry(payment.getCustomerId());
-        List<CreditHistory> creditHistories = getCreditHistory(payment.getCustomerId());
+        CreditBalance creditBalance = creditBalanceHelper.getCreditBalanceForUpdate(payment.getCustomerId());
         List<String> failureMessages = new ArrayList<>();
 //        PaymentEvent paymentEvent = paymentDomainService.validateAndCancelPayment(payment, creditEntry, creditHistories, failureMessages,
 //                paymentCancelledMessagePublisher, paymentFailedMessagePublisher);
 
-        PaymentEvent paymentEvent = paymentDomainService.validateAndCancelPayment(payment, creditEntry, creditHistories, failureMessages);
+        PaymentEvent paymentEvent = paymentDomainService.validateAndCancelPayment(payment, creditEntry, creditBalance, failureMessages);
 
-        persistDbObjects(payment, creditEntry, creditHistories, failureMessages);
+        persistDbObjects(payment, creditEntry, creditBalance, failureMessages);
 
         // we got a new event, so we wanna INSERT it(do not update the previous outbox message that has the same saga id!!!)
         orderOutboxHelper.saveOrderOutboxMessage(
                 paymentDataMapper.paymentEventToOrderEventPayload(paymentEvent),
                 paymentEvent.getPayment().getPaymentStatus(),
                 OutboxStatus.STARTED,
-                UUID.fromString(paymentRequest.getSagaId())
+                UUID.fromString(paymentRequest.getSagaId()),
+                paymentRequest.getSagaTimeline()
         );
 
 //        return paymentEvent;
     }
 
+    /* Batch version of persistPayment() and persistCancelPayment() for the payment requests of one kafka poll, in a single tx. The
+    rows that the requests need(completed outbox messages, payments to cancel, credit entries and credit balances) are loaded with one
+    IN (...) query per table, instead of a few queries per request.
+
+    The requests are processed in their order. Each payment is validated on copies of the credit entry and credit balance of its
+    customer and only a successful payment replaces them with its copies. So a failed payment doesn't change the credit that the next
+    payment of the same customer sees, just like a failed payment in its own tx. The credit entries and credit balances that are
+    changed are saved once, at the end.
+
+    If anything fails, the whole tx is rolled back and the caller processes the requests one by one again. */
+    @Transactional
+    public void persistPayments(List<PaymentRequest> paymentRequests) {
+        Map<PaymentRequest, Payment> payments = getPayments(removeProcessedPaymentRequests(paymentRequests));
+        if (payments.isEmpty()) {
+            return;
+        }
+
+        List<CustomerId> customerIds = payments.values().stream()
+                .map(Payment::getCustomerId)
+                .distinct()
+                .toList();
+        Map<CustomerId, CreditEntry> creditEntries = getCreditEntries(customerIds);
+        Map<CustomerId, CreditBalance> creditBalances = creditBalanceHelper.getCreditBalancesForUpdate(customerIds);
+        Set<CustomerId> changedCustomerIds = new HashSet<>();
+
+        payments.forEach((paymentRequest, payment) -> {
+            CustomerId customerId = payment.getCustomerId();
+            CreditEntry creditEntry = copyOf(creditEntries.get(customerId));
+            CreditBalance creditBalance = creditBalances.get(customerId).copy();
+            List<String> failureMessages = new ArrayList<>();
+
+            PaymentEvent paymentEvent = paymentRequest.getPaymentOrderStatus() == PaymentOrderStatus.PENDING ?
+                    paymentDomainService.validateAndInitiatePayment(payment, creditEntry, creditBalance, failureMessages) :
+                    paymentDomainService.validateAndCancelPayment(payment, creditEntry, creditBalance, failureMessages);
+
+            paymentRepository.save(payment);
+            if (failureMessages.isEmpty()) {
+                creditEntries.put(customerId, creditEntry);
+                creditBalances.put(customerId, creditBalance);
+                changedCustomerIds.add(customerId);
+            }
+
+            orderOutboxHelper.saveOrderOutboxMessage(
+                    paymentDataMapper.paymentEventToOrderEventPayload(paymentEvent),
+                    paymentEvent.getPayment().getPaymentStatus(),
+                    OutboxStatus.STARTED,
+                    UUID.fromString(paymentRequest.getSagaId()),
+                    paymentRequest.getSagaTimeline()
+            );
+        });
+
+        changedCustomerIds.forEach(customerId -> {
+            creditEntryRepository.save(creditEntries.get(customerId));
+            creditBalanceHelper.saveCreditBalance(creditBalances.get(customerId));
+        });
+
+        log.info("{} payment requests are processed in one tx", payments.size());
+    }
+
     private CreditEntry getCreditEntry(CustomerId customerId) {
         Optional<CreditEntry> creditEntry = creditEntryRepository.findByCustomerId(customerId);
 
@@ -153,30 +223,114 @@ public class PaymentRequestHelper {
         return creditEntry.get();
     }
 
-    private List<CreditHistory> getCreditHistory(CustomerId customerId) {
-        Optional<List<CreditHistory>> creditHistories = creditHistoryRepository.findByCustomerId(customerId);
+    private Map<CustomerId, CreditEntry> getCreditEntries(List<CustomerId> customerIds) {
+        Map<CustomerId, CreditEntry> creditEntries = new HashMap<>();
+        creditEntryRepository.findByCustomerIds(customerIds)
+                .forEach(creditEntry -> creditEntries.put(creditEntry.getCustomerId(), creditEntry));
 
-        if (creditHistories.isEmpty()) {
-            log.error("Could not find credit history for customer: {}", customerId.getValue());
-            throw new PaymentApplicationServiceException("Could not find credit history for customer: " + customerId.getValue());
-        }
+        customerIds.stream()
+                .filter(customerId -> !creditEntries.containsKey(customerId))
+                .findFirst()
+                .ifPresent(customerId -> {
+                    log.error("Could not find credit entry for customer: {}", customerId.getValue());
+                    throw new PaymentApplicationServiceException("Could not find credit entry for customer: " + customerId.getValue());
+                });
+
+        return creditEntries;
+    }
 
-        return creditHistories.get();
+    private CreditEntry copyOf(CreditEntry creditEntry) {
+        return CreditEntry.builder()
+                .creditEntryId(creditEntry.getId())
+                .customerId(creditEntry.getCustomerId())
+                .totalCreditAmount(creditEntry.getTotalCreditAmount())
+                .build();
     }
 
-    private void persistDbObjects(Payment payment, CreditEntry creditEntry, List<CreditHistory> creditHistories, List<String> failureMessages) {
+    /* Returns the payment of each request, in the order of the requests. A new payment for a pending order and the saved payment for
+    a cancelled order. A cancel request whose payment can't be found is skipped, like the PaymentNotFoundException of
+    persistCancelPayment() which is a NO-OP for the listener. */
+    private Map<PaymentRequest, Payment> getPayments(List<PaymentRequest> paymentRequests) {
+        List<UUID> cancelledOrderIds = paymentRequests.stream()
+                .filter(paymentRequest -> paymentRequest.getPaymentOrderStatus() == PaymentOrderStatus.CANCELLED)
+                .map(paymentRequest -> UUID.fromString(paymentRequest.getOrderId()))
+                .toList();
+        Map<UUID, Payment> paymentsToCancel = cancelledOrderIds.isEmpty() ? Map.of() :
+                paymentRepository.findByOrderIds(cancelledOrderIds).stream()
+                        .collect(Collectors.toMap(payment -> payment.getOrderId().getValue(), payment -> payment,
+                                (payment, otherPayment) -> payment));
+
+        Map<PaymentRequest, Payment> payments = new LinkedHashMap<>();
+        paymentRequests.forEach(paymentRequest -> {
+            if (paymentRequest.getPaymentOrderStatus() == PaymentOrderStatus.PENDING) {
+                log.info("Received payment complete event for order id: {}", paymentRequest.getOrderId());
+                payments.put(paymentRequest, paymentDataMapper.paymentRequestToPayment(paymentRequest));
+            } else {
+                log.info("Received payment rollback event for order id: {}", paymentRequest.getOrderId());
+                Payment payment = paymentsToCancel.get(UUID.fromString(paymentRequest.getOrderId()));
+                if (payment == null) {
+                    log.error("Payment with order id: {} could not be found!", paymentRequest.getOrderId());
+                } else {
+                    payments.put(paymentRequest, payment);
+                }
+            }
+        });
+
+        return payments;
+    }
+
+    /* Batch version of publishIfOutboxMessageProcessedForPayment(). It also drops a request that is delivered again in the same
+    batch, which would otherwise be processed twice in this tx. */
+    private List<PaymentRequest> removeProcessedPaymentRequests(List<PaymentRequest> paymentRequests) {
+        Map<SagaPaymentStatus, OrderOutboxMessage> completedOrderOutboxMessages = new HashMap<>();
+        orderOutboxHelper.getCompletedOrderOutboxMessagesBySagaIds(paymentRequests.stream()
+                        .map(paymentRequest -> UUID.fromString(paymentRequest.getSagaId()))
+                        .distinct()
+                        .toList())
+                .forEach(orderOutboxMessage -> completedOrderOutboxMessages.put(new SagaPaymentStatus(
+                        orderOutboxMessage.getSagaId(), orderOutboxMessage.getPaymentStatus()), orderOutboxMessage));
+
+        Set<SagaPaymentStatus> receivedRequests = new HashSet<>();
+        List<PaymentRequest> newPaymentRequests = new ArrayList<>();
+        List<OrderOutboxMessage> processedOrderOutboxMessages = new ArrayList<>();
+        paymentRequests.forEach(paymentRequest -> {
+            SagaPaymentStatus sagaPaymentStatus = new SagaPaymentStatus(UUID.fromString(paymentRequest.getSagaId()),
+                    paymentRequest.getPaymentOrderStatus() == PaymentOrderStatus.PENDING ?
+                            PaymentStatus.COMPLETED : PaymentStatus.CANCELLED);
+
+            if (!receivedRequests.add(sagaPaymentStatus)) {
+                log.info("Payment request with saga id: {} is received more than once in the batch!", paymentRequest.getSagaId());
+            } else if (completedOrderOutboxMessages.containsKey(sagaPaymentStatus)) {
+                processedOrderOutboxMessages.add(completedOrderOutboxMessages.get(sagaPaymentStatus));
+                log.info("An outbox message with saga id: {} is already saved to database!", paymentRequest.getSagaId());
+            } else {
+                newPaymentRequests.add(paymentRequest);
+            }
+        });
+
+        publishAfterCommit(processedOrderOutboxMessages);
+
+        return newPaymentRequests;
+    }
+
+    private void persistDbObjects(Payment payment, CreditEntry creditEntry, CreditBalance creditBalance, List<String> failureMessages) {
         paymentRepository.save(payment);
 
         if (failureMessages.isEmpty()) {
             creditEntryRepository.save(creditEntry);
 
-            // save the last record which is added during the business logic in updateCreditHistory() of validateAndInitiatePayment() .
-            creditHistoryRepository.save(creditHistories.get(creditHistories.size() - 1));
+            /* save the credit history record which is added during the business logic in updateCreditHistory() of
+            validateAndInitiatePayment(), together with the new totals of the customer. */
+            creditBalanceHelper.saveCreditBalance(creditBalance);
         }
     }
 
     private boolean publishIfOutboxMessageProcessedForPayment(PaymentRequest paymentRequest,
                                                               PaymentStatus paymentStatus) {
+        /* This lookup is the only guard against a request that is delivered again after it's processed. A transactional order svc
+        producer doesn't prevent that(a rebalance or a failed offset commit redelivers the request to this consumer), and the unique
+        index of the order_outbox table includes outbox_status, so it doesn't stop a second STARTED row(and a second debit of the
+        customer's credit) once the first row is COMPLETED. */
         Optional<OrderOutboxMessage> orderOutboxMessage =
                 orderOutboxHelper.getCompletedOrderOutboxMessageBySagaIdAndPaymentStatus(
                         UUID.fromString(paymentRequest.getSagaId()),
@@ -184,11 +338,40 @@ public class PaymentRequestHelper {
                 );
 
         if (orderOutboxMessage.isPresent()) {
-            paymentResponseMessagePublisher.publish(orderOutboxMessage.get(), orderOutboxHelper::updateOutboxMessage);
+            publishAfterCommit(List.of(orderOutboxMessage.get()));
 
             return true;
         }
 
         return false;
     }
+
+    /* The responses of the requests that are already processed are published again only after the tx commits. If the batch tx rolls
+    back(e.g. a payment of another request fails to be saved), the caller processes the requests one by one and each of them would be
+    published once more from there. Without a tx, they are published right away. */
+    private void publishAfterCommit(List<OrderOutboxMessage> processedOrderOutboxMessages) {
+        if (processedOrderOutboxMessages.isEmpty()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(processedOrderOutboxMessages);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(processedOrderOutboxMessages);
+            }
+        });
+    }
+
+    private void publish(List<OrderOutboxMessage> processedOrderOutboxMessages) {
+        processedOrderOutboxMessages.forEach(orderOutboxMessage ->
+                paymentResponseMessagePublisher.publish(orderOutboxMessage, orderOutboxHelper::updateOutboxMessage));
+    }
+
+    private record SagaPaymentStatus(UUID sagaId, PaymentStatus paymentStatus) {
+    }
 }
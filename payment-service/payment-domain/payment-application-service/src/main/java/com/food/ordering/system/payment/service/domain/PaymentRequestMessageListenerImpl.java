@@ -12,6 +12,8 @@ import com.food.ordering.system.payment.service.domain.ports.input.message.liste
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 public class PaymentRequestMessageListenerImpl implements PaymentRequestMessageListener {
@@ -48,6 +50,11 @@ public class PaymentRequestMessageListenerImpl implements PaymentRequestMessageL
         paymentRequestHelper.persistCancelPayment(paymentRequest);
     }
 
+    @Override
+    public void processPaymentRequests(List<PaymentRequest> paymentRequests) {
+        paymentRequestHelper.persistPayments(paymentRequests);
+    }
+
 //    private void fireEvent(PaymentEvent paymentEvent) {
 //        log.info("Publishing payment event with payment id: {} and order id: {}",
 //                paymentEvent.getPayment().getId().getValue(),
@@ -0,0 +1,122 @@
+package com.food.ordering.system.payment.service.domain.creditbalance;
+
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.Money;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
+import com.food.ordering.system.payment.service.domain.exception.PaymentApplicationServiceException;
+import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditBalanceRepository;
+import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditHistoryRepository;
+import com.food.ordering.system.payment.service.domain.valueobject.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Component
+public class CreditBalanceHelper {
+    private final CreditBalanceRepository creditBalanceRepository;
+    private final CreditHistoryRepository creditHistoryRepository;
+
+    public CreditBalanceHelper(CreditBalanceRepository creditBalanceRepository,
+                               CreditHistoryRepository creditHistoryRepository) {
+        this.creditBalanceRepository = creditBalanceRepository;
+        this.creditHistoryRepository = creditHistoryRepository;
+    }
+
+    /* Returns the locked snapshot of the customer. Must be called in the tx of the payment, so the lock is held until the payment
+    and the snapshot are committed.
+
+    A customer that doesn't have a snapshot yet(e.g. created before the credit_balance table), gets one from the sums of the credit
+    history(calculated in the DB), only once. When two payments of such a customer arrive together, both try to insert the snapshot, the second insert is
+    ignored and both continue with the locked read.*/
+    @Transactional
+    public CreditBalance getCreditBalanceForUpdate(CustomerId customerId) {
+        Optional<CreditBalance> creditBalance = creditBalanceRepository.findByCustomerIdForUpdate(customerId);
+        if (creditBalance.isPresent()) {
+            return creditBalance.get();
+        }
+
+        log.info("Creating credit balance of customer: {} from credit history", customerId.getValue());
+        creditBalanceRepository.insertIfAbsent(calculateCreditBalance(customerId));
+
+        return creditBalanceRepository.findByCustomerIdForUpdate(customerId).orElseThrow(() ->
+                new PaymentApplicationServiceException("Could not create credit balance for customer: " + customerId.getValue()));
+    }
+
+    /* Batch version of getCreditBalanceForUpdate() for the customers of the payments of a kafka poll. The existing snapshots are
+    locked with one query, the missing ones are created and locked after that. */
+    @Transactional
+    public Map<CustomerId, CreditBalance> getCreditBalancesForUpdate(List<CustomerId> customerIds) {
+        Map<CustomerId, CreditBalance> creditBalances = new HashMap<>();
+        creditBalanceRepository.findByCustomerIdsForUpdate(customerIds)
+                .forEach(creditBalance -> creditBalances.put(creditBalance.getCustomerId(), creditBalance));
+
+        List<CustomerId> missingCustomerIds = customerIds.stream()
+                .filter(customerId -> !creditBalances.containsKey(customerId))
+                .toList();
+        if (missingCustomerIds.isEmpty()) {
+            return creditBalances;
+        }
+
+        missingCustomerIds.forEach(customerId -> {
+            log.info("Creating credit balance of customer: {} from credit history", customerId.getValue());
+            creditBalanceRepository.insertIfAbsent(calculateCreditBalance(customerId));
+        });
+        creditBalanceRepository.findByCustomerIdsForUpdate(missingCustomerIds)
+                .forEach(creditBalance -> creditBalances.put(creditBalance.getCustomerId(), creditBalance));
+
+        return creditBalances;
+    }
+
+    // persists the snapshot with the new credit history entries that are added to its totals.
+    @Transactional
+    public void saveCreditBalance(CreditBalance creditBalance) {
+        creditBalance.getNewCreditHistories().forEach(creditHistoryRepository::insert);
+        creditBalanceRepository.save(creditBalance);
+    }
+
+    /* Compares the snapshot with the sum of the whole credit history, which is the source of truth. The snapshot is locked first, so
+    no payment of the customer can change the history during the comparison. */
+    @Transactional
+    public void reconcileCreditBalance(CustomerId customerId) {
+        Optional<CreditBalance> creditBalance = creditBalanceRepository.findByCustomerIdForUpdate(customerId);
+        if (creditBalance.isEmpty()) {
+            return;
+        }
+
+        CreditBalance calculatedCreditBalance = calculateCreditBalance(customerId);
+        if (!creditBalance.get().hasSameTotalsAs(calculatedCreditBalance)) {
+            log.error("Credit balance of customer: {} is not equal to its credit history! Credit balance credit: {} debit: {}, " +
+                            "credit history credit: {} debit: {}. Credit balance is corrected.",
+                    customerId.getValue(),
+                    creditBalance.get().getTotalCreditAmount().getAmount(),
+                    creditBalance.get().getTotalDebitAmount().getAmount(),
+                    calculatedCreditBalance.getTotalCreditAmount().getAmount(),
+                    calculatedCreditBalance.getTotalDebitAmount().getAmount());
+
+            creditBalanceRepository.save(CreditBalance.builder()
+                    .customerId(customerId)
+                    .totalCreditAmount(calculatedCreditBalance.getTotalCreditAmount())
+                    .totalDebitAmount(calculatedCreditBalance.getTotalDebitAmount())
+                    .lastCreditHistoryId(creditBalance.get().getLastCreditHistoryId())
+                    .build());
+        }
+    }
+
+    /* the totals of the whole credit history of the customer, summed per transaction type in the DB(see
+    CreditHistoryRepository.getTotalAmountsByTransactionType()), without loading the credit history entries. */
+    private CreditBalance calculateCreditBalance(CustomerId customerId) {
+        Map<TransactionType, Money> totalAmounts = creditHistoryRepository.getTotalAmountsByTransactionType(customerId);
+
+        return CreditBalance.builder()
+                .customerId(customerId)
+                .totalCreditAmount(totalAmounts.getOrDefault(TransactionType.CREDIT, Money.ZERO))
+                .totalDebitAmount(totalAmounts.getOrDefault(TransactionType.DEBIT, Money.ZERO))
+                .build();
+    }
+}
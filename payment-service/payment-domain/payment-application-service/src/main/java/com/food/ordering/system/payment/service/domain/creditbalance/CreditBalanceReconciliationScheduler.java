@@ -0,0 +1,39 @@
+package com.food.ordering.system.payment.service.domain.creditbalance;
+
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditBalanceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/* Audit job of the credit balance snapshots. The payments only use the running totals, so the full credit history scan is done here,
+outside of the payment path, once a day. Each customer is reconciled in its own tx, so the job locks one snapshot at a time and a
+failing customer doesn't stop the others. */
+@Slf4j
+@Component
+public class CreditBalanceReconciliationScheduler {
+    private final CreditBalanceHelper creditBalanceHelper;
+    private final CreditBalanceRepository creditBalanceRepository;
+
+    public CreditBalanceReconciliationScheduler(CreditBalanceHelper creditBalanceHelper,
+                                                CreditBalanceRepository creditBalanceRepository) {
+        this.creditBalanceHelper = creditBalanceHelper;
+        this.creditBalanceRepository = creditBalanceRepository;
+    }
+
+    @Scheduled(cron = "${payment-service.credit-balance-reconciliation-cron}")
+    public void reconcileCreditBalances() {
+        List<CustomerId> customerIds = creditBalanceRepository.findAllCustomerIds();
+        log.info("Reconciling credit balances of {} customers with their credit history", customerIds.size());
+
+        customerIds.forEach(customerId -> {
+            try {
+                creditBalanceHelper.reconcileCreditBalance(customerId);
+            } catch (RuntimeException e) {
+                log.error("Could not reconcile credit balance of customer: {}", customerId.getValue(), e);
+            }
+        });
+    }
+}
@@ -19,6 +19,7 @@ public class PaymentRequest {
     private BigDecimal price;
     private Instant createdAt;
     private PaymentOrderStatus paymentOrderStatus;
+    private String sagaTimeline;
 
     public void setPaymentOrderStatus(PaymentOrderStatus paymentOrderStatus) {
         this.paymentOrderStatus = paymentOrderStatus;
@@ -22,6 +22,7 @@ public class OrderOutboxMessage {
     private PaymentStatus paymentStatus;
     private OutboxStatus outboxStatus;
     private int version; // to version the DB objects and use it for optimistic locking
+    private String sagaTimeline; // the encoded saga timeline of the request, the response carries it back to the order svc
 
     // We will update the outbox status of OrderOutboxMessage after getting a successful res from the message bus which is kafka.
     public void setOutboxStatus(OutboxStatus outboxStatus) {
@@ -1,12 +1,12 @@
 package com.food.ordering.system.payment.service.domain.outbox.scheduler;
 
+import com.food.ordering.system.outbox.OutboxCleaner;
 import com.food.ordering.system.outbox.OutboxScheduler;
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.payment.service.domain.outbox.model.OrderOutboxMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,16 +15,27 @@ import java.util.Optional;
 @Slf4j
 @Component
 public class OrderOutboxCleanerScheduler implements OutboxScheduler {
+    private static final String COMPLETED_CONDITION = "outbox_status = 'COMPLETED'";
+
     private final OrderOutboxHelper orderOutboxHelper;
+    private final Optional<OutboxCleaner> outboxCleaner;
 
-    public OrderOutboxCleanerScheduler(OrderOutboxHelper orderOutboxHelper) {
+    public OrderOutboxCleanerScheduler(OrderOutboxHelper orderOutboxHelper,
+                                       Optional<OutboxCleaner> outboxCleaner) {
         this.orderOutboxHelper = orderOutboxHelper;
+        this.outboxCleaner = outboxCleaner;
     }
 
     @Override
-    @Transactional
     @Scheduled(cron = "@midnight")
     public void processOutboxMessage() {
+        /* With outbox-cleanup.enabled, the completed rows are archived and deleted in chunks, each chunk in its own short tx. There
+        is no tx around this method, so no connection is held for the whole cleanup. */
+        if (outboxCleaner.isPresent()) {
+            outboxCleaner.get().clean(OrderOutboxScheduler.OUTBOX_TABLE_NAME, COMPLETED_CONDITION);
+            return;
+        }
+
         Optional<List<OrderOutboxMessage>> outboxMessagesResponse =
                 orderOutboxHelper.getOrderOutboxMessageByOutboxStatus(OutboxStatus.COMPLETED);
         if (outboxMessagesResponse.isPresent() && outboxMessagesResponse.get().size() > 0) {
@@ -2,6 +2,7 @@ package com.food.ordering.system.payment.service.domain.outbox.scheduler;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.food.ordering.system.domain.id.IdGenerators;
 import com.food.ordering.system.domain.valueobject.PaymentStatus;
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.payment.service.domain.exception.PaymentDomainException;
@@ -17,6 +18,7 @@ import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.food.ordering.system.domain.DomainConstants.UTC;
 import static com.food.ordering.system.saga.order.SagaConstants.ORDER_SAGA_NAME;
@@ -42,11 +44,36 @@ public class OrderOutboxHelper {
                 OutboxStatus.COMPLETED);
     }
 
+    @Transactional(readOnly = true)
+    public List<OrderOutboxMessage> getCompletedOrderOutboxMessagesBySagaIds(List<UUID> sagaIds) {
+        return orderOutboxRepository.findByTypeAndSagaIdsAndOutboxStatus(ORDER_SAGA_NAME, sagaIds, OutboxStatus.COMPLETED);
+    }
+
     @Transactional(readOnly = true)
     public Optional<List<OrderOutboxMessage>> getOrderOutboxMessageByOutboxStatus(OutboxStatus outboxStatus) {
         return orderOutboxRepository.findByTypeAndOutboxStatus(ORDER_SAGA_NAME, outboxStatus);
     }
 
+    /* Writes the outbox statuses that are collected from the kafka callbacks(see OutboxStatusBuffer) in a single tx, with one bulk
+    update per outbox status and version. If a message is updated by another tx in the meantime, its version doesn't match anymore
+    and its status is not updated. So it stays in STARTED state and will be published again. */
+    @Transactional
+    public void updateOutboxStatus(List<OrderOutboxMessage> orderOutboxMessages) {
+        orderOutboxMessages.stream()
+                .collect(Collectors.groupingBy(OrderOutboxMessage::getOutboxStatus,
+                        Collectors.groupingBy(OrderOutboxMessage::getVersion,
+                                Collectors.mapping(OrderOutboxMessage::getId, Collectors.toList()))))
+                .forEach((outboxStatus, idsByVersion) -> idsByVersion.forEach((version, ids) -> {
+                    int updatedCount = orderOutboxRepository.updateOutboxStatusByIdsAndVersion(outboxStatus, version, ids);
+                    if (updatedCount < ids.size()) {
+                        log.warn("{} of {} OrderOutboxMessage could not be updated with outbox status: {}, they are updated " +
+                                "by another tx!", ids.size() - updatedCount, ids.size(), outboxStatus.name());
+                    }
+                }));
+
+        log.info("{} OrderOutboxMessage are updated with their outbox status", orderOutboxMessages.size());
+    }
+
     @Transactional
     public void deleteOrderOutboxMessageByOutboxStatus(OutboxStatus outboxStatus) {
         orderOutboxRepository.deleteByTypeAndOutboxStatus(ORDER_SAGA_NAME, outboxStatus);
@@ -56,9 +83,10 @@ public class OrderOutboxHelper {
     public void saveOrderOutboxMessage(OrderEventPayload orderEventPayload,
                                        PaymentStatus paymentStatus,
                                        OutboxStatus outboxStatus,
-                                       UUID sagaId) {
+                                       UUID sagaId,
+                                       String sagaTimeline) {
         save(OrderOutboxMessage.builder()
-                .id(UUID.randomUUID())
+                .id(IdGenerators.newId())
                 .sagaId(sagaId)
                 .createdAt(orderEventPayload.getCreatedAt())
                 .processedAt(ZonedDateTime.now(ZoneId.of(UTC)))
@@ -66,6 +94,7 @@ public class OrderOutboxHelper {
                 .payload(createPayload(orderEventPayload))
                 .paymentStatus(paymentStatus)
                 .outboxStatus(outboxStatus)
+                .sagaTimeline(sagaTimeline)
                 .build());
     }
 
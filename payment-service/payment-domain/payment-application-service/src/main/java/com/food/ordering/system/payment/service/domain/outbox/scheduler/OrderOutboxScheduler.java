@@ -1,9 +1,12 @@
 package com.food.ordering.system.payment.service.domain.outbox.scheduler;
 
+import com.food.ordering.system.outbox.OutboxRunGuard;
 import com.food.ordering.system.outbox.OutboxScheduler;
 import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.outbox.OutboxStatusBuffer;
 import com.food.ordering.system.payment.service.domain.outbox.model.OrderOutboxMessage;
 import com.food.ordering.system.payment.service.domain.ports.output.message.publisher.PaymentResponseMessagePublisher;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -16,8 +19,13 @@ import java.util.stream.Collectors;
 @Slf4j
 @Component
 public class OrderOutboxScheduler implements OutboxScheduler {
+    public static final String OUTBOX_TABLE_NAME = "order_outbox";
+
     private final OrderOutboxHelper orderOutboxHelper;
     private final PaymentResponseMessagePublisher paymentResponseMessagePublisher;
+    private final OutboxStatusBuffer<OrderOutboxMessage> outboxStatusBuffer =
+            new OutboxStatusBuffer<>(OrderOutboxMessage::getId);
+    private final OutboxRunGuard outboxRunGuard = new OutboxRunGuard();
 
     public OrderOutboxScheduler(OrderOutboxHelper orderOutboxHelper,
                                 PaymentResponseMessagePublisher paymentResponseMessagePublisher) {
@@ -30,10 +38,17 @@ public class OrderOutboxScheduler implements OutboxScheduler {
     @Scheduled(fixedRateString = "${payment-service.outbox-scheduler-fixed-rate}",
             initialDelayString = "${payment-service.outbox-scheduler-initial-delay}")
     public void processOutboxMessage() {
+        // the scheduled run and the wake-ups of the outbox notification listener never run at the same time, see OutboxRunGuard.
+        outboxRunGuard.run(this::publishOutboxMessages);
+    }
+
+    private void publishOutboxMessages() {
         Optional<List<OrderOutboxMessage>> outboxMessagesResponse =
                 orderOutboxHelper.getOrderOutboxMessageByOutboxStatus(OutboxStatus.STARTED);
-        if (outboxMessagesResponse.isPresent() && outboxMessagesResponse.get().size() > 0) {
-            List<OrderOutboxMessage> outboxMessages = outboxMessagesResponse.get();
+        /* the rows that are published by an earlier run and still wait for their kafka callback or for the next flushOutboxStatus()
+        are STARTED too, they are not published again. */
+        List<OrderOutboxMessage> outboxMessages = outboxStatusBuffer.excludePending(outboxMessagesResponse.orElse(List.of()));
+        if (!outboxMessages.isEmpty()) {
 
             log.info("Received {} OrderOutboxMessage with ids {}, sending to kafka!", outboxMessages.size(),
                     outboxMessages
@@ -41,12 +56,39 @@ public class OrderOutboxScheduler implements OutboxScheduler {
                             .map(outboxMessage -> outboxMessage.getId().toString())
                             .collect(Collectors.joining(",")));
 
-            outboxMessages.forEach(orderOutboxMessage -> paymentResponseMessagePublisher.publish(
-                    orderOutboxMessage,
-                    orderOutboxHelper::updateOutboxMessage
-            ));
+            paymentResponseMessagePublisher.publishBatch(outboxMessages, this::bufferOutboxStatus);
 
             log.info("{} OrderOutboxMessage sent to message bus!", outboxMessages.size());
         }
     }
+
+    /* Writes the outbox statuses that are collected from the kafka callbacks with bulk updates. */
+    @Scheduled(fixedDelayString = "${outbox-relay.status-flush-interval-ms}")
+    public void flushOutboxStatus() {
+        List<OrderOutboxMessage> outboxMessages = outboxStatusBuffer.drain();
+        if (!outboxMessages.isEmpty()) {
+            try {
+                orderOutboxHelper.updateOutboxStatus(outboxMessages);
+            } finally {
+                outboxStatusBuffer.release(outboxMessages);
+            }
+        }
+    }
+
+    /* The scheduler is destroyed before the helper and the repositories it depends on, so the last statuses can still be written. */
+    @PreDestroy
+    public void flushOutboxStatusOnShutdown() {
+        flushOutboxStatus();
+    }
+
+    /* Called from the kafka callback. The status is written with the next flushOutboxStatus() together with the other acks. */
+    private void bufferOutboxStatus(OrderOutboxMessage orderOutboxMessage, OutboxStatus outboxStatus) {
+        orderOutboxMessage.setOutboxStatus(outboxStatus);
+        outboxStatusBuffer.add(orderOutboxMessage);
+    }
+
+    @Override
+    public String getOutboxTableName() {
+        return OUTBOX_TABLE_NAME;
+    }
 }
@@ -2,8 +2,13 @@ package com.food.ordering.system.payment.service.domain.ports.input.message.list
 
 import com.food.ordering.system.payment.service.domain.dto.PaymentRequest;
 
+import java.util.List;
+
 /* This is an input port and has an adapter implementation which is in the payment-application-service. */
 public interface PaymentRequestMessageListener {
     void completePayment(PaymentRequest paymentRequest);
     void cancelPayment(PaymentRequest paymentRequest);
+
+    // completes and cancels the payments of a batch of payment requests together, in one tx.
+    void processPaymentRequests(List<PaymentRequest> paymentRequests);
 }
@@ -3,9 +3,17 @@ package com.food.ordering.system.payment.service.domain.ports.output.message.pub
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.payment.service.domain.outbox.model.OrderOutboxMessage;
 
+import java.util.List;
 import java.util.function.BiConsumer;
 
 public interface PaymentResponseMessagePublisher {
     void publish(OrderOutboxMessage orderOutboxMessage,
                  BiConsumer<OrderOutboxMessage, OutboxStatus> outboxCallback);
+
+    /* Publishes a batch of outbox messages. By default every message is published on its own, the messaging adapter overrides this
+    to send the whole batch in one kafka tx when the kafka producer is transactional. */
+    default void publishBatch(List<OrderOutboxMessage> orderOutboxMessages,
+                              BiConsumer<OrderOutboxMessage, OutboxStatus> outboxCallback) {
+        orderOutboxMessages.forEach(orderOutboxMessage -> publish(orderOutboxMessage, outboxCallback));
+    }
 }
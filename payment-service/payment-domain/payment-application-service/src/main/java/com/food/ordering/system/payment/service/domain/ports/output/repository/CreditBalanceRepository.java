@@ -0,0 +1,23 @@
+package com.food.ordering.system.payment.service.domain.ports.output.repository;
+
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CreditBalanceRepository {
+    CreditBalance save(CreditBalance creditBalance);
+
+    /* Locks the snapshot row until the end of the tx. So the payments of the same customer update the running totals one after the
+    other and never overwrite each other's totals. */
+    Optional<CreditBalance> findByCustomerIdForUpdate(CustomerId customerId);
+
+    // locks the snapshots of the given customers that exist, in a fixed order.
+    List<CreditBalance> findByCustomerIdsForUpdate(List<CustomerId> customerIds);
+
+    // does nothing if another tx already created the snapshot of this customer.
+    void insertIfAbsent(CreditBalance creditBalance);
+
+    List<CustomerId> findAllCustomerIds();
+}
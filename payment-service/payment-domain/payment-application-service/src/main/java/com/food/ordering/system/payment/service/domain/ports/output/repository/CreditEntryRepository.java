@@ -3,9 +3,11 @@ package com.food.ordering.system.payment.service.domain.ports.output.repository;
 import com.food.ordering.system.domain.valueobject.CustomerId;
 import com.food.ordering.system.payment.service.domain.entity.CreditEntry;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CreditEntryRepository {
     CreditEntry save(CreditEntry creditEntry);
     Optional<CreditEntry> findByCustomerId(CustomerId customerId);
+    List<CreditEntry> findByCustomerIds(List<CustomerId> customerIds);
 }
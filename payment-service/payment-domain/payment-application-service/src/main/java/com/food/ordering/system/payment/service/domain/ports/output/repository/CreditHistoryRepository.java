@@ -1,12 +1,18 @@
 package com.food.ordering.system.payment.service.domain.ports.output.repository;
 
 import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.Money;
 import com.food.ordering.system.payment.service.domain.entity.CreditHistory;
+import com.food.ordering.system.payment.service.domain.valueobject.TransactionType;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 public interface CreditHistoryRepository {
     CreditHistory save(CreditHistory creditHistory);
-    Optional<List<CreditHistory>> findByCustomerId(CustomerId customerId);
+
+    // credit history is append-only, so a new entry is inserted without checking whether it already exists.
+    void insert(CreditHistory creditHistory);
+
+    // the sum of the amounts of the customer per transaction type. A type that the customer has no entry of, is not in the map.
+    Map<TransactionType, Money> getTotalAmountsByTransactionType(CustomerId customerId);
 }
@@ -17,5 +17,8 @@ public interface OrderOutboxRepository {
             PaymentStatus paymentStatus,
             OutboxStatus outboxStatus
     );
+    List<OrderOutboxMessage> findByTypeAndSagaIdsAndOutboxStatus(String type, List<UUID> sagaIds, OutboxStatus outboxStatus);
+    /* Updates the outbox status of the given messages if they still have the given version and returns the number of updated rows. */
+    int updateOutboxStatusByIdsAndVersion(OutboxStatus outboxStatus, int version, List<UUID> ids);
     void deleteByTypeAndOutboxStatus(String type, OutboxStatus status);
 }
@@ -2,10 +2,12 @@ package com.food.ordering.system.payment.service.domain.ports.output.repository;
 
 import com.food.ordering.system.payment.service.domain.entity.Payment;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface PaymentRepository {
     Payment save(Payment payment);
     Optional<Payment> findByOrderId(UUID orderId);
+    List<Payment> findByOrderIds(List<UUID> orderIds);
 }
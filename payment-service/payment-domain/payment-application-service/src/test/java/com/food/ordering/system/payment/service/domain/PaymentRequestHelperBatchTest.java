@@ -0,0 +1,182 @@
+package com.food.ordering.system.payment.service.domain;
+
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.Money;
+import com.food.ordering.system.domain.valueobject.PaymentOrderStatus;
+import com.food.ordering.system.domain.valueobject.PaymentStatus;
+import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.payment.service.domain.creditbalance.CreditBalanceHelper;
+import com.food.ordering.system.payment.service.domain.dto.PaymentRequest;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
+import com.food.ordering.system.payment.service.domain.entity.CreditEntry;
+import com.food.ordering.system.payment.service.domain.entity.Payment;
+import com.food.ordering.system.payment.service.domain.exception.PaymentApplicationServiceException;
+import com.food.ordering.system.payment.service.domain.mapper.PaymentDataMapper;
+import com.food.ordering.system.payment.service.domain.outbox.model.OrderOutboxMessage;
+import com.food.ordering.system.payment.service.domain.outbox.scheduler.OrderOutboxHelper;
+import com.food.ordering.system.payment.service.domain.ports.output.message.publisher.PaymentResponseMessagePublisher;
+import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditEntryRepository;
+import com.food.ordering.system.payment.service.domain.ports.output.repository.PaymentRepository;
+import com.food.ordering.system.payment.service.domain.valueobject.CreditEntryId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* persistPayments() with a mixed batch of payment requests: one that is already processed(its outbox message is COMPLETED), one
+that is paid and one whose customer doesn't have enough credit. The repositories and the outbox helper are mocks, the domain service
+is the real one. The batch runs with an active tx synchronization, like in the @Transactional method, and the test decides if the tx
+commits. */
+public class PaymentRequestHelperBatchTest {
+    private final UUID PROCESSED_SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07bf1");
+    private final UUID PAID_SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07bf2");
+    private final UUID FAILED_SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07bf3");
+    private final CustomerId CUSTOMER_ID = new CustomerId(UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb41"));
+    private final CustomerId POOR_CUSTOMER_ID = new CustomerId(UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb43"));
+
+    private PaymentRepository paymentRepository;
+    private CreditEntryRepository creditEntryRepository;
+    private CreditBalanceHelper creditBalanceHelper;
+    private OrderOutboxHelper orderOutboxHelper;
+    private PaymentResponseMessagePublisher paymentResponseMessagePublisher;
+    private PaymentRequestHelper paymentRequestHelper;
+    private OrderOutboxMessage processedOrderOutboxMessage;
+
+    @BeforeEach
+    void init() {
+        paymentRepository = mock(PaymentRepository.class);
+        creditEntryRepository = mock(CreditEntryRepository.class);
+        creditBalanceHelper = mock(CreditBalanceHelper.class);
+        orderOutboxHelper = mock(OrderOutboxHelper.class);
+        paymentResponseMessagePublisher = mock(PaymentResponseMessagePublisher.class);
+        paymentRequestHelper = new PaymentRequestHelper(new PaymentDomainServiceImpl(),
+                new PaymentDataMapper(),
+                paymentRepository,
+                creditEntryRepository,
+                creditBalanceHelper,
+                orderOutboxHelper,
+                paymentResponseMessagePublisher);
+
+        processedOrderOutboxMessage = OrderOutboxMessage.builder()
+                .id(UUID.randomUUID())
+                .sagaId(PROCESSED_SAGA_ID)
+                .paymentStatus(PaymentStatus.COMPLETED)
+                .outboxStatus(OutboxStatus.COMPLETED)
+                .build();
+        when(orderOutboxHelper.getCompletedOrderOutboxMessagesBySagaIds(anyList())).thenReturn(List.of(processedOrderOutboxMessage));
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clear() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void testOnlyNewRequestsArePersistedAndProcessedOneIsPublishedAfterCommit() {
+        when(creditEntryRepository.findByCustomerIds(anyList())).thenReturn(List.of(getCreditEntry(CUSTOMER_ID, "500.00"),
+                getCreditEntry(POOR_CUSTOMER_ID, "50.00")));
+        when(creditBalanceHelper.getCreditBalancesForUpdate(anyList())).thenReturn(new HashMap<>(Map.of(
+                CUSTOMER_ID, getCreditBalance(CUSTOMER_ID),
+                POOR_CUSTOMER_ID, getCreditBalance(POOR_CUSTOMER_ID))));
+
+        paymentRequestHelper.persistPayments(List.of(
+                getPaymentRequest(PROCESSED_SAGA_ID, CUSTOMER_ID),
+                getPaymentRequest(PAID_SAGA_ID, CUSTOMER_ID),
+                getPaymentRequest(FAILED_SAGA_ID, POOR_CUSTOMER_ID)));
+
+        // the already processed request is not persisted again, the failed payment is persisted without changing the credit.
+        ArgumentCaptor<Payment> savedPayments = ArgumentCaptor.forClass(Payment.class);
+        verify(paymentRepository, times(2)).save(savedPayments.capture());
+        assertEquals(List.of(PaymentStatus.COMPLETED, PaymentStatus.FAILED),
+                savedPayments.getAllValues().stream().map(Payment::getPaymentStatus).toList());
+        verify(orderOutboxHelper).saveOrderOutboxMessage(any(), eq(PaymentStatus.COMPLETED), eq(OutboxStatus.STARTED),
+                eq(PAID_SAGA_ID), any());
+        verify(orderOutboxHelper).saveOrderOutboxMessage(any(), eq(PaymentStatus.FAILED), eq(OutboxStatus.STARTED),
+                eq(FAILED_SAGA_ID), any());
+        verify(orderOutboxHelper, never()).saveOrderOutboxMessage(any(), any(), any(), eq(PROCESSED_SAGA_ID), any());
+
+        ArgumentCaptor<CreditEntry> savedCreditEntry = ArgumentCaptor.forClass(CreditEntry.class);
+        verify(creditEntryRepository).save(savedCreditEntry.capture());
+        assertEquals(CUSTOMER_ID, savedCreditEntry.getValue().getCustomerId());
+        assertEquals(new BigDecimal("400.00"), savedCreditEntry.getValue().getTotalCreditAmount().getAmount());
+        verify(creditBalanceHelper, times(1)).saveCreditBalance(any());
+
+        verify(paymentResponseMessagePublisher, never()).publish(any(), any());
+        commit();
+        verify(paymentResponseMessagePublisher).publish(eq(processedOrderOutboxMessage), any());
+    }
+
+    @Test
+    void testProcessedRequestIsNotPublishedWhenBatchIsRolledBack() {
+        // the credit entry of the customer is missing, so the whole batch fails and the caller processes the requests one by one.
+        when(creditEntryRepository.findByCustomerIds(anyList())).thenReturn(List.of());
+
+        assertThrows(PaymentApplicationServiceException.class, () -> paymentRequestHelper.persistPayments(List.of(
+                getPaymentRequest(PROCESSED_SAGA_ID, CUSTOMER_ID),
+                getPaymentRequest(PAID_SAGA_ID, CUSTOMER_ID))));
+
+        rollback();
+        verify(paymentRepository, never()).save(any());
+        verify(paymentResponseMessagePublisher, never()).publish(any(), any());
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private void rollback() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private PaymentRequest getPaymentRequest(UUID sagaId, CustomerId customerId) {
+        return PaymentRequest.builder()
+                .id(UUID.randomUUID().toString())
+                .sagaId(sagaId.toString())
+                .orderId(UUID.randomUUID().toString())
+                .customerId(customerId.getValue().toString())
+                .price(new BigDecimal("100.00"))
+                .paymentOrderStatus(PaymentOrderStatus.PENDING)
+                .build();
+    }
+
+    private CreditEntry getCreditEntry(CustomerId customerId, String totalCreditAmount) {
+        return CreditEntry.builder()
+                .creditEntryId(new CreditEntryId(UUID.randomUUID()))
+                .customerId(customerId)
+                .totalCreditAmount(new Money(new BigDecimal(totalCreditAmount)))
+                .build();
+    }
+
+    private CreditBalance getCreditBalance(CustomerId customerId) {
+        return CreditBalance.builder()
+                .customerId(customerId)
+                .totalCreditAmount(new Money(new BigDecimal("1000.00")))
+                .totalDebitAmount(new Money(BigDecimal.ZERO))
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.food.ordering.system.payment.service.domain.creditbalance;
+
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.Money;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
+import com.food.ordering.system.payment.service.domain.entity.CreditHistory;
+import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditBalanceRepository;
+import com.food.ordering.system.payment.service.domain.ports.output.repository.CreditHistoryRepository;
+import com.food.ordering.system.payment.service.domain.valueobject.CreditHistoryId;
+import com.food.ordering.system.payment.service.domain.valueobject.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* The credit balance snapshot against the credit history, which is the source of truth. The repositories are mocks, the sums of the
+credit history are what the DB would return for getTotalAmountsByTransactionType(). */
+public class CreditBalanceHelperTest {
+    private final CustomerId CUSTOMER_ID = new CustomerId(UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb41"));
+    private final CustomerId OTHER_CUSTOMER_ID = new CustomerId(UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb43"));
+    private final CreditHistoryId LAST_CREDIT_HISTORY_ID = new CreditHistoryId(UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb21"));
+
+    private CreditBalanceRepository creditBalanceRepository;
+    private CreditHistoryRepository creditHistoryRepository;
+    private CreditBalanceHelper creditBalanceHelper;
+
+    @BeforeEach
+    void init() {
+        creditBalanceRepository = mock(CreditBalanceRepository.class);
+        creditHistoryRepository = mock(CreditHistoryRepository.class);
+        creditBalanceHelper = new CreditBalanceHelper(creditBalanceRepository, creditHistoryRepository);
+    }
+
+    @Test
+    void testReconcileKeepsSnapshotThatMatchesHistory() {
+        // 0 that is summed in java is the same as 0.00 that is read from the DB.
+        when(creditBalanceRepository.findByCustomerIdForUpdate(CUSTOMER_ID))
+                .thenReturn(Optional.of(getCreditBalance(CUSTOMER_ID, "500.00", "0")));
+        when(creditHistoryRepository.getTotalAmountsByTransactionType(CUSTOMER_ID))
+                .thenReturn(Map.of(TransactionType.CREDIT, new Money(new BigDecimal("500"))));
+
+        creditBalanceHelper.reconcileCreditBalance(CUSTOMER_ID);
+
+        verify(creditBalanceRepository, never()).save(any());
+    }
+
+    @Test
+    void testReconcileCorrectsSnapshotFromHistory() {
+        when(creditBalanceRepository.findByCustomerIdForUpdate(CUSTOMER_ID))
+                .thenReturn(Optional.of(getCreditBalance(CUSTOMER_ID, "500.00", "100.00")));
+        when(creditHistoryRepository.getTotalAmountsByTransactionType(CUSTOMER_ID))
+                .thenReturn(Map.of(TransactionType.CREDIT, new Money(new BigDecimal("500.00")),
+                        TransactionType.DEBIT, new Money(new BigDecimal("150.00"))));
+
+        creditBalanceHelper.reconcileCreditBalance(CUSTOMER_ID);
+
+        ArgumentCaptor<CreditBalance> savedCreditBalance = ArgumentCaptor.forClass(CreditBalance.class);
+        verify(creditBalanceRepository).save(savedCreditBalance.capture());
+        assertEquals(CUSTOMER_ID, savedCreditBalance.getValue().getCustomerId());
+        assertEquals(new BigDecimal("500.00"), savedCreditBalance.getValue().getTotalCreditAmount().getAmount());
+        assertEquals(new BigDecimal("150.00"), savedCreditBalance.getValue().getTotalDebitAmount().getAmount());
+        assertEquals(LAST_CREDIT_HISTORY_ID, savedCreditBalance.getValue().getLastCreditHistoryId());
+    }
+
+    @Test
+    void testReconcileSkipsCustomerWithoutSnapshot() {
+        when(creditBalanceRepository.findByCustomerIdForUpdate(CUSTOMER_ID)).thenReturn(Optional.empty());
+
+        creditBalanceHelper.reconcileCreditBalance(CUSTOMER_ID);
+
+        verify(creditHistoryRepository, never()).getTotalAmountsByTransactionType(any());
+        verify(creditBalanceRepository, never()).save(any());
+    }
+
+    @Test
+    void testMissingSnapshotIsCreatedFromHistory() {
+        CreditBalance createdCreditBalance = getCreditBalance(CUSTOMER_ID, "500.00", "0.00");
+        when(creditBalanceRepository.findByCustomerIdForUpdate(CUSTOMER_ID))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(createdCreditBalance));
+        when(creditHistoryRepository.getTotalAmountsByTransactionType(CUSTOMER_ID))
+                .thenReturn(Map.of(TransactionType.CREDIT, new Money(new BigDecimal("500.00"))));
+
+        CreditBalance creditBalance = creditBalanceHelper.getCreditBalanceForUpdate(CUSTOMER_ID);
+
+        /* the snapshot is inserted with insertIfAbsent(), so a payment of the same customer that created it in the meantime wins and
+        both continue with the locked read. */
+        ArgumentCaptor<CreditBalance> insertedCreditBalance = ArgumentCaptor.forClass(CreditBalance.class);
+        verify(creditBalanceRepository).insertIfAbsent(insertedCreditBalance.capture());
+        assertEquals(new BigDecimal("500.00"), insertedCreditBalance.getValue().getTotalCreditAmount().getAmount());
+        assertEquals(BigDecimal.ZERO, insertedCreditBalance.getValue().getTotalDebitAmount().getAmount());
+        assertSame(createdCreditBalance, creditBalance);
+    }
+
+    @Test
+    void testOnlyMissingSnapshotsOfBatchAreCreated() {
+        CreditBalance existingCreditBalance = getCreditBalance(CUSTOMER_ID, "500.00", "100.00");
+        CreditBalance createdCreditBalance = getCreditBalance(OTHER_CUSTOMER_ID, "200.00", "0.00");
+        when(creditBalanceRepository.findByCustomerIdsForUpdate(List.of(CUSTOMER_ID, OTHER_CUSTOMER_ID)))
+                .thenReturn(List.of(existingCreditBalance));
+        when(creditBalanceRepository.findByCustomerIdsForUpdate(List.of(OTHER_CUSTOMER_ID)))
+                .thenReturn(List.of(createdCreditBalance));
+        when(creditHistoryRepository.getTotalAmountsByTransactionType(OTHER_CUSTOMER_ID))
+                .thenReturn(Map.of(TransactionType.CREDIT, new Money(new BigDecimal("200.00"))));
+
+        Map<CustomerId, CreditBalance> creditBalances =
+                creditBalanceHelper.getCreditBalancesForUpdate(List.of(CUSTOMER_ID, OTHER_CUSTOMER_ID));
+
+        verify(creditHistoryRepository, never()).getTotalAmountsByTransactionType(CUSTOMER_ID);
+        verify(creditBalanceRepository).insertIfAbsent(any());
+        assertSame(existingCreditBalance, creditBalances.get(CUSTOMER_ID));
+        assertSame(createdCreditBalance, creditBalances.get(OTHER_CUSTOMER_ID));
+    }
+
+    @Test
+    void testFailedPaymentOnCopyDoesNotChangeSnapshot() {
+        CreditBalance creditBalance = getCreditBalance(CUSTOMER_ID, "500.00", "100.00");
+        CreditBalance copy = creditBalance.copy();
+
+        copy.addCreditHistory(CreditHistory.builder()
+                .creditHistoryId(new CreditHistoryId(UUID.randomUUID()))
+                .customerId(CUSTOMER_ID)
+                .amount(new Money(new BigDecimal("50.00")))
+                .transactionType(TransactionType.DEBIT)
+                .build());
+
+        assertEquals(new BigDecimal("150.00"), copy.getTotalDebitAmount().getAmount());
+        assertEquals(1, copy.getNewCreditHistories().size());
+        assertEquals(new BigDecimal("100.00"), creditBalance.getTotalDebitAmount().getAmount());
+        assertTrue(creditBalance.getNewCreditHistories().isEmpty());
+        assertFalse(creditBalance.hasSameTotalsAs(copy));
+    }
+
+    private CreditBalance getCreditBalance(CustomerId customerId, String totalCreditAmount, String totalDebitAmount) {
+        return CreditBalance.builder()
+                .customerId(customerId)
+                .totalCreditAmount(new Money(new BigDecimal(totalCreditAmount)))
+                .totalDebitAmount(new Money(new BigDecimal(totalDebitAmount)))
+                .lastCreditHistoryId(LAST_CREDIT_HISTORY_ID)
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.food.ordering.system.payment.service.domain;
 
 import com.food.ordering.system.domain.event.publisher.DomainEventPublisher;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
 import com.food.ordering.system.payment.service.domain.entity.CreditEntry;
 import com.food.ordering.system.payment.service.domain.entity.CreditHistory;
 import com.food.ordering.system.payment.service.domain.entity.Payment;
@@ -14,14 +15,14 @@ import java.util.List;
 public interface PaymentDomainService {
     PaymentEvent validateAndInitiatePayment(Payment payment,
                                             CreditEntry creditEntry,
-                                            List<CreditHistory> creditHistories,
+                                            CreditBalance creditBalance,
                                             List<String> failureMessages
 //                                            DomainEventPublisher<PaymentCompletedEvent> paymentCompletedEventDomainEventPublisher,
 //                                            DomainEventPublisher<PaymentFailedEvent> paymentFailedEventDomainEventPublisher
     );
     PaymentEvent validateAndCancelPayment(Payment payment,
                                           CreditEntry creditEntry,
-                                          List<CreditHistory> creditHistories,
+                                          CreditBalance creditBalance,
                                           List<String> failureMessages
 //                                          DomainEventPublisher<PaymentCancelledEvent> paymentCancelledEventDomainEventPublisher,
 //                                          DomainEventPublisher<PaymentFailedEvent> paymentFailedEventDomainEventPublisher
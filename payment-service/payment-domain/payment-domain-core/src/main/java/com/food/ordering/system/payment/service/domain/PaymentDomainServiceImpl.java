@@ -1,8 +1,10 @@
 package com.food.ordering.system.payment.service.domain;
 
 import com.food.ordering.system.domain.event.publisher.DomainEventPublisher;
+import com.food.ordering.system.domain.id.IdGenerators;
 import com.food.ordering.system.domain.valueobject.Money;
 import com.food.ordering.system.domain.valueobject.PaymentStatus;
+import com.food.ordering.system.payment.service.domain.entity.CreditBalance;
 import com.food.ordering.system.payment.service.domain.entity.CreditEntry;
 import com.food.ordering.system.payment.service.domain.entity.CreditHistory;
 import com.food.ordering.system.payment.service.domain.entity.Payment;
@@ -17,7 +19,6 @@ import lombok.extern.slf4j.Slf4j;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static com.food.ordering.system.domain.DomainConstants.UTC;
@@ -27,7 +28,7 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
     @Override
     public PaymentEvent validateAndInitiatePayment(Payment payment,
                                                    CreditEntry creditEntry,
-                                                   List<CreditHistory> creditHistories,
+                                                   CreditBalance creditBalance,
                                                    List<String> failureMessages
 //                                                   DomainEventPublisher<PaymentCompletedEvent> paymentCompletedEventDomainEventPublisher,
 //                                                   DomainEventPublisher<PaymentFailedEvent> paymentFailedEventDomainEventPublisher
@@ -35,9 +36,9 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
         payment.validatePaymentMethod(failureMessages);
         payment.initializePayment();
         validateCreditEntry(payment, creditEntry, failureMessages);
-        updateCreditHistory(payment, creditHistories, TransactionType.DEBIT);
+        updateCreditHistory(payment, creditBalance, TransactionType.DEBIT);
         subtractCreditEntry(payment, creditEntry);
-        validateCreditHistory(creditEntry, creditHistories, failureMessages);
+        validateCreditHistory(creditEntry, creditBalance, failureMessages);
 
         if (failureMessages.isEmpty()) {
             log.info("Payment is initiated for order id: {}", payment.getOrderId().getValue());
@@ -58,7 +59,7 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
     @Override
     public PaymentEvent validateAndCancelPayment(Payment payment,
                                                  CreditEntry creditEntry,
-                                                 List<CreditHistory> creditHistories,
+                                                 CreditBalance creditBalance,
                                                  List<String> failureMessages
 //                                                 DomainEventPublisher<PaymentCancelledEvent> paymentCancelledEventDomainEventPublisher,
 //                                                 DomainEventPublisher<PaymentFailedEvent> paymentFailedEventDomainEventPublisher
@@ -67,7 +68,7 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
         addCreditEntry(payment, creditEntry);
 
         /* Use TransactionType.CREDIT because this will topup a credit record into the history. Because here the payment is getting cancelled. */
-        updateCreditHistory(payment, creditHistories, TransactionType.CREDIT);
+        updateCreditHistory(payment, creditBalance, TransactionType.CREDIT);
 
         if (failureMessages.isEmpty()) {
             log.info("Payment is cancelled for order id: {}", payment.getOrderId().getValue());
@@ -100,18 +101,21 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
         creditEntry.subtractCreditAmount(payment.getPrice());
     }
 
-    private void updateCreditHistory(Payment payment, List<CreditHistory> creditHistories, TransactionType transactionType) {
-        creditHistories.add(CreditHistory.builder()
-                .creditHistoryId(new CreditHistoryId(UUID.randomUUID()))
+    /* The new history entry is only added to the running totals here. The application service persists it, together with the
+    updated snapshot. */
+    private void updateCreditHistory(Payment payment, CreditBalance creditBalance, TransactionType transactionType) {
+        creditBalance.addCreditHistory(CreditHistory.builder()
+                .creditHistoryId(new CreditHistoryId(IdGenerators.newId()))
                 .customerId(payment.getCustomerId())
                 .amount(payment.getPrice())
                 .transactionType(transactionType)
                 .build());
     }
 
-    private void validateCreditHistory(CreditEntry creditEntry, List<CreditHistory> creditHistories, List<String> failureMessages) {
-        Money totalCreditHistory = getTotalHistoryAmount(creditHistories, TransactionType.CREDIT);
-        Money totalDebitHistory = getTotalHistoryAmount(creditHistories, TransactionType.DEBIT);
+    // uses the running totals of the snapshot, so the validation does the same work for a new and for a long-lived customer.
+    private void validateCreditHistory(CreditEntry creditEntry, CreditBalance creditBalance, List<String> failureMessages) {
+        Money totalCreditHistory = creditBalance.getTotalCreditAmount();
+        Money totalDebitHistory = creditBalance.getTotalDebitAmount();
 
         // checks if historical records of credits must be greater than the debit, if not we have an error
         if (totalDebitHistory.isGreaterThan(totalCreditHistory)) {
@@ -126,13 +130,6 @@ public class PaymentDomainServiceImpl implements PaymentDomainService {
         }
     }
 
-    private Money getTotalHistoryAmount(List<CreditHistory> creditHistories, TransactionType transactionType) {
-        return creditHistories.stream()
-                .filter(creditHistory -> transactionType == creditHistory.getTransactionType())
-                .map(CreditHistory::getAmount)
-                .reduce(Money.ZERO, Money::add);
-    }
-
     private void addCreditEntry(Payment payment, CreditEntry creditEntry) {
         creditEntry.addCreditAmount(payment.getPrice());
     }
@@ -0,0 +1,118 @@
+package com.food.ordering.system.payment.service.domain.entity;
+
+import com.food.ordering.system.domain.entity.BaseEntity;
+import com.food.ordering.system.domain.valueobject.CustomerId;
+import com.food.ordering.system.domain.valueobject.Money;
+import com.food.ordering.system.payment.service.domain.valueobject.CreditHistoryId;
+import com.food.ordering.system.payment.service.domain.valueobject.TransactionType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* Running totals of the credit history of a customer(one snapshot per customer, so the customer id is also the id of this entity).
+
+Instead of summing the whole credit history on each payment, the payment validation uses these totals. Every credit history that is
+added with addCreditHistory() updates the totals and is kept in newCreditHistories, so the application service can persist the new
+history entries together with the snapshot. lastCreditHistoryId is the id of the last history entry that is included in the totals. */
+public class CreditBalance extends BaseEntity<CustomerId> {
+    private Money totalCreditAmount;
+    private Money totalDebitAmount;
+    private CreditHistoryId lastCreditHistoryId;
+    private final List<CreditHistory> newCreditHistories = new ArrayList<>();
+
+    public void addCreditHistory(CreditHistory creditHistory) {
+        if (creditHistory.getTransactionType() == TransactionType.CREDIT) {
+            totalCreditAmount = totalCreditAmount.add(creditHistory.getAmount());
+        } else {
+            totalDebitAmount = totalDebitAmount.add(creditHistory.getAmount());
+        }
+
+        lastCreditHistoryId = creditHistory.getId();
+        newCreditHistories.add(creditHistory);
+    }
+
+    // compareTo() instead of equals(), so a total of 0 that is summed in java is the same as 0.00 that is read from the DB.
+    public boolean hasSameTotalsAs(CreditBalance creditBalance) {
+        return totalCreditAmount.getAmount().compareTo(creditBalance.getTotalCreditAmount().getAmount()) == 0 &&
+                totalDebitAmount.getAmount().compareTo(creditBalance.getTotalDebitAmount().getAmount()) == 0;
+    }
+
+    /* A copy with the same totals and new credit histories. The changes of the copy don't change this snapshot, so a payment can be
+    validated on a copy that is thrown away if the payment fails. */
+    public CreditBalance copy() {
+        CreditBalance creditBalance = CreditBalance.builder()
+                .customerId(getCustomerId())
+                .totalCreditAmount(totalCreditAmount)
+                .totalDebitAmount(totalDebitAmount)
+                .lastCreditHistoryId(lastCreditHistoryId)
+                .build();
+        creditBalance.newCreditHistories.addAll(newCreditHistories);
+
+        return creditBalance;
+    }
+
+    private CreditBalance(Builder builder) {
+        setId(builder.customerId);
+        totalCreditAmount = builder.totalCreditAmount;
+        totalDebitAmount = builder.totalDebitAmount;
+        lastCreditHistoryId = builder.lastCreditHistoryId;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public CustomerId getCustomerId() {
+        return getId();
+    }
+
+    public Money getTotalCreditAmount() {
+        return totalCreditAmount;
+    }
+
+    public Money getTotalDebitAmount() {
+        return totalDebitAmount;
+    }
+
+    public CreditHistoryId getLastCreditHistoryId() {
+        return lastCreditHistoryId;
+    }
+
+    public List<CreditHistory> getNewCreditHistories() {
+        return newCreditHistories;
+    }
+
+    public static final class Builder {
+        private CustomerId customerId;
+        private Money totalCreditAmount;
+        private Money totalDebitAmount;
+        private CreditHistoryId lastCreditHistoryId;
+
+        private Builder() {
+        }
+
+        public Builder customerId(CustomerId val) {
+            customerId = val;
+            return this;
+        }
+
+        public Builder totalCreditAmount(Money val) {
+            totalCreditAmount = val;
+            return this;
+        }
+
+        public Builder totalDebitAmount(Money val) {
+            totalDebitAmount = val;
+            return this;
+        }
+
+        public Builder lastCreditHistoryId(CreditHistoryId val) {
+            lastCreditHistoryId = val;
+            return this;
+        }
+
+        public CreditBalance build() {
+            return new CreditBalance(this);
+        }
+    }
+}
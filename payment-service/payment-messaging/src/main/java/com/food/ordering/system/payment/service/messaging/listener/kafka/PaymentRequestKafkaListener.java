@@ -1,12 +1,16 @@
 package com.food.ordering.system.payment.service.messaging.listener.kafka;
 
+import com.food.ordering.system.kafka.consumer.KafkaBatchProcessor;
 import com.food.ordering.system.kafka.consumer.KafkaConsumer;
+import com.food.ordering.system.kafka.consumer.KafkaListenerMetrics;
+import com.food.ordering.system.kafka.consumer.KeyOrderedRecordProcessor;
 import com.food.ordering.system.kafka.order.avro.model.PaymentOrderStatus;
 import com.food.ordering.system.kafka.order.avro.model.PaymentRequestAvroModel;
 import com.food.ordering.system.payment.service.domain.exception.PaymentApplicationServiceException;
 import com.food.ordering.system.payment.service.domain.exception.PaymentNotFoundException;
 import com.food.ordering.system.payment.service.domain.ports.input.message.listener.PaymentRequestMessageListener;
 import com.food.ordering.system.payment.service.messaging.mapper.PaymentMessagingDataMapper;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.postgresql.util.PSQLState;
 import org.springframework.dao.DataAccessException;
@@ -17,18 +21,30 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
 public class PaymentRequestKafkaListener implements KafkaConsumer<PaymentRequestAvroModel> {
     private final PaymentRequestMessageListener paymentRequestMessageListener;
     private final PaymentMessagingDataMapper paymentMessagingDataMapper;
+    private final KafkaBatchProcessor kafkaBatchProcessor;
+    private final KeyOrderedRecordProcessor keyOrderedRecordProcessor;
+    private final KafkaListenerMetrics kafkaListenerMetrics;
 
     public PaymentRequestKafkaListener(PaymentRequestMessageListener paymentRequestMessageListener,
-                                       PaymentMessagingDataMapper paymentMessagingDataMapper) {
+                                       PaymentMessagingDataMapper paymentMessagingDataMapper,
+                                       KafkaBatchProcessor kafkaBatchProcessor,
+                                       KeyOrderedRecordProcessor keyOrderedRecordProcessor,
+                                       KafkaListenerMetrics kafkaListenerMetrics) {
         this.paymentRequestMessageListener = paymentRequestMessageListener;
         this.paymentMessagingDataMapper = paymentMessagingDataMapper;
+        this.kafkaBatchProcessor = kafkaBatchProcessor;
+        this.keyOrderedRecordProcessor = keyOrderedRecordProcessor;
+        this.kafkaListenerMetrics = kafkaListenerMetrics;
     }
 
     @Override
@@ -37,54 +53,96 @@ public class PaymentRequestKafkaListener implements KafkaConsumer<PaymentRequest
     public void receive(@Payload List<PaymentRequestAvroModel> messages,
                         @Header(KafkaHeaders.RECEIVED_KEY) List<String> keys,
                         @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
-                        @Header(KafkaHeaders.OFFSET) List<Long> offsets) {
+                        @Header(KafkaHeaders.OFFSET) List<Long> offsets,
+                        @Header(name = KafkaHeaders.BATCH_CONVERTED_HEADERS, required = false) List<Map<String, Object>> headers) {
         log.info("{} number of payment requests received with keys: {}, partitions: {} and offsets: {}",
                 messages.size(),
                 keys.toString(),
                 partitions.toString(),
                 offsets.toString());
 
+        Map<PaymentRequestAvroModel, String> sagaTimelines = getSagaTimelines(messages, headers);
+
+        /* The requests of the same customer change the same credit entry and credit balance, so they're keyed by customer id to keep
+        them in order and to not make them wait for each other's row locks. The requests of different customers run in parallel. */
+        if (keyOrderedRecordProcessor.isEnabled()) {
+            keyOrderedRecordProcessor.process("payment requests", messages, PaymentRequestAvroModel::getCustomerId,
+                    paymentRequestAvroModel -> processPaymentRequest(paymentRequestAvroModel, sagaTimelines));
+        } else {
+            kafkaBatchProcessor.process("payment requests", messages,
+                    paymentRequestAvroModels -> processPaymentRequests(paymentRequestAvroModels, sagaTimelines),
+                    paymentRequestAvroModel -> processPaymentRequest(paymentRequestAvroModel, sagaTimelines));
+        }
+    }
+
+    private void processPaymentRequests(List<PaymentRequestAvroModel> paymentRequestAvroModels,
+                                        Map<PaymentRequestAvroModel, String> sagaTimelines) {
+        paymentRequestMessageListener.processPaymentRequests(paymentRequestAvroModels.stream()
+                .map(paymentRequestAvroModel -> paymentMessagingDataMapper.paymentRequestAvroModelToPaymentRequest(
+                        paymentRequestAvroModel, sagaTimelines.get(paymentRequestAvroModel)))
+                .toList());
+    }
+
+    private void processPaymentRequest(PaymentRequestAvroModel paymentRequestAvroModel,
+                                       Map<PaymentRequestAvroModel, String> sagaTimelines) {
         /* Remember that this payment service can be called for two scenarios:
          - either for a pending order, just to complete a payment
          - or to cancel a payment, in case the order approval is failed in approval phase
 
          Note: We can't use optimistic locking as there is no records yet to update. So here, we catch DataAccessException.
          We want to only prevent retrying the unique constraint error.*/
-        messages.forEach(paymentRequestAvroModel -> {
-            try {
-                if (PaymentOrderStatus.PENDING == paymentRequestAvroModel.getPaymentOrderStatus()) {
-                    log.info("Processing payment for order id: {}", paymentRequestAvroModel.getOrderId());
-                    paymentRequestMessageListener.completePayment(
-                            paymentMessagingDataMapper.paymentRequestAvroModelToPaymentRequest(paymentRequestAvroModel));
-                } else if (PaymentOrderStatus.CANCELLED == paymentRequestAvroModel.getPaymentOrderStatus()) {
-                    log.info("Cancelling payment for order id: {}", paymentRequestAvroModel.getOrderId());
-                    paymentRequestMessageListener.cancelPayment(
-                            paymentMessagingDataMapper.paymentRequestAvroModelToPaymentRequest(paymentRequestAvroModel));
-                }
-            } catch (DataAccessException e) {
-                SQLException sqlException = (SQLException) e.getRootCause();
+        try {
+            if (PaymentOrderStatus.PENDING == paymentRequestAvroModel.getPaymentOrderStatus()) {
+                log.info("Processing payment for order id: {}", paymentRequestAvroModel.getOrderId());
+                paymentRequestMessageListener.completePayment(paymentMessagingDataMapper
+                        .paymentRequestAvroModelToPaymentRequest(paymentRequestAvroModel, sagaTimelines.get(paymentRequestAvroModel)));
+            } else if (PaymentOrderStatus.CANCELLED == paymentRequestAvroModel.getPaymentOrderStatus()) {
+                log.info("Cancelling payment for order id: {}", paymentRequestAvroModel.getOrderId());
+                paymentRequestMessageListener.cancelPayment(paymentMessagingDataMapper
+                        .paymentRequestAvroModelToPaymentRequest(paymentRequestAvroModel, sagaTimelines.get(paymentRequestAvroModel)));
+            }
+        } catch (DataAccessException e) {
+            SQLException sqlException = (SQLException) e.getRootCause();
 
-                // in case this is a unique violation error, we prevent retyping processing of this message
-                if (sqlException != null && sqlException.getSQLState() != null &&
-                        PSQLState.UNIQUE_VIOLATION.getState().equals(sqlException.getSQLState())) {
-                    // NO-OP for unique constraint exception
-                    log.error("Caught unique constraint exception with sql state: {} " +
-                            "in PaymentRequestKafkaListener for order id: {}",
-                            sqlException.getSQLState(), paymentRequestAvroModel.getOrderId());
-                } else {
-                    /* The thrown exception wasn't a unique violation exception, so we want to actually retry the op that caused
-                    this exception. Therefore we need to rethrow the exception because we just caught it!
-                    With this, this kafka listener method can retry to process the msg.*/
-                    throw new PaymentApplicationServiceException("Throwing DataAccessException in" +
-                            " PaymentRequestKafkaListener: " + e.getMessage(), e);
-                }
-            } catch (PaymentNotFoundException e) {
-                /* We can get PaymentNotFoundException from persistCancelPayment() . We don't want to propagate it, so we catch it here.
-                With this, this kafka listener method won't retry to process a msg if there is no payment which shouldn't be
-                the case for a correct saga flow.*/
-                // NO-OP for PaymentNotFoundException
-                log.error("No payment found for order id: {}", paymentRequestAvroModel.getOrderId());
+            // in case this is a unique violation error, we prevent retyping processing of this message
+            if (sqlException != null && sqlException.getSQLState() != null &&
+                    PSQLState.UNIQUE_VIOLATION.getState().equals(sqlException.getSQLState())) {
+                // NO-OP for unique constraint exception
+                log.error("Caught unique constraint exception with sql state: {} " +
+                        "in PaymentRequestKafkaListener for order id: {}",
+                        sqlException.getSQLState(), paymentRequestAvroModel.getOrderId());
+                kafkaListenerMetrics.recordSkippedMessage("payment request", KafkaListenerMetrics.DUPLICATE);
+            } else {
+                /* The thrown exception wasn't a unique violation exception, so we want to actually retry the op that caused
+                this exception. Therefore we need to rethrow the exception because we just caught it!
+                With this, this kafka listener method can retry to process the msg.*/
+                throw new PaymentApplicationServiceException("Throwing DataAccessException in" +
+                        " PaymentRequestKafkaListener: " + e.getMessage(), e);
             }
-        });
+        } catch (PaymentNotFoundException e) {
+            /* We can get PaymentNotFoundException from persistCancelPayment() . We don't want to propagate it, so we catch it here.
+            With this, this kafka listener method won't retry to process a msg if there is no payment which shouldn't be
+            the case for a correct saga flow.*/
+            // NO-OP for PaymentNotFoundException
+            log.error("No payment found for order id: {}", paymentRequestAvroModel.getOrderId());
+            kafkaListenerMetrics.recordSkippedMessage("payment request", KafkaListenerMetrics.NOT_FOUND);
+        }
+    }
+
+    /* The timeline of the request is carried to the response through the order outbox message in its encoded form, the payment svc
+    doesn't need to read it. */
+    private Map<PaymentRequestAvroModel, String> getSagaTimelines(List<PaymentRequestAvroModel> messages,
+                                                                  List<Map<String, Object>> headers) {
+        Instant consumedAt = Instant.now();
+        Map<PaymentRequestAvroModel, String> sagaTimelines = new IdentityHashMap<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            String sagaHop = PaymentOrderStatus.CANCELLED == messages.get(i).getPaymentOrderStatus() ?
+                    SagaTimeline.PAYMENT_CANCEL_HOP : SagaTimeline.PAYMENT_HOP;
+            sagaTimelines.put(messages.get(i), SagaTimeline.decode(getHeaderValue(headers, i, SagaTimeline.HEADER_NAME))
+                    .append(sagaHop, SagaTimeline.REQUEST_CONSUME, consumedAt)
+                    .encode());
+        }
+
+        return sagaTimelines;
     }
 }
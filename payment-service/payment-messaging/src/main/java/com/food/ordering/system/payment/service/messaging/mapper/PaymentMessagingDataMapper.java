@@ -59,7 +59,8 @@ public class PaymentMessagingDataMapper {
                 .build();
     }
 
-    public PaymentRequest paymentRequestAvroModelToPaymentRequest(PaymentRequestAvroModel paymentRequestAvroModel) {
+    public PaymentRequest paymentRequestAvroModelToPaymentRequest(PaymentRequestAvroModel paymentRequestAvroModel,
+                                                                  String sagaTimeline) {
         return PaymentRequest.builder()
                 .id(paymentRequestAvroModel.getId().toString())
                 .sagaId(paymentRequestAvroModel.getSagaId().toString())
@@ -68,6 +69,7 @@ public class PaymentMessagingDataMapper {
                 .price(paymentRequestAvroModel.getPrice())
                 .createdAt(paymentRequestAvroModel.getCreatedAt())
                 .paymentOrderStatus(PaymentOrderStatus.valueOf(paymentRequestAvroModel.getPaymentOrderStatus().name()))
+                .sagaTimeline(sagaTimeline)
                 .build();
     }
 
@@ -1,5 +1,6 @@
 package com.food.ordering.system.payment.service.messaging.publisher.kafka;
 
+import com.food.ordering.system.domain.valueobject.PaymentStatus;
 import com.food.ordering.system.kafka.order.avro.model.PaymentResponseAvroModel;
 import com.food.ordering.system.kafka.producer.KafkaMessageHelper;
 import com.food.ordering.system.kafka.producer.service.KafkaProducer;
@@ -9,9 +10,13 @@ import com.food.ordering.system.payment.service.domain.outbox.model.OrderEventPa
 import com.food.ordering.system.payment.service.domain.outbox.model.OrderOutboxMessage;
 import com.food.ordering.system.payment.service.domain.ports.output.message.publisher.PaymentResponseMessagePublisher;
 import com.food.ordering.system.payment.service.messaging.mapper.PaymentMessagingDataMapper;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 @Slf4j
@@ -54,6 +59,7 @@ public class PaymentEventKafkaPublisher implements PaymentResponseMessagePublish
                     paymentServiceConfigData.getPaymentResponseTopicName(),
                     sagaId,
                     paymentResponseAvroModel,
+                    getSagaTimelineHeaders(orderOutboxMessage),
                     kafkaMessageHelper.getKafkaCallback(
                             paymentServiceConfigData.getPaymentResponseTopicName(),
                             paymentResponseAvroModel,
@@ -71,4 +77,57 @@ public class PaymentEventKafkaPublisher implements PaymentResponseMessagePublish
                     orderEventPayload.getOrderId(), sagaId, e.getMessage());
         }
     }
+
+    /* In the transactional mode the whole batch is sent in one kafka tx, so the consumers(with read_committed isolation) see either
+    all the messages of the batch or none of them. Otherwise every message is published on its own. */
+    @Override
+    public void publishBatch(List<OrderOutboxMessage> orderOutboxMessages,
+                             BiConsumer<OrderOutboxMessage, OutboxStatus> outboxCallback) {
+        if (!kafkaProducer.isTransactional()) {
+            PaymentResponseMessagePublisher.super.publishBatch(orderOutboxMessages, outboxCallback);
+
+            return;
+        }
+
+        try {
+            List<String> sagaIds = orderOutboxMessages.stream()
+                    .map(orderOutboxMessage -> orderOutboxMessage.getSagaId().toString())
+                    .toList();
+            List<PaymentResponseAvroModel> paymentResponseAvroModels = orderOutboxMessages.stream()
+                    .map(orderOutboxMessage -> paymentMessagingDataMapper.orderEventPayloadToPaymentResponseAvroModel(
+                            orderOutboxMessage.getSagaId().toString(),
+                            kafkaMessageHelper.getOrderEventPayload(orderOutboxMessage.getPayload(), OrderEventPayload.class)))
+                    .toList();
+            List<Map<String, String>> headers = orderOutboxMessages.stream()
+                    .map(this::getSagaTimelineHeaders)
+                    .toList();
+
+            kafkaProducer.sendInTransaction(paymentServiceConfigData.getPaymentResponseTopicName(),
+                    sagaIds,
+                    paymentResponseAvroModels,
+                    headers,
+                    kafkaMessageHelper.getKafkaTransactionCallback(
+                            paymentServiceConfigData.getPaymentResponseTopicName(),
+                            orderOutboxMessages,
+                            outboxCallback,
+                            "PaymentResponseAvroModel"));
+
+            log.info("{} PaymentResponseAvroModel sent to kafka in one transaction", paymentResponseAvroModels.size());
+        } catch (Exception e) {
+            log.error("Error while sending {} PaymentResponseAvroModel to kafka in a transaction, error: {}",
+                    orderOutboxMessages.size(), e.getMessage());
+        }
+    }
+
+    /* The response carries the saga timeline of the request back to the order svc, with the time that the response is inserted into
+    the outbox and the time that it's sent. */
+    private Map<String, String> getSagaTimelineHeaders(OrderOutboxMessage orderOutboxMessage) {
+        String sagaHop = PaymentStatus.CANCELLED == orderOutboxMessage.getPaymentStatus() ?
+                SagaTimeline.PAYMENT_CANCEL_HOP : SagaTimeline.PAYMENT_HOP;
+
+        return Map.of(SagaTimeline.HEADER_NAME, SagaTimeline.decode(orderOutboxMessage.getSagaTimeline())
+                .append(sagaHop, SagaTimeline.RESPONSE_ENQUEUE, orderOutboxMessage.getCreatedAt().toInstant())
+                .append(sagaHop, SagaTimeline.RESPONSE_SEND, Instant.now())
+                .encode());
+    }
 }
@@ -81,6 +81,7 @@ CREATE TABLE restaurant.order_outbox
     outbox_status outbox_status NOT NULL,
     approval_status approval_status NOT NULL,
     version integer NOT NULL,
+    saga_timeline character varying COLLATE pg_catalog."default", -- encoded saga timeline(SagaTimeline) of the request
     CONSTRAINT order_outbox_pkey PRIMARY KEY (id)
 );
 
@@ -92,40 +93,197 @@ CREATE UNIQUE INDEX "restaurant_order_outbox_saga_id"
     ON "restaurant".order_outbox
         (type, saga_id, approval_status, outbox_status);
 
-DROP MATERIALIZED VIEW IF EXISTS restaurant.order_restaurant_m_view;
-
-CREATE MATERIALIZED VIEW restaurant.order_restaurant_m_view
-    TABLESPACE pg_default
-AS
-SELECT r.id AS restaurant_id,
-       r.name AS restaurant_name,
-       r.active AS restaurant_active,
-       p.id AS product_id,
-       p.name AS product_name,
-       p.price AS product_price,
-       p.available AS product_available
-FROM restaurant.restaurants r,
-     restaurant.products p,
-     restaurant.restaurant_products rp
-WHERE r.id = rp.restaurant_id AND p.id = rp.product_id
-WITH DATA;
-
-refresh materialized VIEW restaurant.order_restaurant_m_view;
-
-DROP function IF EXISTS restaurant.refresh_order_restaurant_m_view;
-
-CREATE OR replace function restaurant.refresh_order_restaurant_m_view()
+-- the outbox backlog metrics(see OutboxBacklogMetrics) only count the STARTED rows, this keeps the count small however big the
+-- completed part of the table grows.
+CREATE INDEX "restaurant_order_outbox_started_created_at"
+    ON "restaurant".order_outbox
+        (created_at) WHERE outbox_status = 'STARTED';
+
+-- Wakes up the outbox schedulers of the service(see OutboxNotificationListener) right after an outbox message is committed. The channel
+-- must match outbox-relay.notify-channel and the payload is the table name that the schedulers return from getOutboxTableName().
+DROP function IF EXISTS restaurant.notify_outbox_inserted;
+
+CREATE OR replace function restaurant.notify_outbox_inserted()
     returns trigger
 AS '
     BEGIN
-        refresh materialized VIEW restaurant.order_restaurant_m_view;
+        PERFORM pg_notify(''restaurant_outbox_inserted'', TG_TABLE_NAME);
         return null;
     END;
 '  LANGUAGE plpgsql;
 
-DROP trigger IF EXISTS refresh_order_restaurant_m_view ON restaurant.restaurant_products;
+DROP trigger IF EXISTS notify_order_outbox_inserted ON restaurant.order_outbox;
+
+CREATE trigger notify_order_outbox_inserted
+    after INSERT
+    ON restaurant.order_outbox FOR each statement
+EXECUTE PROCEDURE restaurant.notify_outbox_inserted();
+
+-- Read model of the restaurant products for the order and restaurant svcs(RestaurantEntity of common-dataaccess). It was a materialized
+-- view that was refreshed completely after every change of restaurant_products. Now the row-level triggers below only touch the
+-- (restaurant_id, product_id) rows that a change affects. It can be rebuilt from the source tables with:
+--   SELECT restaurant.rebuild_order_restaurant_read_model();
+-- Every change also NOTIFYs restaurant_changed with the id of the changed restaurant('*' for all), so the svcs evict it from their
+-- RestaurantCache. The channel must match restaurant-cache.invalidation-channel.
+DROP TABLE IF EXISTS restaurant.order_restaurant_read_model CASCADE;
+
+CREATE TABLE restaurant.order_restaurant_read_model
+(
+    restaurant_id uuid NOT NULL,
+    restaurant_name character varying COLLATE pg_catalog."default" NOT NULL,
+    restaurant_active boolean NOT NULL,
+    product_id uuid NOT NULL,
+    product_name character varying COLLATE pg_catalog."default" NOT NULL,
+    product_price numeric(10,2) NOT NULL,
+    product_available boolean NOT NULL,
+    CONSTRAINT order_restaurant_read_model_pkey PRIMARY KEY (restaurant_id, product_id)
+);
+
+CREATE INDEX "order_restaurant_read_model_product_id"
+    ON restaurant.order_restaurant_read_model
+        (product_id);
+
+-- the source tables are searched by restaurant_id and product_id in the triggers.
+CREATE INDEX "restaurant_products_restaurant_id_product_id"
+    ON restaurant.restaurant_products
+        (restaurant_id, product_id);
+
+DROP function IF EXISTS restaurant.add_order_restaurant_read_model_row;
+
+CREATE OR replace function restaurant.add_order_restaurant_read_model_row(p_restaurant_id uuid, p_product_id uuid)
+    returns void
+AS '
+    BEGIN
+        INSERT INTO restaurant.order_restaurant_read_model(restaurant_id, restaurant_name, restaurant_active, product_id,
+                                                           product_name, product_price, product_available)
+        SELECT r.id, r.name, r.active, p.id, p.name, p.price, p.available
+        FROM restaurant.restaurants r,
+             restaurant.products p
+        WHERE r.id = p_restaurant_id AND p.id = p_product_id
+        ON CONFLICT (restaurant_id, product_id) DO NOTHING;
+        PERFORM pg_notify(''restaurant_changed'', p_restaurant_id::text);
+    END;
+'  LANGUAGE plpgsql;
+
+-- the same product can be linked to the same restaurant more than once, so the row is only removed with its last link.
+DROP function IF EXISTS restaurant.remove_order_restaurant_read_model_row;
+
+CREATE OR replace function restaurant.remove_order_restaurant_read_model_row(p_restaurant_id uuid, p_product_id uuid)
+    returns void
+AS '
+    BEGIN
+        DELETE FROM restaurant.order_restaurant_read_model m
+        WHERE m.restaurant_id = p_restaurant_id AND m.product_id = p_product_id
+          AND NOT EXISTS(SELECT 1 FROM restaurant.restaurant_products rp
+                         WHERE rp.restaurant_id = p_restaurant_id AND rp.product_id = p_product_id);
+        PERFORM pg_notify(''restaurant_changed'', p_restaurant_id::text);
+    END;
+'  LANGUAGE plpgsql;
+
+DROP function IF EXISTS restaurant.maintain_order_restaurant_read_model_restaurant_products;
+
+CREATE OR replace function restaurant.maintain_order_restaurant_read_model_restaurant_products()
+    returns trigger
+AS '
+    BEGIN
+        IF TG_OP IN (''UPDATE'', ''DELETE'') THEN
+            PERFORM restaurant.remove_order_restaurant_read_model_row(OLD.restaurant_id, OLD.product_id);
+        END IF;
+        IF TG_OP IN (''INSERT'', ''UPDATE'') THEN
+            PERFORM restaurant.add_order_restaurant_read_model_row(NEW.restaurant_id, NEW.product_id);
+        END IF;
+        return null;
+    END;
+'  LANGUAGE plpgsql;
+
+DROP trigger IF EXISTS maintain_order_restaurant_read_model ON restaurant.restaurant_products;
+
+CREATE trigger maintain_order_restaurant_read_model
+    after INSERT OR UPDATE OR DELETE
+    ON restaurant.restaurant_products FOR each row
+EXECUTE PROCEDURE restaurant.maintain_order_restaurant_read_model_restaurant_products();
+
+DROP function IF EXISTS restaurant.truncate_order_restaurant_read_model;
 
-CREATE trigger refresh_order_restaurant_m_view
-    after INSERT OR UPDATE OR DELETE OR truncate
+CREATE OR replace function restaurant.truncate_order_restaurant_read_model()
+    returns trigger
+AS '
+    BEGIN
+        TRUNCATE restaurant.order_restaurant_read_model;
+        PERFORM pg_notify(''restaurant_changed'', ''*'');
+        return null;
+    END;
+'  LANGUAGE plpgsql;
+
+DROP trigger IF EXISTS truncate_order_restaurant_read_model ON restaurant.restaurant_products;
+
+CREATE trigger truncate_order_restaurant_read_model
+    after truncate
     ON restaurant.restaurant_products FOR each statement
-EXECUTE PROCEDURE restaurant.refresh_order_restaurant_m_view();
\ No newline at end of file
+EXECUTE PROCEDURE restaurant.truncate_order_restaurant_read_model();
+
+-- restaurants and products can't be deleted while they are linked(FKs of restaurant_products), so only their updates are copied.
+DROP function IF EXISTS restaurant.maintain_order_restaurant_read_model_restaurants;
+
+CREATE OR replace function restaurant.maintain_order_restaurant_read_model_restaurants()
+    returns trigger
+AS '
+    BEGIN
+        UPDATE restaurant.order_restaurant_read_model
+        SET restaurant_name = NEW.name, restaurant_active = NEW.active
+        WHERE restaurant_id = NEW.id;
+        PERFORM pg_notify(''restaurant_changed'', NEW.id::text);
+        return null;
+    END;
+'  LANGUAGE plpgsql;
+
+DROP trigger IF EXISTS maintain_order_restaurant_read_model ON restaurant.restaurants;
+
+CREATE trigger maintain_order_restaurant_read_model
+    after UPDATE OF name, active
+    ON restaurant.restaurants FOR each row
+    WHEN (OLD.name IS DISTINCT FROM NEW.name OR OLD.active IS DISTINCT FROM NEW.active)
+EXECUTE PROCEDURE restaurant.maintain_order_restaurant_read_model_restaurants();
+
+DROP function IF EXISTS restaurant.maintain_order_restaurant_read_model_products;
+
+CREATE OR replace function restaurant.maintain_order_restaurant_read_model_products()
+    returns trigger
+AS '
+    BEGIN
+        UPDATE restaurant.order_restaurant_read_model
+        SET product_name = NEW.name, product_price = NEW.price, product_available = NEW.available
+        WHERE product_id = NEW.id;
+        PERFORM pg_notify(''restaurant_changed'', m.restaurant_id::text)
+        FROM restaurant.order_restaurant_read_model m
+        WHERE m.product_id = NEW.id;
+        return null;
+    END;
+'  LANGUAGE plpgsql;
+
+DROP trigger IF EXISTS maintain_order_restaurant_read_model ON restaurant.products;
+
+CREATE trigger maintain_order_restaurant_read_model
+    after UPDATE OF name, price, available
+    ON restaurant.products FOR each row
+    WHEN (OLD.name IS DISTINCT FROM NEW.name OR OLD.price IS DISTINCT FROM NEW.price OR OLD.available IS DISTINCT FROM NEW.available)
+EXECUTE PROCEDURE restaurant.maintain_order_restaurant_read_model_products();
+
+-- recovery: recreates the whole read model from the source tables in one tx. Readers keep seeing the old rows until it commits.
+DROP function IF EXISTS restaurant.rebuild_order_restaurant_read_model;
+
+CREATE OR replace function restaurant.rebuild_order_restaurant_read_model()
+    returns void
+AS '
+    BEGIN
+        DELETE FROM restaurant.order_restaurant_read_model;
+        INSERT INTO restaurant.order_restaurant_read_model(restaurant_id, restaurant_name, restaurant_active, product_id,
+                                                           product_name, product_price, product_available)
+        SELECT DISTINCT r.id, r.name, r.active, p.id, p.name, p.price, p.available
+        FROM restaurant.restaurants r,
+             restaurant.products p,
+             restaurant.restaurant_products rp
+        WHERE r.id = rp.restaurant_id AND p.id = rp.product_id;
+        PERFORM pg_notify(''restaurant_changed'', ''*'');
+    END;
+'  LANGUAGE plpgsql;
@@ -1,25 +1,28 @@
 package com.food.ordering.system.restaurant.service.dataaccess.adapter;
 
+import com.food.ordering.system.dataaccess.restaurant.cache.RestaurantCache;
 import com.food.ordering.system.dataaccess.restaurant.entity.RestaurantEntity;
-import com.food.ordering.system.dataaccess.restaurant.repository.RestaurantJpaRepository;
+import com.food.ordering.system.domain.valueobject.RestaurantId;
 import com.food.ordering.system.restaurant.service.dataaccess.mapper.RestaurantDataAccessMapper;
 import com.food.ordering.system.restaurant.service.domain.entity.Restaurant;
 import com.food.ordering.system.restaurant.service.ports.output.repository.RestaurantRepository;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class RestaurantRepositoryImpl implements RestaurantRepository {
 
-    private final RestaurantJpaRepository restaurantJpaRepository;
+    private final RestaurantCache restaurantCache;
     private final RestaurantDataAccessMapper restaurantDataAccessMapper;
 
-    public RestaurantRepositoryImpl(RestaurantJpaRepository restaurantJpaRepository,
+    public RestaurantRepositoryImpl(RestaurantCache restaurantCache,
                                     RestaurantDataAccessMapper restaurantDataAccessMapper) {
-        this.restaurantJpaRepository = restaurantJpaRepository;
+        this.restaurantCache = restaurantCache;
         this.restaurantDataAccessMapper = restaurantDataAccessMapper;
     }
 
@@ -27,9 +30,18 @@ public class RestaurantRepositoryImpl implements RestaurantRepository {
     public Optional<Restaurant> findRestaurantInformation(Restaurant restaurant) {
         List<UUID> restaurantProducts =
                 restaurantDataAccessMapper.restaurantToRestaurantProducts(restaurant);
-        Optional<List<RestaurantEntity>> restaurantEntities = restaurantJpaRepository
+        Optional<List<RestaurantEntity>> restaurantEntities = restaurantCache
                 .findByRestaurantIdAndProductIdIn(restaurant.getId().getValue(),
                         restaurantProducts);
         return restaurantEntities.map(restaurantDataAccessMapper::restaurantEntityToRestaurant);
     }
+
+    @Override
+    public Map<RestaurantId, Restaurant> findRestaurantsInformation(List<RestaurantId> restaurantIds) {
+        return restaurantCache.findByRestaurantIdIn(restaurantIds.stream().map(RestaurantId::getValue).toList())
+                .values()
+                .stream()
+                .map(restaurantDataAccessMapper::restaurantEntityToRestaurant)
+                .collect(Collectors.toMap(Restaurant::getId, restaurant -> restaurant));
+    }
 }
\ No newline at end of file
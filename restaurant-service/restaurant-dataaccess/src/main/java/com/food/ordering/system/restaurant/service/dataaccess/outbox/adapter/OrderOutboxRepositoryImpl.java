@@ -50,6 +50,20 @@ public class OrderOutboxRepositoryImpl implements OrderOutboxRepository {
                 .map(orderOutboxDataAccessMapper::orderOutboxEntityToOrderOutboxMessage);
     }
 
+    @Override
+    public List<OrderOutboxMessage> findByTypeAndSagaIdsAndOutboxStatus(String type, List<UUID> sagaIds,
+                                                                        OutboxStatus outboxStatus) {
+        return orderOutboxJpaRepository.findByTypeAndSagaIdInAndOutboxStatus(type, sagaIds, outboxStatus)
+                .stream()
+                .map(orderOutboxDataAccessMapper::orderOutboxEntityToOrderOutboxMessage)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int updateOutboxStatusByIdsAndVersion(OutboxStatus outboxStatus, int version, List<UUID> ids) {
+        return orderOutboxJpaRepository.updateOutboxStatusByIdInAndVersion(outboxStatus, ids, version);
+    }
+
     @Override
     public void deleteByTypeAndOutboxStatus(String type, OutboxStatus outboxStatus) {
         orderOutboxJpaRepository.deleteByTypeAndOutboxStatus(type, outboxStatus);
@@ -30,6 +30,7 @@ public class OrderOutboxEntity {
     @Enumerated(EnumType.STRING)
     private OrderApprovalStatus approvalStatus;
     private int version;
+    private String sagaTimeline;
 
 
     @Override
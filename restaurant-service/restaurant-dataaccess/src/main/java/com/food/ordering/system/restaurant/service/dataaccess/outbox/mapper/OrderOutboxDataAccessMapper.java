@@ -16,6 +16,7 @@ public class OrderOutboxDataAccessMapper {
                 .outboxStatus(orderOutboxMessage.getOutboxStatus())
                 .approvalStatus(orderOutboxMessage.getApprovalStatus())
                 .version(orderOutboxMessage.getVersion())
+                .sagaTimeline(orderOutboxMessage.getSagaTimeline())
                 .build();
     }
 
@@ -29,6 +30,7 @@ public class OrderOutboxDataAccessMapper {
                 .outboxStatus(paymentOutboxEntity.getOutboxStatus())
                 .approvalStatus(paymentOutboxEntity.getApprovalStatus())
                 .version(paymentOutboxEntity.getVersion())
+                .sagaTimeline(paymentOutboxEntity.getSagaTimeline())
                 .build();
     }
 }
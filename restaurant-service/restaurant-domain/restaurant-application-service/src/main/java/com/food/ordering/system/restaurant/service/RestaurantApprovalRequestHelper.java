@@ -1,6 +1,7 @@
 package com.food.ordering.system.restaurant.service;
 
 import com.food.ordering.system.domain.valueobject.OrderId;
+import com.food.ordering.system.domain.valueobject.RestaurantId;
 import com.food.ordering.system.outbox.OutboxStatus;
 import com.food.ordering.system.restaurant.service.domain.RestaurantDomainService;
 import com.food.ordering.system.restaurant.service.dto.RestaurantApprovalRequest;
@@ -18,10 +19,16 @@ import com.food.ordering.system.restaurant.service.ports.output.repository.Resta
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -79,10 +86,54 @@ public class RestaurantApprovalRequestHelper {
                 restaurantDataMapper.orderApprovalEventToOrderEventPayload(orderApprovalEvent),
                 orderApprovalEvent.getOrderApproval().getApprovalStatus(),
                 OutboxStatus.STARTED,
-                UUID.fromString(restaurantApprovalRequest.getSagaId())
+                UUID.fromString(restaurantApprovalRequest.getSagaId()),
+                restaurantApprovalRequest.getSagaTimeline()
         );
     }
 
+    /* Batch version of persistOrderApproval() for the approval requests of one kafka poll, in a single tx. The completed outbox
+    messages are loaded with one IN (...) query and the restaurants with one query(only the ones that are not in the restaurant cache).
+
+    A request whose restaurant can't be found is skipped, like the RestaurantNotFoundException of persistOrderApproval() which is a
+    NO-OP for the listener. If anything else fails, the whole tx is rolled back and the caller processes the requests one by one. */
+    @Transactional
+    public void persistOrderApprovals(List<RestaurantApprovalRequest> restaurantApprovalRequests) {
+        List<RestaurantApprovalRequest> newRestaurantApprovalRequests =
+                removeProcessedRestaurantApprovalRequests(restaurantApprovalRequests);
+        Map<RestaurantId, Restaurant> restaurantInformation = restaurantRepository.findRestaurantsInformation(
+                newRestaurantApprovalRequests.stream()
+                        .map(restaurantApprovalRequest -> new RestaurantId(UUID.fromString(restaurantApprovalRequest.getRestaurantId())))
+                        .distinct()
+                        .toList());
+
+        newRestaurantApprovalRequests.forEach(restaurantApprovalRequest -> {
+            Restaurant restaurant = restaurantDataMapper.restaurantApprovalRequestToRestaurant(restaurantApprovalRequest);
+            Restaurant restaurantEntity = restaurantInformation.get(restaurant.getId());
+
+            if (restaurantEntity == null) {
+                log.error("No restaurant found for restaurant id: {} and order id: {}",
+                        restaurantApprovalRequest.getRestaurantId(), restaurantApprovalRequest.getOrderId());
+
+                return;
+            }
+
+            updateRestaurant(restaurant, restaurantEntity, restaurantApprovalRequest);
+            OrderApprovalEvent orderApprovalEvent = restaurantDomainService.validateOrder(restaurant, new ArrayList<>());
+
+            orderApprovalRepository.save(restaurant.getOrderApproval());
+
+            orderOutboxHelper.saveOrderOutboxMessage(
+                    restaurantDataMapper.orderApprovalEventToOrderEventPayload(orderApprovalEvent),
+                    orderApprovalEvent.getOrderApproval().getApprovalStatus(),
+                    OutboxStatus.STARTED,
+                    UUID.fromString(restaurantApprovalRequest.getSagaId()),
+                    restaurantApprovalRequest.getSagaTimeline()
+            );
+        });
+
+        log.info("{} restaurant approval requests are processed in one tx", newRestaurantApprovalRequests.size());
+    }
+
     private Restaurant findRestaurant(RestaurantApprovalRequest restaurantApprovalRequest) {
         Restaurant restaurant = restaurantDataMapper.restaurantApprovalRequestToRestaurant(restaurantApprovalRequest);
 
@@ -94,7 +145,15 @@ public class RestaurantApprovalRequestHelper {
             throw new RestaurantNotFoundException("Restaurant with id " + restaurant.getId().getValue() + " not found!");
         }
 
-        Restaurant restaurantEntity = restaurantResult.get();
+        updateRestaurant(restaurant, restaurantResult.get(), restaurantApprovalRequest);
+
+        return restaurant;
+    }
+
+    // sets the restaurant and product information from the DB on the restaurant of the request.
+    private void updateRestaurant(Restaurant restaurant,
+                                  Restaurant restaurantEntity,
+                                  RestaurantApprovalRequest restaurantApprovalRequest) {
         restaurant.setActive(restaurantEntity.isActive());
         restaurant.getOrderDetail().getProducts().forEach(product -> restaurantEntity.getOrderDetail().getProducts().forEach(p -> {
             if (p.getId().equals(product.getId())) {
@@ -103,22 +162,79 @@ public class RestaurantApprovalRequestHelper {
         }));
 
         restaurant.getOrderDetail().setId(new OrderId(UUID.fromString(restaurantApprovalRequest.getOrderId())));
+    }
 
-        return restaurant;
+    /* Batch version of publishIfOutboxMessageProcessed(). It also drops a request that is delivered again in the same batch, which
+    would otherwise be processed twice in this tx. */
+    private List<RestaurantApprovalRequest> removeProcessedRestaurantApprovalRequests(
+            List<RestaurantApprovalRequest> restaurantApprovalRequests) {
+        Map<UUID, OrderOutboxMessage> completedOrderOutboxMessages = new HashMap<>();
+        orderOutboxHelper.getCompletedOrderOutboxMessagesBySagaIds(restaurantApprovalRequests.stream()
+                        .map(restaurantApprovalRequest -> UUID.fromString(restaurantApprovalRequest.getSagaId()))
+                        .distinct()
+                        .toList())
+                .forEach(orderOutboxMessage -> completedOrderOutboxMessages.put(orderOutboxMessage.getSagaId(), orderOutboxMessage));
+
+        Set<UUID> receivedSagaIds = new HashSet<>();
+        List<RestaurantApprovalRequest> newRestaurantApprovalRequests = new ArrayList<>();
+        List<OrderOutboxMessage> processedOrderOutboxMessages = new ArrayList<>();
+        restaurantApprovalRequests.forEach(restaurantApprovalRequest -> {
+            UUID sagaId = UUID.fromString(restaurantApprovalRequest.getSagaId());
+
+            if (!receivedSagaIds.add(sagaId)) {
+                log.info("Restaurant approval request with saga id: {} is received more than once in the batch!", sagaId);
+            } else if (completedOrderOutboxMessages.containsKey(sagaId)) {
+                processedOrderOutboxMessages.add(completedOrderOutboxMessages.get(sagaId));
+                log.info("An outbox message with saga id: {} already saved to database!", sagaId);
+            } else {
+                newRestaurantApprovalRequests.add(restaurantApprovalRequest);
+            }
+        });
+
+        publishAfterCommit(processedOrderOutboxMessages);
+
+        return newRestaurantApprovalRequests;
     }
 
     private boolean publishIfOutboxMessageProcessed(RestaurantApprovalRequest restaurantApprovalRequest) {
+        /* This lookup is the only guard against a request that is delivered again after it's processed(a rebalance or a failed offset
+        commit redelivers it, also with a transactional order svc producer). The unique index of the order_outbox table includes
+        outbox_status, so it doesn't stop a second STARTED row once the first one is COMPLETED. */
         Optional<OrderOutboxMessage> orderOutboxMessage =
             orderOutboxHelper.getCompletedOrderOutboxMessageBySagaIdAndOutboxStatus(
                     UUID.fromString(restaurantApprovalRequest.getSagaId()), OutboxStatus.COMPLETED);
 
         if (orderOutboxMessage.isPresent()) {
-            restaurantApprovalResponseMessagePublisher.publish(orderOutboxMessage.get(),
-                    orderOutboxHelper::updateOutboxStatus);
+            publishAfterCommit(List.of(orderOutboxMessage.get()));
 
             return true;
         }
 
         return false;
     }
+
+    /* The approvals that are already processed are published again only after the tx commits, so a batch tx that rolls back and is
+    then processed one by one doesn't publish them twice. Without a tx, they are published right away. */
+    private void publishAfterCommit(List<OrderOutboxMessage> processedOrderOutboxMessages) {
+        if (processedOrderOutboxMessages.isEmpty()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(processedOrderOutboxMessages);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(processedOrderOutboxMessages);
+            }
+        });
+    }
+
+    private void publish(List<OrderOutboxMessage> processedOrderOutboxMessages) {
+        processedOrderOutboxMessages.forEach(orderOutboxMessage ->
+                restaurantApprovalResponseMessagePublisher.publish(orderOutboxMessage, orderOutboxHelper::updateOutboxStatus));
+    }
 }
@@ -6,6 +6,8 @@ import com.food.ordering.system.restaurant.service.ports.input.message.listener.
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 public class RestaurantApprovalRequestMessageListenerImpl implements RestaurantApprovalRequestMessageListener {
@@ -26,4 +28,9 @@ public class RestaurantApprovalRequestMessageListenerImpl implements RestaurantA
          We don't fire the event directly anymore, instead the events are persisted into outbox table and published by scheduler.*/
 //        orderApprovalEvent.fire();
     }
+
+    @Override
+    public void approveOrders(List<RestaurantApprovalRequest> restaurantApprovalRequests) {
+        restaurantApprovalRequestHelper.persistOrderApprovals(restaurantApprovalRequests);
+    }
 }
@@ -22,4 +22,5 @@ public class RestaurantApprovalRequest {
     private List<Product> products;
     private BigDecimal price;
     private Instant createdAt;
+    private String sagaTimeline;
 }
\ No newline at end of file
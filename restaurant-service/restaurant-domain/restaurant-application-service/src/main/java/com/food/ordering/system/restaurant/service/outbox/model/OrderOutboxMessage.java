@@ -22,6 +22,7 @@ public class OrderOutboxMessage {
     private OutboxStatus outboxStatus;
     private OrderApprovalStatus approvalStatus;
     private int version;
+    private String sagaTimeline; // the encoded saga timeline of the request, the response carries it back to the order svc
 
     public void setOutboxStatus(OutboxStatus status) {
         this.outboxStatus = status;
@@ -2,6 +2,11 @@ package com.food.ordering.system.restaurant.service.ports.input.message.listener
 
 import com.food.ordering.system.restaurant.service.dto.RestaurantApprovalRequest;
 
+import java.util.List;
+
 public interface RestaurantApprovalRequestMessageListener {
     void approveOrder(RestaurantApprovalRequest restaurantApprovalRequest);
+
+    // approves or rejects the orders of a batch of approval requests together, in one tx.
+    void approveOrders(List<RestaurantApprovalRequest> restaurantApprovalRequests);
 }
@@ -16,6 +16,10 @@ public interface OrderOutboxRepository {
     Optional<OrderOutboxMessage> findByTypeAndSagaIdAndOutboxStatus(String type, UUID sagaId,
                                                                     OutboxStatus outboxStatus);
 
+    List<OrderOutboxMessage> findByTypeAndSagaIdsAndOutboxStatus(String type, List<UUID> sagaIds, OutboxStatus outboxStatus);
+
+    /* Updates the outbox status of the given messages if they still have the given version and returns the number of updated rows. */
+    int updateOutboxStatusByIdsAndVersion(OutboxStatus outboxStatus, int version, List<UUID> ids);
     void deleteByTypeAndOutboxStatus(String type, OutboxStatus outboxStatus);
 
 }
\ No newline at end of file
@@ -1,9 +1,15 @@
 package com.food.ordering.system.restaurant.service.ports.output.repository;
 
+import com.food.ordering.system.domain.valueobject.RestaurantId;
 import com.food.ordering.system.restaurant.service.domain.entity.Restaurant;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface RestaurantRepository {
     Optional<Restaurant> findRestaurantInformation(Restaurant restaurant);
+
+    // the given restaurants with all of their products. A restaurant that can't be found is not in the map.
+    Map<RestaurantId, Restaurant> findRestaurantsInformation(List<RestaurantId> restaurantIds);
 }
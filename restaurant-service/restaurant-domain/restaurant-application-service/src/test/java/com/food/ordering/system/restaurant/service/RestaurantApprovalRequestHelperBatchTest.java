@@ -0,0 +1,161 @@
+package com.food.ordering.system.restaurant.service;
+
+import com.food.ordering.system.domain.valueobject.Money;
+import com.food.ordering.system.domain.valueobject.OrderId;
+import com.food.ordering.system.domain.valueobject.ProductId;
+import com.food.ordering.system.domain.valueobject.RestaurantId;
+import com.food.ordering.system.outbox.OutboxStatus;
+import com.food.ordering.system.restaurant.service.domain.RestaurantDomainServiceImpl;
+import com.food.ordering.system.restaurant.service.domain.entity.OrderApproval;
+import com.food.ordering.system.restaurant.service.domain.entity.OrderDetail;
+import com.food.ordering.system.restaurant.service.domain.entity.Product;
+import com.food.ordering.system.restaurant.service.domain.entity.Restaurant;
+import com.food.ordering.system.restaurant.service.dto.RestaurantApprovalRequest;
+import com.food.ordering.system.restaurant.service.mapper.RestaurantDataMapper;
+import com.food.ordering.system.restaurant.service.outbox.model.OrderOutboxMessage;
+import com.food.ordering.system.restaurant.service.outbox.scheduler.OrderOutboxHelper;
+import com.food.ordering.system.restaurant.service.ports.output.message.publisher.RestaurantApprovalResponseMessagePublisher;
+import com.food.ordering.system.restaurant.service.ports.output.repository.OrderApprovalRepository;
+import com.food.ordering.system.restaurant.service.ports.output.repository.RestaurantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/* persistOrderApprovals() with a mixed batch of approval requests: one that is already processed(its outbox message is COMPLETED),
+one of a known restaurant and one of a restaurant that doesn't exist. The repositories and the outbox helper are mocks, the domain
+service is the real one. The batch runs with an active tx synchronization, like in the @Transactional method, and the test decides if
+the tx commits. */
+public class RestaurantApprovalRequestHelperBatchTest {
+    private final UUID PROCESSED_SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07cf1");
+    private final UUID APPROVAL_SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07cf2");
+    private final UUID UNKNOWN_RESTAURANT_SAGA_ID = UUID.fromString("15a497c1-0f4b-4eff-b9f4-c402c8c07cf3");
+    private final RestaurantId RESTAURANT_ID = new RestaurantId(UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb45"));
+    private final RestaurantId UNKNOWN_RESTAURANT_ID = new RestaurantId(UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb46"));
+    private final ProductId PRODUCT_ID = new ProductId(UUID.fromString("d215b5f8-0249-4dc5-89a3-51fd148cfb47"));
+
+    private OrderApprovalRepository orderApprovalRepository;
+    private OrderOutboxHelper orderOutboxHelper;
+    private RestaurantApprovalResponseMessagePublisher restaurantApprovalResponseMessagePublisher;
+    private RestaurantApprovalRequestHelper restaurantApprovalRequestHelper;
+    private OrderOutboxMessage processedOrderOutboxMessage;
+
+    @BeforeEach
+    void init() {
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+        orderApprovalRepository = mock(OrderApprovalRepository.class);
+        orderOutboxHelper = mock(OrderOutboxHelper.class);
+        restaurantApprovalResponseMessagePublisher = mock(RestaurantApprovalResponseMessagePublisher.class);
+        restaurantApprovalRequestHelper = new RestaurantApprovalRequestHelper(new RestaurantDomainServiceImpl(),
+                new RestaurantDataMapper(),
+                restaurantRepository,
+                orderApprovalRepository,
+                orderOutboxHelper,
+                restaurantApprovalResponseMessagePublisher);
+
+        processedOrderOutboxMessage = OrderOutboxMessage.builder()
+                .id(UUID.randomUUID())
+                .sagaId(PROCESSED_SAGA_ID)
+                .outboxStatus(OutboxStatus.COMPLETED)
+                .build();
+        when(orderOutboxHelper.getCompletedOrderOutboxMessagesBySagaIds(anyList())).thenReturn(List.of(processedOrderOutboxMessage));
+        when(restaurantRepository.findRestaurantsInformation(anyList())).thenReturn(Map.of(RESTAURANT_ID, getRestaurant()));
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clear() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void testOnlyNewRequestOfKnownRestaurantIsPersistedAndProcessedOneIsPublishedAfterCommit() {
+        RestaurantApprovalRequest approvalRequest = getRestaurantApprovalRequest(APPROVAL_SAGA_ID, RESTAURANT_ID);
+
+        restaurantApprovalRequestHelper.persistOrderApprovals(List.of(
+                getRestaurantApprovalRequest(PROCESSED_SAGA_ID, RESTAURANT_ID),
+                approvalRequest,
+                getRestaurantApprovalRequest(UNKNOWN_RESTAURANT_SAGA_ID, UNKNOWN_RESTAURANT_ID)));
+
+        ArgumentCaptor<OrderApproval> savedOrderApproval = ArgumentCaptor.forClass(OrderApproval.class);
+        verify(orderApprovalRepository).save(savedOrderApproval.capture());
+        assertEquals(new OrderId(UUID.fromString(approvalRequest.getOrderId())), savedOrderApproval.getValue().getOrderId());
+        verify(orderOutboxHelper).saveOrderOutboxMessage(any(), any(), eq(OutboxStatus.STARTED), eq(APPROVAL_SAGA_ID), any());
+        verify(orderOutboxHelper, never()).saveOrderOutboxMessage(any(), any(), any(), eq(PROCESSED_SAGA_ID), any());
+        verify(orderOutboxHelper, never()).saveOrderOutboxMessage(any(), any(), any(), eq(UNKNOWN_RESTAURANT_SAGA_ID), any());
+
+        verify(restaurantApprovalResponseMessagePublisher, never()).publish(any(), any());
+        commit();
+        verify(restaurantApprovalResponseMessagePublisher).publish(eq(processedOrderOutboxMessage), any());
+    }
+
+    @Test
+    void testProcessedRequestIsNotPublishedWhenBatchIsRolledBack() {
+        when(orderApprovalRepository.save(any())).thenThrow(new IllegalStateException("connection is closed"));
+
+        assertThrows(IllegalStateException.class, () -> restaurantApprovalRequestHelper.persistOrderApprovals(List.of(
+                getRestaurantApprovalRequest(PROCESSED_SAGA_ID, RESTAURANT_ID),
+                getRestaurantApprovalRequest(APPROVAL_SAGA_ID, RESTAURANT_ID))));
+
+        rollback();
+        verify(restaurantApprovalResponseMessagePublisher, never()).publish(any(), any());
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private void rollback() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private RestaurantApprovalRequest getRestaurantApprovalRequest(UUID sagaId, RestaurantId restaurantId) {
+        return RestaurantApprovalRequest.builder()
+                .id(UUID.randomUUID().toString())
+                .sagaId(sagaId.toString())
+                .restaurantId(restaurantId.getValue().toString())
+                .orderId(UUID.randomUUID().toString())
+                .products(List.of(Product.builder()
+                        .productId(PRODUCT_ID)
+                        .quantity(1)
+                        .build()))
+                .price(new BigDecimal("50.00"))
+                .build();
+    }
+
+    private Restaurant getRestaurant() {
+        return Restaurant.builder()
+                .restaurantId(RESTAURANT_ID)
+                .active(true)
+                .orderDetail(OrderDetail.builder()
+                        .products(List.of(Product.builder()
+                                .productId(PRODUCT_ID)
+                                .name("product-1")
+                                .price(new Money(new BigDecimal("50.00")))
+                                .available(true)
+                                .build()))
+                        .build())
+                .build();
+    }
+}
@@ -1,11 +1,11 @@
 package com.food.ordering.system.restaurant.service.domain.entity;
 
 import com.food.ordering.system.domain.entity.AggregateRoot;
+import com.food.ordering.system.domain.id.IdGenerators;
 import com.food.ordering.system.domain.valueobject.*;
 import com.food.ordering.system.restaurant.service.domain.valueobject.OrderApprovalId;
 
 import java.util.List;
-import java.util.UUID;
 
 public class Restaurant extends AggregateRoot<RestaurantId> {
     private OrderApproval orderApproval;
@@ -39,7 +39,7 @@ public class Restaurant extends AggregateRoot<RestaurantId> {
 
     public void constructOrderApproval(OrderApprovalStatus orderApprovalStatus) {
         this.orderApproval = OrderApproval.builder()
-                .orderApprovalId(new OrderApprovalId(UUID.randomUUID()))
+                .orderApprovalId(new OrderApprovalId(IdGenerators.newId()))
                 .restaurantId(this.getId())
                 .orderId(this.getOrderDetail().getId())
                 .approvalStatus(orderApprovalStatus)
@@ -1,11 +1,14 @@
 package com.food.ordering.system.restaurant.service.messaging.listener.kafka;
 
+import com.food.ordering.system.kafka.consumer.KafkaBatchProcessor;
 import com.food.ordering.system.kafka.consumer.KafkaConsumer;
+import com.food.ordering.system.kafka.consumer.KafkaListenerMetrics;
 import com.food.ordering.system.kafka.order.avro.model.RestaurantApprovalRequestAvroModel;
 import com.food.ordering.system.restaurant.service.domain.exception.RestaurantNotFoundException;
 import com.food.ordering.system.restaurant.service.exception.RestaurantApplicationServiceException;
 import com.food.ordering.system.restaurant.service.messaging.mapper.RestaurantMessagingDataMapper;
 import com.food.ordering.system.restaurant.service.ports.input.message.listener.RestaurantApprovalRequestMessageListener;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.postgresql.util.PSQLState;
 import org.springframework.dao.DataAccessException;
@@ -16,7 +19,10 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
@@ -24,13 +30,19 @@ public class RestaurantApprovalRequestKafkaListener implements KafkaConsumer<Res
 
     private final RestaurantApprovalRequestMessageListener restaurantApprovalRequestMessageListener;
     private final RestaurantMessagingDataMapper restaurantMessagingDataMapper;
+    private final KafkaBatchProcessor kafkaBatchProcessor;
+    private final KafkaListenerMetrics kafkaListenerMetrics;
 
     public RestaurantApprovalRequestKafkaListener(RestaurantApprovalRequestMessageListener
                                                           restaurantApprovalRequestMessageListener,
                                                   RestaurantMessagingDataMapper
-                                                          restaurantMessagingDataMapper) {
+                                                          restaurantMessagingDataMapper,
+                                                  KafkaBatchProcessor kafkaBatchProcessor,
+                                                  KafkaListenerMetrics kafkaListenerMetrics) {
         this.restaurantApprovalRequestMessageListener = restaurantApprovalRequestMessageListener;
         this.restaurantMessagingDataMapper = restaurantMessagingDataMapper;
+        this.kafkaBatchProcessor = kafkaBatchProcessor;
+        this.kafkaListenerMetrics = kafkaListenerMetrics;
     }
 
     @Override
@@ -39,7 +51,8 @@ public class RestaurantApprovalRequestKafkaListener implements KafkaConsumer<Res
     public void receive(@Payload List<RestaurantApprovalRequestAvroModel> messages,
                         @Header(KafkaHeaders.RECEIVED_KEY) List<String> keys,
                         @Header(KafkaHeaders.PARTITION) List<Integer> partitions,
-                        @Header(KafkaHeaders.OFFSET) List<Long> offsets) {
+                        @Header(KafkaHeaders.OFFSET) List<Long> offsets,
+                        @Header(name = KafkaHeaders.BATCH_CONVERTED_HEADERS, required = false) List<Map<String, Object>> headers) {
         log.info("{} number of orders approval requests received with keys {}, partitions {} and offsets {}" +
                         ", sending for restaurant approval",
                 messages.size(),
@@ -47,34 +60,68 @@ public class RestaurantApprovalRequestKafkaListener implements KafkaConsumer<Res
                 partitions.toString(),
                 offsets.toString());
 
-        messages.forEach(restaurantApprovalRequestAvroModel -> {
-            // we don't want to retry processing messages that caused UNIQUE_VIOLATION or RestaurantNotFoundException, so catch them here
-
-            try {
-                log.info("Processing order approval for order id: {}", restaurantApprovalRequestAvroModel.getOrderId());
-
-                restaurantApprovalRequestMessageListener.approveOrder(restaurantMessagingDataMapper.
-                        restaurantApprovalRequestAvroModelToRestaurantApproval(restaurantApprovalRequestAvroModel));
-            } catch (DataAccessException e) {
-                SQLException sqlException = (SQLException) e.getRootCause();
-
-                if (sqlException != null && sqlException.getSQLState() != null &&
-                        PSQLState.UNIQUE_VIOLATION.getState().equals(sqlException.getSQLState())) {
-                    // NO-OP for unique constraint exception
-                    log.error("Caught unique constraint exception with sql state: {} " +
-                                    "in RestaurantApprovalRequestKafkaListener for order id: {}",
-                            sqlException.getSQLState(), restaurantApprovalRequestAvroModel.getOrderId());
-                } else {
-                    throw new RestaurantApplicationServiceException("Throwing DataAccessException in" +
-                            " RestaurantApprovalRequestKafkaListener: " + e.getMessage(), e);
-                }
-            } catch (RestaurantNotFoundException e) {
-                // NO-OP for RestaurantNotFoundException
-                log.error("No restaurant found for restaurant id: {} and order id: {}",
-                        restaurantApprovalRequestAvroModel.getRestaurantId(),
-                        restaurantApprovalRequestAvroModel.getOrderId());
+        Map<RestaurantApprovalRequestAvroModel, String> sagaTimelines = getSagaTimelines(messages, headers);
+
+        kafkaBatchProcessor.process("restaurant approval requests", messages,
+                restaurantApprovalRequestAvroModels -> approveOrders(restaurantApprovalRequestAvroModels, sagaTimelines),
+                restaurantApprovalRequestAvroModel -> approveOrder(restaurantApprovalRequestAvroModel, sagaTimelines));
+    }
+
+    private void approveOrders(List<RestaurantApprovalRequestAvroModel> restaurantApprovalRequestAvroModels,
+                               Map<RestaurantApprovalRequestAvroModel, String> sagaTimelines) {
+        restaurantApprovalRequestMessageListener.approveOrders(restaurantApprovalRequestAvroModels.stream()
+                .map(restaurantApprovalRequestAvroModel -> restaurantMessagingDataMapper
+                        .restaurantApprovalRequestAvroModelToRestaurantApproval(restaurantApprovalRequestAvroModel,
+                                sagaTimelines.get(restaurantApprovalRequestAvroModel)))
+                .toList());
+    }
+
+    private void approveOrder(RestaurantApprovalRequestAvroModel restaurantApprovalRequestAvroModel,
+                              Map<RestaurantApprovalRequestAvroModel, String> sagaTimelines) {
+        // we don't want to retry processing messages that caused UNIQUE_VIOLATION or RestaurantNotFoundException, so catch them here
+
+        try {
+            log.info("Processing order approval for order id: {}", restaurantApprovalRequestAvroModel.getOrderId());
+
+            restaurantApprovalRequestMessageListener.approveOrder(restaurantMessagingDataMapper.
+                    restaurantApprovalRequestAvroModelToRestaurantApproval(restaurantApprovalRequestAvroModel,
+                            sagaTimelines.get(restaurantApprovalRequestAvroModel)));
+        } catch (DataAccessException e) {
+            SQLException sqlException = (SQLException) e.getRootCause();
+
+            if (sqlException != null && sqlException.getSQLState() != null &&
+                    PSQLState.UNIQUE_VIOLATION.getState().equals(sqlException.getSQLState())) {
+                // NO-OP for unique constraint exception
+                log.error("Caught unique constraint exception with sql state: {} " +
+                                "in RestaurantApprovalRequestKafkaListener for order id: {}",
+                        sqlException.getSQLState(), restaurantApprovalRequestAvroModel.getOrderId());
+                kafkaListenerMetrics.recordSkippedMessage("restaurant approval request", KafkaListenerMetrics.DUPLICATE);
+            } else {
+                throw new RestaurantApplicationServiceException("Throwing DataAccessException in" +
+                        " RestaurantApprovalRequestKafkaListener: " + e.getMessage(), e);
             }
-        });
+        } catch (RestaurantNotFoundException e) {
+            // NO-OP for RestaurantNotFoundException
+            log.error("No restaurant found for restaurant id: {} and order id: {}",
+                    restaurantApprovalRequestAvroModel.getRestaurantId(),
+                    restaurantApprovalRequestAvroModel.getOrderId());
+            kafkaListenerMetrics.recordSkippedMessage("restaurant approval request", KafkaListenerMetrics.NOT_FOUND);
+        }
+    }
+
+    /* The timeline of the request is carried to the response through the order outbox message in its encoded form, the restaurant svc
+    doesn't need to read it. */
+    private Map<RestaurantApprovalRequestAvroModel, String> getSagaTimelines(List<RestaurantApprovalRequestAvroModel> messages,
+                                                                             List<Map<String, Object>> headers) {
+        Instant consumedAt = Instant.now();
+        Map<RestaurantApprovalRequestAvroModel, String> sagaTimelines = new IdentityHashMap<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            sagaTimelines.put(messages.get(i), SagaTimeline.decode(getHeaderValue(headers, i, SagaTimeline.HEADER_NAME))
+                    .append(SagaTimeline.APPROVAL_HOP, SagaTimeline.REQUEST_CONSUME, consumedAt)
+                    .encode());
+        }
+
+        return sagaTimelines;
     }
 
-}
\ No newline at end of file
+}
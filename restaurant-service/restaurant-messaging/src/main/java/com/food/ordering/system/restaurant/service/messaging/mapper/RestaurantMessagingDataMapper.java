@@ -20,7 +20,8 @@ public class RestaurantMessagingDataMapper {
 
     public RestaurantApprovalRequest
     restaurantApprovalRequestAvroModelToRestaurantApproval(RestaurantApprovalRequestAvroModel
-                                                                   restaurantApprovalRequestAvroModel) {
+                                                                   restaurantApprovalRequestAvroModel,
+                                                           String sagaTimeline) {
         return RestaurantApprovalRequest.builder()
                 .id(restaurantApprovalRequestAvroModel.getId().toString())
                 .sagaId(restaurantApprovalRequestAvroModel.getSagaId().toString())
@@ -37,6 +38,7 @@ public class RestaurantMessagingDataMapper {
                         .collect(Collectors.toList()))
                 .price(restaurantApprovalRequestAvroModel.getPrice())
                 .createdAt(restaurantApprovalRequestAvroModel.getCreatedAt())
+                .sagaTimeline(sagaTimeline)
                 .build();
     }
 
@@ -9,9 +9,13 @@ import com.food.ordering.system.restaurant.service.messaging.mapper.RestaurantMe
 import com.food.ordering.system.restaurant.service.outbox.model.OrderEventPayload;
 import com.food.ordering.system.restaurant.service.outbox.model.OrderOutboxMessage;
 import com.food.ordering.system.restaurant.service.ports.output.message.publisher.RestaurantApprovalResponseMessagePublisher;
+import com.food.ordering.system.saga.timeline.SagaTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 @Slf4j
@@ -55,6 +59,7 @@ public class RestaurantApprovalEventKafkaPublisher implements RestaurantApproval
             kafkaProducer.send(restaurantServiceConfigData.getRestaurantApprovalResponseTopicName(),
                     sagaId,
                     restaurantApprovalResponseAvroModel,
+                    getSagaTimelineHeaders(orderOutboxMessage),
                     kafkaMessageHelper.getKafkaCallback(restaurantServiceConfigData
                                     .getRestaurantApprovalResponseTopicName(),
                             restaurantApprovalResponseAvroModel,
@@ -72,4 +77,53 @@ public class RestaurantApprovalEventKafkaPublisher implements RestaurantApproval
         }
     }
 
-}
\ No newline at end of file
+    /* In the transactional mode the whole batch is sent in one kafka tx, so the consumers(with read_committed isolation) see either
+    all the messages of the batch or none of them. Otherwise every message is published on its own. */
+    @Override
+    public void publishBatch(List<OrderOutboxMessage> orderOutboxMessages,
+                             BiConsumer<OrderOutboxMessage, OutboxStatus> outboxCallback) {
+        if (!kafkaProducer.isTransactional()) {
+            RestaurantApprovalResponseMessagePublisher.super.publishBatch(orderOutboxMessages, outboxCallback);
+
+            return;
+        }
+
+        try {
+            List<String> sagaIds = orderOutboxMessages.stream()
+                    .map(orderOutboxMessage -> orderOutboxMessage.getSagaId().toString())
+                    .toList();
+            List<RestaurantApprovalResponseAvroModel> restaurantApprovalResponseAvroModels = orderOutboxMessages.stream()
+                    .map(orderOutboxMessage -> restaurantMessagingDataMapper.orderEventPayloadToRestaurantApprovalResponseAvroModel(
+                            orderOutboxMessage.getSagaId().toString(),
+                            kafkaMessageHelper.getOrderEventPayload(orderOutboxMessage.getPayload(), OrderEventPayload.class)))
+                    .toList();
+            List<Map<String, String>> headers = orderOutboxMessages.stream()
+                    .map(this::getSagaTimelineHeaders)
+                    .toList();
+
+            kafkaProducer.sendInTransaction(restaurantServiceConfigData.getRestaurantApprovalResponseTopicName(),
+                    sagaIds,
+                    restaurantApprovalResponseAvroModels,
+                    headers,
+                    kafkaMessageHelper.getKafkaTransactionCallback(
+                            restaurantServiceConfigData.getRestaurantApprovalResponseTopicName(),
+                            orderOutboxMessages,
+                            outboxCallback,
+                            "RestaurantApprovalResponseAvroModel"));
+
+            log.info("{} RestaurantApprovalResponseAvroModel sent to kafka in one transaction", restaurantApprovalResponseAvroModels.size());
+        } catch (Exception e) {
+            log.error("Error while sending {} RestaurantApprovalResponseAvroModel to kafka in a transaction, error: {}",
+                    orderOutboxMessages.size(), e.getMessage());
+        }
+    }
+
+    /* The response carries the saga timeline of the request back to the order svc, with the time that the response is inserted into
+    the outbox and the time that it's sent. */
+    private Map<String, String> getSagaTimelineHeaders(OrderOutboxMessage orderOutboxMessage) {
+        return Map.of(SagaTimeline.HEADER_NAME, SagaTimeline.decode(orderOutboxMessage.getSagaTimeline())
+                .append(SagaTimeline.APPROVAL_HOP, SagaTimeline.RESPONSE_ENQUEUE, orderOutboxMessage.getCreatedAt().toInstant())
+                .append(SagaTimeline.APPROVAL_HOP, SagaTimeline.RESPONSE_SEND, Instant.now())
+                .encode());
+    }
+}